@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.client.modeldriven;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.guvnor.shared.api.PortableObject;
+
+/**
+ * Everything a SuggestionCompletionEngine knows about one fact type. Used to
+ * load fact types on demand into an engine that was created with only the
+ * names of its fact types, see
+ * {@link SuggestionCompletionEngine#createFactTypeNamesOnlyEngine()}.
+ */
+public class FactTypeDetails
+    implements
+    PortableObject {
+
+    private String                                 factType;
+    private ModelField[]                           fields               = new ModelField[0];
+    private List<MethodInfo>                       methodInfos          = new ArrayList<MethodInfo>();
+    private List<ModelAnnotation>                  annotations          = new ArrayList<ModelAnnotation>();
+
+    /**
+     * These are keyed as in the engine, i.e. "FactType.field".
+     */
+    private Map<String, FieldAccessorsAndMutators> accessorsAndMutators = new HashMap<String, FieldAccessorsAndMutators>();
+    private Map<String, String>                    fieldParametersType  = new HashMap<String, String>();
+    private Map<String, String[]>                  dataEnumLists        = new HashMap<String, String[]>();
+
+    public FactTypeDetails() {
+    }
+
+    public FactTypeDetails(String factType) {
+        this.factType = factType;
+    }
+
+    public String getFactType() {
+        return factType;
+    }
+
+    public ModelField[] getFields() {
+        return fields;
+    }
+
+    public void setFields(ModelField[] fields) {
+        this.fields = fields;
+    }
+
+    public List<MethodInfo> getMethodInfos() {
+        return methodInfos;
+    }
+
+    public void setMethodInfos(List<MethodInfo> methodInfos) {
+        this.methodInfos = methodInfos;
+    }
+
+    public List<ModelAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    public void setAnnotations(List<ModelAnnotation> annotations) {
+        this.annotations = annotations;
+    }
+
+    public Map<String, FieldAccessorsAndMutators> getAccessorsAndMutators() {
+        return accessorsAndMutators;
+    }
+
+    public Map<String, String> getFieldParametersType() {
+        return fieldParametersType;
+    }
+
+    public Map<String, String[]> getDataEnumLists() {
+        return dataEnumLists;
+    }
+
+}
@@ -19,6 +19,7 @@ package org.drools.ide.common.client.modeldriven;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -213,6 +214,12 @@ public class SuggestionCompletionEngine
     private FactTypeFilter                          factFilter               = null;
     private boolean                                 filteringFacts           = true;
 
+    /**
+     * Fact types whose fields, methods and enumerations have not been loaded
+     * yet, see createFactTypeNamesOnlyEngine().
+     */
+    private Set<String>                             unloadedFactTypes        = new HashSet<String>();
+
     public SuggestionCompletionEngine() {
 
     }
@@ -1018,6 +1025,149 @@ public class SuggestionCompletionEngine
         }
     }
 
+    /**
+     * Takes over the fact type model (fields, methods, globals and annotations)
+     * of another engine. The model is shared, not copied, so neither engine
+     * should have its model changed afterwards. Enumerations of the other
+     * engine are merged underneath the ones already in this engine, DSL
+     * sentences are left untouched.
+     */
+    public void copyModelFrom(SuggestionCompletionEngine source) {
+        this.fieldParametersType = source.fieldParametersType;
+        this.globalTypes = source.globalTypes;
+        this.annotationsForTypes = source.annotationsForTypes;
+        this.globalCollections = source.globalCollections;
+        this.methodInfos = source.methodInfos;
+        this.modelFields = source.modelFields;
+        this.filterModelFields = source.filterModelFields;
+        this.accessorsAndMutators = source.accessorsAndMutators;
+        this.factFilter = source.factFilter;
+        this.filteringFacts = source.filteringFacts;
+
+        Map<String, String[]> mergedDataEnumLists = new HashMap<String, String[]>( source.dataEnumLists );
+        mergedDataEnumLists.putAll( this.dataEnumLists );
+        this.dataEnumLists = mergedDataEnumLists;
+        this.dataEnumLookupFields = null;
+    }
+
+    /**
+     * Creates an engine holding only the names of the fact types of this one,
+     * along with the globals, DSL sentences and any enumerations that are not
+     * for a fact type. The details of each fact type can then be added as
+     * needed with addFactTypeDetails, which keeps the initial engine small.
+     */
+    public SuggestionCompletionEngine createFactTypeNamesOnlyEngine() {
+        SuggestionCompletionEngine engine = new SuggestionCompletionEngine();
+        for ( String factType : this.modelFields.keySet() ) {
+            engine.modelFields.put( factType,
+                                    new ModelField[0] );
+            engine.unloadedFactTypes.add( factType );
+        }
+        engine.globalTypes = this.globalTypes;
+        engine.globalCollections = this.globalCollections;
+        engine.conditionDSLSentences = this.conditionDSLSentences;
+        engine.actionDSLSentences = this.actionDSLSentences;
+        engine.keywordDSLItems = this.keywordDSLItems;
+        engine.anyScopeDSLItems = this.anyScopeDSLItems;
+        engine.filteringFacts = this.filteringFacts;
+        for ( Map.Entry<String, String[]> e : this.dataEnumLists.entrySet() ) {
+            if ( !this.modelFields.containsKey( getFactTypePrefix( e.getKey() ) ) ) {
+                engine.dataEnumLists.put( e.getKey(),
+                                          e.getValue() );
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * @return the details of a fact type, to be added to an engine created by
+     *         createFactTypeNamesOnlyEngine.
+     */
+    public FactTypeDetails getFactTypeDetails(String factType) {
+        FactTypeDetails details = new FactTypeDetails( factType );
+        ModelField[] fields = this.modelFields.get( factType );
+        if ( fields != null ) {
+            details.setFields( fields );
+        }
+        if ( this.methodInfos.containsKey( factType ) ) {
+            details.setMethodInfos( this.methodInfos.get( factType ) );
+        }
+        if ( this.annotationsForTypes.containsKey( factType ) ) {
+            details.setAnnotations( this.annotationsForTypes.get( factType ) );
+        }
+        String prefix = factType + ".";
+        for ( Map.Entry<String, FieldAccessorsAndMutators> e : this.accessorsAndMutators.entrySet() ) {
+            if ( e.getKey().startsWith( prefix ) ) {
+                details.getAccessorsAndMutators().put( e.getKey(),
+                                                       e.getValue() );
+            }
+        }
+        for ( Map.Entry<String, String> e : this.fieldParametersType.entrySet() ) {
+            if ( e.getKey().startsWith( prefix ) ) {
+                details.getFieldParametersType().put( e.getKey(),
+                                                      e.getValue() );
+            }
+        }
+        for ( Map.Entry<String, String[]> e : this.dataEnumLists.entrySet() ) {
+            if ( e.getKey().startsWith( prefix ) ) {
+                details.getDataEnumLists().put( e.getKey(),
+                                                e.getValue() );
+            }
+        }
+        return details;
+    }
+
+    public void addFactTypeDetails(FactTypeDetails details) {
+        String factType = details.getFactType();
+        this.modelFields.put( factType,
+                              details.getFields() );
+        this.methodInfos.put( factType,
+                              details.getMethodInfos() );
+        this.annotationsForTypes.put( factType,
+                                      details.getAnnotations() );
+        this.accessorsAndMutators.putAll( details.getAccessorsAndMutators() );
+        this.fieldParametersType.putAll( details.getFieldParametersType() );
+        this.dataEnumLists.putAll( details.getDataEnumLists() );
+        this.dataEnumLookupFields = null;
+        this.unloadedFactTypes.remove( factType );
+        filterModelFields();
+    }
+
+    /**
+     * @return false if the engine only knows the name of the fact type so far.
+     */
+    public boolean isFactTypeLoaded(String factType) {
+        return !this.unloadedFactTypes.contains( factType );
+    }
+
+    /**
+     * @return true unless the engine was created by
+     *         createFactTypeNamesOnlyEngine and some fact types are still
+     *         missing their details.
+     */
+    public boolean isFullyLoaded() {
+        return this.unloadedFactTypes.isEmpty();
+    }
+
+    /**
+     * @return the fact types whose details are loaded.
+     */
+    public List<String> getLoadedFactTypes() {
+        List<String> loaded = new ArrayList<String>();
+        for ( String factType : this.modelFields.keySet() ) {
+            if ( !this.unloadedFactTypes.contains( factType ) ) {
+                loaded.add( factType );
+            }
+        }
+        return loaded;
+    }
+
+    private String getFactTypePrefix(String key) {
+        int dot = key.indexOf( '.' );
+        return dot < 0 ? key : key.substring( 0,
+                                              dot );
+    }
+
     public Map<String, ModelField[]> getModelFields() {
         if ( factFilter != null && isFilteringFacts() ) {
             return filterModelFields;
@@ -100,6 +100,14 @@ public class GuidedDecisionTable52
     // TODO verify that it's not stored in the repository, else add @XStreamOmitField
     private transient List<Analysis>  analysisData;
 
+    /**
+     * Large tables are sent to the editor a page of rows at a time. These hold
+     * the number of rows in the persisted table and the number of those rows
+     * sent to the editor. Neither is persisted.
+     */
+    private int                       totalRowCount;
+    private int                       loadedRowCount;
+
     public GuidedDecisionTable52() {
         analysisCol = new AnalysisCol52();
         analysisCol.setHideColumn( true );
@@ -234,6 +242,32 @@ public class GuidedDecisionTable52
         return data;
     }
 
+    public int getTotalRowCount() {
+        return totalRowCount;
+    }
+
+    public void setTotalRowCount(int totalRowCount) {
+        this.totalRowCount = totalRowCount;
+    }
+
+    public int getLoadedRowCount() {
+        return loadedRowCount;
+    }
+
+    public void setLoadedRowCount(int loadedRowCount) {
+        this.loadedRowCount = loadedRowCount;
+    }
+
+    /**
+     * Whether only some of the persisted rows have been loaded. The remaining
+     * rows follow those loaded, in the persisted table.
+     * 
+     * @return true if rows remain to be loaded
+     */
+    public boolean isPartiallyLoaded() {
+        return loadedRowCount < totalRowCount;
+    }
+
     public List<Analysis> getAnalysisData() {
         return analysisData;
     }
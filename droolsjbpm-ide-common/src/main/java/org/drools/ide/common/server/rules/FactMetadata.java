@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.server.rules;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.drools.ide.common.client.modeldriven.FieldAccessorsAndMutators;
+
+/**
+ * The result of introspecting a single fact class: its fields and their
+ * accessors and mutators. Names are not qualified with the fact type, so one
+ * instance can be shared by every package that imports the class. See
+ * {@link FactMetadataCache}.
+ * <p/>
+ * Classes are only held weakly, and generic types are looked up again from
+ * the field or accessor each time, so that the metadata never keeps a class
+ * loader alive and no caller sees a type resolved for another.
+ */
+public class FactMetadata {
+
+    private final List<FieldMetadata>                    fields;
+    private final Map<String, FieldAccessorsAndMutators> accessorsAndMutators;
+
+    public FactMetadata(List<FieldMetadata> fields,
+                        Map<String, FieldAccessorsAndMutators> accessorsAndMutators) {
+        this.fields = Collections.unmodifiableList( fields );
+        this.accessorsAndMutators = Collections.unmodifiableMap( accessorsAndMutators );
+    }
+
+    /**
+     * The fields of the class in sort order, without those coming from java.lang.Object.
+     */
+    public List<FieldMetadata> getFields() {
+        return fields;
+    }
+
+    /**
+     * Keyed by (unqualified) field name.
+     */
+    public Map<String, FieldAccessorsAndMutators> getAccessorsAndMutators() {
+        return accessorsAndMutators;
+    }
+
+    public static class FieldMetadata {
+
+        private final String                    name;
+        private final WeakReference<Class< ? >> type;
+        private final WeakReference<Class< ? >> declaringClass;
+        private final String                    fieldName;
+        private final String                    accessorName;
+
+        private FieldMetadata(String name,
+                              Class< ? > type,
+                              Class< ? > declaringClass,
+                              String fieldName,
+                              String accessorName) {
+            this.name = name;
+            this.type = type == null ? null : new WeakReference<Class< ? >>( type );
+            this.declaringClass = declaringClass == null ? null : new WeakReference<Class< ? >>( declaringClass );
+            this.fieldName = fieldName;
+            this.accessorName = accessorName;
+        }
+
+        /**
+         * A field found by ClassFieldInspector.
+         * 
+         * @param type
+         *            the type to show for the field
+         */
+        public static FieldMetadata forField(String name,
+                                             Class< ? > type,
+                                             Field field) {
+            return new FieldMetadata( name,
+                                      type,
+                                      field.getDeclaringClass(),
+                                      field.getName(),
+                                      null );
+        }
+
+        /**
+         * A delegated property, known only by its accessor or mutator.
+         * 
+         * @param type
+         *            the return type of the accessor, or void if there is only
+         *            a mutator
+         * @param accessor
+         *            the accessor, or null if there is only a mutator
+         */
+        public static FieldMetadata forProperty(String name,
+                                                Class< ? > type,
+                                                Method accessor) {
+            return new FieldMetadata( name,
+                                      type,
+                                      accessor == null ? null : accessor.getDeclaringClass(),
+                                      null,
+                                      accessor == null ? null : accessor.getName() );
+        }
+
+        /**
+         * A field whose type could not be determined.
+         */
+        public static FieldMetadata forUnknown(String name) {
+            return new FieldMetadata( name,
+                                      null,
+                                      null,
+                                      null,
+                                      null );
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The type to show for the field, or null if it could not be determined.
+         */
+        public Class< ? > getType() {
+            return type == null ? null : type.get();
+        }
+
+        /**
+         * The generic type of the field or accessor.
+         */
+        public Type getGenericType() {
+            if ( fieldName != null ) {
+                Field field = getField();
+                return field == null ? null : field.getGenericType();
+            }
+            if ( accessorName != null ) {
+                Method accessor = getAccessor();
+                return accessor == null ? null : accessor.getGenericReturnType();
+            }
+            return null;
+        }
+
+        /**
+         * The type of the field or accessor.
+         */
+        public Class< ? > getDeclaredType() {
+            if ( fieldName != null ) {
+                Field field = getField();
+                return field == null ? null : field.getType();
+            }
+            return getType();
+        }
+
+        private Field getField() {
+            Class< ? > clazz = declaringClass.get();
+            if ( clazz == null ) {
+                return null;
+            }
+            try {
+                return clazz.getDeclaredField( fieldName );
+            } catch ( NoSuchFieldException e ) {
+                return null;
+            }
+        }
+
+        private Method getAccessor() {
+            Class< ? > clazz = declaringClass.get();
+            if ( clazz == null ) {
+                return null;
+            }
+            try {
+                return clazz.getMethod( accessorName );
+            } catch ( NoSuchMethodException e ) {
+                return null;
+            }
+        }
+    }
+
+}
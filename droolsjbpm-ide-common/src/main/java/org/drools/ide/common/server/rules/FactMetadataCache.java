@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.server.rules;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A JVM wide cache of {@link FactMetadata}, so that packages importing the
+ * same model classes do not introspect them again.
+ * <p/>
+ * Entries are kept per class loader, keyed weakly on the loader that defined
+ * the class, so the same class name loaded by two different class loaders
+ * (e.g. two versions of a model jar) has two entries. The metadata holds no
+ * class strongly, so the entries of a class loader go as soon as it is no
+ * longer used.
+ */
+public final class FactMetadataCache {
+
+    private static final Map<ClassLoader, Map<String, FactMetadata>> CACHE = new WeakHashMap<ClassLoader, Map<String, FactMetadata>>();
+
+    private FactMetadataCache() {
+    }
+
+    /**
+     * @return the cached metadata, or null if the class has not been
+     *         introspected yet.
+     */
+    public static FactMetadata get(Class< ? > clazz) {
+        synchronized ( CACHE ) {
+            Map<String, FactMetadata> classes = CACHE.get( clazz.getClassLoader() );
+            return classes == null ? null : classes.get( clazz.getName() );
+        }
+    }
+
+    public static void put(Class< ? > clazz,
+                           FactMetadata metadata) {
+        synchronized ( CACHE ) {
+            Map<String, FactMetadata> classes = CACHE.get( clazz.getClassLoader() );
+            if ( classes == null ) {
+                classes = new HashMap<String, FactMetadata>();
+                CACHE.put( clazz.getClassLoader(),
+                           classes );
+            }
+            classes.put( clazz.getName(),
+                         metadata );
+        }
+    }
+
+    public static void clear() {
+        synchronized ( CACHE ) {
+            CACHE.clear();
+        }
+    }
+
+}
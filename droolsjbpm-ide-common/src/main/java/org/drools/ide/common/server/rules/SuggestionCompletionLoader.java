@@ -194,6 +194,35 @@ public class SuggestionCompletionLoader
         return builder.getInstance();
     }
 
+    /**
+     * Generate a new engine for the fact type model of an engine previously
+     * built without DSLs or enumerations, adding the given DSLs and
+     * enumerations. This skips parsing the header and loading the model
+     * classes, for when only DSLs or enumerations have changed.
+     * 
+     * @param modelEngine
+     *            an engine built with no DSLs and no data enums. It is shared
+     *            with the new engine, not copied.
+     * @param dsls
+     *            any dsl files. This is a list of {@link DSLMappingFile}.
+     * @param dataEnums
+     *            this is a list of String's which hold data enum definitions.
+     * @return A SuggestionCompletionEngine ready to be used in anger.
+     */
+    public SuggestionCompletionEngine getSuggestionEngine(final SuggestionCompletionEngine modelEngine,
+                                                          final List<DSLTokenizedMappingFile> dsls,
+                                                          final List<String> dataEnums) {
+        builder.newCompletionEngine();
+
+        populateDSLSentences( dsls );
+
+        populateDateEnums( dataEnums );
+
+        SuggestionCompletionEngine engine = builder.getInstance();
+        engine.copyModelFrom( modelEngine );
+        return engine;
+    }
+
     private void populateDateEnums(List<String> dataEnums) {
         for ( String enumFile : dataEnums ) {
             DataEnumLoader enumLoader = new DataEnumLoader( enumFile );
@@ -517,15 +546,18 @@ public class SuggestionCompletionLoader
                 if ( addMethod ) {
                     String factField = className + "." + name;
                     if ( !methodSignatures.containsKey( factField ) ) {
+                        MethodSignature signature = new MethodSignature( FieldAccessorsAndMutators.ACCESSOR,
+                                                                         method.getGenericReturnType(),
+                                                                         method.getReturnType() );
+                        signature.accessor = method;
                         methodSignatures.put( factField,
-                                              new MethodSignature( FieldAccessorsAndMutators.ACCESSOR,
-                                                                   method.getGenericReturnType(),
-                                                                   method.getReturnType() ) );
+                                              signature );
                     } else if ( methodSignatures.get( factField ).accessorAndMutator == FieldAccessorsAndMutators.MUTATOR ) {
                         MethodSignature signature = methodSignatures.get( factField );
                         signature.accessorAndMutator = FieldAccessorsAndMutators.BOTH;
                         signature.genericType = method.getGenericReturnType();
                         signature.returnType = method.getReturnType();
+                        signature.accessor = method;
                     }
                 }
             }
@@ -555,6 +587,7 @@ public class SuggestionCompletionLoader
         FieldAccessorsAndMutators accessorAndMutator;
         Type                      genericType;
         Class< ? >                returnType;
+        Method                    accessor;
 
     }
 
@@ -679,67 +712,43 @@ public class SuggestionCompletionLoader
             return;
         }
 
-        //Get all getters and setters for the class. This does not handle delegated properties
-        final ClassFieldInspector inspector = new ClassFieldInspector( clazz );
-        Set<String> fieldsSet = new TreeSet<String>( inspector.getFieldNames().keySet() );
-        List<String> fields = removeIrrelevantFields( fieldsSet );
-
-        //Consolidate methods into those with getters or setters
-        Method[] methods = clazz.getMethods();
-        Map<String, MethodSignature> methodSignatures = removeIrrelevantMethods( getMethodSignatures( shortTypeName,
-                                                                                                      methods ) );
-
-        //Add Fields from ClassFieldInspector which provides a list of "reasonable" methods
-        for ( String field : fields ) {
-            Field f = inspector.getFieldTypesField().get( field );
-            if ( f == null ) {
+        final FactMetadata metadata = getFactMetadata( clazz );
 
-                //If a Field cannot be found is is really a delegated property so use the Method return type
-                final String qualifiedName = shortTypeName + "." + field;
-                if ( methodSignatures.containsKey( qualifiedName ) ) {
-                    final MethodSignature m = methodSignatures.get( qualifiedName );
-                    final Class< ? > returnType = m.returnType;
-                    final String genericType = translateClassToGenericType( returnType );
-                    this.builder.addFieldType( qualifiedName,
-                                               genericType,
-                                               returnType );
-                    final FieldInfo fi = new FieldInfo( m.genericType,
-                                                        m.returnType );
-                    this.builder.addFieldTypeField( qualifiedName,
-                                                    fi );
-                }
-            } else {
-
-                //Otherwise we can use the results of ClassFieldInspector
-                final Class< ? > returnType = inspector.getFieldTypes().get( field );
-                final String genericType = translateClassToGenericType( returnType );
-                this.builder.addFieldType( shortTypeName + "." + field,
-                                           genericType,
-                                           returnType );
-                final FieldInfo fi = new FieldInfo( f.getGenericType(),
-                                                    f.getType() );
-                this.builder.addFieldTypeField( shortTypeName + "." + field,
-                                                fi );
+        List<String> fields = new ArrayList<String>();
+        for ( FactMetadata.FieldMetadata field : metadata.getFields() ) {
+            final String qualifiedName = shortTypeName + "." + field.getName();
+            fields.add( field.getName() );
+            if ( field.getType() != null ) {
+                this.builder.addFieldType( qualifiedName,
+                                           translateClassToGenericType( field.getType() ),
+                                           field.getType() );
+                this.builder.addFieldTypeField( qualifiedName,
+                                                new FieldInfo( field.getGenericType(),
+                                                               field.getDeclaredType() ) );
             }
         }
 
+        Map<String, FieldAccessorsAndMutators> accessorsAndMutators = new HashMap<String, FieldAccessorsAndMutators>();
+        for ( Map.Entry<String, FieldAccessorsAndMutators> e : metadata.getAccessorsAndMutators().entrySet() ) {
+            accessorsAndMutators.put( shortTypeName + "." + e.getKey(),
+                                      e.getValue() );
+        }
+
         //'this' is a special case
         fields.add( 0,
                     SuggestionCompletionEngine.TYPE_THIS );
-        methodSignatures.put( shortTypeName + "." + SuggestionCompletionEngine.TYPE_THIS,
-                              new MethodSignature( FieldAccessorsAndMutators.ACCESSOR,
-                                                   clazz.getGenericSuperclass(),
-                                                   clazz ) );
+        accessorsAndMutators.put( shortTypeName + "." + SuggestionCompletionEngine.TYPE_THIS,
+                                  FieldAccessorsAndMutators.ACCESSOR );
         this.builder.addFieldType( shortTypeName + "." + SuggestionCompletionEngine.TYPE_THIS,
                                    shortTypeName,
                                    clazz );
 
-        this.builder.addFieldAccessorsAndMutatorsForField( extractFieldAccessorsAndMutators( methodSignatures ) );
+        this.builder.addFieldAccessorsAndMutatorsForField( accessorsAndMutators );
 
         this.builder.addFieldsForType( shortTypeName,
                                        fields.toArray( new String[fields.size()] ) );
 
-        //Methods for use in ActionCallMethod's
+        //Methods for use in ActionCallMethod's, their types are resolved by this loader so they are not shared
         ClassMethodInspector methodInspector = new ClassMethodInspector( clazz,
                                                                          this );
 
@@ -755,6 +764,67 @@ public class SuggestionCompletionLoader
                                                   methodInfos );
     }
 
+    /**
+     * Introspecting a class is costly, so the result is shared between all
+     * loaders through the {@link FactMetadataCache}.
+     */
+    private FactMetadata getFactMetadata(final Class< ? > clazz) throws IOException {
+        FactMetadata metadata = FactMetadataCache.get( clazz );
+        if ( metadata == null ) {
+            metadata = createFactMetadata( clazz );
+            FactMetadataCache.put( clazz,
+                                   metadata );
+        }
+        return metadata;
+    }
+
+    private FactMetadata createFactMetadata(final Class< ? > clazz) throws IOException {
+        final String className = getShortNameOfClass( clazz.getName() );
+
+        //Get all getters and setters for the class. This does not handle delegated properties
+        final ClassFieldInspector inspector = new ClassFieldInspector( clazz );
+        Set<String> fieldsSet = new TreeSet<String>( inspector.getFieldNames().keySet() );
+        List<String> fieldNames = removeIrrelevantFields( fieldsSet );
+
+        //Consolidate methods into those with getters or setters
+        Method[] methods = clazz.getMethods();
+        Map<String, MethodSignature> methodSignatures = removeIrrelevantMethods( getMethodSignatures( className,
+                                                                                                      methods ) );
+
+        //Add Fields from ClassFieldInspector which provides a list of "reasonable" methods
+        List<FactMetadata.FieldMetadata> fields = new ArrayList<FactMetadata.FieldMetadata>();
+        for ( String field : fieldNames ) {
+            Field f = inspector.getFieldTypesField().get( field );
+            if ( f == null ) {
+
+                //If a Field cannot be found is is really a delegated property so use the Method return type
+                final MethodSignature m = methodSignatures.get( className + "." + field );
+                if ( m != null ) {
+                    fields.add( FactMetadata.FieldMetadata.forProperty( field,
+                                                                        m.returnType,
+                                                                        m.accessor ) );
+                } else {
+                    fields.add( FactMetadata.FieldMetadata.forUnknown( field ) );
+                }
+            } else {
+
+                //Otherwise we can use the results of ClassFieldInspector
+                fields.add( FactMetadata.FieldMetadata.forField( field,
+                                                                 inspector.getFieldTypes().get( field ),
+                                                                 f ) );
+            }
+        }
+
+        Map<String, FieldAccessorsAndMutators> accessorsAndMutators = new HashMap<String, FieldAccessorsAndMutators>();
+        for ( Map.Entry<String, FieldAccessorsAndMutators> e : extractFieldAccessorsAndMutators( methodSignatures ).entrySet() ) {
+            accessorsAndMutators.put( e.getKey().substring( className.length() + 1 ),
+                                      e.getValue() );
+        }
+
+        return new FactMetadata( fields,
+                                 accessorsAndMutators );
+    }
+
     public String getShortNameOfClass(final String clazz) {
         String shortName = clazz.substring( clazz.lastIndexOf( "." ) + 1 );
         if ( shortName.contains( "$" ) ) {
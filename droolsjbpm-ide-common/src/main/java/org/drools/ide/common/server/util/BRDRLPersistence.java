@@ -64,6 +64,13 @@ import org.drools.ide.common.shared.SharedConstants;
 import org.drools.ide.common.shared.workitems.HasBinding;
 import org.drools.ide.common.shared.workitems.PortableParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
+import org.drools.lang.descr.AndDescr;
+import org.drools.lang.descr.AttributeDescr;
+import org.drools.lang.descr.BaseDescr;
+import org.drools.lang.descr.ExprConstraintDescr;
+import org.drools.lang.descr.NotDescr;
+import org.drools.lang.descr.PatternDescr;
+import org.drools.lang.descr.RuleDescr;
 
 /**
  * This class persists the rule model to DRL and back
@@ -127,6 +134,112 @@ public class BRDRLPersistence
         return buf.toString();
     }
 
+    /**
+     * Build a RuleDescr directly from the model, so that it can be added to a
+     * PackageBuilder without generating and parsing DRL. Only models made up
+     * of plain Fact Patterns, with attributes that need no parsing, are
+     * supported; null is returned for anything else (DSL sentences, free-form
+     * DRL, "from", CEP windows, timers, calendars, dates etc.) in which case
+     * marshal(RuleModel) should be used instead.
+     */
+    public RuleDescr marshalToDescr(RuleModel model) {
+        if ( !isDescrSupported( model ) ) {
+            return null;
+        }
+        bindingsPatterns = new HashMap<String, IFactPattern>();
+        bindingsFields = new HashMap<String, FieldConstraint>();
+
+        RuleDescr rule = new RuleDescr( marshalRuleName( model ) );
+        if ( null != model.parentName && model.parentName.length() > 0 ) {
+            rule.setParentName( model.parentName );
+        }
+        if ( model.metadataList != null ) {
+            for ( int i = 0; i < model.metadataList.length; i++ ) {
+                rule.addAnnotation( model.metadataList[i].attributeName,
+                                    model.metadataList[i].value );
+            }
+        }
+        this.marshalAttributes( rule,
+                                model );
+
+        AndDescr lhs = new AndDescr();
+        if ( model.lhs != null ) {
+            AndDescr patterns = lhs;
+            if ( model.isNegated() ) {
+                NotDescr not = new NotDescr();
+                patterns = new AndDescr();
+                not.addDescr( patterns );
+                lhs.addDescr( not );
+            }
+            LHSPatternVisitor visitor = getLHSPatternVisitor( false,
+                                                              new StringBuilder(),
+                                                              "",
+                                                              false );
+            for ( IPattern cond : model.lhs ) {
+                patterns.addDescr( visitor.generatePatternDescr( (FactPattern) cond ) );
+            }
+        }
+        rule.setLhs( lhs );
+
+        StringBuilder rhs = new StringBuilder();
+        this.marshalRHS( rhs,
+                         model,
+                         false );
+        rule.setConsequence( rhs.toString() );
+        return rule;
+    }
+
+    private boolean isDescrSupported(RuleModel model) {
+        if ( model.hasDSLSentences() ) {
+            return false;
+        }
+        if ( model.lhs != null ) {
+            for ( IPattern cond : model.lhs ) {
+                if ( !(cond instanceof FactPattern) ) {
+                    return false;
+                }
+                FactPattern pattern = (FactPattern) cond;
+                if ( pattern.getFactType() == null || pattern.getWindow().isDefined() ) {
+                    return false;
+                }
+            }
+        }
+        for ( int i = 0; i < model.attributes.length; i++ ) {
+            if ( !isDescrSupported( model.attributes[i] ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Only attributes whose value the DRL parser takes as it is can be set on
+     * a descriptor directly. Timers, calendars, dates, durations and salience
+     * expressions are parsed or unquoted by the DRL parser, so they go
+     * through DRL.
+     */
+    private boolean isDescrSupported(RuleAttribute attr) {
+        String name = attr.attributeName;
+        String value = attr.value;
+        if ( "no-loop".equals( name ) ) {
+            return value == null || "true".equals( value ) || "false".equals( value );
+        }
+        if ( value == null ) {
+            return false;
+        }
+        if ( "enabled".equals( name ) || "auto-focus".equals( name ) || "lock-on-active".equals( name ) ) {
+            return true;
+        }
+        if ( "salience".equals( name ) ) {
+            return value.trim().matches( "-?\\d+" );
+        }
+        if ( "agenda-group".equals( name ) || "activation-group".equals( name ) || "ruleflow-group".equals( name ) || "dialect".equals( name ) ) {
+            //Written in double quotes, which the parser strips
+            return value.indexOf( '"' ) < 0 && value.indexOf( '\\' ) < 0;
+        }
+        return false;
+    }
+
     protected void marshalFooter(StringBuilder buf) {
         buf.append( "end\n" );
     }
@@ -183,6 +296,38 @@ public class BRDRLPersistence
         }
     }
 
+    /**
+     * Marshal model attributes to a RuleDescr. Values are those the DRL parser
+     * would produce for the attributes written by marshalAttributes.
+     */
+    private void marshalAttributes(RuleDescr rule,
+                                   RuleModel model) {
+        boolean hasDialect = false;
+        for ( int i = 0; i < model.attributes.length; i++ ) {
+            RuleAttribute attr = model.attributes[i];
+            String value = attr.value;
+            if ( "no-loop".equals( attr.attributeName ) && value == null ) {
+                value = "true";
+            } else if ( "salience".equals( attr.attributeName ) ) {
+                value = value.trim();
+            } else if ( "enabled".equals( attr.attributeName )
+                        || "auto-focus".equals( attr.attributeName )
+                        || "lock-on-active".equals( attr.attributeName ) ) {
+                value = "true".equals( value ) ? "true" : "false";
+            }
+            rule.addAttribute( new AttributeDescr( attr.attributeName,
+                                                   value ) );
+            if ( attr.attributeName.equals( "dialect" ) ) {
+                constraintValueBuilder = DRLConstraintValueBuilder.getBuilder( attr.value );
+                hasDialect = true;
+            }
+        }
+        if ( !hasDialect ) {
+            rule.addAttribute( new AttributeDescr( "dialect",
+                                                   DEFAULT_DIALECT ) );
+        }
+    }
+
     /**
      * Marshal model metadata
      * 
@@ -568,6 +713,43 @@ public class BRDRLPersistence
             }
         }
 
+        /**
+         * Build the descriptor for a Fact Pattern, with one constraint for
+         * each top-level FieldConstraint.
+         */
+        protected BaseDescr generatePatternDescr(FactPattern pattern) {
+            PatternDescr descr;
+            if ( pattern.isNegated() ) {
+                descr = new PatternDescr( pattern.getFactType() );
+            } else if ( pattern.isBound() ) {
+                bindingsPatterns.put( pattern.getBoundName(),
+                                      pattern );
+                descr = new PatternDescr( pattern.getFactType(),
+                                          pattern.getBoundName() );
+            } else {
+                descr = new PatternDescr( pattern.getFactType() );
+            }
+
+            if ( pattern.constraintList != null ) {
+                for ( int i = 0; i < pattern.getFieldConstraints().length; i++ ) {
+                    StringBuilder buffer = new StringBuilder();
+                    generateConstraint( pattern.constraintList.constraints[i],
+                                        false,
+                                        buffer );
+                    if ( buffer.length() > 0 ) {
+                        descr.addConstraint( new ExprConstraintDescr( buffer.toString().trim() ) );
+                    }
+                }
+            }
+
+            if ( pattern.isNegated() ) {
+                NotDescr not = new NotDescr();
+                not.addDescr( descr );
+                return not;
+            }
+            return descr;
+        }
+
         private void generateConstraints(FactPattern pattern) {
             int printedCount = 0;
             for ( int i = 0; i < pattern.getFieldConstraints().length; i++ ) {
@@ -47,11 +47,17 @@ public class BRDRTXMLPersistence extends BRXMLPersistence {
     public TemplateModel unmarshal(String xml) {
         TemplateModel model = (TemplateModel) super.unmarshal( xml );
         model.putInSync();
+        return model;
+    }
+
+    @Override
+    protected void upgrade(RuleModel rm) {
+        super.upgrade( rm );
 
         //Upgrade model changes to legacy artifacts
+        TemplateModel model = (TemplateModel) rm;
+        model.putInSync();
         upgrader1.upgrade( model );
-
-        return model;
     }
 
     @Override
@@ -59,25 +59,24 @@ import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.collections.CollectionConverter;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
-import com.thoughtworks.xstream.io.xml.DomDriver;
 import com.thoughtworks.xstream.mapper.Mapper;
 
 /**
  * This class persists the rule model to XML and back. This is the 'brl' xml
- * format (Business Rule Language).
+ * format (Business Rule Language). Instances are thread-safe and shared.
  */
 public class BRXMLPersistence
     implements
     BRLPersistence {
 
-    private XStream                              xt;
+    private final XStream                        xt;
     private static final RuleModelUpgradeHelper1 upgrader1 = new RuleModelUpgradeHelper1();
     private static final RuleModelUpgradeHelper2 upgrader2 = new RuleModelUpgradeHelper2();
     private static final RuleModelUpgradeHelper3 upgrader3 = new RuleModelUpgradeHelper3();
     private static final BRLPersistence          INSTANCE  = new BRXMLPersistence();
 
     protected BRXMLPersistence() {
-        this.xt = new XStream( new DomDriver() );
+        this.xt = new XStream( ModelXStreamSupport.createDriver() );
 
         this.xt.alias( "rule",
                        RuleModel.class );
@@ -175,7 +174,7 @@ public class BRXMLPersistence
      * .client.modeldriven.brl.RuleModel)
      */
     public String marshal(final RuleModel model) {
-        return this.xt.toXML( model );
+        return ModelXStreamSupport.stampFormatVersion( this.xt.toXML( model ) );
     }
 
     /*
@@ -191,10 +190,20 @@ public class BRXMLPersistence
         RuleModel rm = (RuleModel) this.xt.fromXML( xml );
 
         //Upgrade model changes to legacy artifacts
+        if ( ModelXStreamSupport.isUpgradeRequired( xml ) ) {
+            upgrade( rm );
+        }
+        return rm;
+    }
+
+    /**
+     * Upgrade a model persisted by an older release. This is only called when
+     * the stored format version is older than the current one.
+     */
+    protected void upgrade(final RuleModel rm) {
         upgrader1.upgrade( rm );
         upgrader2.upgrade( rm );
         upgrader3.upgrade( rm );
-        return rm;
     }
 
     protected RuleModel createEmptyModel() {
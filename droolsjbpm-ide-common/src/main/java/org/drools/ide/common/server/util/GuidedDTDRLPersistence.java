@@ -16,8 +16,12 @@
 
 package org.drools.ide.common.server.util;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -68,24 +72,66 @@ import org.drools.ide.common.client.modeldriven.dt52.LimitedEntryCol;
 import org.drools.ide.common.client.modeldriven.dt52.MetadataCol52;
 import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
 import org.drools.ide.common.server.util.GuidedDTDRLOtherwiseHelper.OtherwiseBuilder;
+import org.drools.lang.descr.RuleDescr;
 
 /**
  * This takes care of converting GuidedDT object to DRL (via the RuleModel).
  */
 public class GuidedDTDRLPersistence {
 
+    private static final int ROWS_PER_CHUNK = 250;
+
     public static GuidedDTDRLPersistence getInstance() {
         return new GuidedDTDRLPersistence();
     }
 
     public String marshal(GuidedDecisionTable52 dt) {
+        StringWriter sw = new StringWriter();
+        try {
+            marshal( dt,
+                     sw );
+        } catch ( IOException ioe ) {
+            //StringWriter does not throw IOExceptions
+            throw new IllegalStateException( ioe );
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Write the DRL for a Decision Table to the given Writer, a chunk of rows
+     * at a time, so the DRL for the whole table is never built up in one
+     * piece.
+     */
+    public void marshal(GuidedDecisionTable52 dt,
+                        Writer out) throws IOException {
+
+        final List<List<DTCellValue52>> data = dt.getData();
+        final List<BaseColumn> allColumns = dt.getExpandedColumns();
+        final OtherwiseConstraints otherwiseConstraints = new OtherwiseConstraints( allColumns,
+                                                                                    data );
+
+        for ( int i = 0; i < data.size(); i += ROWS_PER_CHUNK ) {
+            out.write( marshalRows( dt,
+                                    allColumns,
+                                    otherwiseConstraints,
+                                    i,
+                                    Math.min( i + ROWS_PER_CHUNK,
+                                              data.size() ) ) );
+        }
+    }
+
+    //Render the DRL for rows [startRow, endRow)
+    private String marshalRows(GuidedDecisionTable52 dt,
+                               List<BaseColumn> allColumns,
+                               OtherwiseConstraints otherwiseConstraints,
+                               int startRow,
+                               int endRow) {
 
         StringBuilder sb = new StringBuilder();
 
         List<List<DTCellValue52>> data = dt.getData();
-        List<BaseColumn> allColumns = dt.getExpandedColumns();
 
-        for ( int i = 0; i < data.size(); i++ ) {
+        for ( int i = startRow; i < endRow; i++ ) {
 
             List<DTCellValue52> row = data.get( i );
 
@@ -93,36 +139,13 @@ public class GuidedDTDRLPersistence {
             TemplateDataProvider rowDataProvider = new GuidedDTTemplateDataProvider( allColumns,
                                                                                      row );
 
-            Integer num = (Integer) row.get( 0 ).getNumericValue();
             String desc = row.get( 1 ).getStringValue();
 
-            BRLRuleModel rm = new BRLRuleModel( dt );
-            rm.name = getName( dt.getTableName(),
-                               num );
-
-            doMetadata( allColumns,
-                        dt.getMetadataCols(),
-                        row,
-                        rm );
-            doAttribs( allColumns,
-                       dt.getAttributeCols(),
-                       row,
-                       rm );
-            doConditions( allColumns,
-                          dt.getConditions(),
-                          rowDataProvider,
-                          row,
-                          data,
-                          rm );
-            doActions( allColumns,
-                       dt.getActionCols(),
-                       rowDataProvider,
-                       row,
-                       rm );
-
-            if ( dt.getParentName() != null ) {
-                rm.parentName = dt.getParentName();
-            }
+            BRLRuleModel rm = buildRuleModel( dt,
+                                              allColumns,
+                                              otherwiseConstraints,
+                                              row,
+                                              rowDataProvider );
 
             sb.append( "//from row number: " + (i + 1) + "\n" );
             if ( desc != null && desc.length() > 0 ) {
@@ -139,6 +162,80 @@ public class GuidedDTDRLPersistence {
 
     }
 
+    /**
+     * Build the rules for a Decision Table as descriptors that can be added to
+     * a PackageBuilder directly, skipping DRL generation and parsing. Returns
+     * null if any row uses constructs that are only supported through DRL, in
+     * which case marshal should be used instead.
+     */
+    public List<RuleDescr> marshalToDescrs(GuidedDecisionTable52 dt) {
+        //DSL sentences need expanding, which only happens on DRL
+        if ( dt.hasDSLSentences() ) {
+            return null;
+        }
+
+        final List<List<DTCellValue52>> data = dt.getData();
+        final List<BaseColumn> allColumns = dt.getExpandedColumns();
+        final OtherwiseConstraints otherwiseConstraints = new OtherwiseConstraints( allColumns,
+                                                                                    data );
+
+        final List<RuleDescr> rules = new ArrayList<RuleDescr>( data.size() );
+        for ( List<DTCellValue52> row : data ) {
+            TemplateDataProvider rowDataProvider = new GuidedDTTemplateDataProvider( allColumns,
+                                                                                     row );
+            BRLRuleModel rm = buildRuleModel( dt,
+                                              allColumns,
+                                              otherwiseConstraints,
+                                              row,
+                                              rowDataProvider );
+            RuleDescr rule = new GuidedDTBRDRLPersistence( rowDataProvider ).marshalToDescr( rm );
+            if ( rule == null ) {
+                return null;
+            }
+            rules.add( rule );
+        }
+        return rules;
+    }
+
+    private BRLRuleModel buildRuleModel(GuidedDecisionTable52 dt,
+                                        List<BaseColumn> allColumns,
+                                        OtherwiseConstraints otherwiseConstraints,
+                                        List<DTCellValue52> row,
+                                        TemplateDataProvider rowDataProvider) {
+
+        Integer num = (Integer) row.get( 0 ).getNumericValue();
+
+        BRLRuleModel rm = new BRLRuleModel( dt );
+        rm.name = getName( dt.getTableName(),
+                           num );
+
+        doMetadata( allColumns,
+                    dt.getMetadataCols(),
+                    row,
+                    rm );
+        doAttribs( allColumns,
+                   dt.getAttributeCols(),
+                   row,
+                   rm );
+        doConditions( allColumns,
+                      dt.getConditions(),
+                      rowDataProvider,
+                      row,
+                      otherwiseConstraints,
+                      rm );
+        doActions( allColumns,
+                   dt.getActionCols(),
+                   rowDataProvider,
+                   row,
+                   rm );
+
+        if ( dt.getParentName() != null ) {
+            rm.parentName = dt.getParentName();
+        }
+
+        return rm;
+    }
+
     void doActions(List<BaseColumn> allColumns,
                    List<ActionCol52> actionCols,
                    TemplateDataProvider rowDataProvider,
@@ -495,6 +592,21 @@ public class GuidedDTDRLPersistence {
                       List<DTCellValue52> row,
                       List<List<DTCellValue52>> data,
                       RuleModel rm) {
+        doConditions( allColumns,
+                      conditionPatterns,
+                      rowDataProvider,
+                      row,
+                      new OtherwiseConstraints( allColumns,
+                                                data ),
+                      rm );
+    }
+
+    private void doConditions(List<BaseColumn> allColumns,
+                              List<CompositeColumn< ? >> conditionPatterns,
+                              TemplateDataProvider rowDataProvider,
+                              List<DTCellValue52> row,
+                              OtherwiseConstraints otherwiseConstraints,
+                              RuleModel rm) {
 
         List<IPattern> patterns = new ArrayList<IPattern>();
 
@@ -521,7 +633,7 @@ public class GuidedDTDRLPersistence {
                              (Pattern52) cc,
                              patterns,
                              row,
-                             data,
+                             otherwiseConstraints,
                              rm );
             }
         }
@@ -609,7 +721,7 @@ public class GuidedDTDRLPersistence {
                              Pattern52 pattern,
                              List<IPattern> patterns,
                              List<DTCellValue52> row,
-                             List<List<DTCellValue52>> data,
+                             OtherwiseConstraints otherwiseConstraints,
                              RuleModel rm) {
 
         List<ConditionCol52> cols = pattern.getChildColumns();
@@ -690,9 +802,7 @@ public class GuidedDTDRLPersistence {
                                                                             cell );
                             fp.addConstraint( fc );
                         } else {
-                            FieldConstraint fc = makeSingleFieldConstraint( c,
-                                                                            allColumns,
-                                                                            data );
+                            FieldConstraint fc = otherwiseConstraints.getFieldConstraint( c );
                             fp.addConstraint( fc );
                         }
                         break;
@@ -874,15 +984,37 @@ public class GuidedDTDRLPersistence {
         return sfc;
     }
 
-    //Build a SingleFieldConstraint for an otherwise cell value
-    private FieldConstraint makeSingleFieldConstraint(ConditionCol52 c,
-                                                      List<BaseColumn> allColumns,
-                                                      List<List<DTCellValue52>> data) {
+    /**
+     * FieldConstraints for "otherwise" cells depend upon the whole column
+     * rather than the row, so they are built once per column and shared by
+     * every row. The marshaller only reads the model so sharing is safe.
+     */
+    static class OtherwiseConstraints {
+
+        private final List<BaseColumn>                       allColumns;
+        private final List<List<DTCellValue52>>              data;
+        private final Map<ConditionCol52, FieldConstraint> constraints = new IdentityHashMap<ConditionCol52, FieldConstraint>();
+
+        OtherwiseConstraints(List<BaseColumn> allColumns,
+                             List<List<DTCellValue52>> data) {
+            this.allColumns = allColumns;
+            this.data = data;
+        }
+
+        //Build a SingleFieldConstraint for an otherwise cell value
+        synchronized FieldConstraint getFieldConstraint(ConditionCol52 c) {
+            FieldConstraint fc = constraints.get( c );
+            if ( fc == null ) {
+                OtherwiseBuilder builder = GuidedDTDRLOtherwiseHelper.getBuilder( c );
+                fc = builder.makeFieldConstraint( c,
+                                                  allColumns,
+                                                  data );
+                constraints.put( c,
+                                 fc );
+            }
+            return fc;
+        }
 
-        OtherwiseBuilder builder = GuidedDTDRLOtherwiseHelper.getBuilder( c );
-        return builder.makeFieldConstraint( c,
-                                            allColumns,
-                                            data );
     }
 
 }
@@ -38,19 +38,22 @@ import org.drools.ide.common.server.util.upgrade.GuidedDecisionTableUpgradeHelpe
 import org.drools.ide.common.server.util.upgrade.GuidedDecisionTableUpgradeHelper3;
 
 import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
 
+/**
+ * This class persists the guided decision table model to XML and back.
+ * The instance is thread-safe and shared.
+ */
 @SuppressWarnings("deprecation")
 public class GuidedDTXMLPersistence {
 
-    private XStream                                        xt;
+    private final XStream                                        xt;
     private static final GuidedDecisionTableUpgradeHelper1 upgrader1 = new GuidedDecisionTableUpgradeHelper1();
     private static final GuidedDecisionTableUpgradeHelper2 upgrader2 = new GuidedDecisionTableUpgradeHelper2();
     private static final GuidedDecisionTableUpgradeHelper3 upgrader3 = new GuidedDecisionTableUpgradeHelper3();
     private static final GuidedDTXMLPersistence            INSTANCE  = new GuidedDTXMLPersistence();
 
     private GuidedDTXMLPersistence() {
-        xt = new XStream( new DomDriver() );
+        xt = new XStream( ModelXStreamSupport.createDriver() );
 
         //Legacy model
         xt.alias( "decision-table",
@@ -94,6 +97,12 @@ public class GuidedDTXMLPersistence {
         xt.alias( "valueNumeric",
                   Number.class,
                   BigDecimal.class );
+
+        //Paging of data to the editor is never persisted
+        xt.omitField( GuidedDecisionTable52.class,
+                      "totalRowCount" );
+        xt.omitField( GuidedDecisionTable52.class,
+                      "loadedRowCount" );
     }
 
     public static GuidedDTXMLPersistence getInstance() {
@@ -101,7 +110,7 @@ public class GuidedDTXMLPersistence {
     }
 
     public String marshal(GuidedDecisionTable52 dt) {
-        return xt.toXML( dt );
+        return ModelXStreamSupport.stampFormatVersion( xt.toXML( dt ) );
     }
 
     public GuidedDecisionTable52 unmarshal(String xml) {
@@ -117,6 +126,9 @@ public class GuidedDTXMLPersistence {
             newDTModel = upgrader1.upgrade( legacyDTModel );
         } else {
             newDTModel = (GuidedDecisionTable52) model;
+            if ( !ModelXStreamSupport.isUpgradeRequired( xml ) ) {
+                return newDTModel;
+            }
         }
 
         //Upgrade RowNumber, Salience and Duration data-types are correct
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.ide.common.server.util;
+
+import java.io.Writer;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+/**
+ * Shared plumbing for the XStream based model persistence classes. Models are
+ * read with a streaming (StAX) parser rather than building a DOM first, and
+ * every document written is stamped with the format version so that legacy
+ * upgrade helpers only need to run on content persisted by older releases.
+ */
+final class ModelXStreamSupport {
+
+    /**
+     * The format version written by this release. Content carrying this
+     * version has already been through all upgrade helpers.
+     */
+    static final int            CURRENT_FORMAT_VERSION = 1;
+
+    /**
+     * Content persisted before format versions were introduced.
+     */
+    static final int            LEGACY_FORMAT_VERSION  = 0;
+
+    private static final String MARKER_START           = "<!--formatVersion:";
+    private static final String MARKER_END             = "-->";
+
+    //The marker is written straight after the root element's start tag
+    private static final int    MARKER_SEARCH_LIMIT    = 256;
+
+    private ModelXStreamSupport() {
+    }
+
+    /**
+     * A streaming driver. Output is written without an XML declaration, as the
+     * DOM driver previously did, so persisted content keeps its shape.
+     */
+    static HierarchicalStreamDriver createDriver() {
+        return new StaxDriver() {
+            @Override
+            public HierarchicalStreamWriter createWriter(Writer out) {
+                return new PrettyPrintWriter( out,
+                                              getNameCoder() );
+            }
+        };
+    }
+
+    /**
+     * Add the current format version to marshalled content.
+     */
+    static String stampFormatVersion(String xml) {
+        final int rootEnd = xml.indexOf( '>' );
+        if ( rootEnd < 1 || xml.charAt( rootEnd - 1 ) == '/' || xml.charAt( 0 ) != '<' || xml.charAt( 1 ) == '?' ) {
+            return xml;
+        }
+        final StringBuilder sb = new StringBuilder( xml.length() + MARKER_START.length() + MARKER_END.length() + 4 );
+        sb.append( xml,
+                   0,
+                   rootEnd + 1 );
+        sb.append( MARKER_START ).append( CURRENT_FORMAT_VERSION ).append( MARKER_END );
+        sb.append( xml,
+                   rootEnd + 1,
+                   xml.length() );
+        return sb.toString();
+    }
+
+    /**
+     * Read the format version of persisted content, or LEGACY_FORMAT_VERSION if
+     * the content was not stamped.
+     */
+    static int readFormatVersion(String xml) {
+        final int start = xml.indexOf( MARKER_START );
+        if ( start < 0 || start > MARKER_SEARCH_LIMIT ) {
+            return LEGACY_FORMAT_VERSION;
+        }
+        final int end = xml.indexOf( MARKER_END,
+                                     start );
+        if ( end < 0 ) {
+            return LEGACY_FORMAT_VERSION;
+        }
+        try {
+            return Integer.parseInt( xml.substring( start + MARKER_START.length(),
+                                                    end ).trim() );
+        } catch ( NumberFormatException nfe ) {
+            return LEGACY_FORMAT_VERSION;
+        }
+    }
+
+    static boolean isUpgradeRequired(String xml) {
+        return readFormatVersion( xml ) < CURRENT_FORMAT_VERSION;
+    }
+
+}
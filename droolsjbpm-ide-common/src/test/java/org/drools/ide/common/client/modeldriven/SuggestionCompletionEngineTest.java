@@ -24,6 +24,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +55,48 @@ public class SuggestionCompletionEngineTest {
                                            "name" ) );
     }
 
+    @Test
+    public void testFactTypeNamesOnlyEngine() {
+        String pkg = "package org.test\n import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngineTest.NestedClass";
+
+        SuggestionCompletionLoader loader = new SuggestionCompletionLoader();
+        SuggestionCompletionEngine engine = loader.getSuggestionEngine( pkg,
+                                                                        new ArrayList<JarInputStream>(),
+                                                                        new ArrayList<DSLTokenizedMappingFile>() );
+        engine.putDataEnumList( "NestedClass.name",
+                                new String[]{"a", "b"} );
+        engine.putDataEnumList( "Other.name",
+                                new String[]{"c"} );
+
+        SuggestionCompletionEngine lazy = engine.createFactTypeNamesOnlyEngine();
+
+        assertEquals( 1,
+                      lazy.getFactTypes().length );
+        assertEquals( "NestedClass",
+                      lazy.getFactTypes()[0] );
+        assertFalse( lazy.isFactTypeLoaded( "NestedClass" ) );
+        assertFalse( lazy.isFullyLoaded() );
+        assertTrue( lazy.getLoadedFactTypes().isEmpty() );
+        assertNull( lazy.getFieldType( "NestedClass",
+                                       "name" ) );
+        assertFalse( lazy.hasEnums( "NestedClass.name" ) );
+        assertTrue( lazy.hasEnums( "Other.name" ) );
+
+        lazy.addFactTypeDetails( engine.getFactTypeDetails( "NestedClass" ) );
+
+        assertTrue( lazy.isFactTypeLoaded( "NestedClass" ) );
+        assertTrue( lazy.isFullyLoaded() );
+        assertEquals( Arrays.asList( "NestedClass" ),
+                      lazy.getLoadedFactTypes() );
+        assertEquals( "String",
+                      lazy.getFieldType( "NestedClass",
+                                         "name" ) );
+        assertEquals( 2,
+                      lazy.getDataEnumList( "NestedClass.name" ).length );
+        assertEquals( engine.getFieldCompletions( "NestedClass" ).length,
+                      lazy.getFieldCompletions( "NestedClass" ).length );
+    }
+
     @Test
     public void testStringNonNumeric() {
         String pkg = "package org.test\n import org.drools.ide.common.client.modeldriven.Alert";
@@ -19,6 +19,8 @@ package org.drools.ide.common.server.rules;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -577,6 +579,85 @@ public class SuggestionCompletionLoaderTest {
                       "EnumClass.v3=EnumClass.v3" );
     }
 
+    @Test
+    public void testReloadEnumsAndDSLsOnModelEngine() throws Exception {
+        SuggestionCompletionLoader loader = new SuggestionCompletionLoader();
+        SuggestionCompletionEngine modelEngine = loader.getSuggestionEngine( "package foo \n import org.drools.ide.common.server.rules.SomeFact",
+                                                                             Collections.<JarInputStream> emptyList(),
+                                                                             Collections.<DSLTokenizedMappingFile> emptyList(),
+                                                                             Collections.<String> emptyList() );
+
+        ArrayList<DSLTokenizedMappingFile> dsls = new ArrayList<DSLTokenizedMappingFile>();
+        DSLTokenizedMappingFile dslTokenizedMappingFile = new DSLTokenizedMappingFile();
+        DSLMappingEntry dslMappingEntry = mock( DSLMappingEntry.class );
+        when( dslMappingEntry.getSection() ).thenReturn( DSLMappingEntry.CONDITION );
+        dslTokenizedMappingFile.getMapping().addEntry( dslMappingEntry );
+        dsls.add( dslTokenizedMappingFile );
+
+        SuggestionCompletionEngine eng = new SuggestionCompletionLoader().getSuggestionEngine( modelEngine,
+                                                                                               dsls,
+                                                                                               Arrays.asList( "'SomeFact.name' : ['a', 'b']" ) );
+
+        assertEquals( SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER,
+                      eng.getFieldType( "SomeFact",
+                                        "age" ) );
+        assertEquals( 3,
+                      eng.getDataEnumList( "SomeFact.anEnum" ).length );
+        assertEquals( 2,
+                      eng.getDataEnumList( "SomeFact.name" ).length );
+        assertEquals( 1,
+                      eng.conditionDSLSentences.length );
+
+        assertEquals( 0,
+                      modelEngine.conditionDSLSentences.length );
+        assertFalse( modelEngine.hasEnums( "SomeFact.name" ) );
+    }
+
+    @Test
+    public void testFactMetadataIsSharedBetweenLoaders() throws Exception {
+        FactMetadataCache.clear();
+
+        SuggestionCompletionEngine eng1 = new SuggestionCompletionLoader().getSuggestionEngine( "package foo \n import org.drools.ide.common.server.rules.SomeFact",
+                                                                                                new ArrayList(),
+                                                                                                new ArrayList() );
+        FactMetadata metadata = FactMetadataCache.get( SomeFact.class );
+        assertNotNull( metadata );
+
+        SuggestionCompletionEngine eng2 = new SuggestionCompletionLoader().getSuggestionEngine( "package bar \n import org.drools.ide.common.server.rules.SomeFact",
+                                                                                                new ArrayList(),
+                                                                                                new ArrayList() );
+        assertSame( metadata,
+                    FactMetadataCache.get( SomeFact.class ) );
+
+        assertTrue( Arrays.equals( eng1.getFieldCompletions( "SomeFact" ),
+                                   eng2.getFieldCompletions( "SomeFact" ) ) );
+        assertEquals( SuggestionCompletionEngine.TYPE_THIS,
+                      eng2.getFieldCompletions( "SomeFact" )[0] );
+        assertEquals( SuggestionCompletionEngine.TYPE_NUMERIC_INTEGER,
+                      eng2.getFieldType( "SomeFact",
+                                         "age" ) );
+        assertEquals( eng1.getMethodNames( "SomeFact" ).size(),
+                      eng2.getMethodNames( "SomeFact" ).size() );
+        assertEquals( "SomeFact",
+                      eng2.getParametricFieldType( "SomeFact",
+                                                   "factList" ) );
+    }
+
+    @Test
+    public void testFactMetadataIsKeptPerClassLoader() throws Exception {
+        FactMetadataCache.clear();
+
+        new SuggestionCompletionLoader().getSuggestionEngine( "package foo \n import org.drools.ide.common.server.rules.SomeFact",
+                                                              new ArrayList(),
+                                                              new ArrayList() );
+        assertNotNull( FactMetadataCache.get( SomeFact.class ) );
+
+        //the same name from another loader is another class
+        ClassLoader other = new java.net.URLClassLoader( new java.net.URL[]{SomeFact.class.getProtectionDomain().getCodeSource().getLocation()},
+                                                         null );
+        assertNull( FactMetadataCache.get( other.loadClass( SomeFact.class.getName() ) ) );
+    }
+
     @Test
     public void testSortOrderOfFacts() throws Exception {
         SuggestionCompletionLoader loader = new SuggestionCompletionLoader();
@@ -19,6 +19,7 @@ package org.drools.ide.common.server.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
@@ -52,6 +53,9 @@ import org.drools.ide.common.shared.workitems.PortableFloatParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableIntegerParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableStringParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
+import org.drools.lang.descr.ExprConstraintDescr;
+import org.drools.lang.descr.PatternDescr;
+import org.drools.lang.descr.RuleDescr;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -2593,4 +2597,81 @@ public class BRDRLPersistenceTest {
                                       actual );
     }
 
+    @Test
+    public void testMarshalToDescr() {
+        RuleModel m = new RuleModel();
+        m.name = "descr";
+        m.addAttribute( new RuleAttribute( "salience",
+                                           "10" ) );
+
+        FactPattern p = new FactPattern( "Person" );
+        p.setBoundName( "$p" );
+        SingleFieldConstraint con = new SingleFieldConstraint();
+        con.setFieldType( SuggestionCompletionEngine.TYPE_STRING );
+        con.setFieldName( "name" );
+        con.setOperator( "==" );
+        con.setValue( "Fred" );
+        con.setConstraintValueType( SingleFieldConstraint.TYPE_LITERAL );
+        p.addConstraint( con );
+        m.addLhsItem( p );
+
+        ActionRetractFact ret = new ActionRetractFact( "$p" );
+        m.addRhsItem( ret );
+
+        RuleDescr rule = ((BRDRLPersistence) BRDRLPersistence.getInstance()).marshalToDescr( m );
+        assertNotNull( rule );
+        assertEquals( "descr",
+                      rule.getName() );
+        assertEquals( "10",
+                      rule.getAttributes().get( "salience" ).getValue() );
+        assertEquals( "mvel",
+                      rule.getAttributes().get( "dialect" ).getValue() );
+
+        assertEquals( 1,
+                      rule.getLhs().getDescrs().size() );
+        PatternDescr pattern = (PatternDescr) rule.getLhs().getDescrs().get( 0 );
+        assertEquals( "Person",
+                      pattern.getObjectType() );
+        assertEquals( "$p",
+                      pattern.getIdentifier() );
+        assertEquals( 1,
+                      pattern.getConstraint().getDescrs().size() );
+        assertEqualsIgnoreWhitespace( "name == \"Fred\"",
+                                      ((ExprConstraintDescr) pattern.getConstraint().getDescrs().get( 0 )).getExpression() );
+        assertTrue( rule.getConsequence().toString().indexOf( "retract( $p );" ) > -1 );
+
+        //DSL sentences need expanding, so are only supported via DRL
+        m.addRhsItem( new DSLSentence() );
+        assertNull( ((BRDRLPersistence) BRDRLPersistence.getInstance()).marshalToDescr( m ) );
+    }
+
+    @Test
+    public void testMarshalToDescrFallsBackForParsedAttributes() {
+        String[][] attributes = new String[][]{
+                {"timer", "int: 10s"},
+                {"calendars", "weekdays"},
+                {"date-effective", "01-Jan-2012"},
+                {"duration", "100"},
+                {"salience", "$p.age"},
+                {"agenda-group", "say \"hi\""}};
+        for ( String[] attribute : attributes ) {
+            RuleModel m = new RuleModel();
+            m.name = "descr";
+            m.addAttribute( new RuleAttribute( attribute[0],
+                                               attribute[1] ) );
+            m.addLhsItem( new FactPattern( "Person" ) );
+            assertNull( attribute[0],
+                        ((BRDRLPersistence) BRDRLPersistence.getInstance()).marshalToDescr( m ) );
+        }
+
+        RuleModel m = new RuleModel();
+        m.name = "descr";
+        m.addAttribute( new RuleAttribute( "agenda-group",
+                                           "group one" ) );
+        m.addLhsItem( new FactPattern( "Person" ) );
+        RuleDescr rule = ((BRDRLPersistence) BRDRLPersistence.getInstance()).marshalToDescr( m );
+        assertEquals( "group one",
+                      rule.getAttributes().get( "agenda-group" ).getValue() );
+    }
+
 }
@@ -310,6 +310,34 @@ public class BRLPersistenceTest {
         return m;
     }
 
+    @Test
+    public void testFormatVersion() {
+        final BRLPersistence p = BRXMLPersistence.getInstance();
+        final RuleModel m = getComplexModel();
+
+        final String xml = p.marshal( m );
+        assertTrue( xml.startsWith( "<rule>" ) );
+        assertEquals( ModelXStreamSupport.CURRENT_FORMAT_VERSION,
+                      ModelXStreamSupport.readFormatVersion( xml ) );
+        assertFalse( ModelXStreamSupport.isUpgradeRequired( xml ) );
+
+        //Content persisted by older releases carries no version and is upgraded
+        final String legacyXml = xml.replaceFirst( "<!--formatVersion:[0-9]+-->",
+                                                   "" );
+        assertEquals( ModelXStreamSupport.LEGACY_FORMAT_VERSION,
+                      ModelXStreamSupport.readFormatVersion( legacyXml ) );
+        assertTrue( ModelXStreamSupport.isUpgradeRequired( legacyXml ) );
+
+        final RuleModel current = p.unmarshal( xml );
+        final RuleModel legacy = p.unmarshal( legacyXml );
+        assertEquals( m.name,
+                      current.name );
+        assertEquals( legacy.lhs.length,
+                      current.lhs.length );
+        assertEquals( legacy.rhs.length,
+                      current.rhs.length );
+    }
+
     @Test
     public void testLoadEmpty() {
         RuleModel m = BRXMLPersistence.getInstance().unmarshal( null );
@@ -23,9 +23,16 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.drools.Person;
+import org.drools.RuleBase;
+import org.drools.RuleBaseFactory;
+import org.drools.StatefulSession;
+import org.drools.compiler.PackageBuilder;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.drools.ide.common.client.modeldriven.brl.ActionExecuteWorkItem;
 import org.drools.ide.common.client.modeldriven.brl.ActionFieldValue;
@@ -73,6 +80,9 @@ import org.drools.ide.common.shared.workitems.PortableFloatParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableIntegerParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableStringParameterDefinition;
 import org.drools.ide.common.shared.workitems.PortableWorkDefinition;
+import org.drools.lang.descr.PackageDescr;
+import org.drools.lang.descr.RuleDescr;
+import org.drools.rule.Rule;
 import org.junit.Test;
 
 public class GuidedDTDRLPersistenceTest {
@@ -4092,4 +4102,130 @@ public class GuidedDTDRLPersistenceTest {
 
     }
 
+    @Test
+    public void testLargeTableWritesRowsInOrder() throws Exception {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName( "large" );
+
+        Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "d" );
+        p1.setFactType( "Driver" );
+
+        ConditionCol52 con = new ConditionCol52();
+        con.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con.setFactField( "name" );
+        con.setFieldType( SuggestionCompletionEngine.TYPE_STRING );
+        con.setOperator( "==" );
+        p1.getChildColumns().add( con );
+        dt.getConditions().add( p1 );
+
+        final int rows = 2500;
+        String[][] data = new String[rows][];
+        for ( int i = 0; i < rows; i++ ) {
+            data[i] = new String[]{String.valueOf( i + 1 ), "", "name" + (i % 10)};
+        }
+        dt.setData( upgrader.makeDataLists( data ) );
+        dt.getData().get( rows - 1 ).get( 2 ).setOtherwise( true );
+
+        GuidedDTDRLPersistence p = GuidedDTDRLPersistence.getInstance();
+        StringWriter sw = new StringWriter();
+        p.marshal( dt,
+                   sw );
+        String drl = sw.toString();
+
+        int lastIndex = -1;
+        for ( int i = 1; i <= rows; i++ ) {
+            int index = drl.indexOf( "//from row number: " + i + "\n" );
+            assertTrue( index > lastIndex );
+            lastIndex = index;
+        }
+        assertTrue( drl.indexOf( "name not in (" ) > drl.indexOf( "//from row number: " + rows + "\n" ) );
+    }
+
+    @Test
+    public void testMarshalToDescrsCompilesLikeDRL() throws Exception {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        dt.setTableName( "descrs" );
+
+        AttributeCol52 attr = new AttributeCol52();
+        attr.setAttribute( "salience" );
+        dt.getAttributeCols().add( attr );
+
+        Pattern52 p1 = new Pattern52();
+        p1.setBoundName( "p" );
+        p1.setFactType( "Person" );
+
+        ConditionCol52 con = new ConditionCol52();
+        con.setConstraintValueType( BaseSingleFieldConstraint.TYPE_LITERAL );
+        con.setFactField( "name" );
+        con.setFieldType( SuggestionCompletionEngine.TYPE_STRING );
+        con.setOperator( "==" );
+        p1.getChildColumns().add( con );
+        dt.getConditions().add( p1 );
+
+        ActionSetFieldCol52 set = new ActionSetFieldCol52();
+        set.setBoundName( "p" );
+        set.setFactField( "likes" );
+        set.setType( SuggestionCompletionEngine.TYPE_STRING );
+        dt.getActionCols().add( set );
+
+        dt.setData( upgrader.makeDataLists( new String[][]{
+                new String[]{"1", "", "10", "bob", "cheese"},
+                new String[]{"2", "", "20", "bob", "wine"},
+                new String[]{"3", "", "30", "fred", "beer"}
+        } ) );
+
+        GuidedDTDRLPersistence p = GuidedDTDRLPersistence.getInstance();
+        List<RuleDescr> rules = p.marshalToDescrs( dt );
+        assertNotNull( rules );
+
+        PackageDescr packageDescr = new PackageDescr( "org.drools" );
+        for ( RuleDescr rule : rules ) {
+            packageDescr.addRule( rule );
+        }
+        PackageBuilder descrBuilder = new PackageBuilder();
+        descrBuilder.addPackage( packageDescr );
+        assertFalse( descrBuilder.getErrors().toString(),
+                     descrBuilder.hasErrors() );
+
+        PackageBuilder drlBuilder = new PackageBuilder();
+        drlBuilder.addPackageFromDrl( new StringReader( "package org.drools\n" + p.marshal( dt ) ) );
+        assertFalse( drlBuilder.getErrors().toString(),
+                     drlBuilder.hasErrors() );
+
+        Rule[] descrRules = descrBuilder.getPackage().getRules();
+        Rule[] drlRules = drlBuilder.getPackage().getRules();
+        assertEquals( drlRules.length,
+                      descrRules.length );
+        for ( Rule drlRule : drlRules ) {
+            Rule descrRule = descrBuilder.getPackage().getRule( drlRule.getName() );
+            assertNotNull( drlRule.getName(),
+                           descrRule );
+            assertEquals( drlRule.getDialect(),
+                          descrRule.getDialect() );
+        }
+
+        //Both fire the same rules in the same order, the last one sets what bob likes
+        assertEquals( "cheese",
+                      fire( drlBuilder.getPackage(),
+                            new Person( "bob" ) ).getLikes() );
+        assertEquals( "cheese",
+                      fire( descrBuilder.getPackage(),
+                            new Person( "bob" ) ).getLikes() );
+    }
+
+    private Person fire(org.drools.rule.Package pkg,
+                        Person person) throws Exception {
+        RuleBase ruleBase = RuleBaseFactory.newRuleBase();
+        ruleBase.addPackage( pkg );
+        StatefulSession session = ruleBase.newStatefulSession();
+        try {
+            session.insert( person );
+            session.fireAllRules();
+        } finally {
+            session.dispose();
+        }
+        return person;
+    }
+
 }
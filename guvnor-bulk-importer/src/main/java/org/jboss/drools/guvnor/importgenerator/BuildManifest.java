@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A properties file holding, for each package that last built without errors, a hash of the files it was built
+ * from. A package whose files still hash the same does not need to be compiled again.
+ */
+public class BuildManifest {
+    private final File file;
+    private final Properties hashes = new Properties();
+
+    public BuildManifest(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                hashes.load(in);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+    }
+
+    /**
+     * true if the package built without errors last time and none of its files have changed since
+     *
+     * @param packageFile
+     * @param hash the current hash of the package, from hash()
+     * @return
+     */
+    public synchronized boolean isUnchanged(PackageFile packageFile, String hash) {
+        return hash.equals(hashes.getProperty(packageFile.getName()));
+    }
+
+    /**
+     * records the outcome of building the package: its hash is kept if it built without errors, and dropped if not
+     *
+     * @param packageFile
+     * @param hash
+     */
+    public synchronized void record(PackageFile packageFile, String hash) {
+        if (packageFile.hasErrors()) {
+            hashes.remove(packageFile.getName());
+        } else {
+            hashes.setProperty(packageFile.getName(), hash);
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            hashes.store(out, "Packages validated by the bulk importer");
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * a SHA-1 hash of the names and contents of the files the package is built from, and of the model jars it is
+     * imported with
+     *
+     * @param packageFile
+     * @param defaultModel the model jar given with -m, imported with packages that have no model jar of their own,
+     *                     or null
+     * @return
+     * @throws IOException
+     */
+    public static String hash(PackageFile packageFile, File defaultModel) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        for (File source : packageFile.getBuildFiles()) {
+            update(digest, source, buffer);
+        }
+        if (packageFile.getModelFiles().size() > 0) {
+            for (Model model : packageFile.getModelFiles()) {
+                update(digest, model.getFile(), buffer);
+            }
+        } else if (defaultModel != null) {
+            update(digest, defaultModel, buffer);
+        }
+        return new String(Hex.encodeHex(digest.digest()));
+    }
+
+    private static void update(MessageDigest digest, File file, byte[] buffer) throws IOException {
+        digest.update(file.getPath().getBytes("UTF-8"));
+        digest.update((byte) 0);
+        InputStream in = new FileInputStream(file);
+        try {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        digest.update((byte) 0);
+    }
+}
@@ -26,7 +26,7 @@ import java.util.Properties;
  * Command line argument parser
  */
 public class CmdArgsParser {
-    private static Map<Parameters, String> options = new HashMap<Parameters, String>();
+    private Map<Parameters, String> options = new HashMap<Parameters, String>();
     private static Map<String, Parameters> map = new HashMap<String, Parameters>();
 
     public enum Parameters {
@@ -43,6 +43,9 @@ public class CmdArgsParser {
         OPTIONS_KAGENT_CHANGE_SET_FILE,
         OPTIONS_BASE_DIR,
         OPTIONS_MODEL,
+        OPTIONS_REPOSITORY_DIR,
+        OPTIONS_THREADS,
+        OPTIONS_MANIFEST_FILE,
         OPTIONS_VERBOSE,
         OPTIONS_VERY_VERBOSE
     }
@@ -61,6 +64,9 @@ public class CmdArgsParser {
         map.put("-w", Parameters.OPTIONS_KAGENT_CHANGE_SET_FILE);
         map.put("-b", Parameters.OPTIONS_BASE_DIR);
         map.put("-m", Parameters.OPTIONS_MODEL);
+        map.put("-j", Parameters.OPTIONS_REPOSITORY_DIR);
+        map.put("-t", Parameters.OPTIONS_THREADS);
+        map.put("-h", Parameters.OPTIONS_MANIFEST_FILE);
         map.put("-v", Parameters.OPTIONS_VERBOSE);
         map.put("-vv", Parameters.OPTIONS_VERY_VERBOSE);
     }
@@ -101,6 +107,7 @@ public class CmdArgsParser {
                 throw new IllegalArgumentException("Invalid propFilePath (" + propFilePath + ").", e);
             }
             options.put(Parameters.OPTIONS_VERBOSE, "true");
+            validateThreads();
             return options;
         } else {
             for (int i = 0; i < args.length; i++) {
@@ -119,6 +126,7 @@ public class CmdArgsParser {
                     throw new IllegalArgumentException("Unknown argument (" + arg + ").");
                 }
             }
+            validateThreads();
             //display them so the user knows what the options values are
             for (Parameters key : options.keySet()) {
                 System.out.println("   " + key.name() + "=" + options.get(key));
@@ -126,4 +134,19 @@ public class CmdArgsParser {
             return options;
         }
     }
+
+    private void validateThreads() {
+        String threads = options.get(Parameters.OPTIONS_THREADS);
+        if (threads == null) {
+            return;
+        }
+        try {
+            if (Integer.parseInt(threads) > 0) {
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid number of threads (" + threads + ").");
+    }
 }
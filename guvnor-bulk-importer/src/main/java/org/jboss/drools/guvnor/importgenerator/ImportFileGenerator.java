@@ -106,7 +106,9 @@ public class ImportFileGenerator implements Constants {
             StringBuffer ruleContents = new StringBuffer();
             StringBuffer snapshotRuleContents = new StringBuffer();
             Map<String, Rule> rules = packageFile.getRules();
-            packageFile.buildPackage();
+            if (!packageFile.isBuilt()) {
+                packageFile.buildPackage();
+            }
 
             for (Map.Entry<String, Rule> rulesEntry : rules.entrySet()) {
                 String ruleName = rulesEntry.getKey();
@@ -334,11 +336,21 @@ public class ImportFileGenerator implements Constants {
             logger.debug("Scanning directories...");
             Map<String, PackageFile> details = PackageFile.buildPackages(options);
 
-            logger.debug("Generating 'Guvnor import data'...");
-            String guvnorImport = generateImportFile(details);
-            File guvnorImportFile = getFile(options.getOption(Parameters.OPTIONS_OUTPUT_FILE));
-            logger.debug("Writing 'Guvnor import data to disk' (" + guvnorImportFile.getAbsolutePath() + ")");
-            FileIOHelper.write(guvnorImport, guvnorImportFile);
+            logger.debug("Compiling packages...");
+            String manifestFile = options.getOption(Parameters.OPTIONS_MANIFEST_FILE);
+            new PackageCompiler(options, manifestFile != null ? getFile(manifestFile) : null).compile(details.values());
+
+            if (options.getOption(Parameters.OPTIONS_REPOSITORY_DIR) != null) {
+                File repositoryDir = getFile(options.getOption(Parameters.OPTIONS_REPOSITORY_DIR));
+                logger.debug("Writing to the repository (" + repositoryDir.getAbsolutePath() + ")");
+                new RepositoryWriter(options).write(details, repositoryDir);
+            } else {
+                logger.debug("Generating 'Guvnor import data'...");
+                String guvnorImport = generateImportFile(details);
+                File guvnorImportFile = getFile(options.getOption(Parameters.OPTIONS_OUTPUT_FILE));
+                logger.debug("Writing 'Guvnor import data to disk' (" + guvnorImportFile.getAbsolutePath() + ")");
+                FileIOHelper.write(guvnorImport, guvnorImportFile);
+            }
 
             if (options.getOption(Parameters.OPTIONS_KAGENT_CHANGE_SET_FILE) != null) {
                 logger.debug("Generating 'Knowledge agent changeset' data...");
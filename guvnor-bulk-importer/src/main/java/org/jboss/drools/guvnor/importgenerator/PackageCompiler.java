@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.drools.guvnor.importgenerator.CmdArgsParser.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles the packages on a pool of threads, each package with its own PackageBuilder, so that validation uses
+ * every core instead of one. With a manifest file, packages whose files have not changed since they last built
+ * without errors are not compiled again.
+ */
+public class PackageCompiler {
+    protected final transient Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final int threads;
+    private final BuildManifest manifest;
+    private final File defaultModel;
+    private final AtomicInteger compiled = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    public PackageCompiler(CmdArgsParser options, File manifestFile) throws IOException {
+        String threadsOption = options.getOption(Parameters.OPTIONS_THREADS);
+        // validated by CmdArgsParser
+        this.threads = threadsOption != null ? Integer.parseInt(threadsOption) : Runtime.getRuntime().availableProcessors();
+        if (manifestFile != null && options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME) != null) {
+            // a snapshot needs the compiled package, so every package has to be built anyway
+            logger.debug("Building every package for the snapshot, the manifest is not used");
+            this.manifest = null;
+        } else {
+            this.manifest = manifestFile != null ? new BuildManifest(manifestFile) : null;
+        }
+        String modelOption = options.getOption(Parameters.OPTIONS_MODEL);
+        this.defaultModel = modelOption != null ? new File(modelOption) : null;
+    }
+
+    /**
+     * builds every package that is not already built, and saves the manifest if there is one
+     *
+     * @param packages
+     * @throws IOException
+     */
+    public void compile(Collection<PackageFile> packages) throws IOException {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (PackageFile packageFile : packages) {
+                if (!packageFile.isBuilt()) {
+                    results.add(executor.submit(new CompileTask(packageFile)));
+                }
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (manifest != null) {
+            manifest.save();
+        }
+        logger.debug("Compiled " + compiled + " packages (" + unchanged + " unchanged) on " + threads + " threads in "
+                + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    int getCompiled() {
+        return compiled.get();
+    }
+
+    int getUnchanged() {
+        return unchanged.get();
+    }
+
+    private class CompileTask implements Callable<Void> {
+        private final PackageFile packageFile;
+
+        private CompileTask(PackageFile packageFile) {
+            this.packageFile = packageFile;
+        }
+
+        public Void call() throws IOException {
+            String hash = manifest != null ? BuildManifest.hash(packageFile, defaultModel) : null;
+            if (manifest != null && manifest.isUnchanged(packageFile, hash)) {
+                packageFile.setBuilt(true);
+                unchanged.incrementAndGet();
+                logger.trace(packageFile.getName() + " is unchanged");
+                return null;
+            }
+            packageFile.buildPackage();
+            compiled.incrementAndGet();
+            if (manifest != null) {
+                manifest.record(packageFile, hash);
+            }
+            return null;
+        }
+    }
+}
@@ -72,6 +72,7 @@ public class PackageFile implements Comparator<Integer> {
     private String name;
     private String modelContent;
     private List<Model> modelFiles = new ArrayList<Model>();
+    private boolean built = false;
 
 
     private enum Format {
@@ -277,25 +278,25 @@ public class PackageFile implements Comparator<Integer> {
     }
 
     /**
-     * compiles the rule files into a package and generates any error details
+     * compiles the rule files into a package and generates any error details. Each source file (and the functions
+     * file next to it) is added to the builder once, however many rules it holds.
      *
      * @throws IOException
      */
     public void buildPackage() throws IOException {
         PackageBuilder pb = new PackageBuilder();
-        for (String key : getRuleFiles().keySet()) {
-            File file = getRuleFiles().get(key);
-
+        Set<File> functionsFiles = new HashSet<File>();
+        for (File file : getSourceFiles()) {
             try {
                 if (FUNCTIONS_FILE != null) {
                     File functionsFile = new File(file.getParentFile().getPath(), FUNCTIONS_FILE);
-                    if (functionsFile.exists()) {
-                        pb.addPackageFromDrl(new FileReader(functionsFile));
+                    if (functionsFile.exists() && functionsFiles.add(functionsFile)) {
+                        addDrl(pb, functionsFile);
                     }
                 }
 
                 if (file.getName().endsWith(Format.DRL.value)) {
-                    pb.addPackageFromDrl(new FileReader(file));
+                    addDrl(pb, file);
                 } else if (file.getName().endsWith(Format.XLS.value)) {
                     pb.addPackageFromDrl(new StringReader(DroolsHelper.compileDTabletoDRL(file, InputType.XLS)));
                 }
@@ -312,6 +313,60 @@ public class PackageFile implements Comparator<Integer> {
         } else if (pkg != null && !pkg.isValid()) {
             addDependencyError(pkg.getErrorSummary());
         }
+        built = true;
+    }
+
+    private static void addDrl(PackageBuilder pb, File file) throws IOException, DroolsParserException {
+        FileReader reader = new FileReader(file);
+        try {
+            pb.addPackageFromDrl(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * the rule files of the package, each one once, in a stable order
+     *
+     * @return
+     */
+    public List<File> getSourceFiles() {
+        List<File> files = new ArrayList<File>(new HashSet<File>(ruleFiles.values()));
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * the files buildPackage reads: the rule files and any functions files next to them
+     *
+     * @return
+     */
+    public List<File> getBuildFiles() {
+        Set<File> files = new HashSet<File>(ruleFiles.values());
+        if (FUNCTIONS_FILE != null) {
+            for (File file : ruleFiles.values()) {
+                File functionsFile = new File(file.getParentFile().getPath(), FUNCTIONS_FILE);
+                if (functionsFile.exists()) {
+                    files.add(functionsFile);
+                }
+            }
+        }
+        List<File> result = new ArrayList<File>(files);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * whether buildPackage has run, or the package was found unchanged since it last built without errors
+     *
+     * @return
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public void setBuilt(boolean built) {
+        this.built = built;
     }
 
     /**
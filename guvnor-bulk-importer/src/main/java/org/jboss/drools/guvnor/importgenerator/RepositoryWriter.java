@@ -0,0 +1,239 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.DecimalFormat;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.drools.repository.AssetItem;
+import org.drools.repository.JCRRepositoryConfigurator;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.RulesRepositoryConfigurator;
+import org.drools.repository.RulesRepositoryException;
+import org.jboss.drools.guvnor.importgenerator.CmdArgsParser.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the packages straight into a local repository, instead of generating
+ * an import file for it. Rules are written as they are gone through, and the
+ * session is saved every BATCH_SIZE assets, so memory does not grow with the
+ * number of rules. Jars and decision tables are streamed from disk.
+ * Guvnor must not be running on the same repository at the time.
+ */
+public class RepositoryWriter implements Constants {
+    static final int BATCH_SIZE = 500;
+    static final String IMPORTED_CATEGORY = "importedCategory";
+    static final String IMPORTED_SOURCE = "Imported from external DRL";
+    static final String JACKRABBIT_CONFIGURATOR = "org.drools.repository.jackrabbit.JackrabbitRepositoryConfigurator";
+
+    protected final transient Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final CmdArgsParser options;
+    private RulesRepository repository;
+    private int unsaved = 0;
+    private int written = 0;
+    private int skipped = 0;
+
+    public RepositoryWriter(CmdArgsParser options) {
+        this.options = options;
+    }
+
+    /**
+     * Writes every package into the repository in the given directory, which
+     * is created if need be, then shuts the repository down.
+     *
+     * @param packages
+     * @param directory
+     * @throws IOException
+     */
+    public void write(Map<String, PackageFile> packages, File directory) throws IOException {
+        Properties properties = new Properties();
+        properties.put(RulesRepositoryConfigurator.CONFIGURATOR_CLASS, JACKRABBIT_CONFIGURATOR);
+        properties.put(JCRRepositoryConfigurator.REPOSITORY_ROOT_DIRECTORY, directory.getAbsolutePath());
+        RulesRepositoryConfigurator configurator = RulesRepositoryConfigurator.getInstance(properties);
+        Session session = null;
+        try {
+            session = configurator.login(getCreator());
+            configurator.setupRepository(session);
+            repository = new RulesRepository(session);
+            createImportedCategory();
+            long start = System.currentTimeMillis();
+
+            double i = 0;
+            for (Map.Entry<String, PackageFile> packagesEntry : packages.entrySet()) {
+                double pct = (int) (++i / (double) packages.size() * 100);
+                logger.debug(new DecimalFormat("##0").format(pct) + "% - " + packagesEntry.getKey());
+                writePackage(packagesEntry.getValue());
+            }
+
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            logger.debug("Wrote " + written + " assets to " + directory.getAbsolutePath() + " in " + elapsed + "ms ("
+                    + (written * 1000L / elapsed) + " assets/s), " + skipped + " skipped");
+        } catch (RepositoryException e) {
+            throw new RulesRepositoryException("Unable to write to the repository in " + directory, e);
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+            configurator.shutdown();
+        }
+    }
+
+    private void writePackage(PackageFile packageFile) throws IOException {
+        if (!packageFile.isBuilt()) {
+            packageFile.buildPackage();
+        }
+        if (packageFile.hasErrors()) {
+            logger.debug(" - [COMPILATION/DEPENDENCY ERRORS]");
+            logger.trace(packageFile.getCompilationErrors().trim());
+            logger.trace(packageFile.getDependencyErrors().trim());
+        } else {
+            logger.debug(" - [OK]");
+        }
+
+        String name = packageFile.getName();
+        ModuleItem module;
+        if (repository.containsModule(name)) {
+            module = repository.loadModule(name);
+        } else {
+            module = repository.createModule(name, "-imported-");
+        }
+
+        AssetItem header = loadAsset(module, "drools", "package");
+        if (header != null) {
+            header.updateContent(packageFile.getImports());
+            assetWritten();
+        }
+
+        for (Rule rule : packageFile.getRules().values()) {
+            String format = FilenameUtils.getExtension(rule.getFile().getName());
+            AssetItem asset = loadAsset(module, rule.getRuleName(), format);
+            if (asset == null) {
+                continue;
+            }
+            if (asset.getCategories().isEmpty()) {
+                asset.addCategory(IMPORTED_CATEGORY);
+            }
+            if ("xls".equalsIgnoreCase(format)) {
+                updateAttachment(asset, rule.getFile());
+            } else {
+                asset.updateContent(rule.getContent());
+            }
+            asset.updateExternalSource(IMPORTED_SOURCE);
+            assetWritten();
+        }
+
+        for (Model model : packageFile.getModelFiles()) {
+            writeModel(module, model.getFile());
+        }
+        // If no models in directory but parameter specified then upload the parameterized model
+        if (packageFile.getModelFiles().size() <= 0 && options.getOption(Parameters.OPTIONS_MODEL) != null) {
+            writeModel(module, new File(options.getOption(Parameters.OPTIONS_MODEL)));
+        }
+        save();
+
+        String snapshotName = options.getOption(Parameters.OPTIONS_SNAPSHOT_NAME);
+        if (snapshotName != null) {
+            module.updateCompiledBinary(new ByteArrayInputStream(packageFile.toByteArray()));
+            module.updateBinaryUpToDate(!packageFile.hasErrors());
+            repository.save();
+            if (repository.containsSnapshot(name, snapshotName)) {
+                repository.removeModuleSnapshot(name, snapshotName);
+            }
+            repository.createModuleSnapshot(name, snapshotName);
+        }
+    }
+
+    private void writeModel(ModuleItem module, File file) throws IOException {
+        String name = file.getName();
+        AssetItem asset = loadAsset(module, name.substring(0, name.lastIndexOf(".")), "jar");
+        if (asset != null) {
+            updateAttachment(asset, file);
+            assetWritten();
+        }
+    }
+
+    private void updateAttachment(AssetItem asset, File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            asset.updateBinaryContentAttachment(in);
+            asset.updateBinaryContentAttachmentFileName(file.getName());
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Loads the asset if the package has it already, so that running the
+     * importer again updates the assets instead of failing. Returns null if
+     * the package has an asset of that name in another format, which is
+     * skipped rather than overwritten.
+     */
+    private AssetItem loadAsset(ModuleItem module, String name, String format) {
+        if (module.containsAsset(name)) {
+            AssetItem asset = module.loadAsset(name);
+            if (!format.equals(asset.getFormat())) {
+                logger.warn("Skipping " + module.getName() + "/" + name + ", it is already in the repository as "
+                        + asset.getFormat() + " not " + format);
+                skipped++;
+                return null;
+            }
+            return asset;
+        }
+        return module.addAsset(name, "", null, format);
+    }
+
+    private void createImportedCategory() {
+        try {
+            repository.loadCategory(IMPORTED_CATEGORY);
+        } catch (RulesRepositoryException e) {
+            repository.loadCategory("/").addCategory(IMPORTED_CATEGORY, "Rules written by the bulk importer");
+        }
+    }
+
+    private void assetWritten() {
+        written++;
+        if (++unsaved >= BATCH_SIZE) {
+            save();
+        }
+    }
+
+    private void save() {
+        repository.save();
+        unsaved = 0;
+    }
+
+    private String getCreator() {
+        if (options.getOption(Parameters.OPTIONS_CREATOR) != null) {
+            return options.getOption(Parameters.OPTIONS_CREATOR);
+        }
+        return DEFAULT_CREATOR;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BuildManifestTest {
+    private File root;
+    private File rules;
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("buildManifest", "");
+        root.delete();
+        rules = new File(root, "rules");
+        manifestFile = new File(root, "manifest.properties");
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PackageCompilerTest.PING_RULE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void testRecordedPackageIsUnchangedAfterReload() throws Exception {
+        PackageFile ping = buildPing();
+        String hash = BuildManifest.hash(ping, null);
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        assertFalse(manifest.isUnchanged(ping, hash));
+
+        manifest.record(ping, hash);
+        manifest.save();
+
+        assertTrue(new BuildManifest(manifestFile).isUnchanged(ping, hash));
+    }
+
+    @Test
+    public void testHashFollowsTheFunctionsFile() throws Exception {
+        String withoutFunctions = BuildManifest.hash(buildPing(), null);
+
+        FileUtils.writeStringToFile(new File(rules, "ping/functions.drl"), PackageCompilerTest.PING_FUNCTION);
+        String withFunctions = BuildManifest.hash(buildPing(), null);
+        assertFalse(withoutFunctions.equals(withFunctions));
+        assertEquals(withFunctions, BuildManifest.hash(buildPing(), null));
+
+        FileUtils.writeStringToFile(new File(rules, "ping/functions.drl"), PackageCompilerTest.PING_FUNCTION.replace("pong", "pong again"));
+        assertFalse(withFunctions.equals(BuildManifest.hash(buildPing(), null)));
+    }
+
+    @Test
+    public void testHashFollowsTheModelJar() throws Exception {
+        File defaultModel = new File(root, "model.jar");
+        FileUtils.writeStringToFile(defaultModel, "default model");
+        String withoutModel = BuildManifest.hash(buildPing(), null);
+        String withDefaultModel = BuildManifest.hash(buildPing(), defaultModel);
+        assertFalse(withoutModel.equals(withDefaultModel));
+
+        FileUtils.writeStringToFile(defaultModel, "default model changed");
+        assertFalse(withDefaultModel.equals(BuildManifest.hash(buildPing(), defaultModel)));
+
+        // a model jar in the package is imported instead of the default one
+        FileUtils.writeStringToFile(new File(rules, "ping/model.jar"), "ping model");
+        String withPackageModel = BuildManifest.hash(buildPing(), defaultModel);
+        assertEquals(withPackageModel, BuildManifest.hash(buildPing(), null));
+
+        FileUtils.writeStringToFile(new File(rules, "ping/model.jar"), "ping model changed");
+        assertFalse(withPackageModel.equals(BuildManifest.hash(buildPing(), null)));
+    }
+
+    @Test
+    public void testPackageWithErrorsIsNotRecorded() throws Exception {
+        PackageFile ping = buildPing();
+        String hash = BuildManifest.hash(ping, null);
+        BuildManifest manifest = new BuildManifest(manifestFile);
+        manifest.record(ping, hash);
+
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PackageCompilerTest.PING_RULE.replace("String(", "NoSuchType("));
+        PackageFile broken = buildPing();
+        assertTrue(broken.hasErrors());
+        String brokenHash = BuildManifest.hash(broken, null);
+        manifest.record(broken, brokenHash);
+        manifest.save();
+
+        // the earlier entry is dropped too, so the package is built again whatever its files hold
+        manifest = new BuildManifest(manifestFile);
+        assertFalse(manifest.isUnchanged(broken, brokenHash));
+        assertFalse(manifest.isUnchanged(ping, hash));
+    }
+
+    private PackageFile buildPing() throws IOException {
+        PackageFile ping = PackageFile.buildPackages(PackageCompilerTest.options(rules)).get("ping");
+        ping.buildPackage();
+        return ping;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jboss.drools.guvnor.importgenerator.CmdArgsParser.Parameters;
+import org.junit.Test;
+
+public class CmdArgsParserTest {
+
+    @Test
+    public void testThreads() {
+        CmdArgsParser options = new CmdArgsParser();
+        options.parse(new String[]{"-t", "4"});
+        assertEquals("4", options.getOption(Parameters.OPTIONS_THREADS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadsMustBeANumber() {
+        new CmdArgsParser().parse(new String[]{"-t", "four"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThreadsMustBePositive() {
+        new CmdArgsParser().parse(new String[]{"-t", "0"});
+    }
+}
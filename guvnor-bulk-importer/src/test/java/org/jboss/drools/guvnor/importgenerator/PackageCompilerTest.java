@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PackageCompilerTest {
+    static final String PING_RULE = "package ping\n\nrule \"ping rule\"\nwhen\n    s: String(toString == \"ping\")\nthen\n    insert(\"pong\");\nend\n";
+    static final String PING_FUNCTION = "package ping\n\nfunction String pong() {\n    return \"pong\";\n}\n";
+
+    private File root;
+    private File rules;
+    private File manifestFile;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("packageCompiler", "");
+        root.delete();
+        rules = new File(root, "rules");
+        manifestFile = new File(root, "manifest.properties");
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PING_RULE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void testUnchangedPackageIsNotCompiledAgain() throws Exception {
+        PackageCompiler first = compile();
+        assertEquals(1, first.getCompiled());
+        assertEquals(0, first.getUnchanged());
+
+        PackageCompiler second = compile();
+        assertEquals(0, second.getCompiled());
+        assertEquals(1, second.getUnchanged());
+    }
+
+    @Test
+    public void testEditedRuleFileIsCompiledAgain() throws Exception {
+        compile();
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PING_RULE.replace("pong", "pong again"));
+
+        assertEquals(1, compile().getCompiled());
+    }
+
+    @Test
+    public void testAddedFunctionsFileIsCompiledAgain() throws Exception {
+        compile();
+        FileUtils.writeStringToFile(new File(rules, "ping/functions.drl"), PING_FUNCTION);
+
+        assertEquals(1, compile().getCompiled());
+        assertEquals(1, compile().getUnchanged());
+    }
+
+    @Test
+    public void testEditedFunctionsFileIsCompiledAgain() throws Exception {
+        FileUtils.writeStringToFile(new File(rules, "ping/functions.drl"), PING_FUNCTION);
+        compile();
+        FileUtils.writeStringToFile(new File(rules, "ping/functions.drl"), PING_FUNCTION.replace("pong", "pong again"));
+
+        assertEquals(1, compile().getCompiled());
+    }
+
+    @Test
+    public void testPackageWithErrorsIsCompiledEveryTime() throws Exception {
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PING_RULE.replace("String(", "NoSuchType("));
+
+        PackageCompiler first = compile();
+        assertEquals(1, first.getCompiled());
+        assertEquals(1, compile().getCompiled());
+    }
+
+    @Test
+    public void testEveryPackageIsCompiledForASnapshot() throws Exception {
+        compile();
+
+        assertEquals(1, compile("-n", "1.0.0-SNAPSHOT").getCompiled());
+    }
+
+    private PackageCompiler compile(String... extraArgs) throws IOException {
+        CmdArgsParser options = options(rules, extraArgs);
+        Map<String, PackageFile> packages = PackageFile.buildPackages(options);
+        PackageCompiler compiler = new PackageCompiler(options, manifestFile);
+        compiler.compile(packages.values());
+        for (PackageFile packageFile : packages.values()) {
+            assertTrue(packageFile.isBuilt());
+        }
+        return compiler;
+    }
+
+    static CmdArgsParser options(File rules, String... extraArgs) {
+        String[] args = new String[]{
+                "-p", rules.getAbsolutePath(),
+                "-s", "rules",
+                "-e", "[0-9|.]*[.|-]+[SNAPSHOT]+[.|-]*[09|.]*",
+                "-r", "true",
+                "-f", "drl,xls",
+                "-c", "functions.drl",
+                "-t", "2"};
+        String[] allArgs = new String[args.length + extraArgs.length];
+        System.arraycopy(args, 0, allArgs, 0, args.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+
+        CmdArgsParser options = new CmdArgsParser();
+        options.parse(allArgs);
+        return options;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.drools.guvnor.importgenerator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import javax.jcr.Session;
+
+import org.apache.commons.io.FileUtils;
+import org.drools.repository.AssetItem;
+import org.drools.repository.JCRRepositoryConfigurator;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.RulesRepositoryConfigurator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RepositoryWriterTest {
+    private static final String PING_RULE = "package ping\n\nrule \"ping rule\"\nwhen\n    s: String(toString == \"ping\")\nthen\n    insert(\"pong\");\nend\n";
+
+    private File root;
+    private File rules;
+    private File repositoryDir;
+
+    @Before
+    public void setUp() throws IOException {
+        root = File.createTempFile("repositoryWriter", "");
+        root.delete();
+        rules = new File(root, "rules");
+        repositoryDir = new File(root, "repository");
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PING_RULE);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void testFirstRun() throws Exception {
+        write();
+
+        Session session = login();
+        try {
+            ModuleItem module = new RulesRepository(session).loadModule("ping");
+            assertTrue(module.loadAsset("drools").getContent().contains("package ping"));
+            AssetItem rule = module.loadAsset("ping rule");
+            assertEquals("drl", rule.getFormat());
+            assertTrue(rule.getContent().contains("insert(\"pong\")"));
+            assertEquals(RepositoryWriter.IMPORTED_CATEGORY, rule.getCategories().get(0).getName());
+            assertEquals(RepositoryWriter.IMPORTED_SOURCE, rule.getExternalSource());
+        } finally {
+            logout(session);
+        }
+    }
+
+    @Test
+    public void testRerunUpdatesAssets() throws Exception {
+        write();
+        FileUtils.writeStringToFile(new File(rules, "ping/ping.drl"), PING_RULE.replace("pong", "pong again"));
+        write();
+
+        Session session = login();
+        try {
+            ModuleItem module = new RulesRepository(session).loadModule("ping");
+            AssetItem rule = module.loadAsset("ping rule");
+            assertTrue(rule.getContent().contains("insert(\"pong again\")"));
+            assertEquals(1, rule.getCategories().size());
+        } finally {
+            logout(session);
+        }
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        write("-n", "1.0.0-SNAPSHOT");
+        // the snapshot is replaced, not added again
+        write("-n", "1.0.0-SNAPSHOT");
+
+        Session session = login();
+        try {
+            RulesRepository repository = new RulesRepository(session);
+            ModuleItem module = repository.loadModule("ping");
+            assertTrue(module.isBinaryUpToDate());
+            assertNotNull(module.getCompiledBinaryBytes());
+            assertTrue(repository.containsSnapshot("ping", "1.0.0-SNAPSHOT"));
+            ModuleItem snapshot = repository.loadModuleSnapshot("ping", "1.0.0-SNAPSHOT");
+            assertTrue(snapshot.containsAsset("ping rule"));
+            assertEquals(1, repository.listModuleSnapshots("ping").length);
+        } finally {
+            logout(session);
+        }
+    }
+
+    @Test
+    public void testAssetOfAnotherFormatIsSkipped() throws Exception {
+        FileUtils.writeStringToFile(new File(rules, "ping/model.drl"), "package ping\n\nrule \"model\"\nwhen\nthen\nend\n");
+        FileUtils.writeByteArrayToFile(new File(rules, "ping/model.jar"), new byte[]{1, 2, 3});
+        write();
+
+        Session session = login();
+        try {
+            ModuleItem module = new RulesRepository(session).loadModule("ping");
+            AssetItem asset = module.loadAsset("model");
+            assertEquals("drl", asset.getFormat());
+            assertFalse(asset.isBinary());
+        } finally {
+            logout(session);
+        }
+    }
+
+    private void write(String... extraArgs) throws IOException {
+        String[] args = new String[]{
+                "-p", rules.getAbsolutePath(),
+                "-s", "rules",
+                "-e", "[0-9|.]*[.|-]+[SNAPSHOT]+[.|-]*[09|.]*",
+                "-r", "true",
+                "-u", "admin",
+                "-f", "drl,xls",
+                "-c", "functions.drl",
+                "-j", repositoryDir.getAbsolutePath()};
+        String[] allArgs = new String[args.length + extraArgs.length];
+        System.arraycopy(args, 0, allArgs, 0, args.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+
+        CmdArgsParser options = new CmdArgsParser();
+        options.parse(allArgs);
+        new RepositoryWriter(options).write(PackageFile.buildPackages(options), repositoryDir);
+    }
+
+    private Session login() throws Exception {
+        Properties properties = new Properties();
+        properties.put(RulesRepositoryConfigurator.CONFIGURATOR_CLASS, RepositoryWriter.JACKRABBIT_CONFIGURATOR);
+        properties.put(JCRRepositoryConfigurator.REPOSITORY_ROOT_DIRECTORY, repositoryDir.getAbsolutePath());
+        return RulesRepositoryConfigurator.getInstance(properties).login("admin");
+    }
+
+    private void logout(Session session) {
+        session.logout();
+        RulesRepositoryConfigurator.getInstance(null).shutdown();
+    }
+}
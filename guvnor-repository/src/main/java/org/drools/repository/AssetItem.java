@@ -20,7 +20,6 @@ import java.io.*;
 import java.util.Calendar;
 import java.util.Iterator;
 
-import javax.jcr.Binary;
 import javax.jcr.Node;
 import javax.jcr.PathNotFoundException;
 import javax.jcr.Property;
@@ -45,6 +44,11 @@ public class AssetItem extends CategorisableItem {
 
     public static final String CONTENT_PROPERTY_NAME                = "drools:content";
     public static final String CONTENT_PROPERTY_BINARY_NAME         = "drools:binaryContent";
+    /**
+     * The hash of the binary content in the blob store. Assets written before
+     * there was a blob store hold the content itself instead.
+     */
+    public static final String CONTENT_PROPERTY_BINARY_HASH         = "drools:binaryContentHash";
     public static final String CONTENT_PROPERTY_ATTACHMENT_FILENAME = "drools:attachmentFileName";
 
     /**
@@ -142,8 +146,8 @@ public class AssetItem extends CategorisableItem {
     public long getContentLength() {
         try {
             Node assetNode = getVersionContentNode();
-            if ( assetNode.hasProperty( CONTENT_PROPERTY_BINARY_NAME ) ) {
-                Property data = assetNode.getProperty( CONTENT_PROPERTY_BINARY_NAME );
+            Property data = getBinaryProperty( assetNode );
+            if ( data != null ) {
                 return data.getLength();
             } else {
                 if ( assetNode.hasProperty( CONTENT_PROPERTY_NAME ) ) {
@@ -166,7 +170,7 @@ public class AssetItem extends CategorisableItem {
     public boolean isBinary() {
         try {
             Node assetNode = getVersionContentNode();
-            return assetNode.hasProperty( CONTENT_PROPERTY_BINARY_NAME );
+            return assetNode.hasProperty( CONTENT_PROPERTY_BINARY_HASH ) || assetNode.hasProperty( CONTENT_PROPERTY_BINARY_NAME );
         } catch ( RepositoryException e ) {
             log.error( e.getMessage(),
                        e );
@@ -184,9 +188,9 @@ public class AssetItem extends CategorisableItem {
                 return StorageEventManager.getLoadEvent().loadContent( this );
             }
             Node assetNode = getVersionContentNode();
-            if ( assetNode.hasProperty( CONTENT_PROPERTY_BINARY_NAME ) ) {
-                Property data = assetNode.getProperty( CONTENT_PROPERTY_BINARY_NAME );
-                return data.getBinary().getStream();
+            Property binary = getBinaryProperty( assetNode );
+            if ( binary != null ) {
+                return binary.getBinary().getStream();
             } else {
                 if ( assetNode.hasProperty( CONTENT_PROPERTY_NAME ) ) {
                     Property data = assetNode.getProperty( CONTENT_PROPERTY_NAME );
@@ -206,6 +210,20 @@ public class AssetItem extends CategorisableItem {
         return getStringProperty( CONTENT_PROPERTY_ATTACHMENT_FILENAME );
     }
 
+    /**
+     * The property holding the binary content, from the blob store or the
+     * node itself, or null if there is none.
+     */
+    private Property getBinaryProperty(Node assetNode) throws RepositoryException {
+        if ( assetNode.hasProperty( CONTENT_PROPERTY_BINARY_HASH ) ) {
+            return rulesRepository.getBlobStore().getData( assetNode.getProperty( CONTENT_PROPERTY_BINARY_HASH ).getString() );
+        }
+        if ( assetNode.hasProperty( CONTENT_PROPERTY_BINARY_NAME ) ) {
+            return assetNode.getProperty( CONTENT_PROPERTY_BINARY_NAME );
+        }
+        return null;
+    }
+
     /**
      * This is a convenience method for returning the binary data as a byte
      * array.
@@ -217,7 +235,7 @@ public class AssetItem extends CategorisableItem {
                 return IOUtils.toByteArray( StorageEventManager.getLoadEvent().loadContent( this ) );
             }
             if ( isBinary() ) {
-                Property data = assetNode.getProperty( CONTENT_PROPERTY_BINARY_NAME );
+                Property data = getBinaryProperty( assetNode );
                 InputStream in = data.getBinary().getStream();
 
                 // Create the byte array to hold the data
@@ -401,19 +419,26 @@ public class AssetItem extends CategorisableItem {
 
     /**
      * If the asset is a binary asset, then use this to update the content (do
-     * NOT use text).
+     * NOT use text). The content goes into the blob store, and the asset only
+     * keeps its hash, so the same bytes are only ever stored once.
      */
     public AssetItem updateBinaryContentAttachment(InputStream data) {
         checkout();
         try {
-            Binary is = this.node.getSession().getValueFactory().createBinary( data );
-            this.node.setProperty( CONTENT_PROPERTY_BINARY_NAME,
-                                   is );
+            this.node.setProperty( CONTENT_PROPERTY_BINARY_HASH,
+                                   rulesRepository.getBlobStore().store( data ) );
+            if ( this.node.hasProperty( CONTENT_PROPERTY_BINARY_NAME ) ) {
+                this.node.getProperty( CONTENT_PROPERTY_BINARY_NAME ).remove();
+            }
             return this;
         } catch ( RepositoryException e ) {
             log.error( "Unable to update the assets binary content",
                        e );
             throw new RulesRepositoryException( e );
+        } catch ( IOException e ) {
+            log.error( "Unable to update the assets binary content",
+                       e );
+            throw new RulesRepositoryException( e );
         }
     }
 
@@ -546,6 +571,7 @@ public class AssetItem extends CategorisableItem {
             }
         }
         try {
+            recordChange( ChangeJournalEntry.Type.DELETE );
             this.node.remove();
         } catch ( RepositoryException e ) {
             throw new RulesRepositoryException( e );
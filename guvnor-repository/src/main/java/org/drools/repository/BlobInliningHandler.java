@@ -0,0 +1,202 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.RepositoryException;
+import javax.xml.bind.DatatypeConverter;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Passes a system view export on, putting the bytes of each blob in place of
+ * the property that refers to it, so that the export reads the same as one
+ * made before there was a blob store, and can be imported into any
+ * repository. The bytes are written a piece at a time.
+ */
+class BlobInliningHandler implements ContentHandler {
+
+    private static final String SV = "http://www.jcp.org/jcr/sv/1.0";
+
+    //a multiple of 3, so that the pieces encode to base64 that can be joined up
+    private static final int PIECE = 3 * 4096;
+
+    private static final Map<String, String> INLINED = new HashMap<String, String>();
+
+    static {
+        INLINED.put(AssetItem.CONTENT_PROPERTY_BINARY_HASH,
+                AssetItem.CONTENT_PROPERTY_BINARY_NAME);
+        INLINED.put(ModuleItem.COMPILED_PACKAGE_HASH_PROPERTY_NAME,
+                ModuleItem.COMPILED_PACKAGE_PROPERTY_NAME);
+    }
+
+    private final ContentHandler delegate;
+    private final BlobStore blobStore;
+
+    private String inlining;
+    private StringBuilder hash;
+
+    BlobInliningHandler(ContentHandler delegate,
+                        BlobStore blobStore) {
+        this.delegate = delegate;
+        this.blobStore = blobStore;
+    }
+
+    public void startElement(String uri,
+                             String localName,
+                             String qName,
+                             Attributes atts) throws SAXException {
+        if (inlining != null) {
+            if ("value".equals(localName)) {
+                hash = new StringBuilder();
+            }
+            return;
+        }
+        if (SV.equals(uri) && "property".equals(localName)) {
+            inlining = INLINED.get(atts.getValue(SV, "name"));
+            if (inlining != null) {
+                return;
+            }
+        }
+        delegate.startElement(uri,
+                localName,
+                qName,
+                atts);
+    }
+
+    public void characters(char[] ch,
+                           int start,
+                           int length) throws SAXException {
+        if (inlining != null) {
+            if (hash != null) {
+                hash.append(ch,
+                        start,
+                        length);
+            }
+            return;
+        }
+        delegate.characters(ch,
+                start,
+                length);
+    }
+
+    public void endElement(String uri,
+                           String localName,
+                           String qName) throws SAXException {
+        if (inlining != null) {
+            if ("property".equals(localName)) {
+                writeInline(qName.substring(0, qName.indexOf(':') + 1));
+                inlining = null;
+                hash = null;
+            }
+            return;
+        }
+        delegate.endElement(uri,
+                localName,
+                qName);
+    }
+
+    private void writeInline(String prefix) throws SAXException {
+        AttributesImpl atts = new AttributesImpl();
+        atts.addAttribute(SV, "name", prefix + "name", "CDATA", inlining);
+        atts.addAttribute(SV, "type", prefix + "type", "CDATA", "Binary");
+        delegate.startElement(SV, "property", prefix + "property", atts);
+        delegate.startElement(SV, "value", prefix + "value", new AttributesImpl());
+        try {
+            InputStream in = blobStore.getData(hash.toString().trim()).getBinary().getStream();
+            try {
+                byte[] piece = new byte[PIECE];
+                int filled;
+                do {
+                    filled = 0;
+                    int n;
+                    while (filled < PIECE && (n = in.read(piece, filled, PIECE - filled)) != -1) {
+                        filled += n;
+                    }
+                    if (filled > 0) {
+                        byte[] bytes = piece;
+                        if (filled < PIECE) {
+                            bytes = new byte[filled];
+                            System.arraycopy(piece, 0, bytes, 0, filled);
+                        }
+                        char[] encoded = DatatypeConverter.printBase64Binary(bytes).toCharArray();
+                        delegate.characters(encoded, 0, encoded.length);
+                    }
+                } while (filled == PIECE);
+            } finally {
+                in.close();
+            }
+        } catch (RepositoryException e) {
+            throw new SAXException(e);
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+        delegate.endElement(SV, "value", prefix + "value");
+        delegate.endElement(SV, "property", prefix + "property");
+    }
+
+    public void setDocumentLocator(Locator locator) {
+        delegate.setDocumentLocator(locator);
+    }
+
+    public void startDocument() throws SAXException {
+        delegate.startDocument();
+    }
+
+    public void endDocument() throws SAXException {
+        delegate.endDocument();
+    }
+
+    public void startPrefixMapping(String prefix,
+                                   String uri) throws SAXException {
+        delegate.startPrefixMapping(prefix,
+                uri);
+    }
+
+    public void endPrefixMapping(String prefix) throws SAXException {
+        delegate.endPrefixMapping(prefix);
+    }
+
+    public void ignorableWhitespace(char[] ch,
+                                    int start,
+                                    int length) throws SAXException {
+        if (inlining == null) {
+            delegate.ignorableWhitespace(ch,
+                    start,
+                    length);
+        }
+    }
+
+    public void processingInstruction(String target,
+                                      String data) throws SAXException {
+        delegate.processingInstruction(target,
+                data);
+    }
+
+    public void skippedEntity(String name) throws SAXException {
+        delegate.skippedEntity(name);
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.jcr.ItemExistsException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The blob store keeps each distinct binary once, named by the SHA-256 of
+ * its bytes. Assets and modules hold that name instead of the bytes, so
+ * their versions and snapshots all share the one copy.
+ * <p/>
+ * Blobs are kept in the blob area, in buckets named by the first two
+ * characters of the hash so that no one node has too many children. The
+ * area and all of its buckets are set up with the repository, and their node
+ * type does not allow same-name siblings, so a blob can only be added once.
+ * A blob that nothing refers to any more stays until removeUnused is run.
+ */
+public class BlobStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+
+    static final String BLOB_NODE_TYPE_NAME = "drools:blobNodeType";
+    static final String BLOB_FOLDER_NODE_TYPE_NAME = "drools:blobFolderNodeType";
+
+    static final String DATA_PROPERTY_NAME = "drools:data";
+    static final String LAST_USED_PROPERTY_NAME = "drools:lastUsed";
+
+    /**
+     * Blobs used this recently are never removed, as the items referring to
+     * them may not have been saved yet.
+     */
+    static final long GRACE_PERIOD = 60 * 60 * 1000;
+
+    /**
+     * The properties that hold the hash of a blob.
+     */
+    static final String[] HASH_PROPERTY_NAMES = {AssetItem.CONTENT_PROPERTY_BINARY_HASH,
+            ModuleItem.COMPILED_PACKAGE_HASH_PROPERTY_NAME};
+
+    private static final String VERSION_STORAGE = "/jcr:system/jcr:versionStorage";
+
+    private final RulesRepository repository;
+
+    public BlobStore(RulesRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Reads the data to the end and adds it as a blob, unless there is one
+     * with the same bytes already. The session is not saved; should another
+     * session save the same blob first, the save fails rather than keep two
+     * copies.
+     *
+     * @return the hash to refer to the blob by.
+     */
+    public String store(InputStream data) throws IOException, RepositoryException {
+        //the data has to be read once to hash it before we know whether to keep it
+        File spool = File.createTempFile("guvnor-blob",
+                ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(spool));
+            try {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = data.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+            String hash = toHex(digest.digest());
+
+            Node bucket = getArea().getNode(hash.substring(0, 2));
+            if (bucket.hasNode(hash)) {
+                touch(bucket.getNode(hash));
+                return hash;
+            }
+            Node blob;
+            try {
+                blob = bucket.addNode(hash,
+                        BLOB_NODE_TYPE_NAME);
+            } catch (ItemExistsException e) {
+                //another session stored the same bytes since we looked
+                return hash;
+            }
+            InputStream in = new FileInputStream(spool);
+            try {
+                blob.setProperty(DATA_PROPERTY_NAME,
+                        getSession().getValueFactory().createBinary(in));
+            } finally {
+                in.close();
+            }
+            blob.setProperty(LAST_USED_PROPERTY_NAME,
+                    Calendar.getInstance());
+            return hash;
+        } finally {
+            spool.delete();
+        }
+    }
+
+    /**
+     * The property holding the bytes of the blob with the given hash.
+     */
+    public Property getData(String hash) throws RepositoryException {
+        try {
+            return getArea().getNode(hash.substring(0, 2) + "/" + hash)
+                    .getProperty(DATA_PROPERTY_NAME);
+        } catch (PathNotFoundException e) {
+            throw new RulesRepositoryException("The binary content " + hash + " is missing from the repository",
+                    e);
+        }
+    }
+
+    /**
+     * Removes the blobs that no asset or module, in any version or snapshot,
+     * refers to, and saves the session.
+     *
+     * @return the number of blobs removed.
+     */
+    public int removeUnused() {
+        return removeUnused(GRACE_PERIOD);
+    }
+
+    int removeUnused(long gracePeriod) {
+        try {
+            Node area = getArea();
+            Set<String> used = new HashSet<String>();
+            Node root = getSession().getRootNode().getNode(RulesRepository.RULES_REPOSITORY_NAME);
+            collectHashes(root.getNode(RulesRepository.MODULE_AREA),
+                    used);
+            collectHashes(root.getNode(RulesRepository.MODULE_SNAPSHOT_AREA),
+                    used);
+            if (getSession().nodeExists(VERSION_STORAGE)) {
+                collectHashes(getSession().getNode(VERSION_STORAGE),
+                        used);
+            }
+
+            long cutOff = System.currentTimeMillis() - gracePeriod;
+            int removed = 0;
+            for (NodeIterator buckets = area.getNodes(); buckets.hasNext(); ) {
+                Node bucket = buckets.nextNode();
+                for (NodeIterator blobs = bucket.getNodes(); blobs.hasNext(); ) {
+                    Node blob = blobs.nextNode();
+                    if (!used.contains(blob.getName()) && getLastUsed(blob) <= cutOff) {
+                        blob.remove();
+                        removed++;
+                    }
+                }
+            }
+            getSession().save();
+            log.info("Removed " + removed + " unused binaries, " + used.size() + " are in use");
+            return removed;
+        } catch (RepositoryException e) {
+            log.error("Unable to remove unused binaries", e);
+            throw new RulesRepositoryException(e);
+        }
+    }
+
+    private static void collectHashes(Node node,
+                                      Set<String> hashes) throws RepositoryException {
+        for (String name : HASH_PROPERTY_NAMES) {
+            if (node.hasProperty(name)) {
+                hashes.add(node.getProperty(name).getString());
+            }
+        }
+        for (NodeIterator children = node.getNodes(); children.hasNext(); ) {
+            collectHashes(children.nextNode(),
+                    hashes);
+        }
+    }
+
+    private static long getLastUsed(Node blob) throws RepositoryException {
+        if (blob.hasProperty(LAST_USED_PROPERTY_NAME)) {
+            return blob.getProperty(LAST_USED_PROPERTY_NAME).getDate().getTimeInMillis();
+        }
+        return 0;
+    }
+
+    /**
+     * Only touched now and then, so a blob used by many assets is seldom
+     * written to.
+     */
+    private static void touch(Node blob) throws RepositoryException {
+        if (getLastUsed(blob) < System.currentTimeMillis() - GRACE_PERIOD / 2) {
+            blob.setProperty(LAST_USED_PROPERTY_NAME,
+                    Calendar.getInstance());
+        }
+    }
+
+    /**
+     * Adds the blob area and all of its buckets to the repository node,
+     * unless they are there already. The session is not saved.
+     */
+    static void setupArea(Node repositoryNode) throws RepositoryException {
+        Node area = RulesRepository.addNodeIfNew(repositoryNode,
+                RulesRepository.BLOB_AREA,
+                BLOB_FOLDER_NODE_TYPE_NAME);
+        for (int i = 0; i < 256; i++) {
+            RulesRepository.addNodeIfNew(area,
+                    toHex(new byte[]{(byte) i}),
+                    BLOB_FOLDER_NODE_TYPE_NAME);
+        }
+    }
+
+    private Node getArea() throws RepositoryException {
+        return getSession().getRootNode().getNode(RulesRepository.RULES_REPOSITORY_NAME + "/" + RulesRepository.BLOB_AREA);
+    }
+
+    private Session getSession() {
+        return repository.getSession();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+            hex.append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+}
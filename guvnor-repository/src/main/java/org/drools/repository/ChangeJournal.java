@@ -0,0 +1,202 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The change journal holds every change to the assets and modules, each with
+ * a sequence number one more than the change before it. A client that
+ * remembers the last sequence number it has seen can ask for only what has
+ * changed since, rather than scanning the whole repository.
+ * <p/>
+ * The entries are kept under the content of the change area, in buckets of
+ * BUCKET_SIZE so that no one node has too many children. Only one session should append to the
+ * journal, so that the sequence numbers follow the order the changes were
+ * saved in.
+ */
+public class ChangeJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+
+    static final int BUCKET_SIZE = 1000;
+
+    static final String LAST_SEQUENCE_PROPERTY_NAME = "drools:lastSequence";
+    static final String SEQUENCE_PROPERTY_NAME = "drools:sequence";
+    static final String TYPE_PROPERTY_NAME = "drools:changeType";
+    static final String UUID_PROPERTY_NAME = "drools:uuid";
+    static final String NAME_PROPERTY_NAME = "drools:name";
+    static final String MODULE_NAME_PROPERTY_NAME = "drools:moduleName";
+    static final String FORMAT_PROPERTY_NAME = "drools:format";
+    static final String VERSION_NUMBER_PROPERTY_NAME = "drools:versionNumber";
+    static final String PREVIOUS_NAME_PROPERTY_NAME = "drools:previousName";
+    static final String PREVIOUS_MODULE_NAME_PROPERTY_NAME = "drools:previousModuleName";
+    static final String USER_PROPERTY_NAME = "drools:user";
+    static final String TIMESTAMP_PROPERTY_NAME = "drools:timestamp";
+
+    private final RulesRepository repository;
+
+    public ChangeJournal(RulesRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Gives each change the next sequence number, and saves it to the journal.
+     */
+    public void append(List<ChangeJournalEntry> changes) {
+        try {
+            Node area = getArea();
+            if (area == null) {
+                //the repository may have been set up, or imported, before there was a journal
+                area = repository.getSession().getRootNode().getNode(RulesRepository.RULES_REPOSITORY_NAME)
+                        .addNode(RulesRepository.CHANGE_AREA, "nt:file")
+                        .addNode("jcr:content", "nt:unstructured");
+            }
+            long sequence = getLastSequence(area);
+            for (ChangeJournalEntry change : changes) {
+                sequence++;
+                Node bucket = RulesRepository.addNodeIfNew(area,
+                        String.valueOf(sequence / BUCKET_SIZE),
+                        "nt:unstructured");
+                write(bucket.addNode(String.valueOf(sequence),
+                        "nt:unstructured"),
+                        change,
+                        sequence);
+            }
+            area.setProperty(LAST_SEQUENCE_PROPERTY_NAME,
+                    sequence);
+            repository.getSession().save();
+        } catch (RepositoryException e) {
+            log.error("Unable to append to the change journal", e);
+            throw new RulesRepositoryException(e);
+        }
+    }
+
+    /**
+     * The sequence number of the latest change, or 0 if there are none.
+     */
+    public long getLastSequence() {
+        try {
+            Node area = getArea();
+            return area == null ? 0 : getLastSequence(area);
+        } catch (RepositoryException e) {
+            throw new RulesRepositoryException(e);
+        }
+    }
+
+    /**
+     * The changes after the given sequence number, in order, read as they are
+     * iterated. Changes appended while iterating are not included.
+     */
+    public Iterator<ChangeJournalEntry> readSince(final long since) {
+        final Node area;
+        final long last;
+        try {
+            area = getArea();
+            last = area == null ? 0 : getLastSequence(area);
+        } catch (RepositoryException e) {
+            throw new RulesRepositoryException(e);
+        }
+        return new Iterator<ChangeJournalEntry>() {
+            private long next = Math.max(since, 0) + 1;
+
+            public boolean hasNext() {
+                return next <= last;
+            }
+
+            public ChangeJournalEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Node entry = area.getNode((next / BUCKET_SIZE) + "/" + next);
+                    next++;
+                    return read(entry);
+                } catch (RepositoryException e) {
+                    throw new RulesRepositoryException(e);
+                }
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private Node getArea() throws RepositoryException {
+        try {
+            return repository.getSession().getRootNode().getNode(RulesRepository.RULES_REPOSITORY_NAME + "/" + RulesRepository.CHANGE_AREA + "/jcr:content");
+        } catch (PathNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static long getLastSequence(Node area) throws RepositoryException {
+        if (area.hasProperty(LAST_SEQUENCE_PROPERTY_NAME)) {
+            return area.getProperty(LAST_SEQUENCE_PROPERTY_NAME).getLong();
+        }
+        return 0;
+    }
+
+    private static void write(Node entry,
+                              ChangeJournalEntry change,
+                              long sequence) throws RepositoryException {
+        entry.setProperty(SEQUENCE_PROPERTY_NAME, sequence);
+        entry.setProperty(TYPE_PROPERTY_NAME, change.getType().name());
+        entry.setProperty(UUID_PROPERTY_NAME, change.getUuid());
+        entry.setProperty(NAME_PROPERTY_NAME, change.getName());
+        entry.setProperty(MODULE_NAME_PROPERTY_NAME, change.getModuleName());
+        entry.setProperty(FORMAT_PROPERTY_NAME, change.getFormat());
+        entry.setProperty(VERSION_NUMBER_PROPERTY_NAME, change.getVersionNumber());
+        entry.setProperty(PREVIOUS_NAME_PROPERTY_NAME, change.getPreviousName());
+        entry.setProperty(PREVIOUS_MODULE_NAME_PROPERTY_NAME, change.getPreviousModuleName());
+        entry.setProperty(USER_PROPERTY_NAME, change.getUser());
+        entry.setProperty(TIMESTAMP_PROPERTY_NAME, change.getTimestamp());
+        change.setSequence(sequence);
+    }
+
+    private static ChangeJournalEntry read(Node entry) throws RepositoryException {
+        ChangeJournalEntry change = new ChangeJournalEntry();
+        change.setSequence(entry.getProperty(SEQUENCE_PROPERTY_NAME).getLong());
+        change.setType(ChangeJournalEntry.Type.valueOf(entry.getProperty(TYPE_PROPERTY_NAME).getString()));
+        change.setUuid(getString(entry, UUID_PROPERTY_NAME));
+        change.setName(getString(entry, NAME_PROPERTY_NAME));
+        change.setModuleName(getString(entry, MODULE_NAME_PROPERTY_NAME));
+        change.setFormat(getString(entry, FORMAT_PROPERTY_NAME));
+        change.setVersionNumber(entry.getProperty(VERSION_NUMBER_PROPERTY_NAME).getLong());
+        change.setPreviousName(getString(entry, PREVIOUS_NAME_PROPERTY_NAME));
+        change.setPreviousModuleName(getString(entry, PREVIOUS_MODULE_NAME_PROPERTY_NAME));
+        change.setUser(getString(entry, USER_PROPERTY_NAME));
+        change.setTimestamp(entry.getProperty(TIMESTAMP_PROPERTY_NAME).getLong());
+        return change;
+    }
+
+    private static String getString(Node entry,
+                                    String propertyName) throws RepositoryException {
+        return entry.hasProperty(propertyName) ? entry.getProperty(propertyName).getString() : null;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+/**
+ * A change to an asset or module, as recorded in the change journal. The
+ * details of the item are taken when the change is made, so that they are
+ * still there for items that have since been deleted.
+ */
+public class ChangeJournalEntry {
+
+    public enum Type {
+        CHECKIN, RENAME, MOVE, DELETE, ARCHIVE, UNARCHIVE, STATE
+    }
+
+    private long   sequence;
+    private Type   type;
+    private String uuid;
+    private String name;
+    private String moduleName;
+    private String format;
+    private long   versionNumber;
+    private String previousName;
+    private String previousModuleName;
+    private String user;
+    private long   timestamp;
+
+    public ChangeJournalEntry() {
+    }
+
+    /**
+     * Takes the details of the item as it is now.
+     */
+    public ChangeJournalEntry(Type type,
+                              VersionableItem item) {
+        this.type = type;
+        this.uuid = item.getUUID();
+        this.name = item.getName();
+        this.moduleName = (item instanceof AssetItem) ? ((AssetItem) item).getModuleName() : item.getName();
+        this.format = item.getFormat();
+        this.versionNumber = item.getVersionNumber();
+        this.user = item.getRulesRepository().getSession().getUserID();
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * The position of this change in the journal, or 0 if it has not been
+     * journaled yet.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The module of an asset, or the name of a module.
+     */
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public void setModuleName(String moduleName) {
+        this.moduleName = moduleName;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public long getVersionNumber() {
+        return versionNumber;
+    }
+
+    public void setVersionNumber(long versionNumber) {
+        this.versionNumber = versionNumber;
+    }
+
+    /**
+     * The name before a rename, otherwise null.
+     */
+    public String getPreviousName() {
+        return previousName;
+    }
+
+    public void setPreviousName(String previousName) {
+        this.previousName = previousName;
+    }
+
+    /**
+     * The module an asset was in before a move, otherwise null.
+     */
+    public String getPreviousModuleName() {
+        return previousModuleName;
+    }
+
+    public void setPreviousModuleName(String previousModuleName) {
+        this.previousModuleName = previousModuleName;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+}
@@ -24,6 +24,7 @@ import javax.jcr.*;
 import javax.jcr.nodetype.NodeType;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 
@@ -62,7 +63,12 @@ public class ModuleItem extends VersionableItem {
     public static final String WORKSPACE_PROPERTY_NAME = "drools:workspace";
     public static final String DEPENDENCIES_PROPERTY_NAME = "drools:dependencies";
 
-    private static final String COMPILED_PACKAGE_PROPERTY_NAME = "drools:compiledPackage";
+    static final String COMPILED_PACKAGE_PROPERTY_NAME = "drools:compiledPackage";
+    /**
+     * The hash of the compiled package in the blob store. Modules built before
+     * there was a blob store hold the package itself instead.
+     */
+    static final String COMPILED_PACKAGE_HASH_PROPERTY_NAME = "drools:compiledPackageHash";
     private final String BINARY_UP_TO_DATE = "drools:binaryUpToDate";
 
     /**
@@ -378,6 +384,7 @@ public class ModuleItem extends VersionableItem {
         checkIsUpdateable();
         try {
             log.info("USER:" + getCurrentUserName() + " REMOVEING module [" + getName() + "]");
+            recordChange(ChangeJournalEntry.Type.DELETE);
             this.node.remove();
         } catch (RepositoryException e) {
             throw new RulesRepositoryException("Was not able to delete module.",
@@ -630,6 +637,25 @@ public class ModuleItem extends VersionableItem {
      */
     public AssetItemIterator queryAssets(String fieldPredicates,
                                          boolean seekArchived) {
+        return queryAssets(fieldPredicates,
+                seekArchived,
+                AssetItem.TITLE_PROPERTY_NAME);
+    }
+
+    /**
+     * The assets in this module that are not archived, newest first. They are
+     * sorted by the query index, and loaded as they are iterated, so reading
+     * only the first few is cheap.
+     */
+    public AssetItemIterator listRecentAssets() {
+        return queryAssets("",
+                false,
+                AssetItem.LAST_MODIFIED_PROPERTY_NAME + " DESC");
+    }
+
+    private AssetItemIterator queryAssets(String fieldPredicates,
+                                          boolean seekArchived,
+                                          String orderBy) {
         try {
             String sql;
             if (isHistoricalVersion()) {
@@ -648,7 +674,7 @@ public class ModuleItem extends VersionableItem {
                 sql += " AND " + AssetItem.CONTENT_PROPERTY_ARCHIVE_FLAG + " = 'false'";
             }
 
-            sql += " ORDER BY " + AssetItem.TITLE_PROPERTY_NAME;
+            sql += " ORDER BY " + orderBy;
             
             //Adding this explicit order by ensures NodeIterator.getSize() returns a value other than -1.
             //See http://markmail.org/message/mxmk5hkxrdtcc3hl
@@ -1024,9 +1050,11 @@ public class ModuleItem extends VersionableItem {
     public ModuleItem updateCompiledBinary(InputStream data) {
         checkout();
         try {
-            Binary binary = this.node.getSession().getValueFactory().createBinary(data);
-            this.node.setProperty(COMPILED_PACKAGE_PROPERTY_NAME,
-                    binary);
+            this.node.setProperty(COMPILED_PACKAGE_HASH_PROPERTY_NAME,
+                    rulesRepository.getBlobStore().store(data));
+            if (this.node.hasProperty(COMPILED_PACKAGE_PROPERTY_NAME)) {
+                this.node.getProperty(COMPILED_PACKAGE_PROPERTY_NAME).remove();
+            }
             this.node.setProperty(LAST_MODIFIED_PROPERTY_NAME,
                     Calendar.getInstance());
             return this;
@@ -1034,6 +1062,10 @@ public class ModuleItem extends VersionableItem {
             log.error("Unable to update the assets binary content",
                     e);
             throw new RulesRepositoryException(e);
+        } catch (IOException e) {
+            log.error("Unable to update the assets binary content",
+                    e);
+            throw new RulesRepositoryException(e);
         }
     }
 
@@ -1045,8 +1077,13 @@ public class ModuleItem extends VersionableItem {
 
         try {
             Node ruleNode = getVersionContentNode();
-            if (ruleNode.hasProperty(COMPILED_PACKAGE_PROPERTY_NAME)) {
-                Property data = ruleNode.getProperty(COMPILED_PACKAGE_PROPERTY_NAME);
+            Property data = null;
+            if (ruleNode.hasProperty(COMPILED_PACKAGE_HASH_PROPERTY_NAME)) {
+                data = rulesRepository.getBlobStore().getData(ruleNode.getProperty(COMPILED_PACKAGE_HASH_PROPERTY_NAME).getString());
+            } else if (ruleNode.hasProperty(COMPILED_PACKAGE_PROPERTY_NAME)) {
+                data = ruleNode.getProperty(COMPILED_PACKAGE_PROPERTY_NAME);
+            }
+            if (data != null) {
                 InputStream in = data.getBinary().getStream();
 
                 // Create the byte array to hold the data
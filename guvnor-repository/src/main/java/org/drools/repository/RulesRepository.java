@@ -36,6 +36,13 @@ import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+
+import org.xml.sax.SAXException;
 import java.io.*;
 import java.util.*;
 import java.util.zip.ZipEntry;
@@ -117,6 +124,16 @@ public class RulesRepository {
      * The name of the workspace area within the JCR repository
      */
     public final static String WORKSPACE_AREA = "drools:workspace_area";
+
+    /**
+     * The name of the change journal area of the repository
+     */
+    public final static String CHANGE_AREA = "drools:change_area";
+
+    /**
+     * The name of the blob area of the repository
+     */
+    public final static String BLOB_AREA = "drools:blob_area";
     
     /**
     * The name of the node to store user's preference if want to install the sample repository
@@ -130,6 +147,13 @@ public class RulesRepository {
 
     private final Session session;
 
+    /**
+     * Changes made through this session that have not been saved yet.
+     */
+    private final List<ChangeJournalEntry> pendingChanges = new ArrayList<ChangeJournalEntry>();
+
+    private final BlobStore blobStore = new BlobStore(this);
+
     boolean initialized = false;
 
     /**
@@ -1139,6 +1163,30 @@ public class RulesRepository {
         }
     }
 
+    /**
+     * Finds the assets in the requested category that are not archived, newest
+     * first. They are sorted by the query index, and loaded as they are
+     * iterated, so reading only the first few is cheap.
+     */
+    public AssetItemIterator findRecentAssetsByCategory(String categoryTag) throws RulesRepositoryException {
+        CategoryItem item = this.loadCategory(categoryTag);
+        try {
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(AssetItem.ASSET_NODE_TYPE_NAME);
+            sql.append(" WHERE jcr:path LIKE '/").append(RULES_REPOSITORY_NAME).append("/").append(MODULE_AREA).append("/%'");
+            sql.append(" AND ").append(AssetItem.CATEGORY_PROPERTY_NAME).append(" = '").append(item.getNode().getIdentifier()).append("'");
+            sql.append(" AND ").append(AssetItem.CONTENT_PROPERTY_ARCHIVE_FLAG).append(" = 'false'");
+            sql.append(" ORDER BY ").append(AssetItem.LAST_MODIFIED_PROPERTY_NAME).append(" DESC");
+
+            Query q = this.session.getWorkspace().getQueryManager().createQuery(sql.toString(),
+                    Query.SQL);
+
+            return new AssetItemIterator(q.execute().getNodes(),
+                    this);
+        } catch (RepositoryException e) {
+            throw new RulesRepositoryException(e);
+        }
+    }
+
     /**
      * Finds the AssetItem's linked to the requested state. Similar to finding
      * by category.
@@ -1236,7 +1284,7 @@ public class RulesRepository {
 
     public void exportRepositoryToStream(OutputStream output) {
         try {
-            session.refresh(false);
+            discardChanges();
             session.exportSystemView("/" + RULES_REPOSITORY_NAME,
                     output,
                     false,
@@ -1253,29 +1301,62 @@ public class RulesRepository {
     public byte[] exportModuleFromRepository(String moduleName) throws IOException,
             PathNotFoundException,
             RepositoryException {
-
         ByteArrayOutputStream bout = new ByteArrayOutputStream();
-        ZipOutputStream zout = new ZipOutputStream(bout);
+        exportModuleToStream(moduleName,
+                bout);
+        return bout.toByteArray();
+    }
 
+    /**
+     * Writes the module as a zip holding its XML export, as it is read from
+     * the repository. The stream is not closed.
+     */
+    public void exportModuleToStream(String moduleName,
+                                     OutputStream output) throws IOException,
+            PathNotFoundException,
+            RepositoryException {
+        ZipOutputStream zout = new ZipOutputStream(output);
         zout.putNextEntry(new ZipEntry("repository_export.xml"));
-        zout.write(dumpModuleFromRepositoryXml(moduleName));
+        dumpModuleToStream(moduleName,
+                zout);
         zout.closeEntry();
         zout.finish();
-        return bout.toByteArray();
     }
 
     public byte[] dumpModuleFromRepositoryXml(String moduleName) throws PathNotFoundException,
             IOException,
             RepositoryException {
         ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        session.refresh(false);
-        session.exportSystemView("/" + RULES_REPOSITORY_NAME + "/" + MODULE_AREA + "/" + moduleName,
-                byteOut,
-                false,
-                false);
+        dumpModuleToStream(moduleName,
+                byteOut);
         return byteOut.toByteArray();
     }
 
+    /**
+     * Writes the XML export of the module. The stream is not closed. Binary
+     * content is written out in full rather than as a reference to the blob
+     * store, so the export can be imported into any repository.
+     */
+    public void dumpModuleToStream(String moduleName,
+                                   OutputStream output) throws PathNotFoundException,
+            IOException,
+            RepositoryException {
+        discardChanges();
+        try {
+            TransformerHandler handler = ((SAXTransformerFactory) TransformerFactory.newInstance()).newTransformerHandler();
+            handler.setResult(new StreamResult(output));
+            session.exportSystemView("/" + RULES_REPOSITORY_NAME + "/" + MODULE_AREA + "/" + moduleName,
+                    new BlobInliningHandler(handler,
+                            blobStore),
+                    false,
+                    false);
+        } catch (TransformerConfigurationException e) {
+            throw new RulesRepositoryException(e);
+        } catch (SAXException e) {
+            throw new RulesRepositoryException(e);
+        }
+    }
+
     /**
      * Import the repository from a stream.
      */
@@ -1285,6 +1366,8 @@ public class RulesRepository {
             this.session.getWorkspace().importXML("/",
                     in,
                     ImportUUIDBehavior.IMPORT_UUID_CREATE_NEW);
+            //exports made before there was a blob store do not have its area
+            BlobStore.setupArea(this.session.getRootNode().getNode(RULES_REPOSITORY_NAME));
             session.save();
         } catch (RepositoryException e) {
             throw new RulesRepositoryException(e);
@@ -1303,6 +1386,7 @@ public class RulesRepository {
             this.session.getWorkspace().importXML("/",
                     instream,
                     ImportUUIDBehavior.IMPORT_UUID_COLLISION_THROW);
+            BlobStore.setupArea(this.session.getRootNode().getNode(RULES_REPOSITORY_NAME));
             session.save();
             MigrateDroolsPackage mig = new MigrateDroolsPackage();
             if (mig.needsMigration(this)) {
@@ -1328,16 +1412,26 @@ public class RulesRepository {
 
     public void importPackageToRepository(byte[] byteArray,
                                           boolean importAsNew) {
+        importPackageToRepository(new ByteArrayInputStream(byteArray),
+                importAsNew);
+    }
+
+    /**
+     * Imports a module from its XML export, which is parsed as it is read,
+     * so it is never all in memory. The stream is not closed.
+     */
+    public void importPackageToRepository(InputStream in,
+                                          boolean importAsNew) {
         try {
             if (importAsNew) {
                 this.session.getWorkspace().importXML("/" + RULES_REPOSITORY_NAME + "/" + MODULE_AREA + "/",
-                        new ByteArrayInputStream(byteArray),
+                        in,
                         ImportUUIDBehavior.IMPORT_UUID_CREATE_NEW);
 
             } else {
 
                 this.session.getWorkspace().importXML("/" + RULES_REPOSITORY_NAME + "/" + MODULE_AREA + "/",
-                        new ByteArrayInputStream(byteArray),
+                        in,
                         ImportUUIDBehavior.IMPORT_UUID_COLLISION_REPLACE_EXISTING);
             }
             session.save();
@@ -1400,6 +1494,7 @@ public class RulesRepository {
     public void save() {
         try {
             this.session.save();
+            publishChanges();
         } catch (InvalidItemStateException e) {
             String message = "Your operation was failed because it conflicts with a change made through another user. Please try again.";
             log.error("Caught Exception",
@@ -1416,6 +1511,56 @@ public class RulesRepository {
 
     }
 
+    /**
+     * Discards the changes made through this session since it was last saved,
+     * along with the changes noted for the change listeners.
+     */
+    public void discardChanges() {
+        pendingChanges.clear();
+        try {
+            this.session.refresh(false);
+        } catch (RepositoryException e) {
+            log.error(e.getMessage(),
+                    e);
+            throw new RulesRepositoryException(e);
+        }
+    }
+
+    BlobStore getBlobStore() {
+        return blobStore;
+    }
+
+    /**
+     * Removes the binary content that no asset or module refers to any more,
+     * in any version or snapshot. This goes through the whole repository, so
+     * is best run when it is quiet.
+     *
+     * @return the number of binaries removed.
+     */
+    public int removeUnusedBinaries() {
+        return blobStore.removeUnused();
+    }
+
+    /**
+     * Notes a change to be published to any change listeners once it is saved.
+     */
+    void recordChange(ChangeJournalEntry change) {
+        pendingChanges.add(change);
+    }
+
+    /**
+     * Publishes the changes made since the last save. To be called after the
+     * session has been saved.
+     */
+    void publishChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<ChangeJournalEntry> changes = new ArrayList<ChangeJournalEntry>(pendingChanges);
+        pendingChanges.clear();
+        StorageEventManager.doChangeEvents(changes);
+    }
+
     /**
      * This moves an asset from one module to another, preserving history
      * etc etc.
@@ -1429,6 +1574,7 @@ public class RulesRepository {
                                     String explanation) {
         try {
             AssetItem item = loadAssetByUUID(uuid);
+            String previousModule = item.getModuleName();
 
             String sourcePath = item.node.getPath();
             String destPath = loadModule(newModule).node.getPath() + "/" + ModuleItem.ASSET_FOLDER_NAME + "/" + item.getName();
@@ -1440,6 +1586,10 @@ public class RulesRepository {
             item.checkout();
             item.node.setProperty(AssetItem.MODULE_NAME_PROPERTY,
                     newModule);
+            ChangeJournalEntry change = item.recordChange(ChangeJournalEntry.Type.MOVE);
+            if (change != null) {
+                change.setPreviousModuleName(previousModule);
+            }
 
             item.checkin(explanation);
 
@@ -1459,6 +1609,7 @@ public class RulesRepository {
         try {
             AssetItem itemOriginal = loadAssetByUUID(uuid);
             log.info("Renaming asset: " + itemOriginal.getNode().getPath() + " to " + newAssetName);
+            String previousName = itemOriginal.getName();
             Node node = itemOriginal.getNode();
             String sourcePath = node.getPath();
             String destPath = node.getParent().getPath() + "/" + newAssetName;
@@ -1467,6 +1618,7 @@ public class RulesRepository {
             this.session.save();
 
             itemOriginal.updateTitle(newAssetName);
+            recordRename(itemOriginal, previousName);
             itemOriginal.checkin("Renamed asset " + itemOriginal.getName());
             return itemOriginal.getUUID();
         } catch (RepositoryException e) {
@@ -1476,6 +1628,14 @@ public class RulesRepository {
         }
     }
 
+    private void recordRename(VersionableItem item,
+                              String previousName) {
+        ChangeJournalEntry change = item.recordChange(ChangeJournalEntry.Type.RENAME);
+        if (change != null) {
+            change.setPreviousName(previousName);
+        }
+    }
+
     /**
      * Rename a category.
      *
@@ -1525,6 +1685,7 @@ public class RulesRepository {
         try {
             ModuleItem itemOriginal = loadModuleByUUID(uuid);
             log.info("Renaming module: " + itemOriginal.getNode().getPath() + " to " + newModuleName);
+            String previousName = itemOriginal.getName();
             Node node = itemOriginal.getNode();
             String sourcePath = node.getPath();
             String destPath = node.getParent().getPath() + "/" + newModuleName;
@@ -1534,6 +1695,7 @@ public class RulesRepository {
             this.session.save();
 
             itemOriginal.updateTitle(newModuleName);
+            recordRename(itemOriginal, previousName);
             itemOriginal.checkin("Renamed module " + itemOriginal.getName());
 
             ModuleItem newModuleItem = loadModule(newModuleName);
@@ -130,6 +130,8 @@ public class RulesRepositoryConfigurator {
 
             }
 
+            registerBlobNodeTypes(session, ws);
+
             // Setup the rule repository node
             Node repositoryNode = RulesRepository.addNodeIfNew(root, RulesRepository.RULES_REPOSITORY_NAME, "nt:folder");
 
@@ -169,12 +171,42 @@ public class RulesRepositoryConfigurator {
             //Setup the workspace area
             RulesRepository.addNodeIfNew(repositoryNode.getNode(RulesRepository.SCHEMA_AREA), RulesRepository.WORKSPACE_AREA, "nt:folder");
 
+            //Setup the blob area and all of its buckets
+            BlobStore.setupArea(repositoryNode);
+
             session.save();
         } catch (RuntimeException e) {
             throw new RepositoryException(e);
         }
     }
 
+    /**
+     * Registers the blob store node types and sets up the blob area, unless that has been done already. The blob
+     * store came later than the rest of the repository, so this needs doing on every startup, including for
+     * repositories that are already set up.
+     *
+     * @throws RepositoryException
+     */
+    public void setupBlobStore(Session session) throws RepositoryException {
+        try {
+            registerBlobNodeTypes(session, session.getWorkspace());
+            Node root = session.getRootNode();
+            if (root.hasNode(RulesRepository.RULES_REPOSITORY_NAME)) {
+                BlobStore.setupArea(root.getNode(RulesRepository.RULES_REPOSITORY_NAME));
+                session.save();
+            }
+        } catch (RuntimeException e) {
+            throw new RepositoryException(e);
+        }
+    }
+
+    private void registerBlobNodeTypes(Session session, Workspace ws) throws RepositoryException {
+        if (!ws.getNodeTypeManager().hasNodeType(BlobStore.BLOB_NODE_TYPE_NAME)) {
+            log.info("Registering the blob store node types.");
+            jcrRepositoryConfigurator.registerNodeTypesFromCndFile("/node_type_definitions/blob_node_type.cnd", session, ws);
+        }
+    }
+
     public void shutdown() {
         jcrRepositoryConfigurator.shutdown();
         log.info("SHUTDOWN RULES CONFIG");
@@ -587,6 +587,9 @@ public abstract class VersionableItem extends Item {
             }
             StorageEventManager.doCheckinEvents(this);
 
+            recordChange( ChangeJournalEntry.Type.CHECKIN );
+            this.rulesRepository.publishChanges();
+
         } catch ( RepositoryException e ) {
             throw new RulesRepositoryException( "Unable to checkin.",
                                                 e );
@@ -682,6 +685,7 @@ public abstract class VersionableItem extends Item {
             checkout();
             this.node.setProperty( STATE_PROPERTY_NAME,
                                    stateItem.getNode() );
+            recordChange( ChangeJournalEntry.Type.STATE );
         } catch ( Exception e ) {
             log.error( "Caught exception",
                        e );
@@ -894,6 +898,7 @@ public abstract class VersionableItem extends Item {
 
         try {
             this.node.setProperty(CONTENT_PROPERTY_ARCHIVE_FLAG, data);
+            recordChange(data ? ChangeJournalEntry.Type.ARCHIVE : ChangeJournalEntry.Type.UNARCHIVE);
             return this;
         } catch (RepositoryException e) {
             log.error("Unable to update this VersionableItem binary archive flag");
@@ -920,6 +925,21 @@ public abstract class VersionableItem extends Item {
         }
     }
     
+    /**
+     * Notes a change to this item for any change listeners. It is published
+     * once the session is saved. Items that have never been checked in are
+     * left out, as they will be when they are first checked in.
+     */
+    ChangeJournalEntry recordChange(ChangeJournalEntry.Type type) {
+        if ( !StorageEventManager.hasChangeEvents() || this.node.isNew() || getVersionNumber() == 0 ) {
+            return null;
+        }
+        ChangeJournalEntry change = new ChangeJournalEntry( type,
+                                                            this );
+        this.rulesRepository.recordChange( change );
+        return change;
+    }
+
     public static VersionManager getVersionManager(Node targetNode) throws RepositoryException {
         return targetNode.getSession().getWorkspace().getVersionManager();
     }
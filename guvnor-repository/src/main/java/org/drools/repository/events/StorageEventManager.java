@@ -16,10 +16,11 @@
 
 package org.drools.repository.events;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.drools.repository.AssetItem;
+import org.drools.repository.ChangeJournalEntry;
 import org.drools.repository.VersionableItem;
 
 /**
@@ -28,7 +29,8 @@ import org.drools.repository.VersionableItem;
 public class StorageEventManager {
 
 
-    static List<CheckinEvent> checkinEvents = new ArrayList<CheckinEvent>();
+    static List<CheckinEvent> checkinEvents = new CopyOnWriteArrayList<CheckinEvent>();
+    static List<ChangeEvent> changeEvents = new CopyOnWriteArrayList<ChangeEvent>();
     static LoadEvent le = loadEvent();
     static SaveEvent se = saveEvent();
 
@@ -70,6 +72,10 @@ public class StorageEventManager {
         return se != null;
     }
 
+    public static boolean hasChangeEvents() {
+        return !changeEvents.isEmpty();
+    }
+
     public static LoadEvent getLoadEvent() {
         return le;
     }
@@ -81,9 +87,22 @@ public class StorageEventManager {
     public static void registerCheckinEvent(CheckinEvent ev) {
         checkinEvents.add(ev);
     }
+
+    public static void unregisterCheckinEvent(CheckinEvent ev) {
+        checkinEvents.remove(ev);
+    }
     
+    public static void registerChangeEvent(ChangeEvent ev) {
+        changeEvents.add(ev);
+    }
+
+    public static void unregisterChangeEvent(ChangeEvent ev) {
+        changeEvents.remove(ev);
+    }
+
     public static void removeListeners() {
         checkinEvents.clear();
+        changeEvents.clear();
     }
 
     /**
@@ -97,4 +116,13 @@ public class StorageEventManager {
             }
         }
     }
+
+    /**
+     * Process any change event listeners, once the changes have been saved.
+     */
+    public static void doChangeEvents(List<ChangeJournalEntry> changes) {
+        for (ChangeEvent e : changeEvents) {
+            e.afterChanges(changes);
+        }
+    }
 }
@@ -22,6 +22,8 @@ import java.util.Calendar;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.jcr.ItemExistsException;
+import javax.jcr.Node;
 import javax.jcr.version.Version;
 import javax.jcr.version.VersionIterator;
 
@@ -937,7 +939,8 @@ public class AssetItemTest extends RepositoryTestCase {
         assertEquals(data, item.getContent());
 
         assertFalse(item.getNode().hasProperty( AssetItem.CONTENT_PROPERTY_NAME ));
-        assertTrue(item.getNode().hasProperty( AssetItem.CONTENT_PROPERTY_BINARY_NAME ));
+        assertTrue(item.getNode().hasProperty( AssetItem.CONTENT_PROPERTY_BINARY_HASH ));
+        assertFalse(item.getNode().hasProperty( AssetItem.CONTENT_PROPERTY_BINARY_NAME ));
         item.checkin( "lalalala" );
 
         assertTrue(item.isBinary());
@@ -962,4 +965,87 @@ public class AssetItemTest extends RepositoryTestCase {
 
     }
 
+    @Test
+    public void testBinaryContentIsStoredOnce() throws Exception {
+        ModuleItem pkg = getRepo().loadDefaultModule();
+        AssetItem first = pkg.addAsset( "testBinaryContentIsStoredOnce1", "" );
+        first.updateBinaryContentAttachment( new ByteArrayInputStream( "same bytes".getBytes() ) );
+        first.checkin( "" );
+        AssetItem second = pkg.addAsset( "testBinaryContentIsStoredOnce2", "" );
+        second.updateBinaryContentAttachment( new ByteArrayInputStream( "same bytes".getBytes() ) );
+        second.checkin( "" );
+
+        String hash = first.getNode().getProperty( AssetItem.CONTENT_PROPERTY_BINARY_HASH ).getString();
+        assertEquals( 64, hash.length() );
+        assertEquals( hash, second.getNode().getProperty( AssetItem.CONTENT_PROPERTY_BINARY_HASH ).getString() );
+
+        //the old version still reads back the old bytes
+        second.updateBinaryContentAttachment( new ByteArrayInputStream( "other bytes".getBytes() ) );
+        second.checkin( "" );
+        assertEquals( "other bytes", new String( second.getBinaryContentAsBytes() ) );
+        assertEquals( "same bytes", new String( ((AssetItem) second.getPrecedingVersion()).getBinaryContentAsBytes() ) );
+
+        //a blob nothing refers to is removed, the ones in use are kept
+        BlobStore blobStore = getRepo().getBlobStore();
+        String unused = blobStore.store( new ByteArrayInputStream( "nobody uses this".getBytes() ) );
+        getRepo().save();
+        assertTrue( blobStore.removeUnused( 0 ) > 0 );
+        try {
+            blobStore.getData( unused );
+            fail( "the blob should have been removed" );
+        } catch ( RulesRepositoryException e ) {
+            assertNotNull( e.getMessage() );
+        }
+        assertEquals( "same bytes", new String( first.getBinaryContentAsBytes() ) );
+        assertEquals( "same bytes", new String( ((AssetItem) second.getPrecedingVersion()).getBinaryContentAsBytes() ) );
+        assertEquals( 10, first.getContentLength() );
+
+        //recently used blobs are kept whether or not they are used
+        unused = blobStore.store( new ByteArrayInputStream( "nobody uses this".getBytes() ) );
+        getRepo().save();
+        blobStore.removeUnused();
+        assertEquals( 16, blobStore.getData( unused ).getLength() );
+    }
+
+    @Test
+    public void testBlobAreaIsSetUpWithoutSameNameSiblings() throws Exception {
+        Node area = getRepo().getSession().getRootNode().getNode( RulesRepository.RULES_REPOSITORY_NAME + "/" + RulesRepository.BLOB_AREA );
+        assertEquals( 256, area.getNodes().getSize() );
+        assertTrue( area.hasNode( "00" ) );
+        assertTrue( area.hasNode( "ff" ) );
+
+        BlobStore blobStore = getRepo().getBlobStore();
+        String hash = blobStore.store( new ByteArrayInputStream( "stored twice".getBytes() ) );
+        assertEquals( hash, blobStore.store( new ByteArrayInputStream( "stored twice".getBytes() ) ) );
+        getRepo().save();
+
+        Node bucket = area.getNode( hash.substring( 0, 2 ) );
+        try {
+            bucket.addNode( hash, BlobStore.BLOB_NODE_TYPE_NAME );
+            fail( "the blob should only be added once" );
+        } catch ( ItemExistsException e ) {
+            assertNotNull( e.getMessage() );
+        }
+        getRepo().getSession().refresh( false );
+        assertEquals( 12, blobStore.getData( hash ).getLength() );
+    }
+
+    @Test
+    public void testBlobStoreIsSetUpInRepositoryFromBeforeIt() throws Exception {
+        //a repository set up before the blob store has no blob area (node types cannot be unregistered in a test)
+        Node repositoryNode = getRepo().getSession().getRootNode().getNode( RulesRepository.RULES_REPOSITORY_NAME );
+        repositoryNode.getNode( RulesRepository.BLOB_AREA ).remove();
+        getRepo().save();
+        assertTrue( new RulesRepositoryAdministrator( getRepo().getSession() ).isRepositoryInitialized() );
+
+        RulesRepositoryConfigurator.getInstance( null ).setupBlobStore( getRepo().getSession() );
+        assertEquals( 256, repositoryNode.getNode( RulesRepository.BLOB_AREA ).getNodes().getSize() );
+
+        AssetItem item = getRepo().loadDefaultModule().addAsset( "testBlobStoreIsSetUpInRepositoryFromBeforeIt", "" );
+        item.updateBinaryContentAttachment( new ByteArrayInputStream( "uploaded".getBytes() ) );
+        item.checkin( "" );
+        item = getRepo().loadAssetByUUID( item.getUUID() );
+        assertEquals( "uploaded", new String( item.getBinaryContentAsBytes() ) );
+    }
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.drools.repository.events.ChangeEvent;
+import org.drools.repository.events.StorageEventManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeJournalTest extends RepositoryTestCase {
+
+    private final List<ChangeJournalEntry> published = new ArrayList<ChangeJournalEntry>();
+
+    private final ChangeEvent listener = new ChangeEvent() {
+        public void afterChanges(List<ChangeJournalEntry> changes) {
+            published.addAll(changes);
+        }
+    };
+
+    @Before
+    public void registerListener() {
+        StorageEventManager.registerChangeEvent(listener);
+    }
+
+    @After
+    public void unregisterListener() {
+        StorageEventManager.unregisterChangeEvent(listener);
+    }
+
+    @Test
+    public void testAppendAndReadSince() {
+        ChangeJournal journal = new ChangeJournal(getRepo());
+        long start = journal.getLastSequence();
+
+        journal.append(Arrays.asList(newChange("a"), newChange("b")));
+        journal.append(Arrays.asList(newChange("c")));
+
+        assertEquals(start + 3, journal.getLastSequence());
+
+        Iterator<ChangeJournalEntry> it = journal.readSince(start + 1);
+        ChangeJournalEntry b = it.next();
+        assertEquals(start + 2, b.getSequence());
+        assertEquals("b", b.getName());
+        assertEquals(ChangeJournalEntry.Type.CHECKIN, b.getType());
+        assertEquals("pkg", b.getModuleName());
+        assertEquals(42, b.getVersionNumber());
+        assertNull(b.getPreviousName());
+        assertEquals("c", it.next().getName());
+        assertFalse(it.hasNext());
+
+        assertFalse(journal.readSince(start + 3).hasNext());
+    }
+
+    @Test
+    public void testChangesArePublishedOnceSaved() {
+        RulesRepository repo = getRepo();
+        ModuleItem module = repo.createModule("testChangesArePublishedOnceSaved", "");
+        published.clear();
+        AssetItem asset = module.addAsset("before", "");
+        asset.checkin("first");
+
+        assertEquals(1, published.size());
+        assertEquals(ChangeJournalEntry.Type.CHECKIN, published.get(0).getType());
+        assertEquals(asset.getUUID(), published.get(0).getUuid());
+        assertEquals(1, published.get(0).getVersionNumber());
+
+        published.clear();
+        repo.renameAsset(asset.getUUID(), "after");
+        assertEquals(2, published.size());
+        assertEquals(ChangeJournalEntry.Type.RENAME, published.get(0).getType());
+        assertEquals("after", published.get(0).getName());
+        assertEquals("before", published.get(0).getPreviousName());
+        assertEquals(ChangeJournalEntry.Type.CHECKIN, published.get(1).getType());
+
+        published.clear();
+        asset = repo.loadAssetByUUID(asset.getUUID());
+        asset.archiveItem(true);
+        assertTrue(published.isEmpty());
+        repo.save();
+        assertEquals(1, published.size());
+        assertEquals(ChangeJournalEntry.Type.ARCHIVE, published.get(0).getType());
+
+        published.clear();
+        asset.remove();
+        repo.save();
+        assertEquals(1, published.size());
+        assertEquals(ChangeJournalEntry.Type.DELETE, published.get(0).getType());
+        assertEquals("after", published.get(0).getName());
+        assertEquals("testChangesArePublishedOnceSaved", published.get(0).getModuleName());
+    }
+
+    @Test
+    public void testDiscardedChangesAreNotPublished() {
+        RulesRepository repo = getRepo();
+        ModuleItem module = repo.createModule("testDiscardedChangesAreNotPublished", "");
+        AssetItem asset = module.addAsset("asset", "");
+        asset.checkin("first");
+
+        published.clear();
+        asset.archiveItem(true);
+        repo.discardChanges();
+        assertFalse(repo.loadAssetByUUID(asset.getUUID()).isArchived());
+
+        module = repo.loadModule("testDiscardedChangesAreNotPublished");
+        module.updateDescription("changed");
+        repo.save();
+        assertTrue(published.isEmpty());
+    }
+
+    private static ChangeJournalEntry newChange(String name) {
+        ChangeJournalEntry change = new ChangeJournalEntry();
+        change.setType(ChangeJournalEntry.Type.CHECKIN);
+        change.setUuid("uuid-" + name);
+        change.setName(name);
+        change.setModuleName("pkg");
+        change.setFormat("drl");
+        change.setVersionNumber(42);
+        change.setUser("admin");
+        change.setTimestamp(System.currentTimeMillis());
+        return change;
+    }
+
+}
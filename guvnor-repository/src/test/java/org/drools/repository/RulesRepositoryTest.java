@@ -31,6 +31,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.zip.ZipInputStream;
 
 import javax.jcr.ImportUUIDBehavior;
 import javax.jcr.Node;
@@ -1142,7 +1143,55 @@ public class RulesRepositoryTest extends RepositoryTestCase {
         assertTrue(repo.containsModule("testImportExport"));
     }
 
-     /*
+    @Test
+    public void testModuleExportImportStreams() throws Exception {
+        RulesRepository repo = getRepo();
+        ModuleItem module = repo.createModule("testModuleExportImportStreams", "nodescription");
+        AssetItem asset = module.addAsset("testModuleExportImportStreamsAsset", "desc");
+        asset.updateContent("la");
+        asset.checkin("");
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        repo.dumpModuleToStream("testModuleExportImportStreams", bout);
+        byte[] xml = bout.toByteArray();
+
+        module.remove();
+        repo.save();
+        assertFalse(repo.containsModule("testModuleExportImportStreams"));
+
+        repo.importPackageToRepository(new ByteArrayInputStream(xml), false);
+        assertTrue(repo.containsModule("testModuleExportImportStreams"));
+        assertEquals("la",
+                repo.loadModule("testModuleExportImportStreams").loadAsset("testModuleExportImportStreamsAsset").getContent());
+
+        bout = new ByteArrayOutputStream();
+        repo.exportModuleToStream("testModuleExportImportStreams", bout);
+        ZipInputStream zin = new ZipInputStream(new ByteArrayInputStream(bout.toByteArray()));
+        assertEquals("repository_export.xml", zin.getNextEntry().getName());
+    }
+
+    @Test
+    public void testModuleExportInlinesBinaryContent() throws Exception {
+        RulesRepository repo = getRepo();
+        ModuleItem module = repo.createModule("testModuleExportInlinesBinaryContent", "nodescription");
+        AssetItem asset = module.addAsset("testModuleExportInlinesBinaryContentAsset", "desc");
+        asset.updateBinaryContentAttachment(new ByteArrayInputStream("some bytes".getBytes()));
+        asset.checkin("");
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        repo.dumpModuleToStream("testModuleExportInlinesBinaryContent", bout);
+        String xml = new String(bout.toByteArray(), "UTF-8");
+        assertTrue(xml.contains(AssetItem.CONTENT_PROPERTY_BINARY_NAME));
+        assertFalse(xml.contains(AssetItem.CONTENT_PROPERTY_BINARY_HASH));
+
+        module.remove();
+        repo.save();
+        repo.importPackageToRepository(new ByteArrayInputStream(bout.toByteArray()), false);
+        assertEquals("some bytes",
+                new String(repo.loadModule("testModuleExportInlinesBinaryContent").loadAsset("testModuleExportInlinesBinaryContentAsset").getBinaryContentAsBytes()));
+    }
+
+    /*
      * https://jira.jboss.org/browse/MODE-883
      */
     @Test
@@ -818,7 +818,7 @@ public class ShareableAssetItemTest extends RepositoryTestCase {
         assertEquals(data, linkedAsset.getContent());
 
         assertFalse(linkedAsset.getNode().hasProperty(AssetItem.CONTENT_PROPERTY_NAME));
-        assertTrue(linkedAsset.getNode().hasProperty(AssetItem.CONTENT_PROPERTY_BINARY_NAME));
+        assertTrue(linkedAsset.getNode().hasProperty(AssetItem.CONTENT_PROPERTY_BINARY_HASH));
         linkedAsset.checkin("lalalala");
 
         assertTrue(linkedAsset.isBinary());
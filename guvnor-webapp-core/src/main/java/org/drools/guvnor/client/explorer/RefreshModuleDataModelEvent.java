@@ -3,6 +3,7 @@ package org.drools.guvnor.client.explorer;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
 import com.google.gwt.user.client.Command;
+import org.drools.guvnor.client.rpc.Asset;
 
 public class RefreshModuleDataModelEvent extends GwtEvent<RefreshModuleDataModelEvent.Handler> {
 
@@ -17,6 +18,7 @@ public class RefreshModuleDataModelEvent extends GwtEvent<RefreshModuleDataModel
 
     private final String                                          moduleName;
     private Command                                               callbackCommand = null;
+    private Asset                                                 asset           = null;
 
     public RefreshModuleDataModelEvent(String moduleName,
                                        Command callbackCommand) {
@@ -24,6 +26,18 @@ public class RefreshModuleDataModelEvent extends GwtEvent<RefreshModuleDataModel
         this.callbackCommand = callbackCommand;
     }
 
+    /**
+     * @param asset the asset that is about to be opened, so that only the parts
+     *            of the data model it needs have to be loaded.
+     */
+    public RefreshModuleDataModelEvent(String moduleName,
+                                       Asset asset,
+                                       Command callbackCommand) {
+        this( moduleName,
+              callbackCommand );
+        this.asset = asset;
+    }
+
     public String getModuleName() {
         return moduleName;
     }
@@ -32,6 +46,13 @@ public class RefreshModuleDataModelEvent extends GwtEvent<RefreshModuleDataModel
         return callbackCommand;
     }
 
+    /**
+     * @return the asset that is about to be opened, or null.
+     */
+    public Asset getAsset() {
+        return asset;
+    }
+
     @Override
     public Type<RefreshModuleDataModelEvent.Handler> getAssociatedType() {
         return TYPE;
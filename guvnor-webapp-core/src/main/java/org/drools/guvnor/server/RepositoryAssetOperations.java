@@ -469,7 +469,7 @@ public class RepositoryAssetOperations {
             // now we load up the DSL files
             ModuleItem moduleItem = rulesRepository.loadModule(asset.getMetaData().getModuleName());
             builder.setDSLFiles(DSLLoader.loadDSLMappingFiles(moduleItem));
-            if (asset.getMetaData().isBinary()) {
+            if (asset.getMetaData().isBinary() || handler.isPartialContent(asset)) {
                 AssetItem item = rulesRepository.loadAssetByUUID(
                         asset.getUuid());
 
@@ -16,9 +16,10 @@
 package org.drools.guvnor.server;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -464,12 +465,30 @@ public class RepositoryAssetService
         if ( uuids == null ) {
             return null;
         }
-        Collection<Asset> assets = new HashSet<Asset>();
+        long time = System.currentTimeMillis();
 
-        for ( String uuid : uuids ) {
-            assets.add( loadRuleAsset( uuid ) );
+        //Assets are returned in the order asked for, each only once
+        List<AssetItem> items = new ArrayList<AssetItem>();
+        for ( String uuid : new LinkedHashSet<String>( uuids ) ) {
+            items.add( rulesRepository.loadAssetByUUID( uuid ) );
+        }
+
+        List<Asset> assets = new ArrayList<Asset>( items.size() );
+        for ( AssetItem item : items ) {
+            Asset asset = new AssetPopulator().populateFrom( item );
+            asset.setMetaData( repositoryAssetOperations.populateMetaData( item ) );
+            assets.add( asset );
+        }
+
+        //Check them all before any content is loaded
+        serviceSecurity.checkIsPackageReadOnlyOrAnalystReadOnly( assets );
+        for ( int i = 0; i < items.size(); i++ ) {
+            handlePackageItem( items.get( i ),
+                               assets.get( i ) );
         }
 
+        log.debug( "Load time taken for " + assets.size() + " assets: " + (System.currentTimeMillis() - time) );
+        UserInbox.recordOpeningEvents( items );
         return assets.toArray( new Asset[assets.size()] );
     }
 
@@ -63,6 +63,7 @@ import org.drools.guvnor.server.builder.pagerow.PermissionPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.QueryFullTextPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.QueryMetadataPageRowBuilder;
 import org.drools.guvnor.server.builder.pagerow.StatePageRowBuilder;
+import org.drools.guvnor.server.cache.DropDownExpressionCache;
 import org.drools.guvnor.server.repository.UserInbox;
 import org.drools.guvnor.server.ruleeditor.springcontext.SpringContextElementsManager;
 import org.drools.guvnor.server.security.RoleType;
@@ -88,8 +89,6 @@ import org.drools.repository.security.PermissionManager;
 import org.jboss.seam.remoting.annotations.WebRemote;
 import org.jboss.seam.security.Identity;
 import org.jboss.seam.security.annotations.LoggedIn;
-import org.mvel2.MVEL;
-import org.mvel2.templates.TemplateRuntime;
 
 import com.google.gwt.user.client.rpc.SerializationException;
 
@@ -530,25 +529,8 @@ public class ServiceImplementation
             context.put( pair[0],
                          pair[1] );
         }
-        // first interpolate the pairs
-        expression = (String) TemplateRuntime.eval( expression,
-                                                    context );
-
-        // now we can eval it for real...
-        Object result = MVEL.eval( expression );
-        if ( result instanceof String[] ) {
-            return (String[]) result;
-        } else if ( result instanceof List ) {
-            List l = (List) result;
-            String[] xs = new String[l.size()];
-            for ( int i = 0; i < xs.length; i++ ) {
-                Object el = l.get( i );
-                xs[i] = el.toString();
-            }
-            return xs;
-        } else {
-            return null;
-        }
+        return DropDownExpressionCache.getInstance().evaluate( expression,
+                                                               context );
     }
 
     /**
@@ -16,6 +16,10 @@
 
 package org.drools.guvnor.server;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -167,31 +171,69 @@ public class ServiceSecurity {
     }   
 
     protected void checkIsPackageReadOnlyOrAnalystReadOnly(final Asset asset) {
-        boolean passed = false;
+        if (!isPackageReadOnly(asset.getMetaData().getModuleName())) {
+            checkIsAnalystReadOnly(asset);
+        }
+    }
 
+    /**
+     * As checkIsPackageReadOnlyOrAnalystReadOnly(Asset) for several assets,
+     * checking the permission on each module once rather than once per asset.
+     */
+    protected void checkIsPackageReadOnlyOrAnalystReadOnly(final Collection<Asset> assets) {
+        Map<String, Boolean> readOnlyModules = new HashMap<String, Boolean>();
+        for (Asset asset : assets) {
+            String moduleName = asset.getMetaData().getModuleName();
+            Boolean readOnly = readOnlyModules.get(moduleName);
+            if (readOnly == null) {
+                readOnly = isPackageReadOnly(moduleName);
+                readOnlyModules.put(moduleName, readOnly);
+            }
+            if (!readOnly) {
+                checkIsAnalystReadOnly(asset);
+            }
+        }
+    }
+
+    /**
+     * True if the user can read the package, as a package.readonly role or
+     * higher.
+     */
+    public boolean hasPermissionPackageReadOnlyWithPackageName(final String packageName) {
+        return isPackageReadOnly(packageName);
+    }
+
+    private boolean isPackageReadOnly(final String moduleName) {
         try {
-            identity.checkPermission(new ModuleNameType(asset.getMetaData().getModuleName()),
+            identity.checkPermission(new ModuleNameType(moduleName),
                     RoleType.PACKAGE_READONLY.getName());
+            return true;
         } catch (RuntimeException e) {
-            if (asset.getMetaData().getCategories().length == 0) {
-                identity.checkPermission(new CategoryPathType(null),
-                        RoleType.ANALYST_READ.getName());
-            } else {
-                RuntimeException exception = null;
+            return false;
+        }
+    }
 
-                for (String cat : asset.getMetaData().getCategories()) {
-                    try {
-                        identity.checkPermission(new CategoryPathType(cat),
-                                RoleType.ANALYST_READ.getName());
-                        passed = true;
-                    } catch (RuntimeException re) {
-                        exception = re;
-                    }
-                }
-                if (!passed) {
-                    throw exception;
+    private void checkIsAnalystReadOnly(final Asset asset) {
+        boolean passed = false;
+
+        if (asset.getMetaData().getCategories().length == 0) {
+            identity.checkPermission(new CategoryPathType(null),
+                    RoleType.ANALYST_READ.getName());
+        } else {
+            RuntimeException exception = null;
+
+            for (String cat : asset.getMetaData().getCategories()) {
+                try {
+                    identity.checkPermission(new CategoryPathType(cat),
+                            RoleType.ANALYST_READ.getName());
+                    passed = true;
+                } catch (RuntimeException re) {
+                    exception = re;
                 }
             }
+            if (!passed) {
+                throw exception;
+            }
         }
     }
 
@@ -20,6 +20,8 @@ import org.drools.builder.conf.DefaultPackageNameOption;
 import org.drools.compiler.PackageBuilder;
 import org.drools.compiler.PackageBuilderConfiguration;
 import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.lang.descr.PackageDescr;
+import org.drools.lang.descr.RuleDescr;
 import org.drools.lang.dsl.DSLMappingFile;
 import org.drools.lang.dsl.DSLTokenizedMappingFile;
 import org.drools.lang.dsl.DefaultExpander;
@@ -76,6 +78,18 @@ public class BRMSPackageBuilder extends PackageBuilder {
         super.resetErrors();
     }
 
+    /**
+     * Add rules built directly from a model driven asset. This skips generating
+     * and parsing DRL; the rules are added to the default package.
+     */
+    public void addRuleDescrs(List<RuleDescr> rules) {
+        PackageDescr packageDescr = new PackageDescr(getPackageBuilderConfiguration().getDefaultPackageName());
+        for (RuleDescr rule : rules) {
+            packageDescr.addRule(rule);
+        }
+        addPackage(packageDescr);
+    }
+
     public void setDSLFiles(List<DSLTokenizedMappingFile> files) {
         this.dslFiles = files;
     }
@@ -155,6 +169,8 @@ public class BRMSPackageBuilder extends PackageBuilder {
 
     /**
      * Returns an expander for DSLs (only if there is a DSL configured for this package).
+     * Expanders hold the errors of their last expansion so are not shared between
+     * builders; the mappings they use are, being compiled when DSLLoader parses them.
      */
     public DefaultExpander getDSLExpander() {
         if (this.expander == null) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.drools.repository.AssetItem;
+
+/**
+ * DRL made by concatenating the content of several assets, remembering the
+ * line each asset starts on so that errors reported against the whole can be
+ * traced back to the asset they came from.
+ */
+class ConcatenatedAssetDRL {
+
+    private final StringBuilder   drl        = new StringBuilder();
+    private final List<AssetItem> assets     = new ArrayList<AssetItem>();
+    private final List<Integer>   firstLines = new ArrayList<Integer>();
+
+    //Lines are numbered from 1, as in parser and compiler errors
+    private int                   nextLine   = 1;
+
+    void add(AssetItem asset,
+             String content) {
+        assets.add( asset );
+        firstLines.add( nextLine );
+        drl.append( content ).append( '\n' );
+        nextLine = nextLine + countLines( content );
+    }
+
+    String getDRL() {
+        return drl.toString();
+    }
+
+    List<AssetItem> getAssets() {
+        return Collections.unmodifiableList( assets );
+    }
+
+    /**
+     * Returns the asset the given line came from, or null if the line is not
+     * within the DRL. Errors found at the end of the DRL belong to the last
+     * asset.
+     */
+    AssetItem getAsset(int line) {
+        if ( line < 1 || line > nextLine || assets.isEmpty() ) {
+            return null;
+        }
+        int index = Collections.binarySearch( firstLines,
+                                              line );
+        if ( index < 0 ) {
+            index = -index - 2;
+        }
+        return assets.get( index );
+    }
+
+    /**
+     * Returns the asset all of the given lines came from, or null if there are
+     * no lines or they came from more than one asset.
+     */
+    AssetItem getAsset(int[] lines) {
+        if ( lines == null || lines.length == 0 ) {
+            return null;
+        }
+        final AssetItem asset = getAsset( lines[0] );
+        for ( int i = 1; i < lines.length && asset != null; i++ ) {
+            if ( getAsset( lines[i] ) != asset ) {
+                return null;
+            }
+        }
+        return asset;
+    }
+
+    private static int countLines(String content) {
+        int lines = 1;
+        for ( int i = 0; i < content.length(); i++ ) {
+            if ( content.charAt( i ) == '\n' ) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+}
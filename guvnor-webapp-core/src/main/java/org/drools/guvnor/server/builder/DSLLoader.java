@@ -7,14 +7,34 @@ import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepositoryException;
 
+import org.drools.repository.events.StorageEventManager;
+
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DSLLoader {
 
+    /**
+     * Parsed DSL files, keyed by the version of the asset they were parsed from.
+     * Parsing compiles the regular expressions of every mapping entry, so the
+     * package builders, DSL rule handler and suggestion engines of a module all
+     * share the compiled mappings rather than each building their own. Parsed
+     * files are only read once loaded, so can be shared between threads.
+     */
+    private static final int MAX_CACHED_FILES = 256;
+
+    private static final Map<String, ParsedDSLFile> PARSED_FILES = new LinkedHashMap<String, ParsedDSLFile>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedDSLFile> eldest) {
+            return size() > MAX_CACHED_FILES;
+        }
+    };
+
     public static List<DSLTokenizedMappingFile> loadDSLMappingFiles(ModuleItem packageItem) {
         return loadDSLMappingFiles(packageItem, new BRMSPackageBuilder.DSLErrorEvent() {
             public void recordError(AssetItem asset,
@@ -43,20 +63,69 @@ public class DSLLoader {
                                  List<DSLTokenizedMappingFile> result,
                                  AssetItem assetItem) {
         if (!assetItem.getDisabled()) {
-            DSLTokenizedMappingFile file = new DSLTokenizedMappingFile();
-            try {
-                if (file.parseAndLoad(new StringReader(assetItem.getContent()))) {
-                    result.add(file);
-                } else {
-                    logErrors(dslErrorEvent, assetItem, file);
-                }
-
-            } catch (IOException e) {
-                throw new RulesRepositoryException(e);
+            ParsedDSLFile parsed = getParsedFile(assetItem);
+            if (parsed.isValid) {
+                result.add(parsed.file);
+            } else {
+                logErrors(dslErrorEvent, assetItem, parsed.file);
             }
         }
     }
 
+    private static ParsedDSLFile getParsedFile(AssetItem assetItem) {
+        String key = getCacheKey(assetItem);
+        if (key == null) {
+            return parse(assetItem);
+        }
+        ParsedDSLFile parsed;
+        synchronized (PARSED_FILES) {
+            parsed = PARSED_FILES.get(key);
+        }
+        if (parsed == null) {
+            parsed = parse(assetItem);
+            synchronized (PARSED_FILES) {
+                PARSED_FILES.put(key, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Returns null if the content may not match the asset's version: when it
+     * has unsaved changes or is provided by a storage event handler.
+     */
+    private static String getCacheKey(AssetItem assetItem) {
+        if (StorageEventManager.hasLoadEvent()) {
+            return null;
+        }
+        if (!assetItem.isHistoricalVersion() && assetItem.getNode().isModified()) {
+            return null;
+        }
+        return assetItem.getUUID() + ":" + assetItem.getVersionNumber() + ":" + assetItem.getLastModified().getTimeInMillis();
+    }
+
+    private static ParsedDSLFile parse(AssetItem assetItem) {
+        DSLTokenizedMappingFile file = new DSLTokenizedMappingFile();
+        try {
+            boolean isValid = file.parseAndLoad(new StringReader(assetItem.getContent()));
+            return new ParsedDSLFile(file, isValid);
+        } catch (IOException e) {
+            throw new RulesRepositoryException(e);
+        }
+    }
+
+    private static class ParsedDSLFile {
+
+        private final DSLTokenizedMappingFile file;
+        private final boolean isValid;
+
+        private ParsedDSLFile(DSLTokenizedMappingFile file,
+                              boolean isValid) {
+            this.file = file;
+            this.isValid = isValid;
+        }
+    }
+
     private static void logErrors(BRMSPackageBuilder.DSLErrorEvent dslErrorEvent, AssetItem assetItem, DSLTokenizedMappingFile file) {
         for (Object o : file.getErrors()) {
         	
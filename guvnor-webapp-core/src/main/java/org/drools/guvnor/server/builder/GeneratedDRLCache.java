@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.builder;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.contenthandler.IRuleAsset;
+import org.drools.repository.AssetItem;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.events.StorageEventManager;
+
+/**
+ * DRL generated from rule assets is kept in memory, so that module source,
+ * downloads, documentation and verification need not generate it again every
+ * time. Stored DRL is used while its key still matches: the key is made from
+ * the asset's name, version and last modified date, and from the versions of
+ * the module's DSL and enumeration assets.
+ *
+ * Nothing is written to the repository, so reading through the cache never
+ * changes the session. The most recently used DRL is kept, up to MAX_ENTRIES
+ * items.
+ */
+public class GeneratedDRLCache {
+
+    static final int                               MAX_ENTRIES = 2000;
+
+    private static final String                    DRL         = "DRL";
+    private static final String                    RAW_DRL     = "RawDRL";
+
+    private static final Map<String, GeneratedDRL> entries     = Collections.synchronizedMap( new LeastRecentlyUsedMap() );
+
+    private final String                           moduleKey;
+
+    public GeneratedDRLCache(ModuleItem moduleItem) {
+        this.moduleKey = makeModuleKey( moduleItem );
+    }
+
+    /**
+     * As IRuleAsset.assembleDRL, reusing the DRL generated before if it is
+     * still current.
+     */
+    public void assembleDRL(IRuleAsset handler,
+                            BRMSPackageBuilder builder,
+                            AssetItem asset,
+                            StringBuilder stringBuilder) {
+        if ( !isCacheable( asset ) ) {
+            handler.assembleDRL( builder,
+                                 asset,
+                                 stringBuilder );
+            return;
+        }
+        final String key = makeKey( asset );
+        String drl = lookup( asset,
+                             DRL,
+                             key );
+        if ( drl == null ) {
+            StringBuilder sb = new StringBuilder();
+            handler.assembleDRL( builder,
+                                 asset,
+                                 sb );
+            drl = sb.toString();
+            store( asset,
+                   DRL,
+                   key,
+                   drl );
+        }
+        stringBuilder.append( drl );
+    }
+
+    /**
+     * As IRuleAsset.getRawDRL, reusing the DRL generated before if it is still
+     * current.
+     */
+    public String getRawDRL(IRuleAsset handler,
+                            AssetItem asset) {
+        if ( !isCacheable( asset ) ) {
+            return handler.getRawDRL( asset );
+        }
+        final String key = makeKey( asset );
+        String drl = lookup( asset,
+                             RAW_DRL,
+                             key );
+        if ( drl == null ) {
+            drl = handler.getRawDRL( asset );
+            store( asset,
+                   RAW_DRL,
+                   key,
+                   drl );
+        }
+        return drl;
+    }
+
+    /**
+     * Forget all generated DRL.
+     */
+    public static void clear() {
+        entries.clear();
+    }
+
+    private boolean isCacheable(AssetItem asset) {
+        //DRL assets are their own source, there is nothing worth keeping
+        if ( AssetFormats.DRL.equals( asset.getFormat() ) ) {
+            return false;
+        }
+        //Content provided by storage event handlers does not follow the asset's versions
+        if ( StorageEventManager.hasLoadEvent() ) {
+            return false;
+        }
+        return !isNodeModified( asset );
+    }
+
+    private static String lookup(AssetItem asset,
+                                 String name,
+                                 String key) {
+        GeneratedDRL entry = entries.get( makeEntryName( asset,
+                                                         name ) );
+        if ( entry == null || !entry.key.equals( key ) ) {
+            return null;
+        }
+        return entry.drl;
+    }
+
+    private static void store(AssetItem asset,
+                              String name,
+                              String key,
+                              String drl) {
+        entries.put( makeEntryName( asset,
+                                    name ),
+                     new GeneratedDRL( key,
+                                       drl ) );
+    }
+
+    //Historical versions are kept apart from the current version of the asset
+    private static String makeEntryName(AssetItem asset,
+                                        String name) {
+        return asset.getUUID() + '/' + asset.getVersionNumber() + '/' + name;
+    }
+
+    private String makeKey(AssetItem asset) {
+        StringBuilder sb = new StringBuilder();
+        sb.append( asset.getName() ).append( '/' );
+        sb.append( asset.getVersionNumber() ).append( '/' );
+        sb.append( asset.getLastModified().getTimeInMillis() ).append( '/' );
+        sb.append( moduleKey );
+        return sb.toString();
+    }
+
+    /**
+     * DSLs and enumerations are the assets that can change the DRL generated
+     * from another asset, along with the module's category rules that give a
+     * rule its parent.
+     */
+    private static String makeModuleKey(ModuleItem moduleItem) {
+        StringBuilder sb = new StringBuilder();
+        sb.append( moduleItem.getCategoryRules( true ) ).append( '=' );
+        sb.append( moduleItem.getCategoryRules( false ) ).append( ';' );
+        Iterator<AssetItem> it = moduleItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat( AssetFormats.DSL,
+                                                                                                 AssetFormats.ENUMERATION );
+        while ( it.hasNext() ) {
+            AssetItem dependency = it.next();
+            sb.append( dependency.getUUID() ).append( ':' );
+            sb.append( dependency.getVersionNumber() ).append( ':' );
+            sb.append( dependency.getDisabled() ).append( ':' );
+            sb.append( dependency.isArchived() ).append( ';' );
+        }
+        return digest( sb.toString() );
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance( "SHA-1" ).digest( value.getBytes( "UTF-8" ) );
+            StringBuilder sb = new StringBuilder( hash.length * 2 );
+            for ( byte b : hash ) {
+                sb.append( Character.forDigit( (b >> 4) & 0xF,
+                                               16 ) );
+                sb.append( Character.forDigit( b & 0xF,
+                                               16 ) );
+            }
+            return sb.toString();
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        } catch ( UnsupportedEncodingException e ) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    //Content changed but not yet saved is not covered by the asset's key
+    private static boolean isNodeModified(AssetItem asset) {
+        return !asset.isHistoricalVersion() && asset.getNode().isModified();
+    }
+
+    private static class GeneratedDRL {
+
+        private final String key;
+        private final String drl;
+
+        private GeneratedDRL(String key,
+                             String drl) {
+            this.key = key;
+            this.drl = drl;
+        }
+
+    }
+
+    private static class LeastRecentlyUsedMap extends LinkedHashMap<String, GeneratedDRL> {
+
+        private static final long serialVersionUID = 510l;
+
+        private LeastRecentlyUsedMap() {
+            super( 16,
+                   0.75f,
+                   true );
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GeneratedDRL> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+
+    }
+
+}
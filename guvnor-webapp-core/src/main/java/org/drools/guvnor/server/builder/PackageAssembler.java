@@ -217,18 +217,22 @@ public class PackageAssembler extends PackageAssemblerBase {
     }
     
     private void loadRuleAssets() {
+        GeneratedDRLCache drlCache = new GeneratedDRLCache(moduleItem);
         Iterator<AssetItem> assetItemIterator = getAllAssets();
         while (assetItemIterator.hasNext()) {
-            addRuleAsset(assetItemIterator.next());
+            addRuleAsset(assetItemIterator.next(),
+                    drlCache);
         }
     }
 
-    private void addRuleAsset(AssetItem asset) {
+    private void addRuleAsset(AssetItem asset,
+                              GeneratedDRLCache drlCache) {
         if (!asset.isArchived() && !asset.getDisabled()) {
             ContentHandler handler = ContentManager.getHandler(asset.getFormat());
             if (handler.isRuleAsset()) {
                 IRuleAsset ruleAsset = (IRuleAsset) handler;
-                ruleAsset.assembleDRL(builder,
+                drlCache.assembleDRL(ruleAsset,
+                        builder,
                         asset,
                         src);
             }
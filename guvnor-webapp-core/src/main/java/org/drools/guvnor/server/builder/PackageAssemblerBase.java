@@ -18,7 +18,10 @@ package org.drools.guvnor.server.builder;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.drools.compiler.DroolsError;
 import org.drools.compiler.DroolsParserException;
@@ -161,16 +164,17 @@ abstract class PackageAssemblerBase extends AssemblerBase {
     
     protected void loadFunctionsToBuilder() {        
         Iterator<AssetItem> assetItemIterator = getAssetItemIterator(AssetFormats.FUNCTION);
-        StringBuilder stringBuilder = new StringBuilder();
+        ConcatenatedAssetDRL functions = new ConcatenatedAssetDRL();
         while (assetItemIterator.hasNext()) {
             AssetItem assetItem = assetItemIterator.next();
             if (!assetItem.getDisabled()) {
-                stringBuilder.append(assetItem.getContent());
+                functions.add(assetItem,
+                        assetItem.getContent());
             }
         }
         
         try {
-            addDrl(stringBuilder.toString());
+            addDrl(functions.getDRL());
         } catch (IOException e) {
             throw new RulesRepositoryException(
                     "Unexpected error when parsing package.", e);
@@ -180,34 +184,89 @@ abstract class PackageAssemblerBase extends AssemblerBase {
                     "Unexpected error when parsing package.", e);
         }
 
-        // If the function part had errors we need to add them one by one to find out which one is bad.
+        // If the function part had errors we need to find out which ones are bad.
         if ( builder.hasErrors() ) {
-            searchTheFunctionWithAnError();
+            searchTheFunctionWithAnError( functions );
         }
     }
 
-    private void searchTheFunctionWithAnError() {
+    /**
+     * Errors are first traced back to the function they were reported on
+     * from their line numbers, after which the remaining functions are added
+     * again. If any error can not be traced (or the remaining functions still
+     * fail) the functions are bisected, compiling halves until single
+     * functions with errors are found.
+     */
+    private void searchTheFunctionWithAnError(ConcatenatedAssetDRL functions) {
+        List<AssetItem> remaining = new ArrayList<AssetItem>( functions.getAssets() );
+        boolean isLocated = true;
+        for ( DroolsError droolsError : builder.getErrors().getErrors() ) {
+            AssetItem function = functions.getAsset( droolsError.getErrorLines() );
+            if ( function == null ) {
+                isLocated = false;
+            } else {
+                errorLogger.addError( function,
+                                      droolsError.getMessage() );
+                remaining.remove( function );
+            }
+        }
         builder.clearErrors();
-        Iterator<AssetItem> functionsIterator = getAssetItemIterator( AssetFormats.FUNCTION );
 
-        while ( functionsIterator.hasNext() ) {
-            AssetItem function = functionsIterator.next();
-            if ( !function.getDisabled() ) {
-                try {
-                    addDrl( function.getContent() );
-                } catch ( IOException e ) {
-                    errorLogger.addError( function,
-                                          "IOException: " + e.getMessage() );
-                } catch ( DroolsParserException e ) {
-                    errorLogger.addError( moduleItem,
-                                          "Parser exception: " + e.getMessage() );
-                }
+        if ( isLocated && addFunctions( remaining ) ) {
+            return;
+        }
+        builder.clearErrors();
+        bisectTheFunctionsWithAnError( remaining );
+    }
 
-                if ( builder.hasErrors() ) {
-                    logErrors( function );
-                }
+    private void bisectTheFunctionsWithAnError(List<AssetItem> functions) {
+        if ( functions.size() < 2 ) {
+            if ( functions.size() == 1 && !addFunctions( functions ) ) {
+                logErrors( functions.get( 0 ) );
             }
+            return;
+        }
+        final int middle = functions.size() / 2;
+        for ( List<AssetItem> half : Arrays.asList( functions.subList( 0,
+                                                                       middle ),
+                                                    functions.subList( middle,
+                                                                       functions.size() ) ) ) {
+            if ( half.size() == 1 ) {
+                bisectTheFunctionsWithAnError( half );
+            } else if ( !addFunctions( half ) ) {
+                builder.clearErrors();
+                bisectTheFunctionsWithAnError( half );
+            }
+        }
+    }
+
+    /**
+     * Adds the functions to the builder in one go, returning true if there were
+     * no errors. Builder errors are left for the caller to deal with, as are
+     * functions that could not be parsed unless there is only one.
+     */
+    private boolean addFunctions(List<AssetItem> functions) {
+        ConcatenatedAssetDRL drl = new ConcatenatedAssetDRL();
+        for ( AssetItem function : functions ) {
+            drl.add( function,
+                     function.getContent() );
+        }
+        try {
+            addDrl( drl.getDRL() );
+        } catch ( IOException e ) {
+            //Reported against the module as the DRL could not be read at all, so there is nothing to narrow down
+            errorLogger.addError( moduleItem,
+                                  "IOException: " + e.getMessage() );
+            return true;
+        } catch ( DroolsParserException e ) {
+            //Reported against a single function, a group of functions is narrowed down by the caller
+            if ( functions.size() == 1 ) {
+                errorLogger.addError( functions.get( 0 ),
+                                      "Parser exception: " + e.getMessage() );
+            }
+            return false;
         }
+        return !builder.hasErrors();
     }
     
     protected void loadPackageHeaderToBuilder(String drl) {
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.mvel2.MVEL;
+import org.mvel2.templates.CompiledTemplate;
+import org.mvel2.templates.TemplateCompiler;
+import org.mvel2.templates.TemplateRuntime;
+
+/**
+ * Evaluates the MVEL expressions behind dependent drop downs in the rule
+ * editors. These are evaluated every time the user changes a value the drop
+ * down depends on, so the compiled templates and expressions are kept, and
+ * the result for the same expression and values is reused for a short while.
+ */
+public class DropDownExpressionCache {
+
+    static final int                                 MAX_ENTRIES         = 512;
+
+    /**
+     * Results are only reused for this long, as an expression may call out to
+     * something whose answer changes.
+     */
+    static final long                                RESULT_TIME_TO_LIVE = 60 * 1000;
+
+    private static final DropDownExpressionCache     instance            = new DropDownExpressionCache();
+
+    private final Map<String, CompiledTemplate>      templates           = newCache();
+    private final Map<String, Serializable>          expressions         = newCache();
+    private final Map<String, Result>                results             = newCache();
+
+    DropDownExpressionCache() {
+    }
+
+    public static DropDownExpressionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Interpolates the values into the expression, then evaluates it. Returns
+     * the values of the resulting array or list, or null if it is neither.
+     */
+    public String[] evaluate(final String expression,
+                             final Map<String, String> context) {
+        final String key = makeKey( expression,
+                                    context );
+        final long now = System.currentTimeMillis();
+
+        Result result = results.get( key );
+        if ( result == null || result.expires <= now ) {
+            final String interpolated = interpolate( expression,
+                                                     context );
+            result = new Result( toStrings( execute( interpolated ) ),
+                                 now + RESULT_TIME_TO_LIVE );
+            results.put( key,
+                         result );
+        }
+        return result.values == null ? null : result.values.clone();
+    }
+
+    public void clearCache() {
+        templates.clear();
+        expressions.clear();
+        results.clear();
+    }
+
+    private String interpolate(final String expression,
+                               final Map<String, String> context) {
+        CompiledTemplate template = templates.get( expression );
+        if ( template == null ) {
+            template = TemplateCompiler.compileTemplate( expression );
+            templates.put( expression,
+                           template );
+        }
+        synchronized ( template ) {
+            return String.valueOf( TemplateRuntime.execute( template,
+                                                            context ) );
+        }
+    }
+
+    private Object execute(final String expression) {
+        Serializable compiled = expressions.get( expression );
+        if ( compiled == null ) {
+            compiled = MVEL.compileExpression( expression );
+            expressions.put( expression,
+                             compiled );
+        }
+        synchronized ( compiled ) {
+            return MVEL.executeExpression( compiled );
+        }
+    }
+
+    private static String[] toStrings(final Object result) {
+        if ( result instanceof String[] ) {
+            return (String[]) result;
+        } else if ( result instanceof List ) {
+            List< ? > l = (List< ? >) result;
+            String[] xs = new String[l.size()];
+            for ( int i = 0; i < xs.length; i++ ) {
+                Object el = l.get( i );
+                xs[i] = el.toString();
+            }
+            return xs;
+        } else {
+            return null;
+        }
+    }
+
+    //The values are sorted so that the same values always make the same key
+    private static String makeKey(final String expression,
+                                  final Map<String, String> context) {
+        StringBuilder sb = new StringBuilder( expression );
+        for ( Map.Entry<String, String> entry : new TreeMap<String, String>( context ).entrySet() ) {
+            sb.append( '\u0000' ).append( entry.getKey() );
+            sb.append( '=' ).append( entry.getValue() );
+        }
+        return sb.toString();
+    }
+
+    private static <V> Map<String, V> newCache() {
+        return Collections.synchronizedMap( new LinkedHashMap<String, V>( 16,
+                                                                          0.75f,
+                                                                          true ) {
+            private static final long serialVersionUID = 510l;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        } );
+    }
+
+    private static class Result {
+
+        private final String[] values;
+        private final long     expires;
+
+        private Result(String[] values,
+                       long expires) {
+            this.values = values;
+            this.expires = expires;
+        }
+
+    }
+
+}
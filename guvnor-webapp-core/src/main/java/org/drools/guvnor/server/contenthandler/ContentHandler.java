@@ -60,6 +60,15 @@ public abstract class ContentHandler {
         return this instanceof IRuleAsset;
     }
 
+    /**
+     * @return true if the content of the asset holds only part of that in the
+     *         repository, for example a page of a large table, in which case
+     *         it must be stored in the repository node before it is used.
+     */
+    public boolean isPartialContent(Asset asset) {
+        return false;
+    }
+
     private String findParentCategory(AssetItem asset,
                                       String currentCat) {
         //Start your search at the top
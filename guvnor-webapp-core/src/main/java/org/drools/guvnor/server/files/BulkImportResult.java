@@ -0,0 +1,197 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a bulk import did with each file, what went wrong building the
+ * packages afterwards, and how long it took.
+ */
+public class BulkImportResult {
+
+    private final List<FileResult> files       = new ArrayList<FileResult>();
+    private final List<String>     buildErrors = new ArrayList<String>();
+    private final long             started     = System.currentTimeMillis();
+    private long                   finished;
+
+    FileResult addFile(String fileName) {
+        FileResult file = new FileResult( fileName );
+        files.add( file );
+        return file;
+    }
+
+    void addBuildError(String packageName,
+                       String error) {
+        buildErrors.add( packageName + ": " + error );
+    }
+
+    void finish() {
+        finished = System.currentTimeMillis();
+    }
+
+    public List<FileResult> getFiles() {
+        return Collections.unmodifiableList( files );
+    }
+
+    public List<String> getBuildErrors() {
+        return Collections.unmodifiableList( buildErrors );
+    }
+
+    public long getElapsedMillis() {
+        return (finished == 0 ? System.currentTimeMillis() : finished) - started;
+    }
+
+    /**
+     * The number of assets created or updated.
+     */
+    public int getAssetCount() {
+        int count = 0;
+        for ( FileResult file : files ) {
+            count += file.getAssetCount();
+        }
+        return count;
+    }
+
+    public int getErrorCount() {
+        int count = 0;
+        for ( FileResult file : files ) {
+            if ( file.getError() != null ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getAssetsPerSecond() {
+        return getAssetCount() * 1000L / Math.max( 1,
+                                                   getElapsedMillis() );
+    }
+
+    public boolean hasErrors() {
+        return getErrorCount() > 0 || !buildErrors.isEmpty();
+    }
+
+    /**
+     * A line for each file and build error, then a summary.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for ( FileResult file : files ) {
+            sb.append( file ).append( "\n" );
+        }
+        for ( String error : buildErrors ) {
+            sb.append( "Build error in " ).append( error ).append( "\n" );
+        }
+        sb.append( "Imported " ).append( getAssetCount() ).append( " assets from " ).append( files.size() );
+        sb.append( " files in " ).append( getElapsedMillis() ).append( " ms (" ).append( getAssetsPerSecond() );
+        sb.append( " assets/s), " ).append( getErrorCount() ).append( " files failed" );
+        return sb.toString();
+    }
+
+    public static class FileResult {
+
+        private final String fileName;
+        private String       packageName;
+        private int          created;
+        private int          updated;
+        private int          skipped;
+        private String       error;
+
+        FileResult(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        void setPackageName(String packageName) {
+            this.packageName = packageName;
+        }
+
+        public int getCreated() {
+            return created;
+        }
+
+        void incrementCreated() {
+            created++;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        void incrementUpdated() {
+            updated++;
+        }
+
+        /**
+         * Assets left alone because one of the same name but another format
+         * was already in the package.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        void incrementSkipped() {
+            skipped++;
+        }
+
+        /**
+         * The number of assets created or updated.
+         */
+        public int getAssetCount() {
+            return created + updated;
+        }
+
+        //Nothing of the file was kept
+        void clearCounts() {
+            created = 0;
+            updated = 0;
+            skipped = 0;
+        }
+
+        /**
+         * Why the file was not imported, or null if it was.
+         */
+        public String getError() {
+            return error;
+        }
+
+        void setError(String error) {
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            if ( error != null ) {
+                return fileName + ": ERROR " + error;
+            }
+            return fileName + ": " + packageName + ", " + created + " created, " + updated + " updated, " + skipped + " skipped";
+        }
+
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.drools.guvnor.server.util.ClassicDRLImporter;
+import org.drools.repository.RulesRepositoryException;
+
+/**
+ * Parses the .drl files of a zip on a pool of threads, while the zip is still
+ * being read, and hands them back in the order they are in the zip. Only a
+ * few files are read ahead, so a big archive is never all in memory. Other
+ * files in the zip are passed over.
+ */
+class ClassicDRLArchiveParser {
+
+    static final int                             THREADS  = Runtime.getRuntime().availableProcessors();
+
+    private final ZipInputStream                 zip;
+    private final ExecutorService                executor = Executors.newFixedThreadPool( THREADS );
+    private final LinkedList<Future<ParsedFile>> parsing  = new LinkedList<Future<ParsedFile>>();
+    private boolean                              exhausted;
+
+    ClassicDRLArchiveParser(InputStream in) {
+        this.zip = new ZipInputStream( in );
+    }
+
+    boolean hasNext() throws IOException {
+        readAhead();
+        return !parsing.isEmpty();
+    }
+
+    ParsedFile next() throws IOException {
+        readAhead();
+        try {
+            return parsing.removeFirst().get();
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new RulesRepositoryException( "Interrupted while parsing",
+                                                e );
+        } catch ( ExecutionException e ) {
+            throw new RulesRepositoryException( e.getCause() );
+        }
+    }
+
+    void close() {
+        executor.shutdownNow();
+        IOUtils.closeQuietly( zip );
+    }
+
+    private void readAhead() throws IOException {
+        while ( !exhausted && parsing.size() < THREADS * 2 ) {
+            ZipEntry entry = zip.getNextEntry();
+            if ( entry == null ) {
+                exhausted = true;
+            } else if ( !entry.isDirectory() && entry.getName().endsWith( ".drl" ) ) {
+                parsing.add( executor.submit( new ParseTask( entry.getName(),
+                                                             IOUtils.toByteArray( zip ) ) ) );
+            }
+        }
+    }
+
+    private static class ParseTask
+        implements
+        Callable<ParsedFile> {
+
+        private final String fileName;
+        private final byte[] data;
+
+        private ParseTask(String fileName,
+                          byte[] data) {
+            this.fileName = fileName;
+            this.data = data;
+        }
+
+        public ParsedFile call() {
+            try {
+                return new ParsedFile( fileName,
+                                       new ClassicDRLImporter( new ByteArrayInputStream( data ) ),
+                                       null );
+            } catch ( Exception e ) {
+                return new ParsedFile( fileName,
+                                       null,
+                                       "Could not parse: " + e.getMessage() );
+            }
+        }
+
+    }
+
+    static class ParsedFile {
+
+        private final String             fileName;
+        private final ClassicDRLImporter importer;
+        private final String             error;
+
+        ParsedFile(String fileName,
+                   ClassicDRLImporter importer,
+                   String error) {
+            this.fileName = fileName;
+            this.importer = importer;
+            this.error = error;
+        }
+
+        String getFileName() {
+            return fileName;
+        }
+
+        /**
+         * The parsed file, or null if it could not be parsed.
+         */
+        ClassicDRLImporter getImporter() {
+            return importer;
+        }
+
+        String getError() {
+            return error;
+        }
+
+    }
+
+}
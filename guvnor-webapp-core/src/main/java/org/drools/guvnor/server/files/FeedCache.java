@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.drools.repository.ChangeJournalEntry;
+import org.drools.repository.events.ChangeEvent;
+import org.drools.repository.events.StorageEventManager;
+
+/**
+ * Holds the rendered package and category feeds, as feed readers poll them far
+ * more often than they change. A package's feeds are dropped when anything in
+ * that package changes, and the category feeds when any asset changes, as an
+ * asset's categories are not in the change. Feeds also expire after a while,
+ * in case the change was made on another node of a cluster.
+ * <p/>
+ * Permissions are still checked on every request, before the cache is used.
+ */
+@ApplicationScoped
+public class FeedCache {
+
+    static final int  MAX_FEEDS   = 256;
+    static final long TIME_TO_LIVE = 5 * 60 * 1000;
+
+    private static final String PACKAGE  = "package";
+    private static final String CATEGORY = "category";
+
+    private final Map<String, CachedFeed> feeds = Collections.synchronizedMap( new LinkedHashMap<String, CachedFeed>( 16,
+                                                                                                                      0.75f,
+                                                                                                                      true ) {
+        private static final long serialVersionUID = 510l;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFeed> eldest) {
+            return size() > MAX_FEEDS;
+        }
+    } );
+
+    /**
+     * Counts the invalidations, so that a feed rendered while a change was
+     * being saved is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ChangeEvent changeListener = new ChangeEvent() {
+        public void afterChanges(List<ChangeJournalEntry> changes) {
+            for ( ChangeJournalEntry change : changes ) {
+                invalidate( change );
+            }
+        }
+    };
+
+    @PostConstruct
+    public void registerChangeListener() {
+        StorageEventManager.registerChangeEvent( changeListener );
+    }
+
+    @PreDestroy
+    public void unregisterChangeListener() {
+        StorageEventManager.unregisterChangeEvent( changeListener );
+    }
+
+    /**
+     * To be read before rendering a feed, and given to its CachedFeed.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public CachedFeed getPackageFeed(String packageName,
+                                     String variant) {
+        return get( makeKey( PACKAGE,
+                             packageName,
+                             variant ) );
+    }
+
+    public void putPackageFeed(String packageName,
+                               String variant,
+                               CachedFeed feed) {
+        put( makeKey( PACKAGE,
+                      packageName,
+                      variant ),
+             feed );
+    }
+
+    public CachedFeed getCategoryFeed(String categoryPath,
+                                      String variant) {
+        return get( makeKey( CATEGORY,
+                             categoryPath,
+                             variant ) );
+    }
+
+    public void putCategoryFeed(String categoryPath,
+                                String variant,
+                                CachedFeed feed) {
+        put( makeKey( CATEGORY,
+                      categoryPath,
+                      variant ),
+             feed );
+    }
+
+    public void clearCache() {
+        feeds.clear();
+    }
+
+    void invalidate(ChangeJournalEntry change) {
+        String packagePrefix = makeKey( PACKAGE,
+                                        change.getModuleName(),
+                                        "" );
+        String previousPackagePrefix = change.getPreviousModuleName() == null ? null : makeKey( PACKAGE,
+                                                                                              change.getPreviousModuleName(),
+                                                                                              "" );
+        String categoryPrefix = CATEGORY + '\u0000';
+        generation.incrementAndGet();
+        synchronized ( feeds ) {
+            for ( Iterator<String> it = feeds.keySet().iterator(); it.hasNext(); ) {
+                String key = it.next();
+                if ( key.startsWith( packagePrefix ) || key.startsWith( categoryPrefix )
+                        || (previousPackagePrefix != null && key.startsWith( previousPackagePrefix )) ) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void put(String key,
+                     CachedFeed feed) {
+        synchronized ( feeds ) {
+            if ( feed.generation == generation.get() ) {
+                feeds.put( key,
+                           feed );
+            }
+        }
+    }
+
+    private CachedFeed get(String key) {
+        CachedFeed feed = feeds.get( key );
+        if ( feed != null && feed.getCreated() + TIME_TO_LIVE <= System.currentTimeMillis() ) {
+            feeds.remove( key );
+            return null;
+        }
+        return feed;
+    }
+
+    private static String makeKey(String type,
+                                  String name,
+                                  String variant) {
+        return type + '\u0000' + name + '\u0000' + variant;
+    }
+
+    /**
+     * A rendered feed, and when it was rendered, which is given as its
+     * Last-Modified time and is part of its ETag.
+     */
+    public static class CachedFeed {
+
+        private final String atom;
+        private final long   generation;
+        private final long   created;
+
+        public CachedFeed(String atom,
+                          long generation) {
+            this.atom = atom;
+            this.generation = generation;
+            this.created = System.currentTimeMillis();
+        }
+
+        public String getAtom() {
+            return atom;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public String getETag() {
+            return "\"" + Integer.toHexString( atom.hashCode() ) + "-" + Long.toHexString( created ) + "\"";
+        }
+
+    }
+
+}
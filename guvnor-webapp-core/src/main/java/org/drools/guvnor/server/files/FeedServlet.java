@@ -24,7 +24,6 @@ import org.drools.guvnor.server.security.RoleType;
 import org.drools.guvnor.server.util.Discussion;
 import org.drools.guvnor.server.util.ISO8601;
 import org.drools.repository.AssetItem;
-import org.drools.repository.AssetItemPageResult;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
 import org.jboss.seam.security.AuthorizationException;
@@ -43,9 +42,18 @@ public class FeedServlet extends RepositoryServlet {
 
     private static final String VIEW_URL = "viewUrl";
 
+    /**
+     * The package and category feeds have the most recently changed assets,
+     * up to this many.
+     */
+    static final int MAX_ENTRIES = 50;
+
     @Inject
     private RulesRepository rulesRepository;
 
+    @Inject
+    private FeedCache feedCache;
+
     @Inject
     private Identity identity;
 
@@ -121,27 +129,32 @@ public class FeedServlet extends RepositoryServlet {
     private void doCategoryFeed(HttpServletRequest request,
                                 HttpServletResponse response) throws IOException {
         String cat = request.getParameter("name");
-        String status = request.getParameter("status");
         checkCategoryPermission(cat);
-        AssetItemPageResult pg = rulesRepository.findAssetsByCategory(cat,
-                false,
-                0,
-                -1);
-        Iterator<AssetItem> it = pg.assets.iterator();
-        List<AtomFeed.AtomEntry> entries = new ArrayList<AtomFeed.AtomEntry>();
-        buildEntries(request,
-                entries,
-                it,
-                status);
-        AtomFeed feed = new AtomFeed("Category: " + cat,
-                Calendar.getInstance(),
-                request.getServerName() + cat,
-                request.getParameter(VIEW_URL),
-                request.getRequestURL().toString(),
-                entries,
-                "Guvnor category of items: " + cat);
-        response.setContentType("application/atom+xml; charset=UTF-8");
-        response.getWriter().print(feed.getAtom());
+
+        String variant = makeVariant(request);
+        FeedCache.CachedFeed feed = feedCache.getCategoryFeed(cat,
+                variant);
+        if (feed == null) {
+            long generation = feedCache.getGeneration();
+            List<AtomFeed.AtomEntry> entries = buildEntries(request,
+                    rulesRepository.findRecentAssetsByCategory(cat),
+                    request.getParameter("status"));
+            AtomFeed atomFeed = new AtomFeed("Category: " + cat,
+                    Calendar.getInstance(),
+                    request.getServerName() + cat,
+                    request.getParameter(VIEW_URL),
+                    request.getRequestURL().toString(),
+                    entries,
+                    "Guvnor category of items: " + cat);
+            feed = new FeedCache.CachedFeed(atomFeed.getAtom(),
+                    generation);
+            feedCache.putCategoryFeed(cat,
+                    variant,
+                    feed);
+        }
+        writeFeed(request,
+                response,
+                feed);
     }
 
     void checkCategoryPermission(String cat) {
@@ -154,31 +167,86 @@ public class FeedServlet extends RepositoryServlet {
         String packageName = request.getParameter("name");
         checkPackageReadPermission(packageName);
 
-        ModuleItem pkg = rulesRepository.loadModule(packageName);
+        String variant = makeVariant(request);
+        FeedCache.CachedFeed feed = feedCache.getPackageFeed(packageName,
+                variant);
+        if (feed == null) {
+            long generation = feedCache.getGeneration();
+            ModuleItem pkg = rulesRepository.loadModule(packageName);
+            List<AtomFeed.AtomEntry> entries = buildEntries(request,
+                    pkg.listRecentAssets(),
+                    request.getParameter("status"));
+            AtomFeed atomFeed = new AtomFeed("Knowledge package: " + pkg.getName(),
+                    pkg.getLastModified(),
+                    pkg.getUUID(),
+                    request.getParameter(VIEW_URL),
+                    request.getRequestURL().toString(),
+                    entries,
+                    pkg.getDescription());
+            feed = new FeedCache.CachedFeed(atomFeed.getAtom(),
+                    generation);
+            feedCache.putPackageFeed(packageName,
+                    variant,
+                    feed);
+        }
+        writeFeed(request,
+                response,
+                feed);
+    }
 
-        List<AtomFeed.AtomEntry> entries = new ArrayList<AtomFeed.AtomEntry>();
-        Iterator<AssetItem> it = pkg.getAssets();
-        buildEntries(request,
-                entries,
-                it,
-                request.getParameter("status"));
+    /**
+     * Everything else in the request that the rendered feed depends on.
+     */
+    private static String makeVariant(HttpServletRequest request) {
+        return request.getParameter("status") + '\u0000' + request.getParameter(VIEW_URL) + '\u0000' + request.getRequestURL();
+    }
+
+    /**
+     * Writes the feed, or just Not Modified if the reader already has it. The
+     * ETag is checked in preference to the date, as the date is only to the
+     * second.
+     */
+    private void writeFeed(HttpServletRequest request,
+                           HttpServletResponse response,
+                           FeedCache.CachedFeed feed) throws IOException {
+        //HTTP dates are to the second
+        long lastModified = feed.getCreated() / 1000 * 1000;
+        response.setDateHeader("Last-Modified",
+                lastModified);
+        response.setHeader("ETag",
+                feed.getETag());
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = ifNoneMatch.equals(feed.getETag());
+        } else {
+            long ifModifiedSince;
+            try {
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException e) {
+                ifModifiedSince = -1;
+            }
+            notModified = ifModifiedSince >= lastModified;
+        }
+        if (notModified) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
-        AtomFeed feed = new AtomFeed("Knowledge package: " + pkg.getName(),
-                pkg.getLastModified(),
-                pkg.getUUID(),
-                request.getParameter(VIEW_URL),
-                request.getRequestURL().toString(),
-                entries,
-                pkg.getDescription());
         response.setContentType("application/atom+xml; charset=UTF-8");
         response.getWriter().print(feed.getAtom());
     }
 
-    private void buildEntries(HttpServletRequest request,
-                              List<AtomFeed.AtomEntry> entries,
-                              Iterator<AssetItem> it,
-                              String status) {
-        while (it.hasNext()) {
+    /**
+     * The entries for the first MAX_ENTRIES assets that are not archived or
+     * disabled, and are in the given status (if any).
+     */
+    private List<AtomFeed.AtomEntry> buildEntries(HttpServletRequest request,
+                                                  Iterator<AssetItem> it,
+                                                  String status) {
+        List<AtomFeed.AtomEntry> entries = new ArrayList<AtomFeed.AtomEntry>();
+        while (it.hasNext() && entries.size() < MAX_ENTRIES) {
             AssetItem as = it.next();
             if (!as.isArchived() && !as.getDisabled()) {
                 if (status == null || status.equals("*") || as.getStateDescription().equals(status)) {
@@ -187,6 +255,7 @@ public class FeedServlet extends RepositoryServlet {
                 }
             }
         }
+        return entries;
     }
 
     void checkPackageReadPermission(String packageName) {
@@ -21,8 +21,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Event;
@@ -38,7 +44,9 @@ import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.common.HTMLFileManagerFields;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
+import org.drools.guvnor.server.builder.ContentAssemblyError;
 import org.drools.guvnor.server.builder.DSLLoader;
+import org.drools.guvnor.server.builder.GeneratedDRLCache;
 import org.drools.guvnor.server.builder.ModuleAssembler;
 import org.drools.guvnor.server.builder.ModuleAssemblerManager;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
@@ -52,6 +60,7 @@ import org.drools.guvnor.server.util.ClassicDRLImporter;
 import org.drools.guvnor.server.util.ClassicDRLImporter.Asset;
 import org.drools.guvnor.server.util.DroolsHeader;
 import org.drools.guvnor.server.util.FormData;
+import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
@@ -69,6 +78,8 @@ import org.jboss.seam.security.Identity;
 @ApplicationScoped
 public class FileManagerService {
 
+    private static final LoggingHelper log = LoggingHelper.getLogger( FileManagerService.class );
+
     @Inject
     private RulesRepository repository;
 
@@ -254,6 +265,21 @@ public class FileManagerService {
         }
     }
 
+    /**
+     * Writes the package as a zip as it is read from the repository.
+     */
+    public void exportPackageFromRepository(String packageName,
+                                            OutputStream out) {
+        try {
+            this.repository.exportModuleToStream( packageName,
+                                                  out );
+        } catch ( RepositoryException e ) {
+            throw new RulesRepositoryException( e );
+        } catch ( IOException e ) {
+            throw new RulesRepositoryException( e );
+        }
+    }
+
     public boolean isPackageExist(String packageName) {
         return this.repository.containsModule(packageName);
     }
@@ -282,6 +308,15 @@ public class FileManagerService {
 
     }
 
+    @LoggedIn
+    public void importPackageToRepository(InputStream in,
+                                          boolean importAsNew) {
+        repository.importPackageToRepository(in,
+                importAsNew);
+
+        fileUploadedEventEvent.fire(new FileUploadedEvent());
+    }
+
     /**
      * This will import DRL from a drl file into a more normalised structure.
      * If the package does not exist, it will be created.
@@ -302,8 +337,6 @@ public class FileManagerService {
             throw new IllegalArgumentException(
                     "Could not parse the drlInputStream for package (" + packageName + "): " + e.getMessage(), e);
         }
-        ModuleItem pkg = null;
-
         if ( packageName == null ) {
             packageName = imp.getPackageName();
         }
@@ -312,6 +345,244 @@ public class FileManagerService {
             throw new IllegalArgumentException( "Missing package name." );
         }
 
+        boolean existing = removeIfArchived( packageName );
+        ModuleItem pkg = loadOrCreateModule( packageName,
+                                             imp,
+                                             existing );
+
+        boolean newVer = isNewVersionOnImport();
+
+        for ( Asset as : imp.getAssets() ) {
+            importAsset( pkg,
+                         existing,
+                         as,
+                         newVer );
+        }
+
+        repository.save();
+
+        /* Return the name of the new package to the caller */
+        return packageName;
+    }
+
+    /**
+     * Imports every .drl file in a zip, as importClassicDRL does for one.
+     * <p/>
+     * The files are parsed on several threads while the assets of those
+     * already parsed are written. Each file is checked before anything in it
+     * is written: it must have a package name, and no asset may be named
+     * twice in the same package across the whole import. The session is saved
+     * after each file, so a file that fails only drops its own changes, and
+     * the import carries on. When versions are made on import each asset is
+     * saved as it is checked in, so the assets of a failed file checked in
+     * before the failure are kept, and counted in its result; otherwise the
+     * assets it added are removed again.
+     * <p/>
+     * The packages are built once each at the end if build is true,
+     * otherwise they are marked as needing a build.
+     *
+     * @param zipInputStream will be closed after it's read
+     * @param packageName Name for all of the packages. Overrides the ones in the DRL.
+     */
+    @LoggedIn
+    public BulkImportResult importClassicDRLArchive(InputStream zipInputStream,
+                                                    String packageName,
+                                                    boolean build) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        Map<String, ModuleItem> modules = new HashMap<String, ModuleItem>();
+        Set<String> importedModules = new LinkedHashSet<String>();
+        Map<String, String> importedAssets = new HashMap<String, String>();
+        boolean newVer = isNewVersionOnImport();
+
+        ClassicDRLArchiveParser parser = new ClassicDRLArchiveParser( zipInputStream );
+        try {
+            while ( parser.hasNext() ) {
+                ClassicDRLArchiveParser.ParsedFile file = parser.next();
+                BulkImportResult.FileResult fileResult = result.addFile( file.getFileName() );
+                if ( file.getError() != null ) {
+                    fileResult.setError( file.getError() );
+                    continue;
+                }
+
+                ClassicDRLImporter imp = file.getImporter();
+                String name = (packageName == null) ? imp.getPackageName() : packageName;
+                String error = validateImport( name,
+                                               imp,
+                                               file.getFileName(),
+                                               importedAssets );
+                if ( error != null ) {
+                    fileResult.setError( error );
+                    continue;
+                }
+                fileResult.setPackageName( name );
+
+                List<String> createdAssets = new ArrayList<String>();
+                try {
+                    ModuleItem pkg = modules.get( name );
+                    boolean existing = true;
+                    if ( pkg == null ) {
+                        existing = removeIfArchived( name );
+                        pkg = loadOrCreateModule( name,
+                                                  imp,
+                                                  existing );
+                        modules.put( name,
+                                     pkg );
+                    } else {
+                        DroolsHeader.updateDroolsHeader( ClassicDRLImporter.mergeLines( DroolsHeader.getDroolsHeader( pkg ),
+                                                                                        imp.getPackageHeader() ),
+                                                         pkg );
+                    }
+
+                    for ( Asset as : imp.getAssets() ) {
+                        switch ( importAsset( pkg,
+                                              existing,
+                                              as,
+                                              newVer ) ) {
+                            case CREATED :
+                                fileResult.incrementCreated();
+                                createdAssets.add( as.name );
+                                break;
+                            case UPDATED :
+                                fileResult.incrementUpdated();
+                                break;
+                            default :
+                                fileResult.incrementSkipped();
+                        }
+                    }
+
+                    repository.save();
+                    importedModules.add( name );
+                } catch ( RuntimeException e ) {
+                    log.error( "Unable to import " + file.getFileName(),
+                               e );
+                    fileResult.setError( e.getMessage() );
+                    repository.discardChanges();
+                    if ( !newVer ) {
+                        removeAssets( name,
+                                      createdAssets );
+                        fileResult.clearCounts();
+                    }
+
+                    //The package may have been dropped with the file, it is loaded again if another file needs it
+                    modules.remove( name );
+                    forgetImport( name,
+                                  imp,
+                                  file.getFileName(),
+                                  importedAssets );
+                    if ( newVer && fileResult.getAssetCount() > 0 ) {
+                        importedModules.add( name );
+                    }
+                }
+            }
+        } catch ( RepositoryException e ) {
+            throw new RulesRepositoryException( e );
+        } finally {
+            parser.close();
+        }
+
+        for ( String name : importedModules ) {
+            ModuleItem pkg = repository.loadModule( name );
+            if ( build ) {
+                ModuleAssembler moduleAssembler = ModuleAssemblerManager.getModuleAssembler( pkg.getFormat(),
+                                                                                              pkg,
+                                                                                              null );
+                moduleAssembler.compile();
+                for ( ContentAssemblyError error : moduleAssembler.getErrors() ) {
+                    result.addBuildError( pkg.getName(),
+                                          error.toString() );
+                }
+            } else {
+                pkg.updateBinaryUpToDate( false );
+            }
+        }
+        repository.save();
+
+        result.finish();
+        log.info( "Bulk DRL import: " + result.getAssetCount() + " assets from " + result.getFiles().size() + " files in "
+                  + result.getElapsedMillis() + " ms (" + result.getAssetsPerSecond() + " assets/s), "
+                  + result.getErrorCount() + " files failed" );
+        return result;
+    }
+
+    private static boolean isNewVersionOnImport() {
+        return Boolean.parseBoolean( System.getProperty( "drools.createNewVersionOnImport",
+                                                         "true" ) );
+    }
+
+    /**
+     * Checks a parsed file before anything in it is written, and notes its
+     * assets against the package. Returns why it can not be imported, or null.
+     */
+    private String validateImport(String packageName,
+                                  ClassicDRLImporter imp,
+                                  String fileName,
+                                  Map<String, String> importedAssets) {
+        if ( packageName == null || "".equals( packageName ) ) {
+            return "Missing package name.";
+        }
+        Set<String> names = new HashSet<String>();
+        for ( Asset as : imp.getAssets() ) {
+            String name = as.name.trim();
+            if ( name.length() == 0 ) {
+                return "An asset has no name.";
+            }
+            if ( as.format == null ) {
+                return "Asset " + name + " has no format.";
+            }
+            if ( !names.add( name ) ) {
+                return "Asset " + name + " is in the file twice.";
+            }
+            String other = importedAssets.get( packageName + "/" + name );
+            if ( other != null ) {
+                return "Asset " + name + " is also in " + other + ".";
+            }
+        }
+        for ( String name : names ) {
+            importedAssets.put( packageName + "/" + name,
+                                fileName );
+        }
+        return null;
+    }
+
+    /**
+     * Takes the assets of a file that failed back out of those imported, so
+     * that a later file may hold them.
+     */
+    private void forgetImport(String packageName,
+                              ClassicDRLImporter imp,
+                              String fileName,
+                              Map<String, String> importedAssets) {
+        for ( Asset as : imp.getAssets() ) {
+            String key = packageName + "/" + as.name.trim();
+            if ( fileName.equals( importedAssets.get( key ) ) ) {
+                importedAssets.remove( key );
+            }
+        }
+    }
+
+    /**
+     * Removes the assets a failed file added. Adding an asset saves its node
+     * straight away, so discarding the session only drops its content.
+     */
+    private void removeAssets(String packageName,
+                              List<String> assetNames) {
+        if ( assetNames.isEmpty() || !repository.containsModule( packageName ) ) {
+            return;
+        }
+        ModuleItem pkg = repository.loadModule( packageName );
+        for ( String assetName : assetNames ) {
+            if ( pkg.containsAsset( assetName ) ) {
+                pkg.loadAsset( assetName ).remove();
+            }
+        }
+        repository.save();
+    }
+
+    /**
+     * Removes the package if it is archived, so that it can be created again.
+     * Returns whether the package is there.
+     */
+    private boolean removeIfArchived(String packageName) {
         boolean existing = repository.containsModule( packageName );
 
         // Check if the package is archived
@@ -321,49 +592,56 @@ public class FileManagerService {
             item.remove();
             existing = false;
         }
+        return existing;
+    }
 
+    private ModuleItem loadOrCreateModule(String packageName,
+                                          ClassicDRLImporter imp,
+                                          boolean existing) {
+        ModuleItem pkg;
         if ( existing ) {
             pkg = repository.loadModule( packageName );
             DroolsHeader.updateDroolsHeader( ClassicDRLImporter.mergeLines( DroolsHeader.getDroolsHeader( pkg ),
                                                                                      imp.getPackageHeader() ),
                                                       pkg );
-            existing = true;
         } else {
             pkg = repository.createModule( packageName,
                                             "<imported>" );
             DroolsHeader.updateDroolsHeader( imp.getPackageHeader(),
                                                       pkg );
         }
+        return pkg;
+    }
 
-        boolean newVer = Boolean.parseBoolean( System.getProperty( "drools.createNewVersionOnImport",
-                                                                   "true" ) );
-
-        for ( Asset as : imp.getAssets() ) {
-
-            if ( existing && pkg.containsAsset( as.name ) ) {
-                AssetItem asset = pkg.loadAsset( as.name );
-                if ( asset.getFormat().equals( as.format ) ) {
-                    asset.updateContent( as.content );
-                    if ( newVer ) asset.checkin( "Imported change from external DRL" );
-                } //skip it if not the right format
+    private ImportedAsset importAsset(ModuleItem pkg,
+                                      boolean existing,
+                                      Asset as,
+                                      boolean newVer) {
+        if ( existing && pkg.containsAsset( as.name ) ) {
+            AssetItem asset = pkg.loadAsset( as.name );
+            if ( asset.getFormat().equals( as.format ) ) {
+                asset.updateContent( as.content );
+                if ( newVer ) asset.checkin( "Imported change from external DRL" );
+                return ImportedAsset.UPDATED;
+            } //skip it if not the right format
+            return ImportedAsset.SKIPPED;
 
-            } else {
+        } else {
 
-                AssetItem asset = pkg.addAsset( as.name,
-                                                "<imported>" );
-                asset.updateFormat( as.format );
+            AssetItem asset = pkg.addAsset( as.name,
+                                            "<imported>" );
+            asset.updateFormat( as.format );
 
-                asset.updateContent( as.content );
-                asset.updateExternalSource( "Imported from external DRL" );
-                if ( newVer ) asset.checkin( "Imported change from external DRL" );
+            asset.updateContent( as.content );
+            asset.updateExternalSource( "Imported from external DRL" );
+            if ( newVer ) asset.checkin( "Imported change from external DRL" );
+            return ImportedAsset.CREATED;
 
-            }
         }
+    }
 
-        repository.save();
-
-        /* Return the name of the new package to the caller */
-        return packageName;
+    private static enum ImportedAsset {
+        CREATED, UPDATED, SKIPPED
     }
 
     /**
@@ -401,9 +679,11 @@ public class FileManagerService {
 
             BRMSPackageBuilder builder = new BRMSPackageBuilder();
             builder.setDSLFiles( DSLLoader.loadDSLMappingFiles( item.getModule() ) );
-            ((IRuleAsset) handler).assembleDRL( builder,
-                                                item,
-                                                stringBuilder );
+            GeneratedDRLCache drlCache = new GeneratedDRLCache( item.getModule() );
+            drlCache.assembleDRL( (IRuleAsset) handler,
+                                  builder,
+                                  item,
+                                  stringBuilder );
             out.write( stringBuilder.toString().getBytes() );
             return item.getName() + ".drl";
         } else {
@@ -20,6 +20,7 @@ import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
 import org.drools.guvnor.server.builder.DSLLoader;
+import org.drools.guvnor.server.builder.GeneratedDRLCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
@@ -58,6 +59,10 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
 
         List<DrlRuleParser> rules = new ArrayList<DrlRuleParser>();
 
+        BRMSPackageBuilder builder = new BRMSPackageBuilder();
+        builder.setDSLFiles(DSLLoader.loadDSLMappingFiles(packageItem));
+        GeneratedDRLCache drlCache = new GeneratedDRLCache(packageItem);
+
         // Get And Fill Rule Data
         Iterator<AssetItem> assets = packageItem.getAssets();
         while (assets.hasNext()) {
@@ -66,7 +71,9 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
 
             if (formats.contains(assetItem.getFormat()) && !assetItem.getDisabled() && !assetItem.isArchived()) {
 
-                String drl = getDRL(assetItem);
+                String drl = getDRL(assetItem,
+                        builder,
+                        drlCache);
 
                 if (drl != null) {
 
@@ -119,7 +126,9 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
         return new GuvnorDroolsDocsBuilder(packageItem);
     }
 
-    private static String getDRL(AssetItem item) {
+    private static String getDRL(AssetItem item,
+                                 BRMSPackageBuilder builder,
+                                 GeneratedDRLCache drlCache) {
         ContentHandler handler = ContentManager.getHandler(item.getFormat());
 
         if (!handler.isRuleAsset()) {
@@ -127,9 +136,8 @@ public class GuvnorDroolsDocsBuilder extends DroolsDocsBuilder {
         }
 
         StringBuilder stringBuilder = new StringBuilder();
-        BRMSPackageBuilder builder = new BRMSPackageBuilder();
-        builder.setDSLFiles(DSLLoader.loadDSLMappingFiles(item.getModule()));
-        ((IRuleAsset) handler).assembleDRL(builder,
+        drlCache.assembleDRL((IRuleAsset) handler,
+                builder,
                 item,
                 stringBuilder);
 
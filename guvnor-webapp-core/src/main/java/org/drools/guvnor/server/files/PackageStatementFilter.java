@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Reads DRL a line at a time, leaving out the package statement, and gives it
+ * back as UTF-8. Only one line is held at a time, however big the DRL is.
+ */
+class PackageStatementFilter extends InputStream {
+
+    private final BufferedReader reader;
+    private byte[]               line = new byte[0];
+    private int                  position;
+
+    PackageStatementFilter(InputStream in,
+                           String characterEncoding) throws UnsupportedEncodingException {
+        this.reader = new BufferedReader( new InputStreamReader( in,
+                                                                 characterEncoding ) );
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ( !fill() ) {
+            return -1;
+        }
+        return line[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b,
+                    int off,
+                    int len) throws IOException {
+        if ( len == 0 ) {
+            return 0;
+        }
+        if ( !fill() ) {
+            return -1;
+        }
+        int n = Math.min( len,
+                          line.length - position );
+        System.arraycopy( line,
+                          position,
+                          b,
+                          off,
+                          n );
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean fill() throws IOException {
+        while ( position >= line.length ) {
+            String next = reader.readLine();
+            if ( next == null ) {
+                return false;
+            }
+            if ( !next.startsWith( "package " ) ) {
+                line = (next + "\n").getBytes( "UTF-8" );
+                position = 0;
+            }
+        }
+        return true;
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.drools.guvnor.server.files;
 
 import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.drools.RuntimeDroolsException;
 import org.drools.guvnor.server.util.FormData;
 import org.drools.guvnor.server.util.LoggingHelper;
@@ -27,17 +28,29 @@ import javax.jcr.RepositoryException;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /**
  * This servlet deals with import and export of the repository to XML/zip files.
+ * <p/>
+ * Large files may also be uploaded in chunks, each a POST of the raw bytes, as
+ * application/octet-stream, with a Content-Range header. The first chunk starts the upload, and the reply
+ * gives its id in an X-Upload-Id header, to be passed as the uploadId
+ * parameter with the chunks that follow. Every reply gives what has been
+ * received so far in a Range header, so that an upload that is cut off can
+ * carry on from there. A GET with the uploadId parameter reports how far the
+ * upload, and then the import, has got. The import is run when the last chunk
+ * arrives, with the packageImport and importAsNew parameters of that chunk.
  */
 public class RepositoryBackupServlet extends RepositoryServlet {
 
@@ -46,9 +59,14 @@ public class RepositoryBackupServlet extends RepositoryServlet {
 
     private static final List<String> zipMimeTypes = new ArrayList<String>();
 
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+)");
+
     @Inject
     private FileManagerService fileManagerService;
 
+    @Inject
+    private ResumableUploads resumableUploads;
+
     static {
         zipMimeTypes.add("application/zip");
         zipMimeTypes.add("application/x-compress");
@@ -79,12 +97,13 @@ public class RepositoryBackupServlet extends RepositoryServlet {
                         if (repoConfig != null) {
                             processExportRepoConfig(response,
                                     repoConfig);
+                        } else if (request.getHeader("Content-Range") != null) {
+                            processUploadChunk(request,
+                                    response);
                         } else {
                             response.setContentType("text/html");
                             FormData uploadItem = FileManagerService.getFormData(request);
 
-                            String packageImport = request.getParameter("packageImport");
-
                             InputStream is = uploadItem.getFile().getInputStream();
                             if (isFileZipped(uploadItem.getFile())) {
                                 ZipInputStream zipInputStream = new ZipInputStream(is);
@@ -96,13 +115,9 @@ public class RepositoryBackupServlet extends RepositoryServlet {
                                 }
                             }
 
-                            if ("true".equals(packageImport)) {
-                                boolean importAsNew = "true".equals(request.getParameter("importAsNew"));
-                                response.getWriter().write(processImportPackage(is,
-                                        importAsNew));
-                            } else {
-                                response.getWriter().write(processImportRepository(is));
-                            }
+                            processImport(request,
+                                    response,
+                                    is);
                             is.close();
 
                         }
@@ -110,6 +125,146 @@ public class RepositoryBackupServlet extends RepositoryServlet {
                 });
     }
 
+    private void processImport(HttpServletRequest request,
+                               HttpServletResponse response,
+                               InputStream is) throws IOException {
+        String packageImport = request.getParameter("packageImport");
+        if ("true".equals(packageImport)) {
+            boolean importAsNew = "true".equals(request.getParameter("importAsNew"));
+            response.getWriter().write(processImportPackage(is,
+                    importAsNew));
+        } else {
+            response.getWriter().write(processImportRepository(is));
+        }
+    }
+
+    private void processUploadChunk(HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        long[] range = parseContentRange(request.getHeader("Content-Range"));
+        if (range == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "Content-Range must be of the form bytes first-last/length");
+            return;
+        }
+
+        ResumableUploads.Upload upload;
+        String uploadId = request.getParameter("uploadId");
+        if (uploadId == null) {
+            if (range[0] != 0) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                        "The first chunk of an upload must start at 0");
+                return;
+            }
+            upload = resumableUploads.start(range[2]);
+        } else {
+            upload = resumableUploads.get(uploadId);
+            if (upload == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND,
+                        "No upload " + uploadId);
+                return;
+            }
+        }
+
+        boolean appended = upload.append(range[0],
+                request.getInputStream());
+        writeUploadStatus(response,
+                upload);
+        if (!appended) {
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            response.getWriter().write(upload.getReceived() + "/" + upload.getLength());
+        } else if (!upload.isComplete()) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            response.getWriter().write(upload.getReceived() + "/" + upload.getLength());
+        } else {
+            InputStream is = upload.openForImport();
+            if (is == null) {
+                //Another request completed the upload, and is importing it
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+                response.getWriter().write("importing " + upload.getImported() + "/" + upload.getLength());
+                return;
+            }
+            try {
+                response.setContentType("text/html");
+                processImport(request,
+                        response,
+                        unzipIfZipped(is));
+            } finally {
+                is.close();
+                resumableUploads.remove(upload);
+            }
+        }
+    }
+
+    private void processUploadStatus(HttpServletResponse response,
+                                     String uploadId) throws IOException {
+        ResumableUploads.Upload upload = resumableUploads.get(uploadId);
+        if (upload == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND,
+                    "No upload " + uploadId);
+            return;
+        }
+        writeUploadStatus(response,
+                upload);
+        response.setContentType("text/plain");
+        long imported = upload.getImported();
+        if (imported < 0) {
+            response.getWriter().write(upload.getReceived() + "/" + upload.getLength());
+        } else {
+            response.getWriter().write("importing " + imported + "/" + upload.getLength());
+        }
+    }
+
+    private void writeUploadStatus(HttpServletResponse response,
+                                   ResumableUploads.Upload upload) {
+        response.setHeader("X-Upload-Id",
+                upload.getId());
+        if (upload.getReceived() > 0) {
+            response.setHeader("Range",
+                    "bytes=0-" + (upload.getReceived() - 1));
+        }
+    }
+
+    /**
+     * The first byte, last byte and total length of "bytes first-last/length".
+     */
+    static long[] parseContentRange(String contentRange) {
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        long[] range = new long[]{Long.parseLong(matcher.group(1)),
+                Long.parseLong(matcher.group(2)),
+                Long.parseLong(matcher.group(3))};
+        if (range[0] > range[1] || range[1] >= range[2]) {
+            return null;
+        }
+        return range;
+    }
+
+    /**
+     * Chunked uploads have no part with a content type, so a zip is told by
+     * its first bytes.
+     */
+    private InputStream unzipIfZipped(InputStream is) throws IOException {
+        InputStream in = is.markSupported() ? is : new BufferedInputStream(is);
+        in.mark(4);
+        byte[] magic = new byte[4];
+        int n = 0;
+        int read;
+        while (n < magic.length && (read = in.read(magic, n, magic.length - n)) != -1) {
+            n += read;
+        }
+        in.reset();
+        if (n == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+            ZipInputStream zipInputStream = new ZipInputStream(in);
+            if (zipInputStream.getNextEntry() == null) {
+                throw new RuntimeDroolsException("Invalid compressed repository");
+            }
+            return zipInputStream;
+        }
+        return in;
+    }
+
     private boolean isFileZipped(FileItem file) throws IOException {
         String mimeType = file.getContentType().toLowerCase();
         return zipMimeTypes.contains(mimeType);
@@ -130,8 +285,12 @@ public class RepositoryBackupServlet extends RepositoryServlet {
 
                         try {
                             String packageName = req.getParameter("packageName");
+                            String uploadId = req.getParameter("uploadId");
 
-                            if (packageName == null) {
+                            if (uploadId != null) {
+                                processUploadStatus(res,
+                                        uploadId);
+                            } else if (packageName == null) {
                                 processExportRepositoryDownload(res);
                             } else {
                                 if(fileManagerService.isPackageExist(packageName)) {
@@ -174,13 +333,14 @@ public class RepositoryBackupServlet extends RepositoryServlet {
                 "attachment; filename=repository_export.zip;");
 
         log.debug("Starting to process export");
-        ZipOutputStream zout = new ZipOutputStream(res.getOutputStream());
+        CountingOutputStream out = new CountingOutputStream(res.getOutputStream());
+        ZipOutputStream zout = new ZipOutputStream(out);
         zout.putNextEntry(new ZipEntry("repository_export.xml"));
         fileManagerService.exportRulesRepository(zout);
         zout.closeEntry();
         zout.finish();
         res.getOutputStream().flush();
-        log.debug("Done exporting!");
+        log.debug("Done exporting " + out.getByteCount() + " bytes!");
     }
 
     private void processExportPackageFromRepositoryDownload(
@@ -194,8 +354,8 @@ public class RepositoryBackupServlet extends RepositoryServlet {
                 "inline; filename=" + packageName
                         + ".zip;");
 
-        res.getOutputStream().write(
-                fileManagerService.exportPackageFromRepository(packageName));
+        fileManagerService.exportPackageFromRepository(packageName,
+                res.getOutputStream());
         res.getOutputStream().flush();
     }
 
@@ -207,9 +367,7 @@ public class RepositoryBackupServlet extends RepositoryServlet {
     private String processImportPackage(InputStream file,
                                         boolean importAsNew)
             throws IOException {
-        byte[] byteArray = new byte[file.available()];
-        file.read(byteArray);
-        fileManagerService.importPackageToRepository(byteArray,
+        fileManagerService.importPackageToRepository(file,
                 importAsNew);
         return "OK";
     }
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+
+/**
+ * Holds repository and package uploads that are sent in chunks, in temporary
+ * files, so that an upload that is cut off can carry on from the last byte
+ * received instead of starting again. Uploads that are not touched for a day
+ * are thrown away.
+ */
+@ApplicationScoped
+public class ResumableUploads {
+
+    static final long                 TIME_TO_LIVE = 24 * 60 * 60 * 1000;
+
+    private final Map<String, Upload> uploads      = new ConcurrentHashMap<String, Upload>();
+
+    /**
+     * Starts an upload of the given number of bytes.
+     */
+    public Upload start(long length) throws IOException {
+        expire();
+        if ( length < 0 ) {
+            throw new IllegalArgumentException( "The length of an upload can not be negative" );
+        }
+        Upload upload = new Upload( UUID.randomUUID().toString(),
+                                    File.createTempFile( "guvnor-upload",
+                                                         ".tmp" ),
+                                    length );
+        uploads.put( upload.getId(),
+                     upload );
+        return upload;
+    }
+
+    /**
+     * The upload, or null if there is no such upload or it has expired.
+     */
+    public Upload get(String id) {
+        Upload upload = uploads.get( id );
+        if ( upload != null && upload.isExpired() ) {
+            remove( upload );
+            return null;
+        }
+        return upload;
+    }
+
+    public void remove(Upload upload) {
+        uploads.remove( upload.getId() );
+        upload.getFile().delete();
+    }
+
+    @PreDestroy
+    public void removeAll() {
+        for ( Upload upload : uploads.values() ) {
+            remove( upload );
+        }
+    }
+
+    private void expire() {
+        for ( Iterator<Upload> it = uploads.values().iterator(); it.hasNext(); ) {
+            Upload upload = it.next();
+            if ( upload.isExpired() ) {
+                it.remove();
+                upload.getFile().delete();
+            }
+        }
+    }
+
+    public static class Upload {
+
+        private final String                 id;
+        private final File                   file;
+        private final long                   length;
+        private volatile long                received;
+        private volatile long                lastAccessed;
+        private volatile CountingInputStream importing;
+
+        Upload(String id,
+               File file,
+               long length) {
+            this.id = id;
+            this.file = file;
+            this.length = length;
+            this.lastAccessed = System.currentTimeMillis();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public boolean isComplete() {
+            return received == length;
+        }
+
+        /**
+         * Adds the chunk that starts at the given offset. Returns false, and
+         * adds nothing, if the offset is not where the upload got to. If the
+         * chunk is cut off, what did arrive is kept.
+         */
+        public synchronized boolean append(long offset,
+                                           InputStream chunk) throws IOException {
+            lastAccessed = System.currentTimeMillis();
+            if ( offset != received || importing != null ) {
+                return false;
+            }
+            OutputStream out = new FileOutputStream( file,
+                                                     true );
+            try {
+                byte[] buffer = new byte[8192];
+                int n;
+                while ( (n = chunk.read( buffer )) != -1 ) {
+                    if ( received + n > length ) {
+                        throw new IllegalArgumentException( "The upload is longer than the " + length + " bytes it was started with" );
+                    }
+                    out.write( buffer,
+                               0,
+                               n );
+                    received += n;
+                }
+            } finally {
+                IOUtils.closeQuietly( out );
+            }
+            return true;
+        }
+
+        /**
+         * Reads back the whole upload, once it is complete. How far it has been
+         * read is given by getImported. Only the first caller gets to import
+         * the upload, any other gets null.
+         */
+        public synchronized InputStream openForImport() throws IOException {
+            if ( !isComplete() ) {
+                throw new IllegalStateException( "Only " + received + " of " + length + " bytes have been received" );
+            }
+            if ( importing != null ) {
+                return null;
+            }
+            lastAccessed = System.currentTimeMillis();
+            importing = new CountingInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+            return importing;
+        }
+
+        /**
+         * The number of bytes read by the import, or -1 if it has not started.
+         */
+        public long getImported() {
+            CountingInputStream in = importing;
+            return in == null ? -1 : in.getByteCount();
+        }
+
+        boolean isExpired() {
+            return importing == null && lastAccessed + TIME_TO_LIVE <= System.currentTimeMillis();
+        }
+
+    }
+
+}
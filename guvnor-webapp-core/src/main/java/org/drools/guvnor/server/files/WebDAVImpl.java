@@ -58,6 +58,9 @@ public class WebDAVImpl
     @Inject
     protected Identity                       identity;
 
+    @Inject
+    protected WebDAVListingCache             listingCache;
+
     public ITransaction begin(final Principal principal) {
         return new ITransaction() {
             public Principal getPrincipal() {
@@ -206,47 +209,60 @@ public class WebDAVImpl
     private void handleReadOnlySnapshotPackages(RulesRepository repository,
                                                 String[] path,
                                                 List<String> result) {
-        Iterator<AssetItem> it = loadPackageSnapshotFromRepository( path ).getAssets();
-        while ( it.hasNext() ) {
-            AssetItem asset = it.next();
-            if ( !asset.isArchived() ) {
-                addNameAndFormat( result,
-                                  asset );
-            }
-        }
+        result.addAll( Arrays.asList( loadSnapshotListing( path ).getChildrenNames() ) );
     }
 
     private void handleReadOnlyGlobalAreaPackages(RulesRepository repository,
                                                   String[] path,
                                                   List<String> result) {
-        Iterator<AssetItem> it = loadGlobalAreaFromRepository().getAssets();
-        while ( it.hasNext() ) {
-            AssetItem asset = it.next();
-            if ( !asset.isArchived() ) {
-                addNameAndFormat( result,
-                                  asset );
-            }
-        }
+        result.addAll( Arrays.asList( loadGlobalAreaListing().getChildrenNames() ) );
     }
 
     private void handleReadOnlyPackages(RulesRepository repository,
                                         String[] path,
                                         List<String> result) {
-        ModuleItem pkg = loadPackageFromRepository(
-                path[1] );
-        Iterator<AssetItem> it = pkg.getAssets();
-        while ( it.hasNext() ) {
-            AssetItem asset = it.next();
-            if ( !asset.isArchived() ) {
-                addNameAndFormat( result,
-                                  asset );
-            }
-        }
+        result.addAll( Arrays.asList( loadPackageListing( path[1] ).getChildrenNames() ) );
+    }
+
+    private WebDAVListingCache.Listing loadPackageListing(String packageName) {
+        return loadListing( PACKAGES + "/" + packageName,
+                            loadPackageFromRepository( packageName ) );
     }
 
-    private void addNameAndFormat(List<String> result,
-                                     AssetItem asset) {
-        result.add( asset.getName() + "." + asset.getFormat() );
+    private WebDAVListingCache.Listing loadSnapshotListing(String[] path) {
+        return loadListing( SNAPSHOTS + "/" + path[1] + "/" + path[2],
+                            loadPackageSnapshotFromRepository( path ) );
+    }
+
+    private WebDAVListingCache.Listing loadGlobalAreaListing() {
+        return loadListing( GLOBALAREA,
+                            loadGlobalAreaFromRepository() );
+    }
+
+    /**
+     * The assets of the package that are not archived, read in one query,
+     * with what a PROPFIND needs of each. This is kept until something in the
+     * package changes.
+     */
+    private WebDAVListingCache.Listing loadListing(String key,
+                                                   ModuleItem pkg) {
+        WebDAVListingCache.Listing listing = listingCache.get( key );
+        if ( listing == null ) {
+            listing = new WebDAVListingCache.Listing( listingCache.getGeneration() );
+            Iterator<AssetItem> it = pkg.getAssets();
+            while ( it.hasNext() ) {
+                AssetItem asset = it.next();
+                if ( !asset.isArchived() ) {
+                    listing.add( asset.getName() + "." + asset.getFormat(),
+                                 asset.getCreatedDate().getTime(),
+                                 asset.getLastModified().getTime(),
+                                 asset.getContentLength() );
+                }
+            }
+            listingCache.put( key,
+                              listing );
+        }
+        return listing;
     }
 
     private void listPackages(RulesRepository repository,
@@ -294,6 +310,10 @@ public class WebDAVImpl
         } else if ( path.length == 3 ) {
             return loadPackageSnapshotFromRepository( path ).getCreatedDate().getTime();
         } else if ( path.length == 4 ) {
+            StoredObject so = loadSnapshotListing( path ).getStoredObject( path[3] );
+            if ( so != null ) {
+                return so.getCreationDate();
+            }
             return loadAssetItemFromPackageItem( loadPackageSnapshotFromRepository(
                                                  path ),
                                                  path[3] ).getCreatedDate().getTime();
@@ -307,6 +327,10 @@ public class WebDAVImpl
         if ( path.length == 2 ) {
             return packageItem.getCreatedDate().getTime();
         }
+        StoredObject so = loadPackageListing( path[1] ).getStoredObject( path[2] );
+        if ( so != null ) {
+            return so.getCreationDate();
+        }
         return loadAssetItemFromPackageItem( packageItem,
                                              path[2] ).getCreatedDate().getTime();
     }
@@ -351,6 +375,10 @@ public class WebDAVImpl
         } else if ( path.length == 3 ) {
             return loadPackageSnapshotFromRepository( path ).getLastModified().getTime();
         } else if ( path.length == 4 ) {
+            StoredObject so = loadSnapshotListing( path ).getStoredObject( path[3] );
+            if ( so != null ) {
+                return so.getLastModified();
+            }
             ModuleItem pkg = loadPackageSnapshotFromRepository( path );
             return getLastModifiedFromPackageAssetItem( pkg,
                                                         path[3] );
@@ -364,6 +392,10 @@ public class WebDAVImpl
         if ( path.length == 2 ) {
             return pkg.getLastModified().getTime();
         }
+        StoredObject so = loadPackageListing( path[1] ).getStoredObject( path[2] );
+        if ( so != null ) {
+            return so.getLastModified();
+        }
         return getLastModifiedFromPackageAssetItem( pkg,
                                                     path[2] );
 
@@ -444,6 +476,10 @@ public class WebDAVImpl
                                        path ),
                                        0 );
         } else if ( path.length == 4 ) {
+            StoredObject so = loadSnapshotListing( path ).getStoredObject( path[3] );
+            if ( so != null ) {
+                return so;
+            }
             ModuleItem pkg = loadPackageSnapshotFromRepository( path );
             AssetItem asset;
             try {
@@ -470,6 +506,10 @@ public class WebDAVImpl
                                        0 );
         }
 
+        StoredObject so = loadPackageListing( path[1] ).getStoredObject( path[2] );
+        if ( so != null ) {
+            return so;
+        }
         AssetItem asset;
         try {
             asset = loadAssetItemFromPackageItem( packageItem,
@@ -492,6 +532,10 @@ public class WebDAVImpl
             so.setFolder( isFolder( uri ) );
             return so;
         } else if ( path.length == 2 ) {
+            StoredObject so = loadGlobalAreaListing().getStoredObject( path[1] );
+            if ( so != null ) {
+                return so;
+            }
             AssetItem asset;
             try {
                 asset = loadAssetItemFromGlobalArea( path );
@@ -545,11 +589,16 @@ public class WebDAVImpl
 
     }
 
+    /**
+     * Streams the content straight from the repository, whether it is held as
+     * binary or as text.
+     */
     private InputStream getAssetData(AssetItem assetItem) {
-        if ( assetItem.isBinary() ) {
-            return assetItem.getBinaryContentAttachment();
+        InputStream data = assetItem.getBinaryContentAttachment();
+        if ( data == null ) {
+            return new ByteArrayInputStream( new byte[0] );
         }
-        return new ByteArrayInputStream( assetItem.getContent().getBytes() );
+        return data;
     }
 
     public long getResourceLength(ITransaction iTransaction,
@@ -557,6 +606,10 @@ public class WebDAVImpl
         String[] path = getPath( uri );
         try {
             if ( path.length == 3 && isPackages( path ) && checkPackagePermissionIfReadOnly( path ) ) {
+                StoredObject so = loadPackageListing( path[1] ).getStoredObject( path[2] );
+                if ( so != null ) {
+                    return so.getResourceLength();
+                }
                 return loadAssetItemFromPackage( path ).getContentLength();
             }
 
@@ -766,24 +819,9 @@ public class WebDAVImpl
                 return 0;
             }
             AssetItem asset = loadAssetItemFromPackage( path );
-            if ( asset.getFormat().equals( "drl" ) ) {
-                try {
-                    BufferedReader reader = new BufferedReader( new InputStreamReader( content ) );
-                    StringBuilder sb = new StringBuilder();
-                    String line = null;
-                    while ( (line = reader.readLine()) != null ) {
-                        if ( !line.startsWith( "package " ) ) {
-                            sb.append( line ).append( "\n" );
-                        }
-                    }
-                    asset.updateBinaryContentAttachment( new ByteArrayInputStream( sb.toString().getBytes( "UTF-8" ) ) );
-                } catch ( Exception e ) {
-                    //default
-                    asset.updateBinaryContentAttachment( content );
-                }
-            } else {
-                asset.updateBinaryContentAttachment( content );
-            }
+            updateContent( asset,
+                           content,
+                           characterEncoding );
             //here we could save, or check in, depending on if enough time has passed to justify
             //a new version. Otherwise we will pollute the version history with lots of trivial versions.
             //if (shouldCreateNewVersion(asset.getLastModified())) {
@@ -800,24 +838,9 @@ public class WebDAVImpl
                 return 0;
             }
             AssetItem asset = loadAssetItemFromGlobalArea( path );
-            if ( asset.getFormat().equals( "drl" ) ) {
-                try {
-                    BufferedReader reader = new BufferedReader( new InputStreamReader( content ) );
-                    StringBuilder sb = new StringBuilder();
-                    String line = null;
-                    while ( (line = reader.readLine()) != null ) {
-                        if ( !line.startsWith( "package " ) ) {
-                            sb.append( line ).append( "\n" );
-                        }
-                    }
-                    asset.updateBinaryContentAttachment( new ByteArrayInputStream( sb.toString().getBytes( "UTF-8" ) ) );
-                } catch ( Exception e ) {
-                    //default
-                    asset.updateBinaryContentAttachment( content );
-                }
-            } else {
-                asset.updateBinaryContentAttachment( content );
-            }
+            updateContent( asset,
+                           content,
+                           characterEncoding );
             //here we could save, or check in, depending on if enough time has passed to justify
             //a new version. Otherwise we will pollute the version history with lots of trivial versions.
             //if (shouldCreateNewVersion(asset.getLastModified())) {
@@ -830,6 +853,26 @@ public class WebDAVImpl
         return 0;
     }
 
+    /**
+     * Streams the content into the repository. The package statement is left
+     * out of DRL, as the asset is in a package already.
+     */
+    private void updateContent(AssetItem asset,
+                               InputStream content,
+                               String characterEncoding) {
+        if ( asset.getFormat().equals( "drl" ) ) {
+            try {
+                asset.updateBinaryContentAttachment( new PackageStatementFilter( content,
+                                                                                 characterEncoding == null ? "UTF-8" : characterEncoding ) );
+            } catch ( UnsupportedEncodingException e ) {
+                throw new IllegalArgumentException( "Unsupported character encoding " + characterEncoding,
+                                                    e );
+            }
+        } else {
+            asset.updateBinaryContentAttachment( content );
+        }
+    }
+
     //REVISIT: We should never reach this code which is using webdav as regex,
     //i.e., input uri is sth like /webdav/packages/mypackage
     String[] getPath(String uri) {
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import net.sf.webdav.StoredObject;
+
+import org.drools.repository.ChangeJournalEntry;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.events.ChangeEvent;
+import org.drools.repository.events.StorageEventManager;
+
+/**
+ * Holds the WebDAV listings of the packages, snapshots and the global area, so
+ * that a PROPFIND of a folder, which asks for each child in turn, is answered
+ * from one pass over the assets. A package's listing is dropped when anything
+ * in that package changes. Listings also expire after a while, in case the
+ * change was made on another node of a cluster.
+ * <p/>
+ * The keys are the WebDAV path of the folder without the leading slash, such
+ * as "packages/mypackage" or "globalarea". Permissions are still checked on
+ * every request, before the cache is used.
+ */
+@ApplicationScoped
+public class WebDAVListingCache {
+
+    static final int    MAX_LISTINGS = 256;
+    static final long   TIME_TO_LIVE = 5 * 60 * 1000;
+
+    static final String PACKAGES     = "packages";
+    static final String SNAPSHOTS    = "snapshots";
+    static final String GLOBALAREA   = "globalarea";
+
+    private final Map<String, Listing> listings = Collections.synchronizedMap( new LinkedHashMap<String, Listing>( 16,
+                                                                                                                  0.75f,
+                                                                                                                  true ) {
+        private static final long serialVersionUID = 510l;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+            return size() > MAX_LISTINGS;
+        }
+    } );
+
+    /**
+     * Counts the invalidations, so that a listing read while a change was
+     * being saved is not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final ChangeEvent changeListener = new ChangeEvent() {
+        public void afterChanges(List<ChangeJournalEntry> changes) {
+            for ( ChangeJournalEntry change : changes ) {
+                invalidate( change.getModuleName() );
+                if ( change.getPreviousModuleName() != null ) {
+                    invalidate( change.getPreviousModuleName() );
+                }
+            }
+        }
+    };
+
+    @PostConstruct
+    public void registerChangeListener() {
+        StorageEventManager.registerChangeEvent( changeListener );
+    }
+
+    @PreDestroy
+    public void unregisterChangeListener() {
+        StorageEventManager.unregisterChangeEvent( changeListener );
+    }
+
+    /**
+     * To be read before reading the assets for a listing, and given to it.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public Listing get(String key) {
+        Listing listing = listings.get( key );
+        if ( listing != null && listing.created + TIME_TO_LIVE <= System.currentTimeMillis() ) {
+            listings.remove( key );
+            return null;
+        }
+        return listing;
+    }
+
+    public void put(String key,
+                    Listing listing) {
+        synchronized ( listings ) {
+            if ( listing.generation == generation.get() ) {
+                listings.put( key,
+                              listing );
+            }
+        }
+    }
+
+    public void clearCache() {
+        listings.clear();
+    }
+
+    void invalidate(String moduleName) {
+        generation.incrementAndGet();
+        if ( RulesRepository.GLOBAL_AREA.equals( moduleName ) ) {
+            //shared assets are listed in the packages that import them too
+            listings.clear();
+            return;
+        }
+        listings.remove( PACKAGES + "/" + moduleName );
+        //a snapshot may be replaced by another of the same name
+        synchronized ( listings ) {
+            String snapshots = SNAPSHOTS + "/" + moduleName + "/";
+            for ( Iterator<String> it = listings.keySet().iterator(); it.hasNext(); ) {
+                if ( it.next().startsWith( snapshots ) ) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The assets of a folder that are not archived, by file name.
+     */
+    public static class Listing {
+
+        private final Map<String, StoredObject> resources = new LinkedHashMap<String, StoredObject>();
+        private final long                      generation;
+        private final long                      created;
+
+        public Listing(long generation) {
+            this.generation = generation;
+            this.created = System.currentTimeMillis();
+        }
+
+        public void add(String fileName,
+                        Date creationDate,
+                        Date lastModified,
+                        long resourceLength) {
+            StoredObject so = new StoredObject();
+            so.setCreationDate( creationDate );
+            so.setFolder( false );
+            so.setLastModified( lastModified );
+            so.setResourceLength( resourceLength );
+            resources.put( fileName,
+                           so );
+        }
+
+        public String[] getChildrenNames() {
+            return resources.keySet().toArray( new String[resources.size()] );
+        }
+
+        /**
+         * A copy of the listed resource, or null if it is not listed.
+         */
+        public StoredObject getStoredObject(String fileName) {
+            StoredObject listed = resources.get( fileName );
+            if ( listed == null ) {
+                return null;
+            }
+            StoredObject so = new StoredObject();
+            so.setCreationDate( listed.getCreationDate() );
+            so.setFolder( false );
+            so.setLastModified( listed.getLastModified() );
+            so.setResourceLength( listed.getResourceLength() );
+            return so;
+        }
+
+    }
+
+}
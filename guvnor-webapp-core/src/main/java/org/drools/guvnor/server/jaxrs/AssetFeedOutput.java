@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import org.drools.repository.AssetItem;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.Iterator;
+
+import static org.apache.commons.lang.StringEscapeUtils.escapeXml;
+import static org.drools.guvnor.server.jaxrs.Translator.toAssetEntryAbdera;
+
+/**
+ * Writes an Atom feed of assets one entry at a time, so that the whole feed
+ * is never held in memory. The entries are those of toAssetEntryAbdera. When
+ * the feed is limited and there are more assets, it ends with a "next" link
+ * to the request with the offset moved on.
+ */
+class AssetFeedOutput implements StreamingOutput {
+
+    private static final String ATOM_NS = "http://www.w3.org/2005/Atom";
+
+    private final String title;
+    private final Iterator<AssetItem> assets;
+    private final int offset;
+    private final int limit;
+    private final UriInfo uriInfo;
+
+    /**
+     * @param assets the assets, already moved past the offset
+     * @param limit the most entries to write, or a negative number for all of them
+     */
+    AssetFeedOutput(String title, Iterator<AssetItem> assets, int offset, int limit, UriInfo uriInfo) {
+        this.title = title;
+        this.assets = assets;
+        this.offset = offset;
+        this.limit = limit;
+        this.uriInfo = uriInfo;
+    }
+
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, "UTF-8");
+        writer.write("<?xml version='1.0' encoding='UTF-8'?>");
+        writer.write("<feed xmlns=\"" + ATOM_NS + "\">");
+        writer.write("<title type=\"text\">" + escapeXml(title) + "</title>");
+
+        int count = 0;
+        while (assets.hasNext() && (limit < 0 || count < limit)) {
+            toAssetEntryAbdera(assets.next(), uriInfo).writeTo(writer);
+            count++;
+        }
+
+        if (assets.hasNext()) {
+            URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("offset", offset + count)
+                    .build();
+            writer.write("<link rel=\"next\" href=\"" + escapeXml(next.toString()) + "\"/>");
+        }
+        writer.write("</feed>");
+        writer.flush();
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import org.apache.commons.io.IOUtils;
+import org.drools.repository.AssetItem;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/**
+ * Writes the source of several assets as a multipart/mixed body, one part per
+ * asset, as each asset is read. The headers of each part carry the asset's
+ * metadata: its name in Content-Disposition, its link in Content-Location,
+ * Last-Modified, and its uuid, format and version number in X-Asset-UUID,
+ * X-Asset-Format and X-Asset-Version. Binary assets are written as
+ * application/octet-stream parts holding the asset's bytes unchanged, with the
+ * name of the attached file, if any, in X-Asset-Attachment-Filename.
+ */
+class AssetSourceOutput implements StreamingOutput {
+
+    private static final String CRLF = "\r\n";
+
+    private final Iterator<AssetItem> assets;
+    private final UriInfo uriInfo;
+    private final String boundary = "asset-" + UUID.randomUUID().toString();
+
+    AssetSourceOutput(Iterator<AssetItem> assets, UriInfo uriInfo) {
+        this.assets = assets;
+        this.uriInfo = uriInfo;
+    }
+
+    /**
+     * The media type of the body, with the boundary between parts.
+     */
+    String getMediaType() {
+        return "multipart/mixed; boundary=\"" + boundary + "\"";
+    }
+
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, "UTF-8");
+        DateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        while (assets.hasNext()) {
+            AssetItem asset = assets.next();
+            boolean isBinary = asset.isBinary();
+            writer.write("--" + boundary + CRLF);
+            if (isBinary) {
+                writer.write("Content-Type: application/octet-stream" + CRLF);
+                writer.write("Content-Transfer-Encoding: binary" + CRLF);
+            } else {
+                writer.write("Content-Type: text/plain; charset=UTF-8" + CRLF);
+            }
+            writer.write("Content-Disposition: attachment; filename=\"" + asset.getName().replace("\"", "\\\"") + "\"" + CRLF);
+            writer.write("Content-Location: " + uriInfo.getBaseUriBuilder()
+                    .path("/packages/{packageName}/assets/{assetName}")
+                    .build(asset.getModuleName(), asset.getName()) + CRLF);
+            writer.write("Last-Modified: " + dateFormat.format(asset.getLastModified().getTime()) + CRLF);
+            writer.write("X-Asset-UUID: " + asset.getUUID() + CRLF);
+            writer.write("X-Asset-Format: " + asset.getFormat() + CRLF);
+            writer.write("X-Asset-Version: " + asset.getVersionNumber() + CRLF);
+            if (isBinary && asset.getBinaryContentAttachmentFileName() != null) {
+                writer.write("X-Asset-Attachment-Filename: " + asset.getBinaryContentAttachmentFileName() + CRLF);
+            }
+            writer.write(CRLF);
+            if (isBinary) {
+                writeBinaryContent(asset, writer, output);
+            } else {
+                String content = asset.getContent();
+                if (content != null) {
+                    writer.write(content);
+                }
+            }
+            writer.write(CRLF);
+        }
+        writer.write("--" + boundary + "--" + CRLF);
+        writer.flush();
+    }
+
+    //The headers written so far are flushed ahead of the bytes, which bypass the writer
+    private void writeBinaryContent(AssetItem asset, Writer writer, OutputStream output) throws IOException {
+        writer.flush();
+        InputStream content = asset.getBinaryContentAttachment();
+        if (content == null) {
+            return;
+        }
+        try {
+            IOUtils.copy(content, output);
+        } finally {
+            content.close();
+        }
+    }
+
+}
@@ -32,16 +32,19 @@ import javax.inject.Named;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import static org.drools.guvnor.server.jaxrs.Translator.*;
 
@@ -128,12 +131,16 @@ public class CategoryResource extends Resource {
     @GET
     @Path("{categoryPath:.+}/assets")
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Collection<Asset> getAssetsAsJAXB(@PathParam("categoryPath") String categoryPath) {
+    public Collection<Asset> getAssetsAsJAXB(@PathParam("categoryPath") String categoryPath,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") @DefaultValue("10") int limit,
+            @QueryParam("fields") String fields) {
         Collection<Asset> ret = new ArrayList<Asset>();
-        AssetItemPageResult result = rulesRepository.findAssetsByCategory(categoryPath, 0, pageSize);
+        Set<String> fieldSet = parseFields(fields);
+        AssetItemPageResult result = rulesRepository.findAssetsByCategory(categoryPath, offset, limit);
         List<AssetItem> assets = result.assets;
         for (AssetItem item : assets) {
-            ret.add(toAsset(item, uriInfo));
+            ret.add(toAsset(item, uriInfo, fieldSet));
         }
         return ret;
     }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import org.drools.guvnor.server.ServiceSecurity;
+import org.drools.repository.ChangeJournalEntry;
+import org.drools.repository.ModuleItem;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.xml.bind.DatatypeConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.commons.lang.StringEscapeUtils.escapeXml;
+
+/**
+ * Writes changes from the change journal as XML, one change at a time. Each
+ * change has a link to the asset or module it was made to, unless it was
+ * deleted. Changes to packages the user cannot read are left out. When the
+ * changes are limited and there are more, it ends with a "next" link to the
+ * changes since the last one read.
+ */
+class ChangeJournalOutput implements StreamingOutput {
+
+    private final Iterator<ChangeJournalEntry> changes;
+    private final long since;
+    private final int limit;
+    private final UriInfo uriInfo;
+    private final ServiceSecurity serviceSecurity;
+    private final Map<String, Boolean> readablePackages = new HashMap<String, Boolean>();
+
+    /**
+     * @param limit the most changes to write, or a negative number for all of them
+     */
+    ChangeJournalOutput(Iterator<ChangeJournalEntry> changes, long since, int limit, UriInfo uriInfo,
+                        ServiceSecurity serviceSecurity) {
+        this.changes = changes;
+        this.since = since;
+        this.limit = limit;
+        this.uriInfo = uriInfo;
+        this.serviceSecurity = serviceSecurity;
+    }
+
+    public void write(OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, "UTF-8");
+        writer.write("<?xml version='1.0' encoding='UTF-8'?>");
+        writer.write("<changes since=\"" + since + "\">");
+
+        long last = since;
+        int count = 0;
+        while (changes.hasNext() && (limit < 0 || count < limit)) {
+            ChangeJournalEntry change = changes.next();
+            //The cursor moves past changes that are left out, so the next link does not return to them
+            last = change.getSequence();
+            if (isReadable(change)) {
+                writeChange(writer, change);
+                count++;
+            }
+        }
+
+        if (changes.hasNext()) {
+            URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("since", last)
+                    .build();
+            writer.write("<link rel=\"next\" href=\"" + escapeXml(next.toString()) + "\"/>");
+        }
+        writer.write("</changes>");
+        writer.flush();
+    }
+
+    //A change that moved an asset between packages can be read from either of them
+    private boolean isReadable(ChangeJournalEntry change) {
+        return isReadable(change.getModuleName())
+                || (change.getPreviousModuleName() != null && isReadable(change.getPreviousModuleName()));
+    }
+
+    private boolean isReadable(String packageName) {
+        Boolean readable = readablePackages.get(packageName);
+        if (readable == null) {
+            readable = serviceSecurity.hasPermissionPackageReadOnlyWithPackageName(packageName);
+            readablePackages.put(packageName, readable);
+        }
+        return readable;
+    }
+
+    private void writeChange(Writer writer, ChangeJournalEntry change) throws IOException {
+        Calendar timestamp = Calendar.getInstance();
+        timestamp.setTimeInMillis(change.getTimestamp());
+
+        writer.write("<change");
+        writeAttribute(writer, "sequence", String.valueOf(change.getSequence()));
+        writeAttribute(writer, "type", change.getType().name());
+        writeAttribute(writer, "uuid", change.getUuid());
+        writeAttribute(writer, "name", change.getName());
+        writeAttribute(writer, "packageName", change.getModuleName());
+        writeAttribute(writer, "format", change.getFormat());
+        writeAttribute(writer, "version", String.valueOf(change.getVersionNumber()));
+        writeAttribute(writer, "previousName", change.getPreviousName());
+        writeAttribute(writer, "previousPackageName", change.getPreviousModuleName());
+        writeAttribute(writer, "user", change.getUser());
+        writeAttribute(writer, "timestamp", DatatypeConverter.printDateTime(timestamp));
+        if (change.getType() == ChangeJournalEntry.Type.DELETE) {
+            writer.write("/>");
+            return;
+        }
+        writer.write(">");
+        URI href = ModuleItem.MODULE_FORMAT.equals(change.getFormat())
+                ? uriInfo.getBaseUriBuilder()
+                        .path("/packages/{packageName}")
+                        .build(change.getModuleName())
+                : uriInfo.getBaseUriBuilder()
+                        .path("/packages/{packageName}/assets/{assetName}")
+                        .build(change.getModuleName(), change.getName());
+        writer.write("<link href=\"" + escapeXml(href.toString()) + "\"/>");
+        writer.write("</change>");
+    }
+
+    private static void writeAttribute(Writer writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.write(" " + name + "=\"" + escapeXml(value) + "\"");
+        }
+    }
+
+}
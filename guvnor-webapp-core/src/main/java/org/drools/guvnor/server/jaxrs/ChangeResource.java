@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import org.drools.repository.ChangeJournal;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Named;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * The change journal, for clients that keep a copy of the repository in step
+ * by asking for what has changed since the last change they saw, rather than
+ * reading every package and asset again.
+ */
+@Path("/changes")
+@RequestScoped
+@Named
+public class ChangeResource extends Resource {
+
+    /**
+     * The changes after the given sequence number, to the packages the user
+     * can read. If some saved changes could not be written to the journal yet,
+     * their number is given in the X-Unjournaled-Changes header; they will
+     * follow the changes returned once they are written.
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_XML)
+    public Response getChanges(@QueryParam("since") @DefaultValue("0") long since,
+                               @QueryParam("limit") @DefaultValue("-1") int limit) {
+        try {
+            ChangeJournalOutput output = new ChangeJournalOutput(new ChangeJournal(rulesRepository).readSince(since),
+                    since, limit, uriInfo, serviceSecurity);
+            Response.ResponseBuilder response = Response.ok(output);
+            int failedChangeCount = changeJournalService.getFailedChangeCount();
+            if (failedChangeCount > 0) {
+                response.header("X-Unjournaled-Changes", failedChangeCount);
+            }
+            return response.build();
+        } catch (RuntimeException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+}
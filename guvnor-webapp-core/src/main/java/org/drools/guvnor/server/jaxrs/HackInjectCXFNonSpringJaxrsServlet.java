@@ -25,6 +25,7 @@ import javax.servlet.ServletException;
 import org.apache.cxf.jaxrs.servlet.CXFNonSpringJaxrsServlet;
 import org.drools.guvnor.server.*;
 import org.drools.guvnor.server.files.FileManagerService;
+import org.drools.guvnor.server.repository.ChangeJournalService;
 import org.drools.repository.RulesRepository;
 import org.jboss.seam.security.Credentials;
 import org.jboss.seam.security.Identity;
@@ -45,6 +46,10 @@ public class HackInjectCXFNonSpringJaxrsServlet extends CXFNonSpringJaxrsServlet
     protected RulesRepository rulesRepository;
     @Inject
     protected FileManagerService fileManagerService;
+    @Inject
+    protected ServiceSecurity serviceSecurity;
+    @Inject
+    protected ChangeJournalService changeJournalService;
 
     @Inject
     private Identity identity;
@@ -71,7 +76,7 @@ public class HackInjectCXFNonSpringJaxrsServlet extends CXFNonSpringJaxrsServlet
             Resource resource = (Resource) singletonInstance;
             resource.inject(serviceImplementation, repositoryPackageService, repositoryAssetService,
                     repositoryCategoryService, repositoryModuleOperations, rulesRepository,
-                    fileManagerService);
+                    fileManagerService, serviceSecurity, changeJournalService);
         }
         return singletonInstance;
     }
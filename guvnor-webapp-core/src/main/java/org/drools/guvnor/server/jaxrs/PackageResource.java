@@ -30,6 +30,9 @@ import org.drools.guvnor.client.rpc.BuilderResultLine;
 import org.drools.guvnor.server.builder.ModuleAssembler;
 import org.drools.guvnor.server.builder.ModuleAssemblerManager;
 import org.drools.guvnor.server.jaxrs.jaxb.Asset;
+import org.drools.guvnor.server.jaxrs.jaxb.AssetChange;
+import org.drools.guvnor.server.jaxrs.jaxb.AssetChangeResult;
+import org.drools.guvnor.server.jaxrs.jaxb.AssetChanges;
 import org.drools.guvnor.server.jaxrs.jaxb.Package;
 import org.drools.repository.AssetHistoryIterator;
 import org.drools.repository.AssetItem;
@@ -42,6 +45,7 @@ import javax.inject.Named;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
@@ -51,12 +55,15 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -70,6 +77,7 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.TimeZone;
 
 import static org.drools.guvnor.server.jaxrs.Translator.toAsset;
@@ -126,14 +134,19 @@ public class PackageResource extends Resource {
 
     @GET
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Collection<Package> getPackagesAsJAXB() {
+    public Response getPackagesAsJAXB(
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") @DefaultValue(DEFAULT_LIMIT) int limit,
+            @QueryParam("fields") String fields) {
         List<Package> ret = new ArrayList<Package>();
+        Set<String> fieldSet = parseFields(fields);
         ModuleIterator iter = rulesRepository.listModules();
-        while (iter.hasNext()) {
+        skip(iter, offset);
+        while (iter.hasNext() && (limit < 0 || ret.size() < limit)) {
             //REVIST: Do not return detailed package info here. Package title and link should be enough. 
-            ret.add(toPackage(iter.next(), uriInfo));
+            ret.add(toPackage(iter.next(), uriInfo, fieldSet));
         }
-        return ret;
+        return toPageResponse(new GenericEntity<Collection<Package>>(ret) {}, iter, offset, ret.size());
     }
 
     @POST
@@ -433,29 +446,16 @@ public class PackageResource extends Resource {
     @GET
     @Path("{packageName}/assets")
     @Produces(MediaType.APPLICATION_ATOM_XML)
-    public Feed getAssetsAsAtom(
+    public StreamingOutput getAssetsAsAtom(
             @PathParam("packageName") String packageName,
-            @QueryParam("format") List<String> formats) {
+            @QueryParam("format") List<String> formats,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") @DefaultValue("-1") int limit) {
         try {
-            Factory factory = Abdera.getNewFactory();
-            Feed feed = factory.getAbdera().newFeed();
             ModuleItem p = rulesRepository.loadModule(packageName);
-            feed.setTitle(p.getTitle() + "-asset-feed");
-            
-            Iterator<AssetItem> iter = null;
-            
-            if (formats.isEmpty()){
-                //no format specified? Return all assets
-                iter = p.getAssets();
-            }else{
-                //if the format is specified, return only the assets of
-                //the specified formats.
-                iter = p.listAssetsByFormat(formats);
-            }
-            
-            while (iter.hasNext())
-                feed.addEntry(toAssetEntryAbdera(iter.next(), uriInfo));
-            return feed;
+            Iterator<AssetItem> iter = listAssets(p, formats);
+            skip(iter, offset);
+            return new AssetFeedOutput(p.getTitle() + "-asset-feed", iter, offset, limit, uriInfo);
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -464,28 +464,151 @@ public class PackageResource extends Resource {
     @GET
     @Path("{packageName}/assets")
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Collection<Asset> getAssetsAsJAXB(
+    public Response getAssetsAsJAXB(
             @PathParam("packageName") String packageName,
-            @QueryParam("format") List<String> formats) {
+            @QueryParam("format") List<String> formats,
+            @QueryParam("offset") @DefaultValue("0") int offset,
+            @QueryParam("limit") @DefaultValue(DEFAULT_LIMIT) int limit,
+            @QueryParam("fields") String fields) {
         try {
             List<Asset> ret = new ArrayList<Asset>();
+            Set<String> fieldSet = parseFields(fields);
             ModuleItem p = rulesRepository.loadModule(packageName);
-            
-            Iterator<AssetItem> iter = null;
-            
-            if (formats.isEmpty()){
-                //no format specified? Return all assets
+            Iterator<AssetItem> iter = listAssets(p, formats);
+            skip(iter, offset);
+            while (iter.hasNext() && (limit < 0 || ret.size() < limit)) {
+                ret.add(toAsset(iter.next(), uriInfo, fieldSet));
+            }
+            return toPageResponse(new GenericEntity<Collection<Asset>>(ret) {}, iter, offset, ret.size());
+        } catch (RuntimeException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+    private Iterator<AssetItem> listAssets(ModuleItem p, List<String> formats) {
+        if (formats.isEmpty()){
+            //no format specified? Return all assets
+            return p.getAssets();
+        }else{
+            //if the format is specified, return only the assets of
+            //the specified formats.
+            return p.listAssetsByFormat(formats);
+        }
+    }
+
+    /**
+     * The source of several assets in one multipart/mixed response, see
+     * AssetSourceOutput. All of the package's assets are returned if no names
+     * are given.
+     */
+    @GET
+    @Path("{packageName}/batch/source")
+    public Response getAssetSources(
+            @PathParam("packageName") String packageName,
+            @QueryParam("name") List<String> assetNames) {
+        try {
+            //Throws RulesRepositoryException if the package or an asset does not exist
+            ModuleItem p = rulesRepository.loadModule(packageName);
+            Iterator<AssetItem> iter;
+            if (assetNames.isEmpty()) {
                 iter = p.getAssets();
-            }else{
-                //if the format is specified, return only the assets of
-                //the specified formats.
-                iter = p.listAssetsByFormat(formats);
+            } else {
+                List<AssetItem> assets = new ArrayList<AssetItem>(assetNames.size());
+                for (String assetName : assetNames) {
+                    assets.add(p.loadAsset(assetName));
+                }
+                iter = assets.iterator();
             }
-            
-            while (iter.hasNext()) {
-                ret.add(toAsset(iter.next(), uriInfo));
+            AssetSourceOutput output = new AssetSourceOutput(iter, uriInfo);
+            return Response.ok(output).type(output.getMediaType()).build();
+        } catch (RuntimeException e) {
+            throw new WebApplicationException(e);
+        }
+    }
+
+    /**
+     * Creates or updates several assets of a package in one request. Each
+     * asset is checked in once; the changes to one asset are discarded if it
+     * fails, without stopping the others. The result of each change is
+     * returned in the order given.
+     */
+    @POST
+    @Path("{packageName}/batch")
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    public Collection<AssetChangeResult> applyAssetChanges(
+            @PathParam("packageName") String packageName,
+            AssetChanges changes) {
+        ModuleItem module;
+        try {
+            //Throws RulesRepositoryException if the package does not exist
+            module = rulesRepository.loadModule(packageName);
+        } catch (RuntimeException e) {
+            throw new WebApplicationException(e);
+        }
+
+        List<AssetChangeResult> results = new ArrayList<AssetChangeResult>();
+        boolean isModuleChanged = false;
+        for (AssetChange change : changes.getAssets()) {
+            AssetChangeResult result = new AssetChangeResult();
+            result.setName(change.getName());
+            try {
+                if (change.getName() == null || change.getName().trim().length() == 0) {
+                    throw new IllegalArgumentException("Asset name must be specified");
+                }
+                if (change.getContent() != null && change.getBinaryContent() != null) {
+                    throw new IllegalArgumentException("Only one of content and binary content can be specified");
+                }
+                AssetItem ai;
+                if (module.containsAsset(change.getName())) {
+                    ai = module.loadAsset(change.getName());
+                    ai.checkout();
+                    if (change.getDescription() != null) {
+                        ai.updateDescription(change.getDescription());
+                    }
+                    result.setStatus(AssetChangeResult.UPDATED);
+                } else {
+                    ai = module.addAsset(change.getName(),
+                            change.getDescription() == null ? "" : change.getDescription());
+                    result.setStatus(AssetChangeResult.CREATED);
+                }
+                if (change.getFormat() != null) {
+                    ai.updateFormat(change.getFormat());
+                }
+                if (change.getContent() != null) {
+                    ai.updateContent(change.getContent());
+                }
+                if (change.getBinaryContent() != null) {
+                    ai.updateBinaryContentAttachment(new ByteArrayInputStream(change.getBinaryContent()));
+                }
+                if (change.getAttachmentFileName() != null) {
+                    ai.updateBinaryContentAttachmentFileName(change.getAttachmentFileName());
+                }
+                ai.checkin(change.getCheckInComment() == null ? "Updated asset from REST batch" : change.getCheckInComment());
+                result.setVersionNumber(ai.getVersionNumber());
+                isModuleChanged = true;
+            } catch (RuntimeException e) {
+                discardChanges();
+                result.setStatus(AssetChangeResult.FAILED);
+                result.setMessage(e.getMessage());
             }
-            return ret;
+            results.add(result);
+        }
+
+        if (isModuleChanged) {
+            try {
+                module.updateBinaryUpToDate(false);
+                rulesRepository.save();
+            } catch (RuntimeException e) {
+                throw new WebApplicationException(e);
+            }
+        }
+        return results;
+    }
+
+    private void discardChanges() {
+        try {
+            rulesRepository.discardChanges();
         } catch (RuntimeException e) {
             throw new WebApplicationException(e);
         }
@@ -20,6 +20,8 @@ package org.drools.guvnor.server.jaxrs;
 import org.drools.guvnor.server.*;
 import org.drools.guvnor.server.files.FileManagerService;
 import org.drools.guvnor.server.files.RepositoryServlet;
+import org.drools.guvnor.server.repository.ChangeJournalService;
+import org.drools.repository.AssetItemIterator;
 import org.drools.repository.RulesRepository;
 import org.jboss.seam.security.Credentials;
 import org.jboss.seam.security.Identity;
@@ -28,10 +30,23 @@ import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
 @RequestScoped
 public abstract class Resource {
+
+    /**
+     * The most items a JSON or XML list holds when no limit is asked for. The
+     * providers marshal these lists whole, so the rest are read page by page.
+     */
+    protected static final String DEFAULT_LIMIT = "500";
     
     @Context
     protected UriInfo uriInfo;
@@ -50,13 +65,18 @@ public abstract class Resource {
     protected RulesRepository rulesRepository;
     @Inject
     protected FileManagerService fileManagerService;
+    @Inject
+    protected ServiceSecurity serviceSecurity;
+    @Inject
+    protected ChangeJournalService changeJournalService;
 
 
     // TODO HACK: the @Inject stuff doesn't actually work, but is faked in HackInjectCXFNonSpringJaxrsServlet
     protected void inject(ServiceImplementation serviceImplementation,
             RepositoryModuleService repositoryPackageService, RepositoryAssetService repositoryAssetService,
             RepositoryCategoryService repositoryCategoryService, RepositoryModuleOperations repositoryModuleOperations,
-            RulesRepository rulesRepository, FileManagerService fileManagerService) {
+            RulesRepository rulesRepository, FileManagerService fileManagerService,
+            ServiceSecurity serviceSecurity, ChangeJournalService changeJournalService) {
         this.serviceImplementation = serviceImplementation;
         this.repositoryPackageService = repositoryPackageService;
         this.repositoryAssetService = repositoryAssetService;
@@ -64,6 +84,61 @@ public abstract class Resource {
         this.repositoryModuleOperations = repositoryModuleOperations;
         this.rulesRepository = rulesRepository;
         this.fileManagerService = fileManagerService;
+        this.serviceSecurity = serviceSecurity;
+        this.changeJournalService = changeJournalService;
+    }
+
+    /**
+     * The fields asked for in a comma separated list, or null if the list is
+     * empty and every field is wanted.
+     */
+    protected static Set<String> parseFields(String fields) {
+        if (fields == null || fields.trim().length() == 0) {
+            return null;
+        }
+        Set<String> ret = new HashSet<String>();
+        for (String field : fields.split(",")) {
+            if (field.trim().length() > 0) {
+                ret.add(field.trim());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * A page of a JSON or XML list. When there are more items, a "next" Link
+     * header gives the request with the offset moved on, as the "next" link
+     * of an Atom feed does.
+     *
+     * @param items the iterator the page was read from
+     */
+    protected Response toPageResponse(GenericEntity<?> page, Iterator<?> items, int offset, int count) {
+        Response.ResponseBuilder builder = Response.ok(page);
+        if (items.hasNext()) {
+            URI next = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("offset", offset + count)
+                    .build();
+            builder.header("Link", "<" + next + ">; rel=\"next\"");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Moves the iterator past the first offset items. Asset iterators skip in
+     * JCR, rather than loading each asset passed over.
+     */
+    protected static void skip(Iterator<?> iterator, int offset) {
+        if (iterator instanceof AssetItemIterator) {
+            AssetItemIterator assets = (AssetItemIterator) iterator;
+            long size = assets.getSize();
+            if (size >= 0) {
+                assets.skip(Math.max(0, Math.min(offset, size - assets.getPosition())));
+                return;
+            }
+        }
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
     }
 
 }
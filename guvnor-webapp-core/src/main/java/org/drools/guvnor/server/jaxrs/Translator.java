@@ -63,78 +63,173 @@ public class Translator {
     }
 
     public static Asset toAsset(AssetItem a, UriInfo uriInfo) {
+        return toAsset(a, uriInfo, null);
+    }
+
+    /**
+     * As toAsset, filling in only the fields asked for. Fields are named after
+     * the elements they are written to, "metadata" standing for all of the
+     * metadata. No fields at all means every field.
+     */
+    public static Asset toAsset(AssetItem a, UriInfo uriInfo, Set<String> fields) {
+        Asset ret = new Asset();
+        if (isIncluded(fields, "title")) {
+            ret.setTitle(a.getTitle());
+        }
+        if (isIncluded(fields, "binaryContentAttachmentFileName")) {
+            ret.setBinaryContentAttachmentFileName(a.getBinaryContentAttachmentFileName());
+        }
+        if (isIncluded(fields, "published")) {
+            ret.setPublished(a.getLastModified().getTime());
+        }
+        if (isIncluded(fields, "author")) {
+            ret.setAuthor(a.getLastContributor());
+        }
+        if (isIncluded(fields, "description")) {
+            ret.setDescription(a.getDescription());
+        }
+        if (isIncluded(fields, "refLink")) {
+            ret.setRefLink(toAssetRefLink(a, uriInfo));
+        }
+        if (isIncluded(fields, "binaryLink")) {
+            ret.setBinaryLink(uriInfo.getBaseUriBuilder()
+                    .path("/packages/{packageName}/assets/{assetName}/binary")
+                    .build(a.getModule().getName(), a.getName()));
+        }
+        if (isIncluded(fields, "sourceLink")) {
+            ret.setSourceLink(uriInfo.getBaseUriBuilder()
+                    .path("/packages/{packageName}/assets/{assetName}/source")
+                    .build(a.getModule().getName(), a.getName()));
+        }
+        if (isMetadataIncluded(fields, "uuid", "created", "disabled", "format", "state", "note", "checkInComment", "versionNumber")) {
+            ret.setMetadata(toAssetMetadata(a, fields));
+        }
+        return ret;
+    }
+
+    private static AssetMetadata toAssetMetadata(AssetItem a, Set<String> fields) {
         AssetMetadata metadata = new AssetMetadata();
-        metadata.setUuid(a.getUUID());
-        metadata.setCreated(a.getCreatedDate().getTime());
-        metadata.setDisabled(a.getDisabled());
-        metadata.setFormat(a.getFormat());
-        metadata.setState(a.getState() == null ? "" : a.getState().getName());
-        metadata.setNote("<![CDATA[ " + a.getCheckinComment() + " ]]>");
-        metadata.setCheckInComment(a.getCheckinComment());
-        metadata.setVersionNumber(a.getVersionNumber());
-        List<CategoryItem> categories = a.getCategories();
-        //TODO: Is this a bug since cat's are never assigned to metadata after this?
-        String[] cats = new String[categories.size()];
-        int counter = 0;
-        for (CategoryItem c : categories) {
-            cats[counter++] = c.getName();
+        if (isMetadataIncluded(fields, "uuid")) {
+            metadata.setUuid(a.getUUID());
+        }
+        if (isMetadataIncluded(fields, "created")) {
+            metadata.setCreated(a.getCreatedDate().getTime());
         }
+        if (isMetadataIncluded(fields, "disabled")) {
+            metadata.setDisabled(a.getDisabled());
+        }
+        if (isMetadataIncluded(fields, "format")) {
+            metadata.setFormat(a.getFormat());
+        }
+        if (isMetadataIncluded(fields, "state")) {
+            metadata.setState(a.getState() == null ? "" : a.getState().getName());
+        }
+        if (isMetadataIncluded(fields, "note")) {
+            metadata.setNote("<![CDATA[ " + a.getCheckinComment() + " ]]>");
+        }
+        if (isMetadataIncluded(fields, "checkInComment")) {
+            metadata.setCheckInComment(a.getCheckinComment());
+        }
+        if (isMetadataIncluded(fields, "versionNumber")) {
+            metadata.setVersionNumber(a.getVersionNumber());
+        }
+        //TODO: Categories have never been written to the metadata
+        return metadata;
+    }
 
-        Asset ret = new Asset();
-        ret.setTitle(a.getTitle());
-        ret.setBinaryContentAttachmentFileName(a.getBinaryContentAttachmentFileName());
-        ret.setPublished(a.getLastModified().getTime());
-        ret.setAuthor(a.getLastContributor());
-        ret.setMetadata(metadata);
-        ret.setDescription(a.getDescription());
-        ret.setRefLink(uriInfo.getBaseUriBuilder()
+    private static URI toAssetRefLink(AssetItem a, UriInfo uriInfo) {
+        return uriInfo.getBaseUriBuilder()
                 .path("/packages/{packageName}/assets/{assetName}")
-                .build(a.getModule().getName(), a.getName()));
-        ret.setBinaryLink(uriInfo.getBaseUriBuilder()
-                .path("/packages/{packageName}/assets/{assetName}/binary")
-                .build(a.getModule().getName(), a.getName()));
-        ret.setSourceLink(uriInfo.getBaseUriBuilder()
-                .path("/packages/{packageName}/assets/{assetName}/source")
-                .build(a.getModule().getName(), a.getName()));
-        return ret;
+                .build(a.getModule().getName(), a.getName());
     }
 
     public static Package toPackage(ModuleItem p, UriInfo uriInfo) {
-        PackageMetadata metadata = new PackageMetadata();
-        metadata.setUuid(p.getUUID());
-        metadata.setCreated(p.getCreatedDate().getTime());
-        metadata.setState((p.getState() != null) ? p.getState().getName() : "");
-        metadata.setArchived(p.isArchived());
-        metadata.setVersionNumber(p.getVersionNumber());
-        metadata.setCheckinComment(p.getCheckinComment());
-        
+        return toPackage(p, uriInfo, null);
+    }
+
+    /**
+     * As toPackage, filling in only the fields asked for, in the same way as
+     * toAsset.
+     */
+    public static Package toPackage(ModuleItem p, UriInfo uriInfo, Set<String> fields) {
         Package ret = new Package();
-        ret.setMetadata(metadata);
-        ret.setTitle(p.getTitle());
-        ret.setAuthor(p.getLastContributor());
-        ret.setPublished(p.getLastModified().getTime());
-        ret.setDescription(p.getDescription());
-
-        ret.setBinaryLink(uriInfo.getBaseUriBuilder()
-                .path("/packages/{packageName}/binary")
-                .build(p.getName()));
-        ret.setSourceLink(uriInfo.getBaseUriBuilder()
-                .path("/packages/{packageName}/source")
-                .build(p.getName()));
+        if (isMetadataIncluded(fields, "uuid", "created", "state", "archived", "versionNumber", "checkinComment")) {
+            ret.setMetadata(toPackageMetadata(p, fields));
+        }
+        if (isIncluded(fields, "title")) {
+            ret.setTitle(p.getTitle());
+        }
+        if (isIncluded(fields, "author")) {
+            ret.setAuthor(p.getLastContributor());
+        }
+        if (isIncluded(fields, "published")) {
+            ret.setPublished(p.getLastModified().getTime());
+        }
+        if (isIncluded(fields, "description")) {
+            ret.setDescription(p.getDescription());
+        }
+        if (isIncluded(fields, "binaryLink")) {
+            ret.setBinaryLink(uriInfo.getBaseUriBuilder()
+                    .path("/packages/{packageName}/binary")
+                    .build(p.getName()));
+        }
+        if (isIncluded(fields, "sourceLink")) {
+            ret.setSourceLink(uriInfo.getBaseUriBuilder()
+                    .path("/packages/{packageName}/source")
+                    .build(p.getName()));
+        }
         //ret.setSnapshot(p.getSnapshotName());
 
-        Iterator<AssetItem> iter = p.getAssets();
-        Set<URI> assets = new HashSet<URI>();
-        while (iter.hasNext()) {
-            AssetItem a = iter.next();
-            Asset asset = toAsset(a, uriInfo);
-            assets.add(asset.getRefLink());
+        if (isIncluded(fields, "assets")) {
+            Iterator<AssetItem> iter = p.getAssets();
+            Set<URI> assets = new HashSet<URI>();
+            while (iter.hasNext()) {
+                assets.add(toAssetRefLink(iter.next(), uriInfo));
+            }
+            ret.setAssets(assets);
         }
-
-        ret.setAssets(assets);
         return ret;
     }
 
+    private static PackageMetadata toPackageMetadata(ModuleItem p, Set<String> fields) {
+        PackageMetadata metadata = new PackageMetadata();
+        if (isMetadataIncluded(fields, "uuid")) {
+            metadata.setUuid(p.getUUID());
+        }
+        if (isMetadataIncluded(fields, "created")) {
+            metadata.setCreated(p.getCreatedDate().getTime());
+        }
+        if (isMetadataIncluded(fields, "state")) {
+            metadata.setState((p.getState() != null) ? p.getState().getName() : "");
+        }
+        if (isMetadataIncluded(fields, "archived")) {
+            metadata.setArchived(p.isArchived());
+        }
+        if (isMetadataIncluded(fields, "versionNumber")) {
+            metadata.setVersionNumber(p.getVersionNumber());
+        }
+        if (isMetadataIncluded(fields, "checkinComment")) {
+            metadata.setCheckinComment(p.getCheckinComment());
+        }
+        return metadata;
+    }
+
+    private static boolean isIncluded(Set<String> fields, String field) {
+        return fields == null || fields.isEmpty() || fields.contains(field);
+    }
+
+    private static boolean isMetadataIncluded(Set<String> fields, String... metadataFields) {
+        if (isIncluded(fields, "metadata")) {
+            return true;
+        }
+        for (String field : metadataFields) {
+            if (fields.contains(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static Entry toPackageEntryAbdera(ModuleItem p, UriInfo uriInfo) {
         URI baseURL;
         if (p.isHistoricalVersion()) {
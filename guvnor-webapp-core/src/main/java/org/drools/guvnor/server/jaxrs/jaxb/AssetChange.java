@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs.jaxb;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * A change to one asset in a batch. The asset is created if the package has
+ * no asset of that name, and updated otherwise. Fields that are not given are
+ * left as they are. Binary content is given base64 encoded, in place of
+ * content.
+ */
+@XmlRootElement()
+public class AssetChange {
+
+    private String name;
+    private String description;
+    private String format;
+    private String content;
+    private byte[] binaryContent;
+    private String attachmentFileName;
+    private String checkInComment;
+
+    @XmlElement
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @XmlElement
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    @XmlElement
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    @XmlElement
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    @XmlElement
+    public byte[] getBinaryContent() {
+        return binaryContent;
+    }
+
+    public void setBinaryContent(byte[] binaryContent) {
+        this.binaryContent = binaryContent;
+    }
+
+    @XmlElement
+    public String getAttachmentFileName() {
+        return attachmentFileName;
+    }
+
+    public void setAttachmentFileName(String attachmentFileName) {
+        this.attachmentFileName = attachmentFileName;
+    }
+
+    @XmlElement
+    public String getCheckInComment() {
+        return checkInComment;
+    }
+
+    public void setCheckInComment(String checkInComment) {
+        this.checkInComment = checkInComment;
+    }
+
+}
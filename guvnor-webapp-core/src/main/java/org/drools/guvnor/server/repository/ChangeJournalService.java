@@ -0,0 +1,216 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.repository.ChangeJournal;
+import org.drools.repository.ChangeJournalEntry;
+import org.drools.repository.RulesRepository;
+import org.drools.repository.events.ChangeEvent;
+import org.drools.repository.events.StorageEventManager;
+
+/**
+ * This service writes the changes to assets and modules to the change journal,
+ * as they are saved. The journal is written by one thread with its own session,
+ * so that each change gets the next sequence number in the order the changes
+ * were saved. Changes that cannot be written are kept, in order, and written
+ * again until they succeed; later changes wait behind them, so that the
+ * journal never has a gap.
+ * Ideally only one instance of this running at a time (at least on a node) to avoid doubling up.
+ */
+@ApplicationScoped
+public class ChangeJournalService {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger( ChangeJournalService.class );
+
+    /**
+     * The delay before changes that could not be written are tried again.
+     */
+    static final long RETRY_DELAY_SECONDS = 30;
+
+    //Only changed by tests, which cannot wait that long
+    long retryDelaySeconds = RETRY_DELAY_SECONDS;
+
+    private ScheduledExecutorService executor = null;
+    private ChangeEvent changeListener = null;
+
+    /**
+     * Changes not written to the journal yet, oldest first. Only used by the
+     * executor.
+     */
+    private final List<ChangeJournalEntry> unwrittenChanges = new ArrayList<ChangeJournalEntry>();
+
+    /**
+     * The number of changes that have not been written to the journal because
+     * writing failed, or 0 if the journal is up to date.
+     */
+    private volatile int failedChangeCount = 0;
+
+    private boolean isRetryScheduled = false;
+
+    @Inject
+    private RepositoryStartupService repositoryStartupService;
+
+    @Inject
+    protected GuvnorBootstrapConfiguration guvnorBootstrapConfiguration;
+
+    /**
+     * Only used by the executor. It is opened on the first change, as the
+     * repository may still be starting up when this service is.
+     */
+    private RulesRepository journalRulesRepository;
+
+    @PostConstruct
+    public void setup() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        registerChangeListener();
+        log.info( "change journal service is up" );
+    }
+
+    /**
+     * Starts the service along with the repository, so that no change is missed.
+     */
+    public void onRepositoryStarted(@Observes RepositoryImportedEvent event) {
+        log.debug( "Repository started, journaling changes" );
+    }
+
+    /**
+     * Listen for changes to the repository - for the journal
+     */
+    public void registerChangeListener() {
+        changeListener = new ChangeEvent() {
+            public void afterChanges(List<ChangeJournalEntry> changes) {
+                recordChanges( changes );
+            }
+        };
+        StorageEventManager.registerChangeEvent( changeListener );
+        log.info( "ChangeListener registered" );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        log.info( "Shutting down change journal service" );
+        StorageEventManager.unregisterChangeEvent( changeListener );
+        executor.shutdown();
+
+        try {
+            if ( !executor.awaitTermination( 10, TimeUnit.SECONDS ) ) {
+                executor.shutdownNow();
+            }
+        } catch ( InterruptedException e ) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if ( !unwrittenChanges.isEmpty() ) {
+            log.error( unwrittenChanges.size() + " changes were never written to the change journal" );
+        }
+        if ( journalRulesRepository != null ) {
+            journalRulesRepository.logout();
+        }
+        log.info( "Change journal service is shutdown." );
+    }
+
+    /**
+     * Queues the changes to be written to the journal.
+     */
+    public void recordChanges(final List<ChangeJournalEntry> changes) {
+        executor.execute( new Runnable() {
+            public void run() {
+                unwrittenChanges.addAll( changes );
+                writeChanges();
+            }
+        } );
+    }
+
+    /**
+     * The number of saved changes that could not be written to the journal
+     * yet, or 0 if it is up to date. Readers of the journal will not see these
+     * changes until writing them succeeds.
+     */
+    public int getFailedChangeCount() {
+        return failedChangeCount;
+    }
+
+    void writeChanges() {
+        if ( unwrittenChanges.isEmpty() ) {
+            return;
+        }
+        try {
+            appendToJournal( unwrittenChanges );
+            unwrittenChanges.clear();
+            if ( failedChangeCount > 0 ) {
+                log.info( "Change journal is up to date again" );
+            }
+            failedChangeCount = 0;
+        } catch ( RuntimeException e ) {
+            failedChangeCount = unwrittenChanges.size();
+            log.error( "Unable to journal " + failedChangeCount + " changes, trying again in " + retryDelaySeconds + " seconds",
+                       e );
+            discardJournalRulesRepository();
+            if ( !isRetryScheduled ) {
+                isRetryScheduled = true;
+                executor.schedule( new Runnable() {
+                                       public void run() {
+                                           isRetryScheduled = false;
+                                           writeChanges();
+                                       }
+                                   },
+                                   retryDelaySeconds,
+                                   TimeUnit.SECONDS );
+            }
+        }
+    }
+
+    void appendToJournal(List<ChangeJournalEntry> changes) {
+        new ChangeJournal( getJournalRulesRepository() ).append( changes );
+    }
+
+    //A fresh session is opened for the next attempt, in case this one is broken
+    private void discardJournalRulesRepository() {
+        if ( journalRulesRepository == null ) {
+            return;
+        }
+        try {
+            journalRulesRepository.discardChanges();
+            journalRulesRepository.logout();
+        } catch ( RuntimeException e ) {
+            log.error( "Unable to close the change journal session", e );
+        }
+        journalRulesRepository = null;
+    }
+
+    private RulesRepository getJournalRulesRepository() {
+        if ( journalRulesRepository == null ) {
+            journalRulesRepository = new RulesRepository( repositoryStartupService.newSession( guvnorBootstrapConfiguration.extractAdminUsername(),
+                                                                                                guvnorBootstrapConfiguration.extractAdminPassword() ) );
+        }
+        return journalRulesRepository;
+    }
+
+}
@@ -79,7 +79,12 @@ public abstract class RepositoryStartupService {
                 throw new RulesRepositoryException(e);
             }
         }
-
+        //repositories set up before the blob store do not have it yet
+        try {
+            configurator.setupBlobStore(sessionForSetup);
+        } catch (RepositoryException e) {
+            throw new RulesRepositoryException(e);
+        }
 
 
         repositoryImportedEventEvent.fire(new RepositoryImportedEvent());
@@ -89,9 +89,24 @@ public class UserInbox {
                             String note,
                             String userFrom) {
         assert boxName.equals( ExplorerNodeConfig.RECENT_EDITED_ID ) || boxName.equals( ExplorerNodeConfig.RECENT_VIEWED_ID ) || boxName.equals( ExplorerNodeConfig.INCOMING_ID );
+        List<InboxEntry> entries = addEntry( userInfo.readEntries( INBOX,
+                                                                   boxName ),
+                                             assetId,
+                                             note,
+                                             userFrom );
+
+        userInfo.writeEntries( INBOX,
+                               boxName,
+                               entries );
+        userInfo.save();
+    }
+
+    private List<InboxEntry> addEntry(List<InboxEntry> inboxEntries,
+                                      String assetId,
+                                      String note,
+                                      String userFrom) {
         List<InboxEntry> entries = removeAnyExisting( assetId,
-                                                      userInfo.readEntries( INBOX,
-                                                                            boxName ) );
+                                                      inboxEntries );
 
         if ( entries.size() >= MAX_RECENT_EDITED ) {
             entries.remove( 0 );
@@ -103,11 +118,7 @@ public class UserInbox {
                                          note,
                                          userFrom ) );
         }
-
-        userInfo.writeEntries( INBOX,
-                               boxName,
-                               entries );
-        userInfo.save();
+        return entries;
     }
 
     private List<InboxEntry> removeAnyExisting(String assetId,
@@ -212,6 +223,35 @@ public class UserInbox {
         ib.save();
     }
 
+    /**
+     * As recordOpeningEvent, for several assets opened at once. The user's
+     * inbox is read and saved once rather than once per asset.
+     */
+    public synchronized static void recordOpeningEvents(List<AssetItem> items) {
+        if ( items.isEmpty() ) {
+            return;
+        }
+        UserInbox ib = new UserInbox( items.get( 0 ).getRulesRepository() );
+        List<InboxEntry> recentOpened = ib.loadRecentOpened();
+        List<InboxEntry> unreadIncoming = ib.loadIncoming();
+        for ( AssetItem item : items ) {
+            recentOpened = ib.addEntry( recentOpened,
+                                        item.getUUID(),
+                                        item.getName(),
+                                        "self" );
+            unreadIncoming = ib.removeAnyExisting( item.getUUID(),
+                                                   unreadIncoming );
+        }
+        ib.userInfo.writeEntries( INBOX,
+                                  ExplorerNodeConfig.RECENT_VIEWED_ID,
+                                  recentOpened );
+        ib.userInfo.writeEntries( INBOX,
+                                  ExplorerNodeConfig.INCOMING_ID,
+                                  unreadIncoming );
+
+        ib.save();
+    }
+
     /**
      * Helper method to note the event
      */
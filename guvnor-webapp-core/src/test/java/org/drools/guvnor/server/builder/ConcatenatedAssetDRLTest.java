@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.drools.repository.AssetItem;
+import org.junit.Test;
+
+public class ConcatenatedAssetDRLTest {
+
+    @Test
+    public void testLinesAreTracedToAssets() {
+        AssetItem first = mock( AssetItem.class );
+        AssetItem second = mock( AssetItem.class );
+        AssetItem third = mock( AssetItem.class );
+
+        ConcatenatedAssetDRL drl = new ConcatenatedAssetDRL();
+        drl.add( first,
+                 "function void a() {\n}" );
+        drl.add( second,
+                 "function void b() { }" );
+        drl.add( third,
+                 "function void c() {\n\n}\n" );
+
+        assertEquals( "function void a() {\n}\nfunction void b() { }\nfunction void c() {\n\n}\n\n",
+                      drl.getDRL() );
+
+        assertNull( drl.getAsset( 0 ) );
+        assertSame( first,
+                    drl.getAsset( 1 ) );
+        assertSame( first,
+                    drl.getAsset( 2 ) );
+        assertSame( second,
+                    drl.getAsset( 3 ) );
+        assertSame( third,
+                    drl.getAsset( 4 ) );
+        assertSame( third,
+                    drl.getAsset( 7 ) );
+        assertSame( third,
+                    drl.getAsset( 8 ) );
+        assertNull( drl.getAsset( 9 ) );
+    }
+
+    @Test
+    public void testLinesFromSeveralAssets() {
+        AssetItem first = mock( AssetItem.class );
+        AssetItem second = mock( AssetItem.class );
+
+        ConcatenatedAssetDRL drl = new ConcatenatedAssetDRL();
+        drl.add( first,
+                 "a\nb" );
+        drl.add( second,
+                 "c" );
+
+        assertSame( first,
+                    drl.getAsset( new int[]{1, 2} ) );
+        assertNull( drl.getAsset( new int[]{2, 3} ) );
+        assertNull( drl.getAsset( new int[0] ) );
+        assertNull( drl.getAsset( (int[]) null ) );
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.jcr.Node;
+
+import org.drools.lang.dsl.DSLTokenizedMappingFile;
+import org.drools.repository.AssetItem;
+import org.junit.Test;
+
+public class DSLLoaderTest {
+
+    private static final String DSL = "[when]There is a person=Person()\n";
+
+    private final BRMSPackageBuilder.DSLErrorEvent errorEvent = new BRMSPackageBuilder.DSLErrorEvent() {
+        public void recordError(AssetItem asset,
+                                String message) {
+        }
+    };
+
+    @Test
+    public void testParsedFilesAreSharedForTheSameVersion() throws Exception {
+        AssetItem dsl = mockDSLAsset( "testParsedFilesAreShared",
+                                      1,
+                                      false );
+
+        DSLTokenizedMappingFile first = load( dsl ).get( 0 );
+        DSLTokenizedMappingFile second = load( dsl ).get( 0 );
+
+        assertSame( first,
+                    second );
+        assertEquals( 1,
+                      first.getMapping().getEntries().size() );
+        verify( dsl,
+                times( 1 ) ).getContent();
+    }
+
+    @Test
+    public void testNewVersionIsParsedAgain() throws Exception {
+        AssetItem dsl = mockDSLAsset( "testNewVersionIsParsedAgain",
+                                      1,
+                                      false );
+        DSLTokenizedMappingFile first = load( dsl ).get( 0 );
+
+        when( dsl.getVersionNumber() ).thenReturn( 2L );
+        DSLTokenizedMappingFile second = load( dsl ).get( 0 );
+
+        assertNotSame( first,
+                       second );
+    }
+
+    @Test
+    public void testUnsavedChangesAreNotCached() throws Exception {
+        AssetItem dsl = mockDSLAsset( "testUnsavedChangesAreNotCached",
+                                      1,
+                                      true );
+
+        assertNotSame( load( dsl ).get( 0 ),
+                       load( dsl ).get( 0 ) );
+    }
+
+    private List<DSLTokenizedMappingFile> load(AssetItem dsl) {
+        List<AssetItem> assets = new ArrayList<AssetItem>();
+        assets.add( dsl );
+        return DSLLoader.loadDSLMappingFiles( assets.iterator(),
+                                              errorEvent );
+    }
+
+    private AssetItem mockDSLAsset(String uuid,
+                                   long version,
+                                   boolean isModified) {
+        Node node = mock( Node.class );
+        when( node.isModified() ).thenReturn( isModified );
+
+        AssetItem dsl = mock( AssetItem.class );
+        when( dsl.getUUID() ).thenReturn( uuid );
+        when( dsl.getVersionNumber() ).thenReturn( version );
+        when( dsl.getLastModified() ).thenReturn( Calendar.getInstance() );
+        when( dsl.getNode() ).thenReturn( node );
+        when( dsl.getContent() ).thenReturn( DSL );
+        return dsl;
+    }
+
+}
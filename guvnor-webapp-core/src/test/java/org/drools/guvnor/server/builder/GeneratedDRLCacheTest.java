@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.server.builder;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Calendar;
+
+import javax.jcr.Node;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.contenthandler.IRuleAsset;
+import org.drools.repository.AssetItem;
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.ModuleItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class GeneratedDRLCacheTest {
+
+    private ModuleItem moduleItem;
+    private IRuleAsset handler;
+
+    @Before
+    public void setUp() {
+        GeneratedDRLCache.clear();
+        moduleItem = mock( ModuleItem.class );
+        AssetItemIterator dependencies = mock( AssetItemIterator.class );
+        when( dependencies.hasNext() ).thenReturn( false );
+        when( moduleItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat( AssetFormats.DSL,
+                                                                                AssetFormats.ENUMERATION ) ).thenReturn( dependencies );
+        handler = mock( IRuleAsset.class );
+    }
+
+    @Test
+    public void testGeneratedDRLIsReused() throws Exception {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     1000 );
+        when( handler.getRawDRL( asset ) ).thenReturn( "rule \"x\" end" );
+
+        assertEquals( "rule \"x\" end",
+                      new GeneratedDRLCache( moduleItem ).getRawDRL( handler,
+                                                                     asset ) );
+        assertEquals( "rule \"x\" end",
+                      new GeneratedDRLCache( moduleItem ).getRawDRL( handler,
+                                                                     asset ) );
+        verify( handler,
+                times( 1 ) ).getRawDRL( asset );
+
+        //Nothing is written to the repository
+        verify( moduleItem,
+                never() ).getRulesRepository();
+        verify( asset,
+                never() ).checkin( any( String.class ) );
+    }
+
+    @Test
+    public void testAssembledDRLIsReused() throws Exception {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     1000 );
+        doAnswer( new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) {
+                ((StringBuilder) invocation.getArguments()[2]).append( "rule \"x\" end" );
+                return null;
+            }
+        } ).when( handler ).assembleDRL( any( BRMSPackageBuilder.class ),
+                                         same( asset ),
+                                         any( StringBuilder.class ) );
+
+        StringBuilder sb1 = new StringBuilder();
+        new GeneratedDRLCache( moduleItem ).assembleDRL( handler,
+                                                         null,
+                                                         asset,
+                                                         sb1 );
+        StringBuilder sb2 = new StringBuilder( "//header\n" );
+        new GeneratedDRLCache( moduleItem ).assembleDRL( handler,
+                                                         null,
+                                                         asset,
+                                                         sb2 );
+
+        assertEquals( "rule \"x\" end",
+                      sb1.toString() );
+        assertEquals( "//header\nrule \"x\" end",
+                      sb2.toString() );
+        verify( handler,
+                times( 1 ) ).assembleDRL( any( BRMSPackageBuilder.class ),
+                                          same( asset ),
+                                          any( StringBuilder.class ) );
+    }
+
+    @Test
+    public void testNewVersionIsGeneratedAgain() throws Exception {
+        AssetItem version1 = mockAsset( "uuid1",
+                                        1,
+                                        1000 );
+        AssetItem version2 = mockAsset( "uuid1",
+                                        2,
+                                        2000 );
+        when( handler.getRawDRL( version1 ) ).thenReturn( "rule \"v1\" end" );
+        when( handler.getRawDRL( version2 ) ).thenReturn( "rule \"v2\" end" );
+
+        GeneratedDRLCache cache = new GeneratedDRLCache( moduleItem );
+        assertEquals( "rule \"v1\" end",
+                      cache.getRawDRL( handler,
+                                       version1 ) );
+        assertEquals( "rule \"v2\" end",
+                      cache.getRawDRL( handler,
+                                       version2 ) );
+
+        //Both versions are kept
+        assertEquals( "rule \"v1\" end",
+                      cache.getRawDRL( handler,
+                                       version1 ) );
+        verify( handler,
+                times( 1 ) ).getRawDRL( version1 );
+        verify( handler,
+                times( 1 ) ).getRawDRL( version2 );
+    }
+
+    @Test
+    public void testEditedAssetIsGeneratedAgain() throws Exception {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     1000 );
+        when( handler.getRawDRL( asset ) ).thenReturn( "rule \"x\" end" );
+        GeneratedDRLCache cache = new GeneratedDRLCache( moduleItem );
+        cache.getRawDRL( handler,
+                         asset );
+
+        //Saved without a new version
+        when( asset.getLastModified() ).thenReturn( calendar( 2000 ) );
+        cache.getRawDRL( handler,
+                         asset );
+
+        //Not saved at all
+        when( asset.getNode().isModified() ).thenReturn( true );
+        cache.getRawDRL( handler,
+                         asset );
+        cache.getRawDRL( handler,
+                         asset );
+
+        verify( handler,
+                times( 4 ) ).getRawDRL( asset );
+    }
+
+    @Test
+    public void testChangedCategoryRuleIsGeneratedAgain() throws Exception {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     1000 );
+        when( moduleItem.getCategoryRules( true ) ).thenReturn( "Home" );
+        when( moduleItem.getCategoryRules( false ) ).thenReturn( "parent1" );
+        when( handler.getRawDRL( asset ) ).thenReturn( "rule \"x\" extends \"parent1\" end" );
+        assertEquals( "rule \"x\" extends \"parent1\" end",
+                      new GeneratedDRLCache( moduleItem ).getRawDRL( handler,
+                                                                     asset ) );
+
+        //The category now gives its rules another parent
+        when( moduleItem.getCategoryRules( false ) ).thenReturn( "parent2" );
+        when( handler.getRawDRL( asset ) ).thenReturn( "rule \"x\" extends \"parent2\" end" );
+        assertEquals( "rule \"x\" extends \"parent2\" end",
+                      new GeneratedDRLCache( moduleItem ).getRawDRL( handler,
+                                                                     asset ) );
+
+        verify( handler,
+                times( 2 ) ).getRawDRL( asset );
+    }
+
+    @Test
+    public void testDRLAssetsAreNotKept() throws Exception {
+        AssetItem asset = mockAsset( "uuid1",
+                                     1,
+                                     1000 );
+        when( asset.getFormat() ).thenReturn( AssetFormats.DRL );
+        when( handler.getRawDRL( asset ) ).thenReturn( "rule \"x\" end" );
+
+        GeneratedDRLCache cache = new GeneratedDRLCache( moduleItem );
+        cache.getRawDRL( handler,
+                         asset );
+        cache.getRawDRL( handler,
+                         asset );
+
+        verify( handler,
+                times( 2 ) ).getRawDRL( asset );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedAreDropped() throws Exception {
+        GeneratedDRLCache cache = new GeneratedDRLCache( moduleItem );
+        AssetItem first = mockAsset( "uuid0",
+                                     1,
+                                     1000 );
+        when( handler.getRawDRL( first ) ).thenReturn( "rule \"0\" end" );
+        cache.getRawDRL( handler,
+                         first );
+        for ( int i = 1; i <= GeneratedDRLCache.MAX_ENTRIES; i++ ) {
+            AssetItem asset = mockAsset( "uuid" + i,
+                                         1,
+                                         1000 );
+            when( handler.getRawDRL( asset ) ).thenReturn( "rule \"" + i + "\" end" );
+            cache.getRawDRL( handler,
+                             asset );
+        }
+
+        cache.getRawDRL( handler,
+                         first );
+        verify( handler,
+                times( 2 ) ).getRawDRL( first );
+    }
+
+    private AssetItem mockAsset(String uuid,
+                                long versionNumber,
+                                long lastModified) {
+        AssetItem asset = mock( AssetItem.class );
+        Node node = mock( Node.class );
+        when( asset.getUUID() ).thenReturn( uuid );
+        when( asset.getName() ).thenReturn( "asset" );
+        when( asset.getFormat() ).thenReturn( AssetFormats.BUSINESS_RULE );
+        when( asset.getVersionNumber() ).thenReturn( versionNumber );
+        when( asset.getLastModified() ).thenReturn( calendar( lastModified ) );
+        when( asset.isHistoricalVersion() ).thenReturn( false );
+        when( asset.getNode() ).thenReturn( node );
+        return asset;
+    }
+
+    private static Calendar calendar(long timeInMillis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis( timeInMillis );
+        return calendar;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class DropDownExpressionCacheTest {
+
+    private final DropDownExpressionCache cache = new DropDownExpressionCache();
+
+    @Test
+    public void testEvaluate() {
+        Map<String, String> context = new HashMap<String, String>();
+        context.put( "f1",
+                     "x" );
+        context.put( "f2",
+                     "2" );
+
+        assertArrayEquals( new String[]{"x", "2"},
+                           cache.evaluate( "['@{f1}', '@{f2}']",
+                                           context ) );
+
+        context.put( "f1",
+                     "y" );
+        assertArrayEquals( new String[]{"y", "2"},
+                           cache.evaluate( "['@{f1}', '@{f2}']",
+                                           context ) );
+    }
+
+    @Test
+    public void testResultsAreNotShared() {
+        Map<String, String> context = new HashMap<String, String>();
+        context.put( "f1",
+                     "x" );
+
+        String[] first = cache.evaluate( "['@{f1}']",
+                                         context );
+        first[0] = "changed";
+        String[] second = cache.evaluate( "['@{f1}']",
+                                          context );
+
+        assertNotSame( first,
+                       second );
+        assertArrayEquals( new String[]{"x"},
+                           second );
+    }
+
+    @Test
+    public void testNotAList() {
+        assertNull( cache.evaluate( "'@{f1}'",
+                                    new HashMap<String, String>() ) );
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResumableUploadsTest {
+
+    private final ResumableUploads uploads = new ResumableUploads();
+
+    @After
+    public void tearDown() {
+        uploads.removeAll();
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        ResumableUploads.Upload upload = uploads.start( 10 );
+        assertSame( upload,
+                    uploads.get( upload.getId() ) );
+
+        assertTrue( upload.append( 0,
+                                   new ByteArrayInputStream( "01234".getBytes() ) ) );
+        assertFalse( upload.isComplete() );
+        assertEquals( 5,
+                      upload.getReceived() );
+        assertEquals( -1,
+                      upload.getImported() );
+
+        //a chunk sent again is refused
+        assertFalse( upload.append( 0,
+                                    new ByteArrayInputStream( "01234".getBytes() ) ) );
+        assertEquals( 5,
+                      upload.getReceived() );
+
+        assertTrue( upload.append( 5,
+                                   new ByteArrayInputStream( "56789".getBytes() ) ) );
+        assertTrue( upload.isComplete() );
+
+        InputStream in = upload.openForImport();
+        assertEquals( "0123456789",
+                      IOUtils.toString( in ) );
+        assertEquals( 10,
+                      upload.getImported() );
+        in.close();
+
+        uploads.remove( upload );
+        assertNull( uploads.get( upload.getId() ) );
+        assertFalse( upload.getFile().exists() );
+    }
+
+    @Test
+    public void testImportIsStartedOnce() throws Exception {
+        ResumableUploads.Upload upload = uploads.start( 5 );
+        assertTrue( upload.append( 0,
+                                   new ByteArrayInputStream( "01234".getBytes() ) ) );
+
+        //an empty final chunk sent twice completes the upload twice
+        assertTrue( upload.append( 5,
+                                   new ByteArrayInputStream( new byte[0] ) ) );
+        assertTrue( upload.append( 5,
+                                   new ByteArrayInputStream( new byte[0] ) ) );
+
+        InputStream in = upload.openForImport();
+        assertNotNull( in );
+        assertNull( upload.openForImport() );
+        in.close();
+    }
+
+    @Test
+    public void testTooLong() throws Exception {
+        ResumableUploads.Upload upload = uploads.start( 3 );
+        try {
+            upload.append( 0,
+                           new ByteArrayInputStream( "01234".getBytes() ) );
+            fail( "should not take more than the length" );
+        } catch ( IllegalArgumentException e ) {
+            assertEquals( 0,
+                          upload.getReceived() );
+        }
+    }
+
+    @Test
+    public void testParseContentRange() {
+        assertArrayEquals( new long[]{0, 99, 1000},
+                           RepositoryBackupServlet.parseContentRange( "bytes 0-99/1000" ) );
+        assertNull( RepositoryBackupServlet.parseContentRange( "bytes 0-1000/1000" ) );
+        assertNull( RepositoryBackupServlet.parseContentRange( "bytes */1000" ) );
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+
+import org.drools.guvnor.server.ServiceSecurity;
+import org.drools.repository.ChangeJournalEntry;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeJournalOutputTest {
+
+    private UriInfo uriInfo;
+    private UriBuilder requestUriBuilder;
+    private ServiceSecurity serviceSecurity;
+    private List<ChangeJournalEntry> changes;
+
+    @Before
+    public void setUp() {
+        requestUriBuilder = mock(UriBuilder.class);
+        when(requestUriBuilder.replaceQueryParam(anyString(), anyVararg())).thenReturn(requestUriBuilder);
+        when(requestUriBuilder.build()).thenReturn(URI.create("http://localhost/rest/changes?next"));
+        uriInfo = mock(UriInfo.class);
+        when(uriInfo.getRequestUriBuilder()).thenReturn(requestUriBuilder);
+
+        serviceSecurity = mock(ServiceSecurity.class);
+        when(serviceSecurity.hasPermissionPackageReadOnlyWithPackageName("readable")).thenReturn(true);
+        when(serviceSecurity.hasPermissionPackageReadOnlyWithPackageName("hidden")).thenReturn(false);
+
+        changes = new ArrayList<ChangeJournalEntry>();
+    }
+
+    @Test
+    public void testChangesToPackagesThatCannotBeReadAreLeftOut() throws Exception {
+        addChange(1, "hidden");
+        addChange(2, "readable");
+        addChange(3, "hidden");
+
+        String xml = write(-1);
+        assertFalse(xml.contains("sequence=\"1\""));
+        assertTrue(xml.contains("sequence=\"2\""));
+        assertFalse(xml.contains("sequence=\"3\""));
+        assertFalse(xml.contains("rel=\"next\""));
+    }
+
+    @Test
+    public void testMoveCanBeReadFromThePreviousPackage() throws Exception {
+        addChange(1, "hidden").setPreviousModuleName("readable");
+
+        assertTrue(write(-1).contains("sequence=\"1\""));
+    }
+
+    @Test
+    public void testNextLinkSkipsChangesLeftOut() throws Exception {
+        addChange(1, "hidden");
+        addChange(2, "hidden");
+        addChange(3, "readable");
+        addChange(4, "hidden");
+        addChange(5, "readable");
+
+        String xml = write(1);
+        assertTrue(xml.contains("sequence=\"3\""));
+        assertFalse(xml.contains("sequence=\"5\""));
+        assertTrue(xml.contains("rel=\"next\""));
+
+        //The next page starts after the last change read, not the last one written
+        verify(requestUriBuilder).replaceQueryParam("since", 3L);
+    }
+
+    private ChangeJournalEntry addChange(long sequence, String packageName) {
+        ChangeJournalEntry change = new ChangeJournalEntry();
+        change.setSequence(sequence);
+        change.setType(ChangeJournalEntry.Type.DELETE);
+        change.setUuid("uuid" + sequence);
+        change.setName("asset" + sequence);
+        change.setModuleName(packageName);
+        changes.add(change);
+        return change;
+    }
+
+    private String write(int limit) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ChangeJournalOutput(changes.iterator(), 0, limit, uriInfo, serviceSecurity).write(output);
+        return output.toString("UTF-8");
+    }
+
+}
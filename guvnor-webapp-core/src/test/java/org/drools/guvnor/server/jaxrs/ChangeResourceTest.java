@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Session;
+import javax.ws.rs.core.Response;
+
+import org.drools.guvnor.server.ServiceSecurity;
+import org.drools.guvnor.server.repository.ChangeJournalService;
+import org.drools.repository.RulesRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeResourceTest {
+
+    private ChangeJournalService changeJournalService;
+    private ChangeResource resource;
+
+    @Before
+    public void setUp() throws Exception {
+        //A repository without a journal yet
+        Node root = mock(Node.class);
+        when(root.getNode(anyString())).thenThrow(new PathNotFoundException());
+        Session session = mock(Session.class);
+        when(session.getRootNode()).thenReturn(root);
+        RulesRepository rulesRepository = mock(RulesRepository.class);
+        when(rulesRepository.getSession()).thenReturn(session);
+
+        changeJournalService = mock(ChangeJournalService.class);
+        resource = new ChangeResource();
+        resource.inject(null, null, null, null, null, rulesRepository, null, mock(ServiceSecurity.class),
+                changeJournalService);
+    }
+
+    @Test
+    public void testUnjournaledChangesAreCounted() {
+        when(changeJournalService.getFailedChangeCount()).thenReturn(3);
+
+        Response response = resource.getChanges(0, -1);
+        assertEquals(200, response.getStatus());
+        assertEquals(3, response.getMetadata().getFirst("X-Unjournaled-Changes"));
+    }
+
+    @Test
+    public void testUpToDateJournalHasNoCount() {
+        when(changeJournalService.getFailedChangeCount()).thenReturn(0);
+
+        Response response = resource.getChanges(0, -1);
+        assertEquals(200, response.getStatus());
+        assertNull(response.getMetadata().getFirst("X-Unjournaled-Changes"));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.drools.repository.ChangeJournalEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeJournalServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+
+    private JournalingService service;
+
+    @Before
+    public void setUp() {
+        service = new JournalingService();
+        service.retryDelaySeconds = 1;
+        service.setup();
+    }
+
+    @After
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    public void testChangesAreJournaledInOrder() throws Exception {
+        service.recordChanges( Arrays.asList( change( "a" ) ) );
+        service.recordChanges( Arrays.asList( change( "b" ),
+                                              change( "c" ) ) );
+
+        awaitJournal( 3 );
+        assertEquals( Arrays.asList( "a",
+                                     "b",
+                                     "c" ),
+                      service.journal );
+        assertEquals( 0,
+                      service.getFailedChangeCount() );
+    }
+
+    @Test
+    public void testFailedChangesAreRetriedInOrder() throws Exception {
+        service.isFailing = true;
+        service.recordChanges( Arrays.asList( change( "a" ) ) );
+        service.recordChanges( Arrays.asList( change( "b" ),
+                                              change( "c" ) ) );
+
+        //Later changes wait behind the failed ones
+        awaitFailedChangeCount( 3 );
+        assertTrue( service.journal.isEmpty() );
+
+        //The scheduled retry writes them all, oldest first
+        service.isFailing = false;
+        awaitFailedChangeCount( 0 );
+        assertEquals( Arrays.asList( "a",
+                                     "b",
+                                     "c" ),
+                      service.journal );
+
+        service.recordChanges( Arrays.asList( change( "d" ) ) );
+        awaitJournal( 4 );
+        assertEquals( "d",
+                      service.journal.get( 3 ) );
+    }
+
+    private void awaitJournal(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ( service.journal.size() < size && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 10 );
+        }
+        assertEquals( size,
+                      service.journal.size() );
+    }
+
+    private void awaitFailedChangeCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ( service.getFailedChangeCount() != count && System.currentTimeMillis() < deadline ) {
+            Thread.sleep( 10 );
+        }
+        assertEquals( count,
+                      service.getFailedChangeCount() );
+    }
+
+    private static ChangeJournalEntry change(String name) {
+        ChangeJournalEntry change = new ChangeJournalEntry();
+        change.setType( ChangeJournalEntry.Type.CHECKIN );
+        change.setName( name );
+        change.setModuleName( "package" );
+        return change;
+    }
+
+    //Journals the names of the changes, or fails while asked to
+    private static class JournalingService extends ChangeJournalService {
+
+        private final List<String> journal   = Collections.synchronizedList( new ArrayList<String>() );
+        private volatile boolean   isFailing = false;
+
+        @Override
+        void appendToJournal(List<ChangeJournalEntry> changes) {
+            if ( isFailing ) {
+                throw new RuntimeException( "journal unavailable" );
+            }
+            for ( ChangeJournalEntry change : changes ) {
+                journal.add( change.getName() );
+            }
+        }
+
+    }
+
+}
@@ -307,9 +307,17 @@ public class RuleModeller extends DirtyableComposite
     }
 
     public void refreshWidget() {
-        initWidget();
-        showWarningsAndErrors();
-        makeDirty();
+        //the rule may now use fact types that the engine only knows the name of
+        SuggestionCompletionCache.getInstance().loadFactTypes( packageName,
+                                                               model,
+                                                               new Command() {
+
+                                                                   public void execute() {
+                                                                       initWidget();
+                                                                       showWarningsAndErrors();
+                                                                       makeDirty();
+                                                                   }
+                                                               } );
     }
 
     private Widget getAddAttribute() {
@@ -25,6 +25,7 @@ import org.drools.guvnor.client.asseteditor.SaveEventListener;
 import org.drools.guvnor.client.asseteditor.drools.modeldriven.ui.RuleAttributeWidget;
 import org.drools.guvnor.client.common.DirtyableHorizontalPane;
 import org.drools.guvnor.client.common.FormStylePopup;
+import org.drools.guvnor.client.common.GenericCallback;
 import org.drools.guvnor.client.common.IBindingProvider;
 import org.drools.guvnor.client.common.ImageButton;
 import org.drools.guvnor.client.common.PrettyFormLayout;
@@ -37,8 +38,12 @@ import org.drools.guvnor.client.moduleeditor.drools.SuggestionCompletionCache;
 import org.drools.guvnor.client.resources.DecisionTableResources;
 import org.drools.guvnor.client.resources.DroolsGuvnorImages;
 import org.drools.guvnor.client.rpc.Asset;
+import org.drools.guvnor.client.rpc.DroolsService;
+import org.drools.guvnor.client.rpc.DroolsServiceAsync;
 import org.drools.guvnor.client.util.AddButton;
 import org.drools.guvnor.client.util.DecoratedDisclosurePanel;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.LastRowVisibleEvent;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.SortDataEvent;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.drools.ide.common.client.modeldriven.brl.FactPattern;
 import org.drools.ide.common.client.modeldriven.brl.IPattern;
@@ -69,6 +74,7 @@ import org.drools.ide.common.client.modeldriven.dt52.Pattern52;
 
 import com.allen_sauer.gwt.dnd.client.PickupDragController;
 import com.allen_sauer.gwt.dnd.client.drop.VerticalPanelDropController;
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.dom.client.ChangeEvent;
 import com.google.gwt.event.dom.client.ChangeHandler;
 import com.google.gwt.event.dom.client.ClickEvent;
@@ -76,6 +82,7 @@ import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.event.shared.SimpleEventBus;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.AbsolutePanel;
 import com.google.gwt.user.client.ui.AbstractImagePrototype;
@@ -130,6 +137,19 @@ public class GuidedDecisionTableWidget extends Composite
 
     private static String               SECTION_SEPARATOR = "..................";
 
+    //Number of rows loaded at a time for large tables
+    private static final int            ROWS_PER_PAGE     = 1000;
+
+    private boolean                     isLoadingRows     = false;
+
+    //Executed once all rows of a large table have been loaded
+    private Command                     afterAllRowsLoaded;
+
+    //Column configuration, withheld while rows of a large table remain to be loaded
+    private DecoratedDisclosurePanel    columnsPanel;
+    private Widget                      columnsConfig;
+    private Button                      loadAllRowsButton;
+
     private enum NewColumnTypes {
         METADATA_ATTRIBUTE,
         CONDITION_SIMPLE,
@@ -172,6 +192,7 @@ public class GuidedDecisionTableWidget extends Composite
         layout = new VerticalPanel();
 
         setupDecisionTable();
+        setupRowLoading();
 
         configureColumnsNote = new PrettyFormLayout();
         configureColumnsNote.startSection();
@@ -186,7 +207,15 @@ public class GuidedDecisionTableWidget extends Composite
 
         VerticalPanel config = new VerticalPanel();
         config.setWidth( "100%" );
-        disclosurePanel.add( config );
+
+        //Cells are positional, so columns can only be changed once every row has been loaded
+        columnsPanel = disclosurePanel;
+        columnsConfig = config;
+        if ( guidedDecisionTable.isPartiallyLoaded() && !isReadOnly ) {
+            disclosurePanel.add( loadAllRowsBeforeConfiguringColumns() );
+        } else {
+            disclosurePanel.add( config );
+        }
 
         //Can't add new columns if the asset is read-only
         if ( !isReadOnly ) {
@@ -1424,6 +1453,138 @@ public class GuidedDecisionTableWidget extends Composite
                              400 );
     }
 
+    //Large tables are opened with their first rows. The remainder is loaded as the table is scrolled
+    //or when all rows are needed, for example to sort the table.
+    private void setupRowLoading() {
+        if ( !guidedDecisionTable.isPartiallyLoaded() ) {
+            return;
+        }
+        eventBus.addHandler( LastRowVisibleEvent.TYPE,
+                             new LastRowVisibleEvent.Handler() {
+
+                                 public void onLastRowVisible(LastRowVisibleEvent event) {
+                                     loadRows();
+                                 }
+
+                             } );
+        eventBus.addHandler( SortDataEvent.TYPE,
+                             new SortDataEvent.Handler() {
+
+                                 public void onSortData(final SortDataEvent event) {
+                                     //Only the rows loaded have been sorted; sort again once all are loaded
+                                     if ( guidedDecisionTable.isPartiallyLoaded() ) {
+                                         whenAllRowsLoaded( new Command() {
+
+                                             public void execute() {
+                                                 eventBus.fireEvent( new SortDataEvent( event.getSortConfiguration() ) );
+                                             }
+
+                                         } );
+                                     }
+                                 }
+
+                             } );
+    }
+
+    //Placeholder for the column configuration of a large table, until its remaining rows have been loaded
+    private Widget loadAllRowsBeforeConfiguringColumns() {
+        VerticalPanel panel = new VerticalPanel();
+        panel.add( new HTML( AbstractImagePrototype.create( DroolsGuvnorImages.INSTANCE.information() ).getHTML()
+                             + "&nbsp;"
+                             + Constants.INSTANCE.LoadAllRowsToConfigureColumnsNote( guidedDecisionTable.getTotalRowCount() ) ) );
+        loadAllRowsButton = new Button( Constants.INSTANCE.LoadAllRows() );
+        loadAllRowsButton.addClickHandler( new ClickHandler() {
+
+            public void onClick(ClickEvent event) {
+                loadAllRowsButton.setEnabled( false );
+                whenAllRowsLoaded( new Command() {
+
+                    public void execute() {
+                        showColumnsConfig();
+                    }
+
+                } );
+            }
+
+        } );
+        panel.add( loadAllRowsButton );
+        return panel;
+    }
+
+    //Execute a command once all rows have been loaded, loading the remainder if need be
+    private void whenAllRowsLoaded(final Command command) {
+        if ( !guidedDecisionTable.isPartiallyLoaded() ) {
+            command.execute();
+            return;
+        }
+        final Command previous = afterAllRowsLoaded;
+        if ( previous == null ) {
+            afterAllRowsLoaded = command;
+        } else {
+            afterAllRowsLoaded = new Command() {
+
+                public void execute() {
+                    previous.execute();
+                    command.execute();
+                }
+
+            };
+        }
+        loadRows();
+    }
+
+    //The column configuration is shown once every row is present, however the rows were loaded
+    private void onAllRowsLoaded() {
+        showColumnsConfig();
+        if ( afterAllRowsLoaded != null ) {
+            Command command = afterAllRowsLoaded;
+            afterAllRowsLoaded = null;
+            command.execute();
+        }
+    }
+
+    private void showColumnsConfig() {
+        if ( loadAllRowsButton != null ) {
+            loadAllRowsButton = null;
+            columnsPanel.setContent( columnsConfig );
+        }
+    }
+
+    //Load the next page of rows, continuing until all are loaded if a command is waiting on them
+    private void loadRows() {
+        if ( isLoadingRows || !guidedDecisionTable.isPartiallyLoaded() ) {
+            return;
+        }
+        isLoadingRows = true;
+        DroolsServiceAsync droolsService = GWT.create( DroolsService.class );
+        droolsService.loadDecisionTableRows( asset.getUuid(),
+                                             guidedDecisionTable.getLoadedRowCount(),
+                                             ROWS_PER_PAGE,
+                                             new GenericCallback<List<List<DTCellValue52>>>() {
+
+                                                 public void onSuccess(List<List<DTCellValue52>> rows) {
+                                                     isLoadingRows = false;
+                                                     dtable.appendRows( rows );
+                                                     if ( !guidedDecisionTable.isPartiallyLoaded() ) {
+                                                         onAllRowsLoaded();
+                                                     } else if ( afterAllRowsLoaded != null ) {
+                                                         loadRows();
+                                                     }
+                                                 }
+
+                                                 @Override
+                                                 public void onFailure(Throwable t) {
+                                                     isLoadingRows = false;
+                                                     afterAllRowsLoaded = null;
+                                                     if ( loadAllRowsButton != null ) {
+                                                         loadAllRowsButton.setEnabled( true );
+                                                     }
+                                                     super.onFailure( t );
+                                                 }
+
+                                             } );
+    }
+
     //Check if any of the bound Fact Patterns in the BRL Fragment are used elsewhere
     private boolean canConditionBeDeleted(BRLConditionColumn col) {
         for ( IPattern p : col.getDefinition() ) {
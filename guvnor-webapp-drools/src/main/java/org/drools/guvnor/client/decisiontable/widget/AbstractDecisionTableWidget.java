@@ -27,6 +27,7 @@ import java.util.Set;
 
 import org.drools.guvnor.client.asseteditor.drools.modeldriven.ui.RuleAttributeWidget;
 import org.drools.guvnor.client.decisiontable.analysis.DecisionTableAnalyzer;
+import org.drools.guvnor.client.decisiontable.widget.events.AppendDecisionTableRowsEvent;
 import org.drools.guvnor.client.decisiontable.widget.events.InsertDecisionTableColumnEvent;
 import org.drools.guvnor.client.util.GWTDateConverter;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue;
@@ -508,6 +509,40 @@ public abstract class AbstractDecisionTableWidget extends Composite
         eventBus.fireEvent( dce );
     }
 
+    /**
+     * Append rows loaded from the repository to the table. Large tables are
+     * opened with only their first rows, with the remainder appended as they
+     * are loaded.
+     * 
+     * @param rows
+     *            Rows following those already loaded
+     */
+    public void appendRows(List<List<DTCellValue52>> rows) {
+        if ( rows == null ) {
+            throw new IllegalArgumentException( "rows cannot be null" );
+        }
+        for ( List<DTCellValue52> row : rows ) {
+            model.getData().add( row );
+            model.getAnalysisData().add( new Analysis() );
+        }
+        model.setLoadedRowCount( model.getLoadedRowCount() + rows.size() );
+
+        //No rows means the end of the persisted table has been reached
+        if ( rows.isEmpty() ) {
+            model.setTotalRowCount( model.getLoadedRowCount() );
+        }
+
+        //Add the new rows to the UI components, leaving those already drawn
+        AppendDecisionTableRowsEvent adre = new AppendDecisionTableRowsEvent( model,
+                                                                              rows );
+        eventBus.fireEvent( adre );
+
+        //Rows inserted or deleted before all rows are loaded shift the numbering of those that follow
+        if ( !model.isPartiallyLoaded() ) {
+            updateSystemControlledColumnValues();
+        }
+    }
+
     public void appendRow() {
         AppendRowEvent are = new AppendRowEvent();
         eventBus.fireEvent( are );
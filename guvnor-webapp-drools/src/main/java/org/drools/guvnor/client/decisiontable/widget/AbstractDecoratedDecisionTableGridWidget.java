@@ -18,6 +18,7 @@ package org.drools.guvnor.client.decisiontable.widget;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.drools.guvnor.client.decisiontable.widget.events.AppendDecisionTableRowsEvent;
 import org.drools.guvnor.client.decisiontable.widget.events.InsertDecisionTableColumnEvent;
 import org.drools.guvnor.client.decisiontable.widget.events.InsertInternalDecisionTableColumnEvent;
 import org.drools.guvnor.client.decisiontable.widget.events.SetGuidedDecisionTableModelEvent;
@@ -30,6 +31,8 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.DynamicColumn;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.ResourcesProvider;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicData;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicDataRow;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendInternalRowsEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.DeleteColumnEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.InsertColumnEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.SetModelEvent;
@@ -61,7 +64,8 @@ import com.google.gwt.user.client.ui.Panel;
 public abstract class AbstractDecoratedDecisionTableGridWidget extends AbstractDecoratedGridWidget<GuidedDecisionTable52, BaseColumn, DTCellValue52>
     implements
     DeleteColumnEvent.Handler,
-    InsertColumnEvent.Handler<BaseColumn, DTCellValue52> {
+    InsertColumnEvent.Handler<BaseColumn, DTCellValue52>,
+    AppendDecisionTableRowsEvent.Handler {
 
     //Factories to create new data elements
     protected final DecisionTableCellFactory      cellFactory;
@@ -99,6 +103,8 @@ public abstract class AbstractDecoratedDecisionTableGridWidget extends AbstractD
                              this );
         eventBus.addHandler( DeleteColumnEvent.TYPE,
                              this );
+        eventBus.addHandler( AppendDecisionTableRowsEvent.TYPE,
+                             this );
     }
 
     public void onSetModel(SetModelEvent<GuidedDecisionTable52> event) {
@@ -426,6 +432,49 @@ public abstract class AbstractDecoratedDecisionTableGridWidget extends AbstractD
         }
     }
 
+    public void onAppendDecisionTableRows(AppendDecisionTableRowsEvent event) {
+        GuidedDecisionTable52 model = event.getModel();
+        List<List<DTCellValue52>> rows = event.getRows();
+        List<BaseColumn> modelColumns = model.getExpandedColumns();
+        List<DynamicDataRow> data = new ArrayList<DynamicDataRow>( rows.size() );
+
+        //The rows have already been added to the end of the model
+        int iRow = model.getData().size() - rows.size();
+        for ( List<DTCellValue52> row : rows ) {
+            DynamicDataRow rowData = new DynamicDataRow();
+            for ( int iCol = 0; iCol < modelColumns.size(); iCol++ ) {
+                BaseColumn column = modelColumns.get( iCol );
+                CellValue< ? extends Comparable< ? >> cv;
+                if ( column instanceof AnalysisCol52 ) {
+                    cv = cellValueFactory.makeNewAnalysisCellValue();
+                } else if ( iCol == 0 ) {
+                    DTCellValue52 dcv = new DTCellValue52();
+                    dcv.setNumericValue( iRow + 1 );
+                    cv = cellValueFactory.convertModelCellValue( column,
+                                                                 dcv );
+                } else {
+                    cv = cellValueFactory.convertModelCellValue( column,
+                                                                 row.get( iCol ) );
+                }
+                rowData.add( cv );
+            }
+            data.add( rowData );
+            iRow++;
+        }
+
+        //Raise event appending data for UI components
+        AppendInternalRowsEvent aire = new AppendInternalRowsEvent( data );
+        eventBus.fireEvent( aire );
+
+        Scheduler.get().scheduleDeferred( new Command() {
+
+            public void execute() {
+                assertDimensions();
+            }
+
+        } );
+    }
+
     public void onDeleteColumn(DeleteColumnEvent event) {
         if ( event.redraw() ) {
             Scheduler.get().scheduleDeferred( new Command() {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.drools.guvnor.client.decisiontable.widget.events;
+
+import java.util.List;
+
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * An event raised when rows have been appended to the underlying Guided
+ * Decision Table model, so they can be added to the table without setting the
+ * whole model again
+ */
+public class AppendDecisionTableRowsEvent extends GwtEvent<AppendDecisionTableRowsEvent.Handler> {
+
+    public static interface Handler
+        extends
+        EventHandler {
+
+        void onAppendDecisionTableRows(AppendDecisionTableRowsEvent event);
+    }
+
+    public static final Type<AppendDecisionTableRowsEvent.Handler> TYPE = new Type<AppendDecisionTableRowsEvent.Handler>();
+
+    private GuidedDecisionTable52     model;
+    private List<List<DTCellValue52>> rows;
+
+    public AppendDecisionTableRowsEvent(GuidedDecisionTable52 model,
+                                        List<List<DTCellValue52>> rows) {
+        this.model = model;
+        this.rows = rows;
+    }
+
+    public GuidedDecisionTable52 getModel() {
+        return this.model;
+    }
+
+    public List<List<DTCellValue52>> getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public Type<AppendDecisionTableRowsEvent.Handler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(AppendDecisionTableRowsEvent.Handler handler) {
+        handler.onAppendDecisionTableRows( this );
+    }
+
+}
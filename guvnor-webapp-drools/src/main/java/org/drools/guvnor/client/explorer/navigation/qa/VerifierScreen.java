@@ -19,12 +19,15 @@ package org.drools.guvnor.client.explorer.navigation.qa;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.*;
 import org.drools.guvnor.client.common.GenericCallback;
 import org.drools.guvnor.client.common.LoadingPopup;
 import org.drools.guvnor.client.common.PrettyFormLayout;
 import org.drools.guvnor.client.messages.Constants;
 import org.drools.guvnor.client.resources.DroolsGuvnorImages;
+import org.drools.guvnor.client.rpc.AnalysisJobStatus;
 import org.drools.guvnor.client.rpc.AnalysisReport;
 import org.drools.guvnor.client.rpc.VerificationService;
 import org.drools.guvnor.client.rpc.VerificationServiceAsync;
@@ -34,6 +37,8 @@ import org.drools.guvnor.client.rpc.VerificationServiceAsync;
  */
 public class VerifierScreen extends Composite {
 
+    private static final int POLL_INTERVAL_MILLIS = 1000;
+
     private final VerticalPanel layout = new VerticalPanel();
     private final String packageUUID;
 
@@ -67,20 +72,56 @@ public class VerifierScreen extends Composite {
 
     private void runAnalysis() {
         LoadingPopup.showMessage( Constants.INSTANCE.AnalysingPackageRunning() );
-        VerificationServiceAsync verificationService = GWT.create( VerificationService.class );
-
-        verificationService.analysePackage( packageUUID,
-                new GenericCallback<AnalysisReport>() {
-                    public void onSuccess(AnalysisReport rep) {
-                        VerifierResultWidget w = new VerifierResultWidget( rep,
-                                true );
-                        w.setWidth( "100%" );
-                        layout.remove( 1 );
-                        layout.add( w );
-                        LoadingPopup.close();
+        final VerificationServiceAsync verificationService = GWT.create( VerificationService.class );
+
+        verificationService.submitPackageAnalysis( packageUUID,
+                new GenericCallback<String>() {
+                    public void onSuccess(String jobId) {
+                        pollAnalysisJob( verificationService,
+                                jobId );
+                    }
+                } );
+
+    }
+
+    private void pollAnalysisJob(final VerificationServiceAsync verificationService,
+                                 final String jobId) {
+        verificationService.getAnalysisJobStatus( jobId,
+                new GenericCallback<AnalysisJobStatus>() {
+                    public void onSuccess(AnalysisJobStatus status) {
+                        if ( AnalysisJobStatus.FINISHED.equals( status.state ) ) {
+                            showReport( status.report );
+                        } else if ( AnalysisJobStatus.FAILED.equals( status.state ) ) {
+                            LoadingPopup.close();
+                            Window.alert( status.errorMessage );
+                        } else {
+                            showProgress( status );
+                            new Timer() {
+                                public void run() {
+                                    pollAnalysisJob( verificationService,
+                                            jobId );
+                                }
+                            }.schedule( POLL_INTERVAL_MILLIS );
+                        }
                     }
                 } );
+    }
+
+    private void showProgress(AnalysisJobStatus status) {
+        int added = status.resourceTypes.length;
+        if ( added > 0 ) {
+            LoadingPopup.showMessage( Constants.INSTANCE.AnalysingPackageRunning()
+                    + " (" + status.resourceTypes[added - 1] + ")" );
+        }
+    }
 
+    private void showReport(AnalysisReport rep) {
+        VerifierResultWidget w = new VerifierResultWidget( rep,
+                true );
+        w.setWidth( "100%" );
+        layout.remove( 1 );
+        layout.add( w );
+        LoadingPopup.close();
     }
 
 }
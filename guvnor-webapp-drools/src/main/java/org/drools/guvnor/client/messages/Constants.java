@@ -655,6 +655,10 @@ public interface Constants
 
     String ConfigureColumnsNote();
 
+    String LoadAllRowsToConfigureColumnsNote(int totalRowCount);
+
+    String LoadAllRows();
+
     String Items();
 
     String Item();
@@ -18,19 +18,43 @@ package org.drools.guvnor.client.moduleeditor.drools;
 
 
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.gwt.core.client.GWT;
+import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.client.common.ErrorPopup;
 import org.drools.guvnor.client.common.GenericCallback;
 import org.drools.guvnor.client.common.LoadingPopup;
+import org.drools.guvnor.client.configurations.ApplicationPreferences;
 import org.drools.guvnor.client.explorer.RefreshModuleDataModelEvent;
 import org.drools.guvnor.client.messages.Constants;
+import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineServiceAsync;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.FactTypeFilter;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
+import org.drools.ide.common.client.modeldriven.brl.ActionFieldList;
+import org.drools.ide.common.client.modeldriven.brl.ActionFieldValue;
+import org.drools.ide.common.client.modeldriven.brl.ActionInsertFact;
+import org.drools.ide.common.client.modeldriven.brl.ActionSetField;
+import org.drools.ide.common.client.modeldriven.brl.CompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.CompositeFieldConstraint;
+import org.drools.ide.common.client.modeldriven.brl.FactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FieldConstraint;
+import org.drools.ide.common.client.modeldriven.brl.FromAccumulateCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCollectCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.IAction;
+import org.drools.ide.common.client.modeldriven.brl.IPattern;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.brl.SingleFieldConstraint;
 
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.user.client.Command;
@@ -44,6 +68,13 @@ import com.google.gwt.user.client.Command;
 public class SuggestionCompletionCache
         implements RefreshModuleDataModelEvent.Handler {
 
+    /**
+     * When set, guided rules are opened with an engine that only has the names of the fact types.
+     * The RuleModeller fetches the details of the fact types the rule uses with loadFactTypes
+     * whenever it is drawn. The other editors always get a fully loaded engine.
+     */
+    public static final String LAZY_FACT_TYPE_LOADING = "rule-modeller-lazyFactTypeLoading";
+
     private static SuggestionCompletionCache INSTANCE = null;
 
     Map<String, SuggestionCompletionEngine> cache = new HashMap<String, SuggestionCompletionEngine>();
@@ -66,7 +97,28 @@ public class SuggestionCompletionCache
     }
     
     public void onRefreshModuleDataModel(RefreshModuleDataModelEvent refreshModuleDataModelEvent) {
-        loadPackage(refreshModuleDataModelEvent.getModuleName(), refreshModuleDataModelEvent.getCallbackCommand());
+        final String packageName = refreshModuleDataModelEvent.getModuleName();
+        final Command done = refreshModuleDataModelEvent.getCallbackCommand();
+        Asset asset = refreshModuleDataModelEvent.getAsset();
+        if (!isLazyFactTypeLoading() || asset == null
+                || !AssetFormats.BUSINESS_RULE.equals( asset.getFormat() ) || !(asset.getContent() instanceof RuleModel)) {
+            loadPackage(packageName, done);
+            return;
+        }
+
+        //the rule is drawn as soon as done is executed, so the fact types it uses have to be there by then
+        final RuleModel model = (RuleModel) asset.getContent();
+        loadPackage(packageName, true, new Command() {
+            public void execute() {
+                loadFactTypes( packageName, model, new Command() {
+                    public void execute() {
+                        if (done != null) {
+                            done.execute();
+                        }
+                    }
+                });
+            }
+        });
     }
     
     public SuggestionCompletionEngine getEngineFromCache(String packageName) {
@@ -93,12 +145,49 @@ public class SuggestionCompletionCache
         this.filters.remove(packageName);
 
         SuggestionCompletionEngineServiceAsync suggestionCompletionEngineService = GWT.create(SuggestionCompletionEngineService.class);
-        suggestionCompletionEngineService.loadSuggestionCompletionEngine( packageName, new GenericCallback<SuggestionCompletionEngine>() {
+        GenericCallback<SuggestionCompletionEngine> callback = new GenericCallback<SuggestionCompletionEngine>() {
             public void onSuccess(SuggestionCompletionEngine engine) {
                 cache.put( packageName, engine );
                 done.execute();
             }
 
+            public void onFailure(Throwable t) {
+                LoadingPopup.close();
+                ErrorPopup.showMessage(Constants.INSTANCE.UnableToValidatePackageForSCE(packageName));
+                done.execute();
+            }
+        };
+        suggestionCompletionEngineService.loadSuggestionCompletionEngine( packageName, callback );
+    }
+
+    /**
+     * Refreshes the SCE of a package with an engine that only has the names of the fact types. The details
+     * of the fact types the previous engine had loaded are fetched again, as the editors that are already open
+     * still use them. A fully loaded engine is refreshed as a whole, as any editor may depend on it.
+     */
+    private void refreshPackageFactTypeNamesOnly(final String packageName, final Command done) {
+        final SuggestionCompletionEngine previous = cache.get( packageName );
+        if (previous != null && previous.isFullyLoaded()) {
+            refreshPackage( packageName, done );
+            return;
+        }
+
+        LoadingPopup.showMessage(Constants.INSTANCE.InitialisingInfoFor0PleaseWait(packageName));
+
+        //removes any existing filter
+        this.filters.remove(packageName);
+
+        SuggestionCompletionEngineServiceAsync suggestionCompletionEngineService = GWT.create(SuggestionCompletionEngineService.class);
+        suggestionCompletionEngineService.loadFactTypeNamesOnlySuggestionCompletionEngine( packageName, new GenericCallback<SuggestionCompletionEngine>() {
+            public void onSuccess(SuggestionCompletionEngine engine) {
+                cache.put( packageName, engine );
+                if (previous == null) {
+                    done.execute();
+                } else {
+                    loadFactTypes( packageName, previous.getLoadedFactTypes(), done );
+                }
+            }
+
             public void onFailure(Throwable t) {
                 LoadingPopup.close();
                 ErrorPopup.showMessage(Constants.INSTANCE.UnableToValidatePackageForSCE(packageName));
@@ -106,6 +195,130 @@ public class SuggestionCompletionCache
             }
         });
     }
+
+    /**
+     * Makes sure the fields, methods and enumerations of the fact types used by a rule are in the cached
+     * engine of the package, fetching the ones that are missing.
+     * @param packageName
+     * @param model
+     * @param done executed once the fact types are available, straight away if they all are already.
+     */
+    public void loadFactTypes(final String packageName, final RuleModel model, final Command done) {
+        loadFactTypes( packageName, getFactTypes( model ), done );
+    }
+
+    /**
+     * Makes sure the fields, methods and enumerations of the given fact types are in the cached
+     * engine of the package, fetching the ones that are missing. The engine must have been loaded already.
+     * @param packageName
+     * @param factTypes
+     * @param done executed once the fact types are available, straight away if they all are already.
+     */
+    public void loadFactTypes(final String packageName, final Collection<String> factTypes, final Command done) {
+        final SuggestionCompletionEngine engine = cache.get( packageName );
+        List<String> missing = new ArrayList<String>();
+        if (engine != null) {
+            for (String factType : factTypes) {
+                if (!engine.isFactTypeLoaded( factType )) {
+                    missing.add( factType );
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            done.execute();
+            return;
+        }
+
+        LoadingPopup.showMessage(Constants.INSTANCE.InitialisingInfoFor0PleaseWait(packageName));
+        SuggestionCompletionEngineServiceAsync suggestionCompletionEngineService = GWT.create(SuggestionCompletionEngineService.class);
+        suggestionCompletionEngineService.loadFactTypeDetails( packageName,
+                missing.toArray( new String[missing.size()] ),
+                new GenericCallback<FactTypeDetails[]>() {
+                    public void onSuccess(FactTypeDetails[] details) {
+                        for (FactTypeDetails factTypeDetails : details) {
+                            engine.addFactTypeDetails( factTypeDetails );
+                        }
+                        LoadingPopup.close();
+                        done.execute();
+                    }
+
+                    public void onFailure(Throwable t) {
+                        LoadingPopup.close();
+                        ErrorPopup.showMessage(Constants.INSTANCE.UnableToValidatePackageForSCE(packageName));
+                        done.execute();
+                    }
+                });
+    }
+
+    /**
+     * @return the fact types a rule refers to: those of its patterns, of the fields it constrains,
+     *         of the facts it inserts and of the variables it sets fields on.
+     */
+    static Set<String> getFactTypes(RuleModel model) {
+        Set<String> factTypes = new HashSet<String>();
+        for (IPattern pattern : model.lhs) {
+            addFactTypes( pattern, factTypes );
+        }
+        for (IAction action : model.rhs) {
+            if (action instanceof ActionInsertFact) {
+                factTypes.add( ((ActionInsertFact) action).factType );
+            } else if (action instanceof ActionSetField) {
+                String type = model.getLHSBindingType( ((ActionSetField) action).variable );
+                if (type != null) {
+                    factTypes.add( type );
+                }
+            }
+            if (action instanceof ActionFieldList) {
+                for (ActionFieldValue value : ((ActionFieldList) action).fieldValues) {
+                    if (value.getType() != null) {
+                        factTypes.add( value.getType() );
+                    }
+                }
+            }
+        }
+        factTypes.remove( null );
+        return factTypes;
+    }
+
+    private static void addFactTypes(IPattern pattern, Set<String> factTypes) {
+        if (pattern instanceof FactPattern) {
+            FactPattern factPattern = (FactPattern) pattern;
+            factTypes.add( factPattern.getFactType() );
+            for (FieldConstraint constraint : factPattern.getFieldConstraints()) {
+                addFactTypes( constraint, factTypes );
+            }
+        } else if (pattern instanceof CompositeFactPattern) {
+            CompositeFactPattern composite = (CompositeFactPattern) pattern;
+            if (composite.getPatterns() != null) {
+                for (IPattern child : composite.getPatterns()) {
+                    addFactTypes( child, factTypes );
+                }
+            }
+        } else if (pattern instanceof FromCompositeFactPattern) {
+            addFactTypes( ((FromCompositeFactPattern) pattern).getFactPattern(), factTypes );
+            if (pattern instanceof FromAccumulateCompositeFactPattern) {
+                addFactTypes( ((FromAccumulateCompositeFactPattern) pattern).getSourcePattern(), factTypes );
+            } else if (pattern instanceof FromCollectCompositeFactPattern) {
+                addFactTypes( ((FromCollectCompositeFactPattern) pattern).getRightPattern(), factTypes );
+            }
+        }
+    }
+
+    private static void addFactTypes(FieldConstraint constraint, Set<String> factTypes) {
+        if (constraint instanceof SingleFieldConstraint) {
+            //the field may be of a fact type itself, anything else is ignored when loading
+            factTypes.add( ((SingleFieldConstraint) constraint).getFieldType() );
+        } else if (constraint instanceof CompositeFieldConstraint) {
+            CompositeFieldConstraint composite = (CompositeFieldConstraint) constraint;
+            for (int i = 0; i < composite.getNumberOfConstraints(); i++) {
+                addFactTypes( composite.getConstraint( i ), factTypes );
+            }
+        }
+    }
+
+    private boolean isLazyFactTypeLoading() {
+        return ApplicationPreferences.getBooleanPref( LAZY_FACT_TYPE_LOADING );
+    }
     
     /**
      * Gets the last version of SCE for a package and then applies any pre-existing
@@ -114,12 +327,16 @@ public class SuggestionCompletionCache
      * @param done 
      */
     public void loadPackage(final String packageName, final Command done) {
+        loadPackage(packageName, false, done);
+    }
+
+    private void loadPackage(final String packageName, boolean factTypeNamesOnly, final Command done) {
         
         //get any pre-existing filter for this package
         final FactTypeFilter filter = this.filters.get(packageName);
         
         //refresh the package
-        this.refreshPackage(packageName, new Command() {
+        Command onRefresh = new Command() {
 
             public void execute() {
 
@@ -134,7 +351,12 @@ public class SuggestionCompletionCache
                     done.execute();
                 }
             }
-        });
+        };
+        if (factTypeNamesOnly) {
+            this.refreshPackageFactTypeNamesOnly(packageName, onRefresh);
+        } else {
+            this.refreshPackage(packageName, onRefresh);
+        }
     }
     
     /**
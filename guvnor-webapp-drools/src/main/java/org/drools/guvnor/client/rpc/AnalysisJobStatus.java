@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.client.rpc;
+
+import com.google.gwt.user.client.rpc.IsSerializable;
+
+/**
+ * The state of an asynchronous package verification job.
+ * The report is only set once the job has finished.
+ */
+public class AnalysisJobStatus implements IsSerializable {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String FINISHED = "FINISHED";
+    public static final String FAILED = "FAILED";
+
+    public String jobId;
+    public String state;
+
+    /**
+     * The asset formats that have been added to the verifier so far, in order,
+     * with the matching number of assets in resourceCounts.
+     */
+    public String[] resourceTypes = new String[0];
+    public int[] resourceCounts = new int[0];
+
+    public AnalysisReport report;
+    public String errorMessage;
+
+    public boolean isDone() {
+        return FINISHED.equals( state ) || FAILED.equals( state );
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.drools.guvnor.client.rpc;
 
+import java.util.List;
+
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.SerializationException;
 
@@ -39,4 +43,21 @@ public interface DroolsService
      *         a save will not be prevented this way - as its not an exception).
      */
     public ValidatedResponse validateModule(Module data) throws SerializationException;
+
+    /**
+     * Load a page of rows of a Guided Decision Table. Large tables are sent to
+     * the editor with their first page of rows, with the remainder loaded as
+     * the editor needs them.
+     * 
+     * @param uuid
+     *            The UUID of the Decision Table asset
+     * @param startRow
+     *            Index of the first row to load
+     * @param numberOfRows
+     *            Maximum number of rows to load
+     * @return The rows, empty if startRow is beyond the end of the table
+     */
+    public List<List<DTCellValue52>> loadDecisionTableRows(String uuid,
+                                                           int startRow,
+                                                           int numberOfRows) throws SerializationException;
 }
@@ -1,5 +1,9 @@
 package org.drools.guvnor.client.rpc;
 
+import java.util.List;
+
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.RemoteService;
 
@@ -20,4 +24,11 @@ public interface DroolsServiceAsync {
      *         a save will not be prevented this way - as its not an exception).
      */
     void validateModule(Module data, AsyncCallback<ValidatedResponse> async);
+
+    /**
+     * Load a page of rows of a Guided Decision Table. Large tables are sent to
+     * the editor with their first page of rows, with the remainder loaded as
+     * the editor needs them.
+     */
+    void loadDecisionTableRows(String uuid, int startRow, int numberOfRows, AsyncCallback<List<List<DTCellValue52>>> async);
 }
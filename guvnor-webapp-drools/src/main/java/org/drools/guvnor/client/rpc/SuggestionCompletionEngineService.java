@@ -19,6 +19,7 @@ package org.drools.guvnor.client.rpc;
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
 import com.google.gwt.user.client.rpc.SerializationException;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 
 
@@ -33,4 +34,16 @@ public interface SuggestionCompletionEngineService
      * made to a package, should blow away the cache.
      */
     public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName) throws SerializationException;
+
+    /**
+     * Loads a SuggestionCompletionEngine that only has the names of the fact types of the package.
+     * Use loadFactTypeDetails to add the fields, methods and enumerations of the fact types that are needed.
+     */
+    public SuggestionCompletionEngine loadFactTypeNamesOnlySuggestionCompletionEngine(String packageName) throws SerializationException;
+
+    /**
+     * Loads the fields, methods and enumerations of the given fact types of the package.
+     */
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String[] factTypes) throws SerializationException;
 }
@@ -2,6 +2,7 @@ package org.drools.guvnor.client.rpc;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.rpc.RemoteService;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 
 public interface SuggestionCompletionEngineServiceAsync {
@@ -11,4 +12,8 @@ public interface SuggestionCompletionEngineServiceAsync {
      * made to a package, should blow away the cache.
      */
     void loadSuggestionCompletionEngine(String packageName, AsyncCallback<SuggestionCompletionEngine> async);
+
+    void loadFactTypeNamesOnlySuggestionCompletionEngine(String packageName, AsyncCallback<SuggestionCompletionEngine> async);
+
+    void loadFactTypeDetails(String packageName, String[] factTypes, AsyncCallback<FactTypeDetails[]> async);
 }
@@ -38,4 +38,16 @@ public interface VerificationService
     public AnalysisReport verifyAssetWithoutVerifiersRules(Asset asset,
                                                            Set<WorkingSetConfigData> activeWorkingSets) throws SerializationException;
 
+    /**
+     * Queue an analysis of the package to run in the background.
+     * A push message of type "verificationJobFinished" with the job id is sent when it is done.
+     * @return the job id, to be used with getAnalysisJobStatus.
+     */
+    public String submitPackageAnalysis(String packageUUID) throws SerializationException;
+
+    /**
+     * Get the progress of an analysis job, including the report once it is finished.
+     */
+    public AnalysisJobStatus getAnalysisJobStatus(String jobId) throws SerializationException;
+
 }
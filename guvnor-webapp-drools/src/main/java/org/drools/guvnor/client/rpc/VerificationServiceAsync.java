@@ -31,4 +31,10 @@ public interface VerificationServiceAsync {
     void analysePackage(String packageUUID,
                         AsyncCallback<AnalysisReport> callback);
 
+    void submitPackageAnalysis(String packageUUID,
+                               AsyncCallback<String> callback);
+
+    void getAnalysisJobStatus(String jobId,
+                              AsyncCallback<AnalysisJobStatus> callback);
+
 }
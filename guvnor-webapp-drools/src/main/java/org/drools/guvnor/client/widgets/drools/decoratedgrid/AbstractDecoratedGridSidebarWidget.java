@@ -15,6 +15,7 @@
  */
 package org.drools.guvnor.client.widgets.drools.decoratedgrid;
 
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendInternalRowsEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.DeleteRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.InsertRowEvent;
@@ -38,6 +39,7 @@ public abstract class AbstractDecoratedGridSidebarWidget<M, T> extends Composite
     DeleteRowEvent.Handler,
     InsertRowEvent.Handler,
     AppendRowEvent.Handler,
+    AppendInternalRowsEvent.Handler,
     PasteRowsEvent.Handler,
     SetInternalModelEvent.Handler<M, T>,
     RowGroupingChangeEvent.Handler {
@@ -74,6 +76,8 @@ public abstract class AbstractDecoratedGridSidebarWidget<M, T> extends Composite
                              this );
         eventBus.addHandler( AppendRowEvent.TYPE,
                              this );
+        eventBus.addHandler( AppendInternalRowsEvent.TYPE,
+                             this );
         eventBus.addHandler( PasteRowsEvent.TYPE,
                              this );
         eventBus.addHandler( RowGroupingChangeEvent.TYPE,
@@ -20,11 +20,13 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendRowEve
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.ColumnResizeEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.DeleteRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.InsertRowEvent;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.LastRowVisibleEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.SelectedCellChangeEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.SetModelEvent;
 
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.dom.client.ScrollEvent;
 import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
@@ -55,6 +57,9 @@ public abstract class AbstractDecoratedGridWidget<M, T, C> extends Composite
     AppendRowEvent.Handler,
     SetModelEvent.Handler<M> {
 
+    //Number of rows from the end of the grid at which LastRowVisibleEvents are raised
+    private static final int                           LAST_ROWS_VISIBLE_THRESHOLD = 50;
+
     // Widgets for UI
     protected Panel                                    mainPanel;
     protected Panel                                    bodyPanel;
@@ -121,6 +126,13 @@ public abstract class AbstractDecoratedGridWidget<M, T, C> extends Composite
         scrollPanel = new ScrollPanel();
         scrollPanel.add( gridWidget );
         scrollPanel.addScrollHandler( getScrollHandler() );
+        scrollPanel.addScrollHandler( new ScrollHandler() {
+
+            public void onScroll(ScrollEvent event) {
+                assertViewport();
+            }
+
+        } );
 
         initialiseHeaderWidget();
         initialiseSidebarWidget();
@@ -147,6 +159,24 @@ public abstract class AbstractDecoratedGridWidget<M, T, C> extends Composite
                                + "px" );
         sidebarWidget.setHeight( scrollPanel.getElement().getClientHeight()
                                  + "px" );
+        assertViewport();
+    }
+
+    /**
+     * Inform the DecoratedGridWidget of the region visible within the
+     * ScrollPanel, so rows can be rendered as they are scrolled into view
+     */
+    protected void assertViewport() {
+        int top = scrollPanel.getVerticalScrollPosition();
+        int height = scrollPanel.getElement().getClientHeight();
+        gridWidget.setViewport( top,
+                                height );
+
+        //Let interested parties know when the end of the data is approached, so they can supply more
+        int remaining = scrollPanel.getElement().getScrollHeight() - (top + height);
+        if ( remaining <= resources.rowHeight() * LAST_ROWS_VISIBLE_THRESHOLD ) {
+            eventBus.fireEvent( new LastRowVisibleEvent() );
+        }
     }
 
     /**
@@ -31,6 +31,7 @@ import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicData;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicDataRow;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.GroupedDynamicDataRow;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.RowMapper;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendInternalRowsEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.CellStateChangedEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.CellStateChangedEvent.CellStateOperation;
@@ -77,6 +78,7 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
     DeleteRowEvent.Handler,
     InsertRowEvent.Handler,
     AppendRowEvent.Handler,
+    AppendInternalRowsEvent.Handler,
     CopyRowsEvent.Handler,
     PasteRowsEvent.Handler,
     DeleteColumnEvent.Handler,
@@ -266,6 +268,8 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
                              this );
         eventBus.addHandler( AppendRowEvent.TYPE,
                              this );
+        eventBus.addHandler( AppendInternalRowsEvent.TYPE,
+                             this );
         eventBus.addHandler( CopyRowsEvent.TYPE,
                              this );
         eventBus.addHandler( PasteRowsEvent.TYPE,
@@ -820,6 +824,20 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
      */
     abstract void showColumn(int index);
 
+    /**
+     * Set the region of the grid visible to the user. Implementations that
+     * render rows on demand use this to determine which rows need rendering.
+     * 
+     * @param top
+     *            Offset of the visible region from the top of the grid, in
+     *            pixels
+     * @param height
+     *            Height of the visible region, in pixels
+     */
+    void setViewport(int top,
+                     int height) {
+    }
+
     /**
      * Select a single cell. If the cell is merged the selection is extended to
      * include all merged cells.
@@ -911,6 +929,39 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
                    rowData );
     }
 
+    public void onAppendInternalRows(AppendInternalRowsEvent event) {
+        List<DynamicDataRow> rows = event.getRows();
+        if ( rows.isEmpty() ) {
+            return;
+        }
+
+        // Clear any selections
+        clearSelection();
+
+        int index = data.size();
+        data.addRows( rows );
+
+        // Partial redraw
+        if ( !data.isMerged() ) {
+            // Only new rows when not merged
+            for ( int iRow = index; iRow < data.size(); iRow++ ) {
+                createRowElement( iRow,
+                                  data.get( iRow ) );
+            }
+        } else {
+            // New rows and merged cells of the last existing row they join
+            for ( int iRow = index; iRow < data.size(); iRow++ ) {
+                createEmptyRowElement( iRow );
+            }
+            int minRedrawRow = index;
+            if ( index > 0 ) {
+                minRedrawRow = findMinRedrawRow( index - 1 );
+            }
+            redrawRows( minRedrawRow,
+                        data.size() - 1 );
+        }
+    }
+
     public void onCopyRows(CopyRowsEvent event) {
         copiedRows.clear();
         //Determine set of *unique* logical (grouped) rows from absolute indexes
@@ -1262,11 +1313,12 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
             changedRow = new ArrayList<CellValue< ? extends Comparable< ? >>>();
             Coordinate c = cell.getCoordinate();
             if ( !columns.get( c.getCol() ).isSystemControlled() ) {
-                data.set( c,
-                          value );
+                //Clear the otherwise state first as it affects merging of the new value
                 if ( value != null ) {
                     cell.removeState( CellState.OTHERWISE );
                 }
+                data.set( c,
+                          value );
 
                 //Copy data that is changing for an event to update the underlying model
                 if ( cell instanceof GroupedCellValue ) {
@@ -1339,8 +1391,7 @@ public abstract class AbstractMergableGridWidget<M, T> extends Widget
             //If the data is merged changes to the cells' value can cause the need for a greater range of 
             //rows to be redrawn as a cell's new value could cause the merged span to increase. This is also 
             //the only mechanism available to update multiple individual cells' values when multiple 
-            //cells are selected.
-            data.assertModelMerging();
+            //cells are selected. Merging itself has already been updated, cell by cell, by DynamicData.
 
             // Partial redraw
             int baseRowIndex = selections.first().getCoordinate().getRow();
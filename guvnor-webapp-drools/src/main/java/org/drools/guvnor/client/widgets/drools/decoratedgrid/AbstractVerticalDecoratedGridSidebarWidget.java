@@ -19,6 +19,7 @@ import java.util.ArrayList;
 
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicData;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.RowMapper;
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendInternalRowsEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.AppendRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.DeleteRowEvent;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.events.InsertRowEvent;
@@ -419,6 +420,12 @@ public abstract class AbstractVerticalDecoratedGridSidebarWidget<M, T> extends A
         selectors.appendRow();
     }
 
+    public void onAppendInternalRows(AppendInternalRowsEvent event) {
+        for ( int iRow = 0; iRow < event.getRows().size(); iRow++ ) {
+            selectors.appendRow();
+        }
+    }
+
     public void onPasteRows(PasteRowsEvent event) {
         int iRow = rowMapper.mapToMergedRow( event.getTargetRowIndex() );
         selectors.insertRowBefore( iRow );
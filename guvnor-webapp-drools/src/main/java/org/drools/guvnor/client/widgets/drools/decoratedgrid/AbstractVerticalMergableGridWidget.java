@@ -49,8 +49,24 @@ import com.google.gwt.user.client.Event;
  */
 public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractMergableGridWidget<M, T> {
 
+    //Tables with at least this many rows only render rows as they are scrolled into view
+    private static final int         VIRTUALISATION_THRESHOLD = 500;
+
+    //Number of rows rendered either side of those visible
+    private static final int         VIRTUALISATION_BUFFER    = 50;
+
+    //Number of rows rendered before the height of the viewport is known
+    private static final int         DEFAULT_VISIBLE_ROWS     = 50;
+
+    //Property set on TableRowElements that have not been rendered
+    private static final String      PLACEHOLDER_PROPERTY     = "__placeholder";
+
     //Deferred binding creates an appropriate class depending on browser
-    private CellHeightCalculatorImpl cellHeightCalculator = GWT.create( CellHeightCalculatorImpl.class );
+    private CellHeightCalculatorImpl cellHeightCalculator     = GWT.create( CellHeightCalculatorImpl.class );
+
+    private boolean                  isVirtualised            = false;
+    private int                      viewportTop              = 0;
+    private int                      viewportHeight           = 0;
 
     public AbstractVerticalMergableGridWidget(ResourcesProvider<T> resources,
                                               AbstractCellFactory<T> cellFactory,
@@ -164,14 +180,20 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
         TableSectionElement nbody = Document.get().createTBodyElement();
 
-        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+        //Large tables have placeholders for every row, only rendering those visible
+        isVirtualised = data.size() >= VIRTUALISATION_THRESHOLD;
 
-            DynamicDataRow rowData = data.get( iRow );
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
 
             TableRowElement tre = Document.get().createTRElement();
             tre.setClassName( getRowStyle( iRow ) );
-            populateTableRowElement( tre,
-                                     rowData );
+            if ( isVirtualised ) {
+                makePlaceholderRowElement( tre );
+            } else {
+                DynamicDataRow rowData = data.get( iRow );
+                populateTableRowElement( tre,
+                                         rowData );
+            }
             nbody.appendChild( tre );
         }
 
@@ -180,6 +202,20 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
                             tbody );
         tbody = nbody;
 
+        if ( isVirtualised ) {
+            renderVisibleRows();
+        }
+
+    }
+
+    @Override
+    void setViewport(int top,
+                     int height) {
+        this.viewportTop = top;
+        this.viewportHeight = height;
+        if ( isVirtualised ) {
+            renderVisibleRows();
+        }
     }
 
     @Override
@@ -203,6 +239,11 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
         for ( int iRow = 0; iRow < data.size(); iRow++ ) {
             TableRowElement tre = tbody.getRows().getItem( iRow );
+
+            //Placeholders are populated with all columns when rendered
+            if ( isPlaceholder( tre ) ) {
+                continue;
+            }
             DynamicDataRow rowData = data.get( iRow );
             redrawTableRowElement( rowData,
                                    tre,
@@ -228,6 +269,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
                     .get( iCol );
             Coordinate c = cell.getHtmlCoordinate();
             TableRowElement tre = tbody.getRows().getItem( c.getRow() );
+            if ( isPlaceholder( tre ) ) {
+                continue;
+            }
             TableCellElement tce = tre.getCells().getItem( c.getCol() );
             DivElement div = tce.getFirstChild().<DivElement> cast();
             DivElement divText = tce.getFirstChild().getFirstChild().<DivElement> cast();
@@ -258,6 +302,82 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         return null;
     }
 
+    // Mark a TableRowElement as a placeholder for a row yet to be rendered.
+    // Placeholders have the same height as rendered rows so the grid's
+    // scrollbars reflect the size of the whole table.
+    private void makePlaceholderRowElement(TableRowElement tre) {
+        tre.getStyle().setHeight( resources.rowHeight(),
+                                  Unit.PX );
+        tre.setPropertyBoolean( PLACEHOLDER_PROPERTY,
+                                true );
+    }
+
+    private boolean isPlaceholder(TableRowElement tre) {
+        return tre.getPropertyBoolean( PLACEHOLDER_PROPERTY );
+    }
+
+    // Render rows within the viewport, and a buffer either side
+    private void renderVisibleRows() {
+        if ( data.size() == 0 ) {
+            return;
+        }
+        int rowHeight = Math.max( resources.rowHeight(),
+                                  1 );
+        int visibleRows = DEFAULT_VISIBLE_ROWS;
+        if ( viewportHeight > 0 ) {
+            visibleRows = viewportHeight / rowHeight + 1;
+        }
+        int firstVisibleRow = viewportTop / rowHeight;
+        int startRowIndex = Math.max( firstVisibleRow - VIRTUALISATION_BUFFER,
+                                      0 );
+        int endRowIndex = Math.min( firstVisibleRow + visibleRows + VIRTUALISATION_BUFFER,
+                                    data.size() - 1 );
+        renderRows( startRowIndex,
+                    endRowIndex );
+    }
+
+    // Populate placeholders between the given (inclusive) rows. Merged cells
+    // are rendered in the first row they span, so rendering is extended
+    // upwards to include the first row of any merged cells spanning the range.
+    private void renderRows(int startRowIndex,
+                            int endRowIndex) {
+        if ( startRowIndex > endRowIndex ) {
+            return;
+        }
+        int minRowIndex = startRowIndex;
+        for ( int iRow = startRowIndex; iRow >= minRowIndex; iRow-- ) {
+            minRowIndex = Math.min( minRowIndex,
+                                    findMergedCellStartRow( iRow ) );
+        }
+
+        for ( int iRow = minRowIndex; iRow <= endRowIndex; iRow++ ) {
+            TableRowElement tre = tbody.getRows().getItem( iRow );
+            if ( isPlaceholder( tre ) ) {
+                tre.setPropertyBoolean( PLACEHOLDER_PROPERTY,
+                                        false );
+                populateTableRowElement( tre,
+                                         data.get( iRow ) );
+            }
+        }
+    }
+
+    // Find the first row of the merged cells spanning a row. Merged cells
+    // share the HTML coordinate of the first cell in the merged block.
+    private int findMergedCellStartRow(int iRow) {
+        int minRowIndex = iRow;
+        DynamicDataRow rowData = data.get( iRow );
+        for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
+            if ( columns.get( iCol ).isVisible() ) {
+                CellValue< ? extends Comparable< ? >> cell = rowData.get( iCol );
+                if ( cell.getRowSpan() == 0 ) {
+                    minRowIndex = Math.min( minRowIndex,
+                                            cell.getHtmlCoordinate().getRow() );
+                }
+            }
+        }
+        return minRowIndex;
+    }
+
     // Row styles need to be re-applied after inserting and deleting rows
     private void fixRowStyles(int iRow) {
         while ( iRow < tbody.getChildCount() ) {
@@ -581,6 +701,12 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
                                 tbody.getChild( iRow ) );
         }
 
+        //Merged cells spanning the redrawn rows may start in a placeholder
+        if ( isVirtualised ) {
+            renderRows( startRedrawIndex,
+                        startRedrawIndex );
+        }
+
         fixRowStyles( startRedrawIndex );
     }
 
@@ -645,6 +771,9 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
             if ( cell.getRowSpan() > 0 ) {
                 Coordinate hc = cell.getHtmlCoordinate();
                 TableRowElement tre = tbody.getRows().getItem( hc.getRow() );
+                if ( isPlaceholder( tre ) ) {
+                    continue;
+                }
                 TableCellElement tce = tre.getCells().getItem( hc.getCol() );
                 tre.removeChild( tce );
             }
@@ -660,6 +789,12 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
         Coordinate hc = cell.getHtmlCoordinate();
         TableRowElement tre = tbody.getRows().getItem( hc.getRow() )
                 .<TableRowElement> cast();
+
+        //Selections can move beyond the rows rendered, e.g. keyboard navigation
+        if ( isPlaceholder( tre ) ) {
+            renderRows( hc.getRow(),
+                        hc.getRow() );
+        }
         TableCellElement tce = tre.getCells().getItem( hc.getCol() )
                 .<TableCellElement> cast();
 
@@ -685,14 +820,16 @@ public abstract class AbstractVerticalMergableGridWidget<M, T> extends AbstractM
 
         for ( int iRow = 0; iRow < data.size(); iRow++ ) {
             DynamicDataRow rowData = data.get( iRow );
+            CellValue< ? extends Comparable< ? >> cell = rowData.get( index );
+            Coordinate hc = cell.getHtmlCoordinate();
+            TableRowElement tre = tbody.getRows().getItem( hc.getRow() );
+            if ( isPlaceholder( tre ) ) {
+                continue;
+            }
+
             TableCellElement tce = makeTableCellElement( index,
                                                          rowData );
             if ( tce != null ) {
-
-                CellValue< ? extends Comparable< ? >> cell = rowData.get( index );
-                Coordinate hc = cell.getHtmlCoordinate();
-
-                TableRowElement tre = tbody.getRows().getItem( hc.getRow() );
                 TableCellElement ntce = tre.insertCell( hc.getCol() );
                 tre.replaceChild( tce,
                                   ntce );
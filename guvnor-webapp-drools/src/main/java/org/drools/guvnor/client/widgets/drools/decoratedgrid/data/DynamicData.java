@@ -137,6 +137,72 @@ public class DynamicData
                 rowData );
     }
 
+    /**
+     * Add rows of data at the end of the table. Only the new rows, and when
+     * merged the blocks of the last existing row they could join, are merged
+     * and indexed.
+     *
+     * @param rows
+     */
+    public void addRows(List<DynamicDataRow> rows) {
+        if ( rows.isEmpty() ) {
+            return;
+        }
+        final int index = data.size();
+        data.addAll( rows );
+
+        //Grouped cells are never merged with their neighbours, so fall back to the whole model
+        if ( index == 0 || (isMerged && isGrouped()) ) {
+            assertModelMerging();
+            return;
+        }
+
+        //New rows start unmerged
+        for ( int iRow = index; iRow < data.size(); iRow++ ) {
+            DynamicDataRow row = data.get( iRow );
+            for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+                CellValue< ? > cell = row.get( iCol );
+                Coordinate c = new Coordinate( iRow,
+                                               iCol );
+                cell.setCoordinate( c );
+                cell.setHtmlCoordinate( c );
+                cell.setPhysicalCoordinate( c );
+                cell.setRowSpan( 1 );
+            }
+        }
+        if ( !isMerged ) {
+            assertModelIndexes( index,
+                                data.size() - 1 );
+            return;
+        }
+
+        //Merge each column from the start of the merged block containing the last existing row
+        final int COLUMNS = data.get( 0 ).size();
+        int minRowIndex = index - 1;
+        for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
+            int iStartRowIndex = index - 1;
+            while ( iStartRowIndex > 0 && data.get( iStartRowIndex ).get( iCol ).getRowSpan() == 0 ) {
+                iStartRowIndex--;
+            }
+            mergeColumn( iCol,
+                         iStartRowIndex,
+                         data.size() - 1 );
+            minRowIndex = Math.min( minRowIndex,
+                                    iStartRowIndex );
+        }
+
+        //Physical coordinates are re-established by indexing
+        for ( int iRow = minRowIndex; iRow < index; iRow++ ) {
+            DynamicDataRow row = data.get( iRow );
+            for ( int iPhysicalCol = 0; iPhysicalCol < row.size(); iPhysicalCol++ ) {
+                row.get( iPhysicalCol ).setPhysicalCoordinate( new Coordinate( iRow,
+                                                                               iPhysicalCol ) );
+            }
+        }
+        assertModelIndexes( minRowIndex,
+                            data.size() - 1 );
+    }
+
     /**
      * Apply grouping by collapsing applicable rows
      * 
@@ -332,7 +398,7 @@ public class DynamicData
             throw new IllegalArgumentException( "c cannot be null" );
         }
         data.get( c.getRow() ).get( c.getCol() ).setValue( value );
-        assertModelMerging();
+        assertCellMerging( c );
     }
 
     /**
@@ -458,47 +524,115 @@ public class DynamicData
     // in which case the cell at physical coordinate (0,1) would have a (3)
     // mapping back to (0,0).
     private void assertModelIndexes() {
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            assertRowIndexes( iRow );
+        }
+    }
 
-        if ( data.size() == 0 ) {
-            return;
+    // Re-index rows from minRowIndex onwards. Rows after maxRowIndex only
+    // need re-indexing while their HTML coordinates continue to change, as a
+    // row's indexes depend solely upon its own merging and the row above.
+    private void assertModelIndexes(int minRowIndex,
+                                    int maxRowIndex) {
+        for ( int iRow = minRowIndex; iRow < data.size(); iRow++ ) {
+            boolean isChanged = assertRowIndexes( iRow );
+            if ( !isChanged && iRow > maxRowIndex ) {
+                break;
+            }
         }
+    }
 
-        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
-            DynamicDataRow row = data.get( iRow );
+    // Index a single row, returning true if any HTML coordinate changed
+    private boolean assertRowIndexes(int iRow) {
 
-            int colCount = 0;
-            for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+        boolean isChanged = false;
+        DynamicDataRow row = data.get( iRow );
+
+        int colCount = 0;
+        for ( int iCol = 0; iCol < row.size(); iCol++ ) {
 
-                int newRow = iRow;
-                int newCol = colCount;
-                CellValue< ? extends Comparable< ? >> indexCell = row.get( iCol );
+            int newRow = iRow;
+            int newCol = colCount;
+            CellValue< ? extends Comparable< ? >> indexCell = row.get( iCol );
 
-                // Don't index hidden columns; indexing is used to
-                // map between HTML elements and the data behind
-                if ( visibleColumns.get( iCol ) ) {
+            // Don't index hidden columns; indexing is used to
+            // map between HTML elements and the data behind
+            if ( visibleColumns.get( iCol ) ) {
 
-                    if ( indexCell.getRowSpan() != 0 ) {
-                        newRow = iRow;
-                        newCol = colCount++;
+                if ( indexCell.getRowSpan() != 0 ) {
+                    newRow = iRow;
+                    newCol = colCount++;
 
-                        CellValue< ? extends Comparable< ? >> cell = data.get( newRow ).get( newCol );
-                        cell.setPhysicalCoordinate( new Coordinate( iRow,
-                                                                    iCol ) );
+                    CellValue< ? extends Comparable< ? >> cell = data.get( newRow ).get( newCol );
+                    cell.setPhysicalCoordinate( new Coordinate( iRow,
+                                                                iCol ) );
 
-                    } else {
-                        DynamicDataRow priorRow = data.get( iRow - 1 );
-                        CellValue< ? extends Comparable< ? >> priorCell = priorRow.get( iCol );
-                        Coordinate priorHtmlCoordinate = priorCell.getHtmlCoordinate();
-                        newRow = priorHtmlCoordinate.getRow();
-                        newCol = priorHtmlCoordinate.getCol();
-                    }
+                } else {
+                    DynamicDataRow priorRow = data.get( iRow - 1 );
+                    CellValue< ? extends Comparable< ? >> priorCell = priorRow.get( iCol );
+                    Coordinate priorHtmlCoordinate = priorCell.getHtmlCoordinate();
+                    newRow = priorHtmlCoordinate.getRow();
+                    newCol = priorHtmlCoordinate.getCol();
                 }
-                indexCell.setCoordinate( new Coordinate( iRow,
-                                                         iCol ) );
-                indexCell.setHtmlCoordinate( new Coordinate( newRow,
-                                                             newCol ) );
             }
+            Coordinate htmlCoordinate = new Coordinate( newRow,
+                                                        newCol );
+            if ( !htmlCoordinate.equals( indexCell.getHtmlCoordinate() ) ) {
+                isChanged = true;
+            }
+            indexCell.setCoordinate( new Coordinate( iRow,
+                                                     iCol ) );
+            indexCell.setHtmlCoordinate( htmlCoordinate );
         }
+        return isChanged;
+    }
+
+    // Update merging following a change to the value of a single cell. Only
+    // the merged blocks either side of the cell can be affected, so merging is
+    // re-calculated for those rows of the cell's column alone and indexes are
+    // updated until they are no longer affected by the change.
+    private void assertCellMerging(Coordinate c) {
+
+        if ( !isMerged ) {
+            return;
+        }
+
+        //Grouped cells are never merged with their neighbours, so fall back to the whole model
+        if ( isGrouped() ) {
+            assertModelMerging();
+            return;
+        }
+
+        final int iCol = c.getCol();
+
+        //Start of the merged block containing the row above
+        int minRowIndex = Math.max( c.getRow() - 1,
+                                    0 );
+        while ( minRowIndex > 0 && data.get( minRowIndex ).get( iCol ).getRowSpan() == 0 ) {
+            minRowIndex--;
+        }
+
+        //End of the merged block containing the row below
+        int maxRowIndex = Math.min( c.getRow() + 1,
+                                    data.size() - 1 );
+        while ( maxRowIndex < data.size() - 1 && data.get( maxRowIndex + 1 ).get( iCol ).getRowSpan() == 0 ) {
+            maxRowIndex++;
+        }
+
+        //Physical coordinates are re-established by indexing
+        for ( int iRow = minRowIndex; iRow <= maxRowIndex; iRow++ ) {
+            DynamicDataRow row = data.get( iRow );
+            for ( int iPhysicalCol = 0; iPhysicalCol < row.size(); iPhysicalCol++ ) {
+                row.get( iPhysicalCol ).setPhysicalCoordinate( new Coordinate( iRow,
+                                                                               iPhysicalCol ) );
+            }
+        }
+
+        mergeColumn( iCol,
+                     minRowIndex,
+                     maxRowIndex );
+        assertModelIndexes( minRowIndex,
+                            maxRowIndex );
     }
 
     /**
@@ -507,7 +641,6 @@ public class DynamicData
      * to the add/remove methods provided publicly herein, such as bulk move
      * operations.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public void assertModelMerging() {
 
         if ( data.size() == 0 ) {
@@ -522,71 +655,12 @@ public class DynamicData
         //Only apply merging if merged
         if ( isMerged ) {
 
-            int minRowIndex = 0;
-            int maxRowIndex = data.size();
-
-            //Add an empty row to the end of the data to simplify detection of merged cells that run to the end of the table
-            DynamicDataRow blankRow = new DynamicDataRow();
-            for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
-                CellValue cv = new CellValue( null );
-                Coordinate c = new Coordinate( data.size(),
-                                               iCol );
-                cv.setCoordinate( c );
-                cv.setHtmlCoordinate( c );
-                cv.setPhysicalCoordinate( c );
-                blankRow.add( cv );
-            }
-            data.add( blankRow );
-            maxRowIndex++;
-
             //Look in columns for cells with identical values
             for ( int iCol = 0; iCol < COLUMNS; iCol++ ) {
-                CellValue< ? > cell1 = data.get( minRowIndex ).get( iCol );
-                CellValue< ? > cell2 = null;
-                for ( int iRow = minRowIndex + 1; iRow < maxRowIndex; iRow++ ) {
-                    cell1.setRowSpan( 1 );
-                    cell2 = data.get( iRow ).get( iCol );
-
-                    //Merge if both cells contain the same value and neither is grouped
-                    boolean bSplit = true;
-                    if ( !cell1.isEmpty() && !cell2.isEmpty() ) {
-                        if ( cell1.getValue().equals( cell2.getValue() ) ) {
-                            bSplit = false;
-                            if ( cell1 instanceof GroupedCellValue ) {
-                                bSplit = true;
-                            }
-                            if ( cell2 instanceof GroupedCellValue ) {
-                                bSplit = true;
-                            }
-                        }
-                    } else if ( cell1.isOtherwise() && cell2.isOtherwise() ) {
-                        bSplit = false;
-                        if ( cell1 instanceof GroupedCellValue ) {
-                            GroupedCellValue gcv = (GroupedCellValue) cell1;
-                            if ( gcv.hasMultipleValues() ) {
-                                bSplit = true;
-                            }
-                        }
-                        if ( cell2 instanceof GroupedCellValue ) {
-                            GroupedCellValue gcv = (GroupedCellValue) cell2;
-                            if ( gcv.hasMultipleValues() ) {
-                                bSplit = true;
-                            }
-                        }
-                    }
-
-                    if ( bSplit ) {
-                        mergeCells( cell1,
-                                    cell2 );
-                        cell1 = cell2;
-                    }
-
-                }
+                mergeColumn( iCol,
+                             0,
+                             data.size() - 1 );
             }
-
-            //Remove dummy blank row
-            data.remove( blankRow );
-
         }
 
         // Set indexes after merging has been corrected
@@ -648,19 +722,75 @@ public class DynamicData
         return nc;
     }
 
-    //Merge between the two provided cells
-    private void mergeCells(CellValue< ? > cell1,
+    //Merge cells with identical values in a column between the two (inclusive) rows
+    private void mergeColumn(int iColIndex,
+                             int minRowIndex,
+                             int maxRowIndex) {
+        int iStartRowIndex = minRowIndex;
+        CellValue< ? > cell1 = data.get( minRowIndex ).get( iColIndex );
+        for ( int iRow = minRowIndex + 1; iRow <= maxRowIndex + 1; iRow++ ) {
+
+            //A merged block always ends at the last row
+            CellValue< ? > cell2 = null;
+            if ( iRow <= maxRowIndex ) {
+                cell2 = data.get( iRow ).get( iColIndex );
+            }
+
+            if ( cell2 == null || isSplit( cell1,
+                                           cell2 ) ) {
+                mergeCells( iColIndex,
+                            iStartRowIndex,
+                            iRow );
+                cell1 = cell2;
+                iStartRowIndex = iRow;
+            }
+        }
+    }
+
+    //Merge if both cells contain the same value and neither is grouped
+    @SuppressWarnings("rawtypes")
+    private boolean isSplit(CellValue< ? > cell1,
                             CellValue< ? > cell2) {
-        int iStartRowIndex = cell1.getCoordinate().getRow();
-        int iEndRowIndex = cell2.getCoordinate().getRow();
-        int iColIndex = cell1.getCoordinate().getCol();
+        boolean bSplit = true;
+        if ( !cell1.isEmpty() && !cell2.isEmpty() ) {
+            if ( cell1.getValue().equals( cell2.getValue() ) ) {
+                bSplit = false;
+                if ( cell1 instanceof GroupedCellValue ) {
+                    bSplit = true;
+                }
+                if ( cell2 instanceof GroupedCellValue ) {
+                    bSplit = true;
+                }
+            }
+        } else if ( cell1.isOtherwise() && cell2.isOtherwise() ) {
+            bSplit = false;
+            if ( cell1 instanceof GroupedCellValue ) {
+                GroupedCellValue gcv = (GroupedCellValue) cell1;
+                if ( gcv.hasMultipleValues() ) {
+                    bSplit = true;
+                }
+            }
+            if ( cell2 instanceof GroupedCellValue ) {
+                GroupedCellValue gcv = (GroupedCellValue) cell2;
+                if ( gcv.hasMultipleValues() ) {
+                    bSplit = true;
+                }
+            }
+        }
+        return bSplit;
+    }
+
+    //Merge rows of a column between the start (inclusive) and end (exclusive) rows
+    private void mergeCells(int iColIndex,
+                            int iStartRowIndex,
+                            int iEndRowIndex) {
 
         //Any rows that are grouped need row span of zero
         for ( int iRow = iStartRowIndex; iRow < iEndRowIndex; iRow++ ) {
             DynamicDataRow row = data.get( iRow );
             row.get( iColIndex ).setRowSpan( 0 );
         }
-        cell1.setRowSpan( iEndRowIndex - iStartRowIndex );
+        data.get( iStartRowIndex ).get( iColIndex ).setRowSpan( iEndRowIndex - iStartRowIndex );
 
     }
 
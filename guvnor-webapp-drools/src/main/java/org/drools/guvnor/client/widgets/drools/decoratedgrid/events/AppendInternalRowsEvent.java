@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.drools.guvnor.client.widgets.drools.decoratedgrid.events;
+
+import java.util.List;
+
+import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.DynamicDataRow;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * An event to append rows of data to the end of the table
+ */
+public class AppendInternalRowsEvent extends GwtEvent<AppendInternalRowsEvent.Handler> {
+
+    public static interface Handler
+        extends
+        EventHandler {
+
+        void onAppendInternalRows(AppendInternalRowsEvent event);
+    }
+
+    public static final Type<AppendInternalRowsEvent.Handler> TYPE = new Type<AppendInternalRowsEvent.Handler>();
+
+    private List<DynamicDataRow> rows;
+
+    public AppendInternalRowsEvent(List<DynamicDataRow> rows) {
+        this.rows = rows;
+    }
+
+    public List<DynamicDataRow> getRows() {
+        return this.rows;
+    }
+
+    @Override
+    public Type<AppendInternalRowsEvent.Handler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(AppendInternalRowsEvent.Handler handler) {
+        handler.onAppendInternalRows( this );
+    }
+
+}
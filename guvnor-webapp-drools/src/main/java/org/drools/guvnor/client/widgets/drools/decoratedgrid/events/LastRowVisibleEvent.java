@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.drools.guvnor.client.widgets.drools.decoratedgrid.events;
+
+import com.google.gwt.event.shared.EventHandler;
+import com.google.gwt.event.shared.GwtEvent;
+
+/**
+ * An event signalling the last rows of the grid have been scrolled into view
+ */
+public class LastRowVisibleEvent extends GwtEvent<LastRowVisibleEvent.Handler> {
+
+    public static interface Handler
+        extends
+        EventHandler {
+
+        void onLastRowVisible(LastRowVisibleEvent event);
+    }
+
+    public static final Type<LastRowVisibleEvent.Handler> TYPE = new Type<LastRowVisibleEvent.Handler>();
+
+    @Override
+    public Type<LastRowVisibleEvent.Handler> getAssociatedType() {
+        return TYPE;
+    }
+
+    @Override
+    protected void dispatch(LastRowVisibleEvent.Handler handler) {
+        handler.onLastRowVisible( this );
+    }
+
+}
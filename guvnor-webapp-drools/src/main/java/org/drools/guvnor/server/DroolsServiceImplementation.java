@@ -19,9 +19,14 @@ package org.drools.guvnor.server;
 import com.google.gwt.user.client.rpc.SerializationException;
 import org.drools.guvnor.client.rpc.*;
 import org.drools.guvnor.server.cache.RuleBaseCache;
+import org.drools.guvnor.server.contenthandler.ContentHandler;
+import org.drools.guvnor.server.contenthandler.ContentManager;
+import org.drools.guvnor.server.contenthandler.drools.GuidedDTContentHandler;
 import org.drools.guvnor.server.util.BRMSSuggestionCompletionLoader;
 import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
 import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.repository.AssetItem;
 import org.drools.repository.RulesRepository;
 import org.jboss.seam.remoting.annotations.WebRemote;
 import org.jboss.seam.security.annotations.LoggedIn;
@@ -30,6 +35,7 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.util.Iterator;
+import java.util.List;
 
 @ApplicationScoped
 public class DroolsServiceImplementation
@@ -105,6 +111,24 @@ public class DroolsServiceImplementation
         return validateBRMSSuggestionCompletionLoaderResponse(loader);
     }
 
+    @WebRemote
+    @LoggedIn
+    public List<List<DTCellValue52>> loadDecisionTableRows(String uuid,
+                                                           int startRow,
+                                                           int numberOfRows) throws SerializationException {
+        AssetItem item = rulesRepository.loadAssetByUUID(uuid);
+        serviceSecurity.checkSecurityPackageReadOnlyWithPackageUuid(item.getModule().getUUID());
+
+        ContentHandler handler = ContentManager.getHandler(item.getFormat());
+        if (!(handler instanceof GuidedDTContentHandler)) {
+            throw new DetailedSerializationException("Unable to load rows",
+                    "Asset [" + item.getName() + "] is not a guided decision table.");
+        }
+        return ((GuidedDTContentHandler) handler).loadRows(item,
+                startRow,
+                numberOfRows);
+    }
+
     BRMSSuggestionCompletionLoader createBRMSSuggestionCompletionLoader() {
         return new BRMSSuggestionCompletionLoader();
     }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.server;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.server.util.DroolsHeader;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
+import org.drools.repository.AssetItem;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.events.CheckinEvent;
+import org.drools.repository.events.StorageEventManager;
+
+/**
+ * Keeps the built SuggestionCompletionEngine of each module, so opening an editor does not rebuild
+ * the model class loader and reflect over every fact type.
+ *
+ * An entry is keyed on the versions of everything that goes into the engine: the header, the
+ * declared models, the model jars, the enumerations and the DSLs. When only enumerations or DSLs
+ * have changed, the fact type model is reused and only those are reloaded. Enumerations that call
+ * out to code (a helper class, a database) are evaluated again on every load, as their lists can
+ * change without the enumeration asset changing.
+ *
+ * The engines handed out are shared between callers and must not be changed.
+ */
+@ApplicationScoped
+public class SuggestionCompletionEngineCache {
+
+    private static final LoggingHelper log = LoggingHelper.getLogger( SuggestionCompletionEngineCache.class );
+
+    private final Map<String, CachedEngine> engines = new ConcurrentHashMap<String, CachedEngine>();
+
+    private SuggestionCompletionEngineLoaderInitializer loaderInitializer = new SuggestionCompletionEngineLoaderInitializer();
+
+    private final CheckinEvent checkinListener = new CheckinEvent() {
+        public void afterCheckin(AssetItem item) {
+            if ( isEngineAsset( item.getFormat() ) ) {
+                invalidate( item.getModuleName() );
+            }
+        }
+    };
+
+    @PostConstruct
+    public void registerCheckinListener() {
+        StorageEventManager.registerCheckinEvent( checkinListener );
+    }
+
+    @PreDestroy
+    public void unregisterCheckinListener() {
+        StorageEventManager.unregisterCheckinEvent( checkinListener );
+    }
+
+    /**
+     * The engine returned is shared, it must be treated as read only.
+     */
+    public SuggestionCompletionEngine getSuggestionCompletionEngine(ModuleItem packageItem) {
+        String modelVersion = getModelVersion( packageItem );
+        String extensionsVersion = getExtensionsVersion( packageItem );
+        boolean dynamicEnums = hasDynamicEnums( packageItem );
+
+        CachedEngine cached = engines.get( packageItem.getName() );
+        if ( cached != null && cached.modelVersion.equals( modelVersion ) ) {
+            if ( cached.engine != null && cached.extensionsVersion.equals( extensionsVersion ) ) {
+                return cached.engine;
+            }
+            log.debug( "Reloading enumerations and DSLs for " + packageItem.getName() );
+            SuggestionCompletionEngine engine = loaderInitializer.loadFor( cached.modelEngine,
+                                                                           packageItem );
+            engines.put( packageItem.getName(),
+                         new CachedEngine( modelVersion,
+                                           extensionsVersion,
+                                           cached.modelEngine,
+                                           dynamicEnums ? null : engine ) );
+            return engine;
+        }
+
+        log.debug( "Building suggestion completion engine for " + packageItem.getName() );
+        SuggestionCompletionEngine modelEngine = loaderInitializer.loadModelFor( packageItem );
+        SuggestionCompletionEngine engine = loaderInitializer.loadFor( modelEngine,
+                                                                       packageItem );
+        engines.put( packageItem.getName(),
+                     new CachedEngine( modelVersion,
+                                       extensionsVersion,
+                                       modelEngine,
+                                       dynamicEnums ? null : engine ) );
+        return engine;
+    }
+
+    public void invalidate(String moduleName) {
+        engines.remove( moduleName );
+    }
+
+    public void invalidateAll() {
+        engines.clear();
+    }
+
+    static boolean isEngineAsset(String format) {
+        return AssetFormats.MODEL.equals( format )
+               || AssetFormats.DRL_MODEL.equals( format )
+               || AssetFormats.ENUMERATION.equals( format )
+               || AssetFormats.DSL.equals( format );
+    }
+
+    private String getModelVersion(ModuleItem packageItem) {
+        String header = DroolsHeader.getDroolsHeader( packageItem );
+        StringBuilder version = new StringBuilder();
+        version.append( packageItem.getUUID() ).append( ';' );
+        version.append( header.length() ).append( ':' ).append( header.hashCode() ).append( ';' );
+        appendVersions( version,
+                        packageItem.listAssetsByFormat( AssetFormats.DRL_MODEL ) );
+        appendVersions( version,
+                        packageItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat( AssetFormats.MODEL ) );
+        return version.toString();
+    }
+
+    private String getExtensionsVersion(ModuleItem packageItem) {
+        StringBuilder version = new StringBuilder();
+        appendVersions( version,
+                        packageItem.listAssetsByFormat( AssetFormats.ENUMERATION ) );
+        appendVersions( version,
+                        packageItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat( AssetFormats.DSL ) );
+        return version.toString();
+    }
+
+    /**
+     * True if any enumeration is more than a list of literals, that is it calls a method or
+     * constructor, or is a whole MVEL expression. Anything with a bracket is taken to be dynamic,
+     * so an odd static enumeration is only reloaded more often than it needs to be.
+     */
+    static boolean hasDynamicEnums(ModuleItem packageItem) {
+        Iterator<AssetItem> assets = packageItem.listAssetsByFormat( AssetFormats.ENUMERATION );
+        while ( assets.hasNext() ) {
+            if ( isDynamicEnum( assets.next().getContent() ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isDynamicEnum(String content) {
+        return content != null
+               && (content.trim().startsWith( "=" ) || content.indexOf( '(' ) >= 0);
+    }
+
+    private void appendVersions(StringBuilder version,
+                                Iterator<AssetItem> assets) {
+        while ( assets.hasNext() ) {
+            AssetItem asset = assets.next();
+            version.append( asset.getUUID() ).append( ':' ).append( asset.getVersionNumber() ).append( ';' );
+        }
+        version.append( '|' );
+    }
+
+    private static class CachedEngine {
+
+        final String modelVersion;
+        final String extensionsVersion;
+        final SuggestionCompletionEngine modelEngine;
+        /**
+         * Null when the enumerations have to be evaluated again on each load.
+         */
+        final SuggestionCompletionEngine engine;
+
+        CachedEngine(String modelVersion,
+                     String extensionsVersion,
+                     SuggestionCompletionEngine modelEngine,
+                     SuggestionCompletionEngine engine) {
+            this.modelVersion = modelVersion;
+            this.extensionsVersion = extensionsVersion;
+            this.modelEngine = modelEngine;
+            this.engine = engine;
+        }
+    }
+
+}
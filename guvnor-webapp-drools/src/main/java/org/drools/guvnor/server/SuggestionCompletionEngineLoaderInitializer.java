@@ -18,32 +18,79 @@ package org.drools.guvnor.server;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.server.builder.ClassLoaderBuilder;
 import org.drools.guvnor.server.util.BRMSSuggestionCompletionLoader;
+import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.drools.repository.ModuleItem;
 
 public class SuggestionCompletionEngineLoaderInitializer {
 
+    private static final LoggingHelper log = LoggingHelper.getLogger(SuggestionCompletionEngineLoaderInitializer.class);
+
     protected SuggestionCompletionEngine loadFor(final ModuleItem packageItem) {
         SuggestionCompletionEngine result = null;
         ClassLoader originalCL = Thread.currentThread().getContextClassLoader();
         try {
-            BRMSSuggestionCompletionLoader loader = null;
-            ClassLoaderBuilder classLoaderBuilder = new ClassLoaderBuilder(packageItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat(AssetFormats.MODEL));
-            if (classLoaderBuilder.hasJars()) {
-                ClassLoader classLoader = classLoaderBuilder.buildClassLoader();
-
-                Thread.currentThread().setContextClassLoader(classLoader);
-
-                loader = new BRMSSuggestionCompletionLoader(classLoader);
-            } else {
-                loader = new BRMSSuggestionCompletionLoader();
-            }
-
+            BRMSSuggestionCompletionLoader loader = createLoader(packageItem);
             result = loader.getSuggestionEngine(packageItem);
+            logErrors(packageItem, loader);
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalCL);
+        }
+        return result;
+    }
 
+    /**
+     * Loads the fact type model only, see BRMSSuggestionCompletionLoader.getModelSuggestionEngine.
+     */
+    protected SuggestionCompletionEngine loadModelFor(final ModuleItem packageItem) {
+        SuggestionCompletionEngine result = null;
+        ClassLoader originalCL = Thread.currentThread().getContextClassLoader();
+        try {
+            BRMSSuggestionCompletionLoader loader = createLoader(packageItem);
+            result = loader.getModelSuggestionEngine(packageItem);
+            logErrors(packageItem, loader);
         } finally {
             Thread.currentThread().setContextClassLoader(originalCL);
         }
         return result;
     }
+
+    /**
+     * Adds the DSLs and enumerations of the package to a model loaded with loadModelFor.
+     * Enumerations may call model classes, so this needs the model class loader too.
+     */
+    protected SuggestionCompletionEngine loadFor(final SuggestionCompletionEngine modelEngine,
+                                                 final ModuleItem packageItem) {
+        SuggestionCompletionEngine result = null;
+        ClassLoader originalCL = Thread.currentThread().getContextClassLoader();
+        try {
+            BRMSSuggestionCompletionLoader loader = createLoader(packageItem);
+            result = loader.getSuggestionEngine(modelEngine,
+                    packageItem);
+            logErrors(packageItem, loader);
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalCL);
+        }
+        return result;
+    }
+
+    private void logErrors(final ModuleItem packageItem,
+                           final BRMSSuggestionCompletionLoader loader) {
+        if (loader.hasErrors()) {
+            log.warn("Errors loading the suggestion completion engine for " + packageItem.getName() + ": " + loader.getErrors());
+        }
+    }
+
+    private BRMSSuggestionCompletionLoader createLoader(final ModuleItem packageItem) {
+        ClassLoaderBuilder classLoaderBuilder = new ClassLoaderBuilder(packageItem.listAssetsWithVersionsSpecifiedByDependenciesByFormat(AssetFormats.MODEL));
+        if (classLoaderBuilder.hasJars()) {
+            ClassLoader classLoader = classLoaderBuilder.buildClassLoader();
+
+            Thread.currentThread().setContextClassLoader(classLoader);
+
+            return new BRMSSuggestionCompletionLoader(classLoader);
+        } else {
+            return new BRMSSuggestionCompletionLoader();
+        }
+    }
 }
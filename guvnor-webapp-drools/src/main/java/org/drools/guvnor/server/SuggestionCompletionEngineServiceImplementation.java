@@ -19,6 +19,7 @@ package org.drools.guvnor.server;
 import com.google.gwt.user.client.rpc.SerializationException;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
 import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
@@ -36,19 +37,42 @@ public class SuggestionCompletionEngineServiceImplementation
     @Inject
     private RulesRepository rulesRepository;
 
+    @Inject
+    private SuggestionCompletionEngineCache suggestionCompletionEngineCache;
+
     @WebRemote
     @LoggedIn
     public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName) throws SerializationException {
         //No need to check role based permission here. Package auto completion suggestion should be available to everybody.
         //serviceSecurity.checkSecurityIsPackageReadOnlyWithPackageName( packageName );
-        SuggestionCompletionEngine suggestionCompletionEngine = null;
+        return getSuggestionCompletionEngine(packageName);
+    }
+
+    @WebRemote
+    @LoggedIn
+    public SuggestionCompletionEngine loadFactTypeNamesOnlySuggestionCompletionEngine(String packageName) throws SerializationException {
+        return getSuggestionCompletionEngine(packageName).createFactTypeNamesOnlyEngine();
+    }
+
+    @WebRemote
+    @LoggedIn
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String[] factTypes) throws SerializationException {
+        SuggestionCompletionEngine suggestionCompletionEngine = getSuggestionCompletionEngine(packageName);
+        FactTypeDetails[] details = new FactTypeDetails[factTypes.length];
+        for (int i = 0; i < factTypes.length; i++) {
+            details[i] = suggestionCompletionEngine.getFactTypeDetails(factTypes[i]);
+        }
+        return details;
+    }
+
+    private SuggestionCompletionEngine getSuggestionCompletionEngine(String packageName) throws SerializationException {
         try {
             ModuleItem packageItem = rulesRepository.loadModule(packageName);
-            suggestionCompletionEngine = new SuggestionCompletionEngineLoaderInitializer().loadFor(packageItem);
+            return suggestionCompletionEngineCache.getSuggestionCompletionEngine(packageItem);
         } catch (RulesRepositoryException e) {
             log.error("An error occurred loadSuggestionCompletionEngine: " + e.getMessage());
             throw new SerializationException(e.getMessage());
         }
-        return suggestionCompletionEngine;
     }
 }
@@ -19,6 +19,7 @@ package org.drools.guvnor.server;
 import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import org.drools.guvnor.client.rpc.SuggestionCompletionEngineService;
+import org.drools.ide.common.client.modeldriven.FactTypeDetails;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
 import org.jboss.solder.core.Veto;
 
@@ -36,4 +37,16 @@ public class SuggestionCompletionEngineServiceServlet
     public SuggestionCompletionEngine loadSuggestionCompletionEngine(String packageName) throws SerializationException {
         return suggestionCompletionEngineService.loadSuggestionCompletionEngine(packageName);
     }
+
+    @Override
+    public SuggestionCompletionEngine loadFactTypeNamesOnlySuggestionCompletionEngine(String packageName) throws SerializationException {
+        return suggestionCompletionEngineService.loadFactTypeNamesOnlySuggestionCompletionEngine(packageName);
+    }
+
+    @Override
+    public FactTypeDetails[] loadFactTypeDetails(String packageName,
+                                                 String[] factTypes) throws SerializationException {
+        return suggestionCompletionEngineService.loadFactTypeDetails(packageName,
+                factTypes);
+    }
 }
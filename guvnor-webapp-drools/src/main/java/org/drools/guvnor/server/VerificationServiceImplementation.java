@@ -18,14 +18,17 @@ package org.drools.guvnor.server;
 
 import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
+import org.drools.guvnor.client.rpc.AnalysisJobStatus;
 import org.drools.guvnor.client.rpc.AnalysisReport;
 import org.drools.guvnor.client.rpc.Asset;
+import org.drools.guvnor.client.rpc.DetailedSerializationException;
 import org.drools.guvnor.client.rpc.VerificationService;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.util.LoggingHelper;
 import org.drools.guvnor.server.verification.AssetVerifier;
 import org.drools.guvnor.server.verification.PackageVerifier;
+import org.drools.guvnor.server.verification.VerificationJobManager;
 import org.drools.guvnor.server.verification.VerifierConfigurationFactory;
 import org.drools.repository.AssetItem;
 import org.drools.repository.RulesRepository;
@@ -36,6 +39,7 @@ import org.jboss.seam.remoting.annotations.WebRemote;
 import org.jboss.seam.security.annotations.LoggedIn;
 
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import javax.inject.Inject;
 import org.drools.guvnor.client.rpc.WorkingSetConfigData;
 import org.drools.guvnor.server.verification.TemporalBRLAssetVerifier;
@@ -60,6 +64,9 @@ public class VerificationServiceImplementation
     @Inject
     protected RepositoryAssetService repositoryAssetService;
 
+    @Inject
+    protected VerificationJobManager verificationJobManager;
+
     @WebRemote
     @LoggedIn
     public AnalysisReport analysePackage(String packageUUID) throws SerializationException {
@@ -75,6 +82,32 @@ public class VerificationServiceImplementation
         return report;
     }
 
+    @WebRemote
+    @LoggedIn
+    public String submitPackageAnalysis(String packageUUID) throws SerializationException {
+        serviceSecurity.checkSecurityIsPackageDeveloperWithPackageUuid( packageUUID );
+
+        try {
+            return verificationJobManager.submitModuleVerification(
+                    rulesRepository.loadModuleByUUID( packageUUID ),
+                    rulesRepository.getSession().getUserID() );
+        } catch ( RejectedExecutionException e ) {
+            throw new DetailedSerializationException( "Too many verifications are running, please try again later.",
+                                                      e.getMessage() );
+        }
+    }
+
+    @WebRemote
+    @LoggedIn
+    public AnalysisJobStatus getAnalysisJobStatus(String jobId) throws SerializationException {
+        String owner = verificationJobManager.getOwner( jobId );
+        if ( owner == null || !owner.equals( rulesRepository.getSession().getUserID() ) ) {
+            throw new DetailedSerializationException( "Unknown verification job " + jobId,
+                                                      "The job does not exist, has expired or belongs to another user." );
+        }
+        return verificationJobManager.getStatus( jobId );
+    }
+
     @WebRemote
     @LoggedIn
     public AnalysisReport verifyAsset(Asset asset,
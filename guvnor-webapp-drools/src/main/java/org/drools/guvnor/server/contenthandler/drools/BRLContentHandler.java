@@ -27,10 +27,12 @@ import org.drools.ide.common.client.modeldriven.brl.RuleModel;
 import org.drools.ide.common.server.util.BRDRLPersistence;
 import org.drools.ide.common.server.util.BRLPersistence;
 import org.drools.ide.common.server.util.BRXMLPersistence;
+import org.drools.lang.descr.RuleDescr;
 import org.drools.repository.AssetItem;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Collections;
 
 public class BRLContentHandler extends ContentHandler
     implements
@@ -58,10 +60,26 @@ public class BRLContentHandler extends ContentHandler
                         AssetItem asset,
                         AssemblyErrorLogger logger) throws DroolsParserException,
                                                                    IOException {
-        builder.addPackageFromDrl( new StringReader( getSourceDRL( buildModelFromAsset( asset ),
+        RuleModel model = buildModelFromAsset( asset );
+
+        //Models that can be built directly skip DRL generation and parsing
+        RuleDescr rule = getRuleDescr( model );
+        if ( rule != null ) {
+            builder.addRuleDescrs( Collections.singletonList( rule ) );
+            return;
+        }
+        builder.addPackageFromDrl( new StringReader( getSourceDRL( model,
                                                                    builder ) ) );
     }
 
+    private RuleDescr getRuleDescr(RuleModel model) {
+        BRLPersistence persistence = getBrlDrlPersistence();
+        if ( persistence instanceof BRDRLPersistence ) {
+            return ((BRDRLPersistence) persistence).marshalToDescr( model );
+        }
+        return null;
+    }
+
     public void assembleDRL(BRMSPackageBuilder builder,
                             Asset asset,
                             StringBuilder stringBuilder) {
@@ -18,14 +18,15 @@ package org.drools.guvnor.server.contenthandler.drools;
 
 import com.google.gwt.user.client.rpc.SerializationException;
 import org.drools.compiler.DroolsParserException;
-import org.drools.decisiontable.InputType;
-import org.drools.decisiontable.SpreadsheetCompiler;
+import org.drools.decisiontable.parser.DefaultRuleSheetListener;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.server.builder.AssemblyErrorLogger;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
+import org.drools.guvnor.server.util.StreamingExcelParser;
 import org.drools.repository.AssetItem;
+import org.drools.template.model.DRLOutput;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -63,12 +64,7 @@ public class DecisionTableXLSHandler extends ContentHandler
                         AssetItem asset,
                         AssemblyErrorLogger logger) throws DroolsParserException,
             IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-
-        assembleDRL(builder,
-                asset,
-                stringBuilder);
-        builder.addPackageFromDrl(new StringReader(stringBuilder.toString()));
+        builder.addPackageFromDrl(new StringReader(getRawDRL(asset)));
 
     }
 
@@ -76,11 +72,26 @@ public class DecisionTableXLSHandler extends ContentHandler
         return getDRL(asset.getBinaryContentAttachment());
     }
 
+    /**
+     * The spreadsheet is read with an event based parser, so rows are turned
+     * into rules as they are read rather than after the whole workbook has been
+     * loaded. The output matches SpreadsheetCompiler's, without a package
+     * statement.
+     */
     private String getDRL(InputStream stream) {
-        SpreadsheetCompiler comp = new SpreadsheetCompiler();
-        return comp.compile(false,
-                stream,
-                InputType.XLS);
+        DefaultRuleSheetListener listener = new DefaultRuleSheetListener(false);
+        try {
+            new StreamingExcelParser(listener).parseFile(stream);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                //Nothing more can be done with the attachment
+            }
+        }
+        DRLOutput out = new DRLOutput();
+        listener.getRuleSet().renderDRL(out);
+        return out.getDRL();
     }
 
 }
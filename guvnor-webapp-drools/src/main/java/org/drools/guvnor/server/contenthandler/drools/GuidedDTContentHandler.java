@@ -18,17 +18,28 @@ package org.drools.guvnor.server.contenthandler.drools;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.drools.compiler.DroolsParserException;
 import org.drools.guvnor.client.rpc.Asset;
+import org.drools.guvnor.client.rpc.DetailedSerializationException;
 import org.drools.guvnor.server.builder.AssemblyErrorLogger;
 import org.drools.guvnor.server.builder.BRMSPackageBuilder;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
+import org.drools.ide.common.client.modeldriven.dt52.AttributeCol52;
+import org.drools.ide.common.client.modeldriven.dt52.BaseColumn;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
 import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.client.modeldriven.dt52.RowNumberCol52;
 import org.drools.ide.common.server.util.GuidedDTDRLPersistence;
 import org.drools.ide.common.server.util.GuidedDTXMLPersistence;
+import org.drools.lang.descr.RuleDescr;
 import org.drools.repository.AssetItem;
+import org.drools.repository.events.StorageEventManager;
 
 import com.google.gwt.user.client.rpc.SerializationException;
 
@@ -39,10 +50,43 @@ public class GuidedDTContentHandler extends ContentHandler
     implements
     IRuleAsset {
 
+    /**
+     * Decision Tables with more than this many rows are sent to the editor a
+     * page of rows at a time.
+     */
+    public static final int PAGE_SIZE = 1000;
+
+    /**
+     * Rows of large tables, keyed by the version of the asset they were parsed
+     * from, so the editor loading the remaining pages does not parse the whole
+     * table again for each page. Cached rows are only read, never changed.
+     */
+    private static final int MAX_CACHED_TABLES = 16;
+
+    private final Map<String, List<List<DTCellValue52>>> cachedRows = new LinkedHashMap<String, List<List<DTCellValue52>>>( 16,
+                                                                                                                            0.75f,
+                                                                                                                            true ) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<List<DTCellValue52>>> eldest) {
+            return size() > MAX_CACHED_TABLES;
+        }
+    };
+
     public void retrieveAssetContent(Asset asset,
                                      AssetItem item) throws SerializationException {
         GuidedDecisionTable52 model = GuidedDTXMLPersistence.getInstance().unmarshal( item.getContent() );
 
+        //Large tables are sent with their first page of rows, the editor loads the remainder as needed
+        final int totalRowCount = model.getData().size();
+        if ( totalRowCount > PAGE_SIZE ) {
+            cacheRows( item,
+                       model.getData() );
+            model.setData( new ArrayList<List<DTCellValue52>>( model.getData().subList( 0,
+                                                                                        PAGE_SIZE ) ) );
+            model.setTotalRowCount( totalRowCount );
+            model.setLoadedRowCount( PAGE_SIZE );
+        }
+
         asset.setContent( model );
 
     }
@@ -53,16 +97,161 @@ public class GuidedDTContentHandler extends ContentHandler
         if ( data.getTableName() == null ) {
             data.setTableName( repoAsset.getName() );
         }
+        if ( data.isPartiallyLoaded() ) {
+            appendUnloadedRows( data,
+                                asset,
+                                repoAsset );
+        }
         repoAsset.updateContent( GuidedDTXMLPersistence.getInstance().marshal( data ) );
     }
 
+    @Override
+    public boolean isPartialContent(Asset asset) {
+        return ((GuidedDecisionTable52) asset.getContent()).isPartiallyLoaded();
+    }
+
+    /**
+     * Load a page of rows for the editor.
+     * 
+     * @param item
+     *            The Decision Table asset
+     * @param startRow
+     *            Index of the first row to load
+     * @param numberOfRows
+     *            Maximum number of rows to load
+     * @return The rows, empty if startRow is beyond the end of the table
+     */
+    public List<List<DTCellValue52>> loadRows(AssetItem item,
+                                              int startRow,
+                                              int numberOfRows) {
+        List<List<DTCellValue52>> data = getRows( item );
+        if ( startRow >= data.size() ) {
+            return new ArrayList<List<DTCellValue52>>();
+        }
+        return new ArrayList<List<DTCellValue52>>( data.subList( startRow,
+                                                                 Math.min( startRow + numberOfRows,
+                                                                           data.size() ) ) );
+    }
+
+    private List<List<DTCellValue52>> getRows(AssetItem item) {
+        String key = getCacheKey( item );
+        if ( key != null ) {
+            List<List<DTCellValue52>> rows;
+            synchronized ( cachedRows ) {
+                rows = cachedRows.get( key );
+            }
+            if ( rows != null ) {
+                return rows;
+            }
+        }
+        List<List<DTCellValue52>> rows = GuidedDTXMLPersistence.getInstance().unmarshal( item.getContent() ).getData();
+        cacheRows( item,
+                   rows );
+        return rows;
+    }
+
+    private void cacheRows(AssetItem item,
+                           List<List<DTCellValue52>> rows) {
+        String key = getCacheKey( item );
+        if ( key != null ) {
+            synchronized ( cachedRows ) {
+                cachedRows.put( key,
+                                rows );
+            }
+        }
+    }
+
+    //Null when the content may not match the asset's version, as it is provided by a storage event handler
+    private String getCacheKey(AssetItem item) {
+        if ( StorageEventManager.hasLoadEvent() ) {
+            return null;
+        }
+        return item.getUUID() + ":" + item.getVersionNumber() + ":" + item.getLastModified().getTimeInMillis();
+    }
+
+    //Rows the editor did not load follow those it did; they're appended from the persisted table
+    private void appendUnloadedRows(GuidedDecisionTable52 model,
+                                    Asset asset,
+                                    AssetItem repoAsset) throws SerializationException {
+        if ( asset.getVersionNumber() != repoAsset.getVersionNumber() ) {
+            throw new DetailedSerializationException( "Unable to save the decision table",
+                                                      "The decision table has been changed since it was opened." );
+        }
+        GuidedDecisionTable52 persisted = GuidedDTXMLPersistence.getInstance().unmarshal( repoAsset.getContent() );
+        List<List<DTCellValue52>> persistedData = persisted.getData();
+        if ( !isSameColumnLayout( model,
+                                  persisted ) ) {
+            throw new DetailedSerializationException( "Unable to save the decision table",
+                                                      "Columns cannot be added, removed, moved or renamed before all rows of the decision table have been loaded." );
+        }
+        model.getData().addAll( persistedData.subList( model.getLoadedRowCount(),
+                                                       persistedData.size() ) );
+        model.setTotalRowCount( 0 );
+        model.setLoadedRowCount( 0 );
+        updateSystemControlledColumnValues( model );
+    }
+
+    //Cells are positional, so the rows of both tables must align with the same columns
+    private boolean isSameColumnLayout(GuidedDecisionTable52 model1,
+                                       GuidedDecisionTable52 model2) {
+        List<BaseColumn> columns1 = model1.getExpandedColumns();
+        List<BaseColumn> columns2 = model2.getExpandedColumns();
+        if ( columns1.size() != columns2.size() ) {
+            return false;
+        }
+        for ( int iCol = 0; iCol < columns1.size(); iCol++ ) {
+            BaseColumn column1 = columns1.get( iCol );
+            BaseColumn column2 = columns2.get( iCol );
+            if ( !column1.getClass().equals( column2.getClass() ) ) {
+                return false;
+            }
+            String header1 = column1.getHeader();
+            String header2 = column2.getHeader();
+            if ( header1 == null ? header2 != null : !header1.equals( header2 ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Row numbers, and Salience derived from them, follow the order of the merged rows
+    private void updateSystemControlledColumnValues(GuidedDecisionTable52 model) {
+        List<BaseColumn> columns = model.getExpandedColumns();
+        List<List<DTCellValue52>> data = model.getData();
+        for ( int iCol = 0; iCol < columns.size(); iCol++ ) {
+            BaseColumn column = columns.get( iCol );
+            boolean isReverseOrder = false;
+            if ( column instanceof AttributeCol52 ) {
+                AttributeCol52 attrCol = (AttributeCol52) column;
+                if ( !(GuidedDecisionTable52.SALIENCE_ATTR.equals( attrCol.getAttribute() ) && attrCol.isUseRowNumber()) ) {
+                    continue;
+                }
+                isReverseOrder = attrCol.isReverseOrder();
+            } else if ( !(column instanceof RowNumberCol52) ) {
+                continue;
+            }
+            for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+                int value = (isReverseOrder ? data.size() - iRow : iRow + 1);
+                data.get( iRow ).get( iCol ).setNumericValue( value );
+            }
+        }
+    }
+
     public void compile(BRMSPackageBuilder builder,
                         AssetItem asset,
                         AssemblyErrorLogger logger) throws DroolsParserException,
                                                                    IOException {
-        String drl = getRawDRL( asset );
-        if ( drl.equals( "" ) ) return;
-        builder.addPackageFromDrl( new StringReader( drl ) );
+        final GuidedDecisionTable52 model = buildModelFromAsset( asset );
+        if ( model.getData().isEmpty() ) return;
+
+        //Tables that can be built directly skip DRL generation and parsing
+        final List<RuleDescr> rules = GuidedDTDRLPersistence.getInstance().marshalToDescrs( model );
+        if ( rules != null ) {
+            builder.addRuleDescrs( rules );
+            return;
+        }
+
+        builder.addPackageFromDrl( new StringReader( GuidedDTDRLPersistence.getInstance().marshal( model ) ) );
     }
 
     public void assembleDRL(BRMSPackageBuilder builder,
@@ -28,7 +28,6 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import org.drools.core.util.DateUtils;
-import org.drools.decisiontable.parser.xls.ExcelParser;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.client.rpc.Asset;
 import org.drools.guvnor.client.rpc.ConversionResult;
@@ -41,6 +40,7 @@ import org.drools.guvnor.server.RepositoryAssetService;
 import org.drools.guvnor.server.RepositoryModuleService;
 import org.drools.guvnor.server.ServiceImplementation;
 import org.drools.guvnor.server.converters.AbstractConverter;
+import org.drools.guvnor.server.util.StreamingExcelParser;
 import org.drools.guvnor.shared.api.PortableObject;
 import org.drools.guvnor.shared.modules.ModuleHeader;
 import org.drools.guvnor.shared.modules.ModuleHeaderHelper;
@@ -133,7 +133,7 @@ public class DecisionTableXLSToDecisionTableGuidedConverter extends AbstractConv
         final GuidedDecisionTableGeneratorListener listener = new GuidedDecisionTableGeneratorListener( result );
         listeners.add( listener );
 
-        final ExcelParser parser = new ExcelParser( listeners );
+        final StreamingExcelParser parser = new StreamingExcelParser( listeners );
         final InputStream stream = item.getBinaryContentAttachment();
         try {
             parser.parseFile( stream );
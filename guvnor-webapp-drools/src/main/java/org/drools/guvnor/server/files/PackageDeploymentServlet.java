@@ -98,7 +98,9 @@ public class PackageDeploymentServlet extends RepositoryServlet {
     }
 
     /**
-     * This is used for importing legacy DRL.
+     * This is used for importing legacy DRL. A zip of DRL files is imported in
+     * bulk, and the reply is a report of what was done with each file. The
+     * packages are built at the end if the build parameter is true.
      */
     protected void doPost(HttpServletRequest request,
                           HttpServletResponse response) throws ServletException,
@@ -108,6 +110,14 @@ public class PackageDeploymentServlet extends RepositoryServlet {
         FormData data = FileManagerService.getFormData(request);
 
         try {
+            String fileName = data.getFile().getName();
+            if (fileName != null && fileName.toLowerCase().endsWith(".zip")) {
+                BulkImportResult result = fileManagerService.importClassicDRLArchive(data.getFile().getInputStream(),
+                        packageName,
+                        "true".equals(request.getParameter("build")));
+                response.getWriter().write(result.hasErrors() ? result.toString() : "OK\n" + result.toString());
+                return;
+            }
             fileManagerService.importClassicDRL(data.getFile().getInputStream(),
                     packageName);
             response.getWriter().write("OK");
@@ -23,6 +23,7 @@ import org.drools.ide.common.client.modeldriven.brl.templates.InterpolationVaria
 import org.drools.ide.common.client.modeldriven.brl.templates.TemplateModel;
 import org.drools.ide.common.server.util.BRDRLPersistence;
 import org.drools.ide.common.server.util.BRLPersistence;
+import org.drools.lang.descr.RuleDescr;
 import org.drools.template.DataProvider;
 import org.drools.template.DataProviderCompiler;
 import org.drools.template.objects.ArrayDataProvider;
@@ -45,6 +46,14 @@ public class BRDRTPersistence extends BRDRLPersistence {
         return INSTANCE;
     }
 
+    /**
+     * Templates are expanded from DRL text, so cannot be built directly.
+     */
+    @Override
+    public RuleDescr marshalToDescr(RuleModel model) {
+        return null;
+    }
+
     @Override
     public String marshal(RuleModel model) {
 
@@ -28,6 +28,7 @@ import org.drools.repository.AssetItemIterator;
 import org.drools.repository.ModuleItem;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -71,6 +72,40 @@ public class BRMSSuggestionCompletionLoader extends SuggestionCompletionLoader {
                 DroolsHeader.getDroolsHeader(pkg));
     }
 
+    /**
+     * Builds an engine holding only the fact type model of the package (header, declared types and model jars),
+     * without DSL sentences or enumerations.
+     */
+    public SuggestionCompletionEngine getModelSuggestionEngine(ModuleItem pkg) {
+        ClassLoaderBuilder classLoaderBuilder = new ClassLoaderBuilder(pkg.listAssetsWithVersionsSpecifiedByDependenciesByFormat(AssetFormats.MODEL));
+
+        return super.getSuggestionEngine(DroolsHeader.getDroolsHeader(pkg) + "\n" + getDeclaredModels(pkg),
+                classLoaderBuilder.getJarInputStreams(),
+                Collections.<DSLTokenizedMappingFile>emptyList(),
+                Collections.<String>emptyList());
+    }
+
+    /**
+     * Builds a complete engine from one made by getModelSuggestionEngine, adding the DSLs and enumerations of the package.
+     */
+    public SuggestionCompletionEngine getSuggestionEngine(SuggestionCompletionEngine modelEngine,
+                                                          ModuleItem pkg) {
+        return super.getSuggestionEngine(modelEngine,
+                getDSLMappingFiles(pkg),
+                getDataEnums(pkg));
+    }
+
+    private String getDeclaredModels(ModuleItem pkg) {
+        StringBuilder buf = new StringBuilder();
+        AssetItemIterator it = pkg.listAssetsByFormat(AssetFormats.DRL_MODEL);
+        while (it.hasNext()) {
+            AssetItem as = it.next();
+            buf.append(as.getContent());
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
     @SuppressWarnings("rawtypes")
     private List<String> getDataEnums(ModuleItem pkg) {
         Iterator it = pkg.listAssetsByFormat(new String[]{AssetFormats.ENUMERATION});
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MergeCellsRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.drools.decisiontable.parser.xls.ExcelParser;
+import org.drools.template.parser.DataListener;
+import org.drools.template.parser.DecisionTableParseException;
+import org.drools.template.parser.DecisionTableParser;
+
+/**
+ * An event based reader for XLS decision tables. Cells are passed to the
+ * DataListeners as their records are read from the workbook stream, rather than
+ * first building POI's object model of the whole workbook as ExcelParser does.
+ * The events raised are the same as those from ExcelParser: only the first
+ * worksheet is read, every row up to the last is announced and cells within a
+ * merged region carry the value of the region's top-left cell. Formulae are not
+ * evaluated; the result cached in the workbook is used instead.
+ *
+ * Content that is not an OLE2 (.xls) workbook is passed on to ExcelParser.
+ */
+public class StreamingExcelParser
+    implements
+    DecisionTableParser {
+
+    private final List<DataListener> listeners;
+
+    public StreamingExcelParser(final List<DataListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    public StreamingExcelParser(final DataListener listener) {
+        this.listeners = new ArrayList<DataListener>();
+        this.listeners.add( listener );
+    }
+
+    public void parseFile(final InputStream inStream) {
+        final InputStream stream = new BufferedInputStream( inStream );
+        try {
+            if ( !POIFSFileSystem.hasPOIFSHeader( stream ) ) {
+                new ExcelParser( listeners ).parseFile( stream );
+                return;
+            }
+            final POIFSFileSystem fs = new POIFSFileSystem( stream );
+
+            //Merged regions are recorded after the cells they cover so they need to be known first
+            final MergedRegionCollector regions = new MergedRegionCollector();
+            processWorkbook( fs,
+                             regions );
+
+            final CellEventGenerator generator = new CellEventGenerator( regions.getRegions() );
+            processWorkbook( fs,
+                             generator.getFormatTracker() );
+
+        } catch ( IOException ioe ) {
+            throw new DecisionTableParseException( "Failed to open Excel stream, please check that the content is xls97 format.",
+                                                   ioe );
+        }
+    }
+
+    public void parseFile(final File file) {
+        try {
+            final InputStream stream = new FileInputStream( file );
+            try {
+                parseFile( stream );
+            } finally {
+                stream.close();
+            }
+        } catch ( IOException ioe ) {
+            throw new DecisionTableParseException( "Failed to open Excel file '" + file.getName() + "'.",
+                                                   ioe );
+        }
+    }
+
+    private void processWorkbook(final POIFSFileSystem fs,
+                                 final HSSFListener listener) throws IOException {
+        final HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords( listener );
+        new HSSFEventFactory().processWorkbookEvents( request,
+                                                      fs );
+    }
+
+    /**
+     * Splits the record stream into records belonging to the first worksheet
+     * and those belonging to the rest of the workbook. Sub-streams nested
+     * within a worksheet (e.g. embedded charts) are skipped.
+     */
+    private static abstract class FirstSheetListener
+        implements
+        HSSFListener {
+
+        private int     depth;
+        private int     worksheets;
+        private boolean isInFirstSheet;
+
+        public void processRecord(final Record record) {
+            switch ( record.getSid() ) {
+                case BOFRecord.sid :
+                    depth++;
+                    if ( depth == 1 && ((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET ) {
+                        isInFirstSheet = (worksheets++ == 0);
+                    }
+                    return;
+                case EOFRecord.sid :
+                    depth--;
+                    if ( depth == 0 && isInFirstSheet ) {
+                        isInFirstSheet = false;
+                        finishSheet();
+                    }
+                    return;
+            }
+            if ( depth != 1 ) {
+                return;
+            }
+            if ( isInFirstSheet ) {
+                processSheetRecord( record );
+            } else {
+                processWorkbookRecord( record );
+            }
+        }
+
+        protected void processWorkbookRecord(final Record record) {
+        }
+
+        protected abstract void processSheetRecord(final Record record);
+
+        protected void finishSheet() {
+        }
+
+    }
+
+    /**
+     * First pass, finding the merged regions of the first worksheet.
+     */
+    private static class MergedRegionCollector extends FirstSheetListener {
+
+        private final List<CellRangeAddress> regions = new ArrayList<CellRangeAddress>();
+
+        @Override
+        protected void processSheetRecord(final Record record) {
+            if ( record.getSid() == MergeCellsRecord.sid ) {
+                final MergeCellsRecord merged = (MergeCellsRecord) record;
+                for ( int i = 0; i < merged.getNumAreas(); i++ ) {
+                    regions.add( merged.getAreaAt( i ) );
+                }
+            }
+        }
+
+        List<CellRangeAddress> getRegions() {
+            return regions;
+        }
+
+    }
+
+    /**
+     * Second pass, raising DataListener events for the cells of the first
+     * worksheet. Only the value of the top-left cell of each merged region and
+     * the widths of rows in the current row block are retained.
+     */
+    private class CellEventGenerator extends FirstSheetListener {
+
+        private final FormatTrackingHSSFListener    formatTracker  = new FormatTrackingHSSFListener( this,
+                                                                                                         Locale.ENGLISH );
+        private final List<CellRangeAddress>        regions;
+        private final Map<CellRangeAddress, String> regionValues   = new HashMap<CellRangeAddress, String>();
+        private final Map<Integer, Integer>         rowWidths      = new HashMap<Integer, Integer>();
+
+        private SSTRecord                           sst;
+        private int                                 currentRow     = -1;
+        private int                                 lastRow        = -1;
+
+        //Formulae returning a String hold their value in the StringRecord that follows
+        private FormulaRecord                       pendingFormula = null;
+
+        private CellEventGenerator(final List<CellRangeAddress> regions) {
+            this.regions = regions;
+        }
+
+        HSSFListener getFormatTracker() {
+            return formatTracker;
+        }
+
+        @Override
+        protected void processWorkbookRecord(final Record record) {
+            if ( record.getSid() == SSTRecord.sid ) {
+                sst = (SSTRecord) record;
+            }
+        }
+
+        @Override
+        protected void processSheetRecord(final Record record) {
+            switch ( record.getSid() ) {
+                case RowRecord.sid :
+                    final RowRecord row = (RowRecord) record;
+                    rowWidths.put( row.getRowNumber(),
+                                   row.getLastCol() );
+                    lastRow = Math.max( lastRow,
+                                        row.getRowNumber() );
+                    break;
+                case LabelSSTRecord.sid :
+                    final LabelSSTRecord label = (LabelSSTRecord) record;
+                    cell( label.getRow(),
+                          label.getColumn(),
+                          sst.getString( label.getSSTIndex() ).getString() );
+                    break;
+                case LabelRecord.sid :
+                    final LabelRecord legacyLabel = (LabelRecord) record;
+                    cell( legacyLabel.getRow(),
+                          legacyLabel.getColumn(),
+                          legacyLabel.getValue() );
+                    break;
+                case NumberRecord.sid :
+                    final NumberRecord numeric = (NumberRecord) record;
+                    cell( numeric.getRow(),
+                          numeric.getColumn(),
+                          formatNumber( numeric,
+                                        numeric.getValue() ) );
+                    break;
+                case RKRecord.sid :
+                    final RKRecord rk = (RKRecord) record;
+                    number( rk.getRow(),
+                            rk.getColumn(),
+                            rk.getXFIndex(),
+                            rk.getRKNumber() );
+                    break;
+                case MulRKRecord.sid :
+                    final MulRKRecord mulRk = (MulRKRecord) record;
+                    for ( int i = 0; i < mulRk.getNumColumns(); i++ ) {
+                        number( mulRk.getRow(),
+                                mulRk.getFirstColumn() + i,
+                                mulRk.getXFAt( i ),
+                                mulRk.getRKNumberAt( i ) );
+                    }
+                    break;
+                case BlankRecord.sid :
+                    final BlankRecord blank = (BlankRecord) record;
+                    cell( blank.getRow(),
+                          blank.getColumn(),
+                          "" );
+                    break;
+                case MulBlankRecord.sid :
+                    final MulBlankRecord mulBlank = (MulBlankRecord) record;
+                    for ( int i = 0; i < mulBlank.getNumColumns(); i++ ) {
+                        cell( mulBlank.getRow(),
+                              mulBlank.getFirstColumn() + i,
+                              "" );
+                    }
+                    break;
+                case BoolErrRecord.sid :
+                    final BoolErrRecord boolErr = (BoolErrRecord) record;
+                    cell( boolErr.getRow(),
+                          boolErr.getColumn(),
+                          boolErr.isBoolean() ? formatBoolean( boolErr.getBooleanValue() ) : ErrorEval.getText( boolErr.getErrorValue() ) );
+                    break;
+                case FormulaRecord.sid :
+                    formula( (FormulaRecord) record );
+                    break;
+                case StringRecord.sid :
+                    if ( pendingFormula != null ) {
+                        cell( pendingFormula.getRow(),
+                              pendingFormula.getColumn(),
+                              ((StringRecord) record).getString() );
+                        pendingFormula = null;
+                    }
+                    break;
+            }
+        }
+
+        @Override
+        protected void finishSheet() {
+            advanceToRow( lastRow );
+            for ( DataListener listener : listeners ) {
+                listener.finishSheet();
+            }
+        }
+
+        private void formula(final FormulaRecord formula) {
+            switch ( formula.getCachedResultType() ) {
+                case Cell.CELL_TYPE_STRING :
+                    pendingFormula = formula;
+                    break;
+                case Cell.CELL_TYPE_BOOLEAN :
+                    cell( formula.getRow(),
+                          formula.getColumn(),
+                          formatBoolean( formula.getCachedBooleanValue() ) );
+                    break;
+                case Cell.CELL_TYPE_ERROR :
+                    cell( formula.getRow(),
+                          formula.getColumn(),
+                          ErrorEval.getText( formula.getCachedErrorValue() ) );
+                    break;
+                default :
+                    cell( formula.getRow(),
+                          formula.getColumn(),
+                          formatNumber( formula,
+                                        formula.getValue() ) );
+            }
+        }
+
+        private void number(final int row,
+                            final int column,
+                            final short xfIndex,
+                            final double value) {
+            final NumberRecord number = new NumberRecord();
+            number.setRow( row );
+            number.setColumn( (short) column );
+            number.setXFIndex( xfIndex );
+            number.setValue( value );
+            cell( row,
+                  column,
+                  formatNumber( number,
+                                value ) );
+        }
+
+        //Mirrors ExcelParser, which does not apply cell formats to fractional values
+        private String formatNumber(final CellValueRecordInterface record,
+                                    final double value) {
+            if ( value - Math.round( value ) != 0 ) {
+                return String.valueOf( value );
+            }
+            return formatTracker.formatNumberDateCell( record );
+        }
+
+        private String formatBoolean(final boolean value) {
+            return value ? "TRUE" : "FALSE";
+        }
+
+        private void cell(final int row,
+                          final int column,
+                          final String value) {
+            advanceToRow( row );
+            lastRow = Math.max( lastRow,
+                                row );
+
+            final CellRangeAddress region = getRegion( row,
+                                                       column );
+            if ( region == null ) {
+                newCell( row,
+                         column,
+                         value,
+                         DataListener.NON_MERGED );
+                return;
+            }
+            if ( row == region.getFirstRow() && column == region.getFirstColumn() ) {
+                regionValues.put( region,
+                                  value );
+            }
+            final String regionValue = regionValues.get( region );
+            newCell( row,
+                     column,
+                     regionValue == null ? "" : regionValue,
+                     region.getFirstColumn() );
+        }
+
+        private CellRangeAddress getRegion(final int row,
+                                           final int column) {
+            for ( CellRangeAddress region : regions ) {
+                if ( region.isInRange( row,
+                                       column ) ) {
+                    return region;
+                }
+            }
+            return null;
+        }
+
+        private void advanceToRow(final int row) {
+            while ( currentRow < row ) {
+                currentRow++;
+                final Integer width = rowWidths.remove( currentRow );
+                for ( DataListener listener : listeners ) {
+                    listener.newRow( currentRow,
+                                     width == null ? 0 : width );
+                }
+            }
+        }
+
+        private void newCell(final int row,
+                             final int column,
+                             final String value,
+                             final int mergedColStart) {
+            for ( DataListener listener : listeners ) {
+                listener.newCell( row,
+                                  column,
+                                  value,
+                                  mergedColStart );
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.server.verification;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.drools.guvnor.client.rpc.AnalysisJobStatus;
+import org.drools.guvnor.client.rpc.AnalysisReport;
+import org.drools.guvnor.client.rpc.PushResponse;
+import org.drools.guvnor.server.Backchannel;
+import org.drools.guvnor.server.repository.RepositoryStartupService;
+import org.drools.guvnor.server.util.LoggingHelper;
+import org.drools.repository.ModuleItem;
+import org.drools.repository.RulesRepository;
+import org.drools.verifier.builder.VerifierBuilderFactory;
+
+/**
+ * Runs package verifications outside of the RPC call, on a small bounded pool.
+ * Clients submit a job, then either poll for its status or wait for a
+ * "verificationJobFinished" push message carrying the job id.
+ *
+ * Finished reports are cached per module and compiled binary version, so
+ * verifying an unchanged module again does not run the verifier.
+ */
+@ApplicationScoped
+public class VerificationJobManager {
+
+    public static final String JOB_FINISHED_MESSAGE_TYPE = "verificationJobFinished";
+
+    private static final LoggingHelper log = LoggingHelper.getLogger( VerificationJobManager.class );
+
+    private static final int WORKER_THREADS = 2;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final long FINISHED_JOB_EXPIRY_MILLIS = 10 * 60 * 1000;
+
+    private final Map<String, VerificationJob> jobs = new ConcurrentHashMap<String, VerificationJob>();
+    private final Map<String, CachedReport> reportCache = new ConcurrentHashMap<String, CachedReport>();
+
+    private ExecutorService executor;
+
+    @Inject
+    private RepositoryStartupService repositoryStartupService;
+
+    @Inject
+    private Backchannel backchannel;
+
+    @PostConstruct
+    public void setup() {
+        executor = new ThreadPoolExecutor( WORKER_THREADS,
+                                           WORKER_THREADS,
+                                           0L,
+                                           TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<Runnable>( QUEUE_CAPACITY ) );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a verification of the module.
+     * @param module the module, loaded in the callers session. Only its UUID and version are used here.
+     * @param userName the user the job runs as, and the one who is notified when it is done.
+     * @return the job id
+     * @throws RejectedExecutionException if too many jobs are already waiting
+     */
+    public String submitModuleVerification(ModuleItem module,
+                                           String userName) {
+        purgeExpiredJobs();
+
+        final VerificationJob job = new VerificationJob( UUID.randomUUID().toString(),
+                                                         module.getUUID(),
+                                                         userName );
+        jobs.put( job.jobId,
+                  job );
+
+        AnalysisReport cached = getCachedReport( module );
+        if ( cached != null ) {
+            log.debug( "Using cached verification report for module " + module.getName() );
+            finish( job,
+                    cached );
+            return job.jobId;
+        }
+
+        try {
+            executor.execute( new Runnable() {
+                public void run() {
+                    runJob( job );
+                }
+            } );
+        } catch ( RejectedExecutionException e ) {
+            jobs.remove( job.jobId );
+            throw e;
+        }
+        return job.jobId;
+    }
+
+    /**
+     * @return the current status, or null if there is no such job (or it has expired).
+     */
+    public AnalysisJobStatus getStatus(String jobId) {
+        VerificationJob job = jobs.get( jobId );
+        if ( job == null ) {
+            return null;
+        }
+        return job.toStatus();
+    }
+
+    /**
+     * @return the user that submitted the job, or null if there is no such job.
+     */
+    public String getOwner(String jobId) {
+        VerificationJob job = jobs.get( jobId );
+        return job == null ? null : job.userName;
+    }
+
+    void runJob(VerificationJob job) {
+        job.setState( AnalysisJobStatus.RUNNING );
+        RulesRepository repository = null;
+        try {
+            repository = new RulesRepository( repositoryStartupService.newSession( job.userName ) );
+            ModuleItem module = repository.loadModuleByUUID( job.moduleUUID );
+
+            PackageVerifier verifier = new PackageVerifier( VerifierBuilderFactory.newVerifierBuilder().newVerifier(),
+                                                            module );
+            verifier.setProgressListener( job );
+            AnalysisReport report = verifier.verify();
+
+            cacheReport( module,
+                         report );
+            finish( job,
+                    report );
+        } catch ( RuntimeException e ) {
+            log.error( "Verification job " + job.jobId + " failed",
+                       e );
+            job.fail( e.getMessage() );
+            notifyOwner( job );
+        } catch ( Error e ) {
+            //the job still has to end, or it is never purged and the client polls for ever
+            log.error( "Verification job " + job.jobId + " failed",
+                       e );
+            job.fail( e.toString() );
+            notifyOwner( job );
+            throw e;
+        } finally {
+            if ( repository != null ) {
+                repository.logout();
+            }
+        }
+    }
+
+    private void finish(VerificationJob job,
+                        AnalysisReport report) {
+        job.finish( report );
+        notifyOwner( job );
+    }
+
+    private void notifyOwner(VerificationJob job) {
+        backchannel.push( job.userName,
+                          new PushResponse( JOB_FINISHED_MESSAGE_TYPE,
+                                            job.jobId ) );
+    }
+
+    /**
+     * Only modules with an up to date binary have a stable version to key the cache on.
+     */
+    private AnalysisReport getCachedReport(ModuleItem module) {
+        if ( !module.isBinaryUpToDate() ) {
+            return null;
+        }
+        CachedReport cached = reportCache.get( module.getUUID() );
+        if ( cached != null && cached.binaryVersion == getBinaryVersion( module ) ) {
+            return cached.report;
+        }
+        return null;
+    }
+
+    private void cacheReport(ModuleItem module,
+                             AnalysisReport report) {
+        if ( module.isBinaryUpToDate() ) {
+            reportCache.put( module.getUUID(),
+                             new CachedReport( getBinaryVersion( module ),
+                                               report ) );
+        } else {
+            reportCache.remove( module.getUUID() );
+        }
+    }
+
+    /**
+     * The last modified time is updated every time a new binary is stored for the module.
+     */
+    private long getBinaryVersion(ModuleItem module) {
+        Calendar lastModified = module.getLastModified();
+        return lastModified == null ? 0 : lastModified.getTimeInMillis();
+    }
+
+    private void purgeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        Iterator<VerificationJob> it = jobs.values().iterator();
+        while ( it.hasNext() ) {
+            VerificationJob job = it.next();
+            if ( job.isExpired( now ) ) {
+                it.remove();
+            }
+        }
+    }
+
+    static class VerificationJob
+        implements
+        VerifierProgressListener {
+
+        final String jobId;
+        final String moduleUUID;
+        final String userName;
+
+        private String state = AnalysisJobStatus.QUEUED;
+        private final List<String> resourceTypes = new ArrayList<String>();
+        private final List<Integer> resourceCounts = new ArrayList<Integer>();
+        private AnalysisReport report;
+        private String errorMessage;
+        private long finishedAt;
+
+        VerificationJob(String jobId,
+                        String moduleUUID,
+                        String userName) {
+            this.jobId = jobId;
+            this.moduleUUID = moduleUUID;
+            this.userName = userName;
+        }
+
+        public synchronized void resourcesAdded(String resourceType,
+                                                int count) {
+            resourceTypes.add( resourceType );
+            resourceCounts.add( count );
+        }
+
+        synchronized void setState(String state) {
+            this.state = state;
+        }
+
+        synchronized void finish(AnalysisReport report) {
+            this.report = report;
+            this.state = AnalysisJobStatus.FINISHED;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        synchronized void fail(String errorMessage) {
+            this.errorMessage = errorMessage;
+            this.state = AnalysisJobStatus.FAILED;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        synchronized boolean isExpired(long now) {
+            return finishedAt > 0 && now - finishedAt > FINISHED_JOB_EXPIRY_MILLIS;
+        }
+
+        synchronized AnalysisJobStatus toStatus() {
+            AnalysisJobStatus status = new AnalysisJobStatus();
+            status.jobId = jobId;
+            status.state = state;
+            status.resourceTypes = resourceTypes.toArray( new String[resourceTypes.size()] );
+            status.resourceCounts = new int[resourceCounts.size()];
+            for ( int i = 0; i < resourceCounts.size(); i++ ) {
+                status.resourceCounts[i] = resourceCounts.get( i );
+            }
+            status.report = report;
+            status.errorMessage = errorMessage;
+            return status;
+        }
+    }
+
+    private static class CachedReport {
+
+        final long binaryVersion;
+        final AnalysisReport report;
+
+        CachedReport(long binaryVersion,
+                     AnalysisReport report) {
+            this.binaryVersion = binaryVersion;
+            this.report = report;
+        }
+    }
+
+}
@@ -23,6 +23,7 @@ import org.drools.builder.ResourceType;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.client.rpc.AnalysisReport;
 import org.drools.guvnor.server.builder.AssetValidationIterator;
+import org.drools.guvnor.server.builder.GeneratedDRLCache;
 import org.drools.guvnor.server.contenthandler.ContentHandler;
 import org.drools.guvnor.server.contenthandler.ContentManager;
 import org.drools.guvnor.server.contenthandler.IRuleAsset;
@@ -41,6 +42,8 @@ public abstract class VerifierRunner {
 
     private final Verifier verifier;
     protected final ModuleItem packageItem;
+    private VerifierProgressListener progressListener;
+    private GeneratedDRLCache drlCache;
 
     public VerifierRunner(Verifier verifier,
                           ModuleItem packageItem) {
@@ -48,25 +51,36 @@ public abstract class VerifierRunner {
         this.packageItem = packageItem;
     }
 
+    public void setProgressListener(VerifierProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     public AnalysisReport verify() {
 
+        drlCache = new GeneratedDRLCache(packageItem);
+
         addHeaderToVerifier();
 
         addToVerifier(listAssetsByFormat(AssetFormats.DSL),
+                AssetFormats.DSL,
                 ResourceType.DSL);
 
         // TODO: Model JARS
 
         addToVerifier(listAssetsByFormat(AssetFormats.DRL_MODEL),
+                AssetFormats.DRL_MODEL,
                 ResourceType.DRL);
 
         addToVerifier(listAssetsByFormat(AssetFormats.FUNCTION),
+                AssetFormats.FUNCTION,
                 ResourceType.DRL);
 
         addToVerifier(listAssetsByFormat(AssetFormats.DSL_TEMPLATE_RULE),
+                AssetFormats.DSL_TEMPLATE_RULE,
                 ResourceType.DSLR);
 
         addToVerifier(listAssetsByFormat(AssetFormats.DECISION_SPREADSHEET_XLS),
+                AssetFormats.DECISION_SPREADSHEET_XLS,
                 ResourceType.DTABLE);
 
         addGuidedDecisionTablesToVerifier();
@@ -76,6 +90,7 @@ public abstract class VerifierRunner {
         addDRLRulesToVerifier();
 
         addToVerifier(listAssetsByFormat(AssetFormats.BUSINESS_RULE),
+                AssetFormats.BUSINESS_RULE,
                 ResourceType.BRL);
 
         fireAnalysis();
@@ -114,24 +129,30 @@ public abstract class VerifierRunner {
     }
 
     private void addGuidedDecisionTablesToVerifier() {
-        addToVerifier(listAssetsByFormat(AssetFormats.DECISION_TABLE_GUIDED));
+        addToVerifier(listAssetsByFormat(AssetFormats.DECISION_TABLE_GUIDED),
+                AssetFormats.DECISION_TABLE_GUIDED);
     }
 
     private void addDRLRulesToVerifier() {
-        addToVerifier(listAssetsByFormat(AssetFormats.DRL));
+        addToVerifier(listAssetsByFormat(AssetFormats.DRL),
+                AssetFormats.DRL);
     }
 
     private void addRuleTemplatesToVerifier() {
-        addToVerifier(listAssetsByFormat(AssetFormats.RULE_TEMPLATE));
+        addToVerifier(listAssetsByFormat(AssetFormats.RULE_TEMPLATE),
+                AssetFormats.RULE_TEMPLATE);
     }
 
     protected abstract AssetValidationIterator listAssetsByFormat(String format);
 
     private void addToVerifier(AssetValidationIterator assets,
+                               String format,
                                ResourceType resourceType) {
+        int added = 0;
         while (assets.hasNext()) {
             AssetItem asset = assets.next();
             if (!asset.isArchived() && !asset.getDisabled()) {
+                added++;
                 if (resourceType == ResourceType.DTABLE) {
                     DecisionTableConfiguration dtableconfiguration = KnowledgeBuilderFactory.newDecisionTableConfiguration();
                     dtableconfiguration.setInputType(DecisionTableInputType.XLS);
@@ -147,21 +168,36 @@ public abstract class VerifierRunner {
                 }
             }
         }
+        fireResourcesAdded(format,
+                added);
     }
 
-    private void addToVerifier(AssetValidationIterator assetItemIterator) {
+    private void addToVerifier(AssetValidationIterator assetItemIterator,
+                               String format) {
+        int added = 0;
         while (assetItemIterator.hasNext()) {
             AssetItem assetItem = assetItemIterator.next();
 
             ContentHandler contentHandler = ContentManager.getHandler(assetItem.getFormat());
             if (contentHandler.isRuleAsset()) {
                 IRuleAsset ruleAsset = (IRuleAsset) contentHandler;
-                String drl = ruleAsset.getRawDRL(assetItem);
+                String drl = drlCache.getRawDRL(ruleAsset,
+                        assetItem);
                 verifier.addResourcesToVerify(
                         ResourceFactory.newReaderResource(new StringReader(drl)),
                         ResourceType.DRL);
-
+                added++;
             }
         }
+        fireResourcesAdded(format,
+                added);
+    }
+
+    private void fireResourcesAdded(String resourceType,
+                                    int count) {
+        if (progressListener != null) {
+            progressListener.resourcesAdded(resourceType,
+                    count);
+        }
     }
 }
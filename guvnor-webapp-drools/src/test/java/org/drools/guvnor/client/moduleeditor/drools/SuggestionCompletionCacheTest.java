@@ -16,10 +16,22 @@
 
 package org.drools.guvnor.client.moduleeditor.drools;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
+import org.drools.ide.common.client.modeldriven.brl.ActionFieldValue;
+import org.drools.ide.common.client.modeldriven.brl.ActionInsertFact;
+import org.drools.ide.common.client.modeldriven.brl.ActionSetField;
+import org.drools.ide.common.client.modeldriven.brl.CompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FactPattern;
+import org.drools.ide.common.client.modeldriven.brl.FromCompositeFactPattern;
+import org.drools.ide.common.client.modeldriven.brl.RuleModel;
+import org.drools.ide.common.client.modeldriven.brl.SingleFieldConstraint;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
 
@@ -80,5 +92,42 @@ public class SuggestionCompletionCacheTest {
 
 
 
+    }
+
+    @Test
+    public void testFactTypesOfRuleModel() throws Exception {
+        RuleModel model = new RuleModel();
+
+        FactPattern person = new FactPattern( "Person" );
+        person.setBoundName( "p" );
+        SingleFieldConstraint address = new SingleFieldConstraint( "Person",
+                                                                   "address",
+                                                                   "Address",
+                                                                   null );
+        person.addConstraint( address );
+        model.addLhsItem( person );
+
+        CompositeFactPattern not = new CompositeFactPattern( "not" );
+        not.addFactPattern( new FactPattern( "Cheese" ) );
+        model.addLhsItem( not );
+
+        FromCompositeFactPattern from = new FromCompositeFactPattern();
+        from.setFactPattern( new FactPattern( "Order" ) );
+        model.addLhsItem( from );
+
+        ActionInsertFact insert = new ActionInsertFact( "Invoice" );
+        insert.addFieldValue( new ActionFieldValue( "customer",
+                                                    null,
+                                                    "Customer" ) );
+        model.addRhsItem( insert );
+        model.addRhsItem( new ActionSetField( "p" ) );
+
+        assertEquals( new HashSet<String>( Arrays.asList( "Person",
+                                                          "Address",
+                                                          "Cheese",
+                                                          "Order",
+                                                          "Invoice",
+                                                          "Customer" ) ),
+                      SuggestionCompletionCache.getFactTypes( model ) );
     }
 }
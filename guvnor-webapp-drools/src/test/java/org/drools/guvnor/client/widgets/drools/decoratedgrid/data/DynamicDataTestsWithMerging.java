@@ -238,4 +238,72 @@ public class DynamicDataTestsWithMerging extends BaseDynamicDataTests {
                       0 );
     }
 
+    @Test
+    public void testIncrementalMerging() {
+        //[1][-][3]      [1][-][3]
+        //[1][2][3]  --> [1][2][3]
+        //[-][2][3]      [1][2][3]
+        data.setMerged( true );
+
+        data.set( new Coordinate( 2,
+                                  0 ),
+                  "1" );
+        assertEquals( 3,
+                      data.get( 0 ).get( 0 ).getRowSpan() );
+        assertMergingMatchesModel();
+
+        //[1][-][3]      [1][-][3]
+        //[1][2][3]  --> [1][-][3]
+        //[1][2][3]      [1][2][3]
+        data.set( new Coordinate( 1,
+                                  1 ),
+                  "-" );
+        assertEquals( 2,
+                      data.get( 0 ).get( 1 ).getRowSpan() );
+        assertEquals( 1,
+                      data.get( 2 ).get( 1 ).getRowSpan() );
+        assertMergingMatchesModel();
+
+        //[1][-][3]      [1][-][3]
+        //[1][-][3]  --> [1][-][4]
+        //[1][2][3]      [1][2][3]
+        data.set( new Coordinate( 1,
+                                  2 ),
+                  "4" );
+        assertEquals( 1,
+                      data.get( 0 ).get( 2 ).getRowSpan() );
+        assertEquals( 1,
+                      data.get( 1 ).get( 2 ).getRowSpan() );
+        assertEquals( 1,
+                      data.get( 2 ).get( 2 ).getRowSpan() );
+        assertMergingMatchesModel();
+    }
+
+    //Merging and indexing following a change to a single cell should match that for the whole model
+    private void assertMergingMatchesModel() {
+        int[][] rowSpans = new int[data.size()][];
+        Coordinate[][] htmlCoordinates = new Coordinate[data.size()][];
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            DynamicDataRow row = data.get( iRow );
+            rowSpans[iRow] = new int[row.size()];
+            htmlCoordinates[iRow] = new Coordinate[row.size()];
+            for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+                rowSpans[iRow][iCol] = row.get( iCol ).getRowSpan();
+                htmlCoordinates[iRow][iCol] = row.get( iCol ).getHtmlCoordinate();
+            }
+        }
+
+        data.assertModelMerging();
+
+        for ( int iRow = 0; iRow < data.size(); iRow++ ) {
+            DynamicDataRow row = data.get( iRow );
+            for ( int iCol = 0; iCol < row.size(); iCol++ ) {
+                assertEquals( rowSpans[iRow][iCol],
+                              row.get( iCol ).getRowSpan() );
+                assertEquals( htmlCoordinates[iRow][iCol],
+                              row.get( iCol ).getHtmlCoordinate() );
+            }
+        }
+    }
+
 }
@@ -17,6 +17,9 @@ package org.drools.guvnor.client.widgets.drools.decoratedgrid.data;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.CellValue;
 import org.drools.guvnor.client.widgets.drools.decoratedgrid.data.Coordinate;
 import org.junit.Before;
@@ -498,4 +501,56 @@ public class DynamicDataTestsWithMergingRowAdditions extends BaseDynamicDataTest
                       0 );
     }
 
+    @Test
+    public void testAppendRows() {
+        data.setMerged( true );
+
+        List<DynamicDataRow> rows = new ArrayList<DynamicDataRow>();
+        rows.add( makeRow() );
+        rows.add( makeRow() );
+        rows.get( 0 ).get( 0 ).setValue( "-" );
+        rows.get( 0 ).get( 1 ).setValue( "2" );
+        rows.get( 0 ).get( 2 ).setValue( "4" );
+        rows.get( 1 ).get( 0 ).setValue( "5" );
+        rows.get( 1 ).get( 1 ).setValue( "2" );
+        rows.get( 1 ).get( 2 ).setValue( "4" );
+        data.addRows( rows );
+        assertEquals( data.size(),
+                      5 );
+
+        //[1][-][3] --> [2][1][3]
+        //[1][2][3] --> [0][4][0]
+        //[-][2][3] --> [2][0][0]
+        //[-][2][4] --> [0][0][2]
+        //[5][2][4] --> [1][0][0]
+        int[][] rowSpans = new int[][]{{2, 1, 3}, {0, 4, 0}, {2, 0, 0}, {0, 0, 2}, {1, 0, 0}};
+        for ( int iRow = 0; iRow < rowSpans.length; iRow++ ) {
+            for ( int iCol = 0; iCol < rowSpans[iRow].length; iCol++ ) {
+                assertEquals( rowSpans[iRow][iCol],
+                              data.get( iRow ).get( iCol ).getRowSpan() );
+            }
+        }
+
+        //Indexes are those of the whole table being merged again
+        List<Coordinate> htmlCoordinates = new ArrayList<Coordinate>();
+        List<Coordinate> physicalCoordinates = new ArrayList<Coordinate>();
+        for ( DynamicDataRow row : data ) {
+            for ( CellValue< ? > cell : row ) {
+                htmlCoordinates.add( cell.getHtmlCoordinate() );
+                physicalCoordinates.add( cell.getPhysicalCoordinate() );
+            }
+        }
+        data.assertModelMerging();
+        int iCell = 0;
+        for ( DynamicDataRow row : data ) {
+            for ( CellValue< ? > cell : row ) {
+                assertEquals( cell.getHtmlCoordinate(),
+                              htmlCoordinates.get( iCell ) );
+                assertEquals( cell.getPhysicalCoordinate(),
+                              physicalCoordinates.get( iCell ) );
+                iCell++;
+            }
+        }
+    }
+
 }
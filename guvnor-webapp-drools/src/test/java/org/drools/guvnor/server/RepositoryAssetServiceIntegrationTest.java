@@ -38,6 +38,7 @@ import org.drools.guvnor.client.rpc.RuleContentText;
 import org.drools.guvnor.client.rpc.TableDataResult;
 import org.drools.guvnor.client.rpc.TableDataRow;
 import org.drools.guvnor.server.cache.RuleBaseCache;
+import org.drools.guvnor.server.repository.UserInbox;
 import org.drools.guvnor.server.test.GuvnorIntegrationTest;
 import org.drools.guvnor.server.util.DroolsHeader;
 import org.drools.ide.common.client.modeldriven.SuggestionCompletionEngine;
@@ -51,6 +52,7 @@ import org.drools.repository.AssetItemIterator;
 import org.drools.repository.ModuleItem;
 import org.drools.repository.RulesRepository;
 import org.drools.repository.RulesRepositoryException;
+import org.drools.repository.UserInfo.InboxEntry;
 import org.junit.Test;
 
 public class RepositoryAssetServiceIntegrationTest extends GuvnorIntegrationTest {
@@ -1218,4 +1220,43 @@ public class RepositoryAssetServiceIntegrationTest extends GuvnorIntegrationTest
         assertTrue( response.isLastPage() );
     }
 
+    @Test
+    public void testLoadRuleAssets() throws Exception {
+        rulesRepository.createModule( "testLoadRuleAssetsPackage",
+                                      "desc" );
+        repositoryCategoryService.createCategory( "",
+                                                  "testLoadRuleAssetsCat",
+                                                  "this is a cat" );
+
+        String uuid1 = serviceImplementation.createNewRule( "testLoadRuleAssets1",
+                                                            "description",
+                                                            "testLoadRuleAssetsCat",
+                                                            "testLoadRuleAssetsPackage",
+                                                            AssetFormats.DRL );
+        String uuid2 = serviceImplementation.createNewRule( "testLoadRuleAssets2",
+                                                            "description",
+                                                            "testLoadRuleAssetsCat",
+                                                            "testLoadRuleAssetsPackage",
+                                                            AssetFormats.DRL );
+        repositoryAssetService.archiveAsset( uuid1 );
+
+        Asset[] assets = repositoryAssetService.loadRuleAssets( new String[]{uuid2, uuid1, uuid2} );
+
+        assertEquals( 2,
+                      assets.length );
+        assertEquals( uuid2,
+                      assets[0].getUuid() );
+        assertEquals( uuid1,
+                      assets[1].getUuid() );
+        assertNotNull( assets[0].getContent() );
+        assertFalse( assets[0].isReadonly() );
+        assertTrue( assets[1].isReadonly() );
+
+        List<InboxEntry> recentOpened = new UserInbox( rulesRepository ).loadRecentOpened();
+        assertEquals( uuid1,
+                      recentOpened.get( recentOpened.size() - 1 ).assetUUID );
+        assertEquals( uuid2,
+                      recentOpened.get( recentOpened.size() - 2 ).assetUUID );
+    }
+
 }
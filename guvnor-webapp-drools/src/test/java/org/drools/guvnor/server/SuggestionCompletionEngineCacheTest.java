@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.junit.Test;
+
+public class SuggestionCompletionEngineCacheTest {
+
+    @Test
+    public void testStaticEnumsAreNotDynamic() {
+        assertFalse(SuggestionCompletionEngineCache.isDynamicEnum("'Person.age' : ['10', '20', '30']\n'Person.name' : ['a', 'b']"));
+        assertFalse(SuggestionCompletionEngineCache.isDynamicEnum(""));
+        assertFalse(SuggestionCompletionEngineCache.isDynamicEnum(null));
+    }
+
+    @Test
+    public void testEnumsCallingCodeAreDynamic() {
+        assertTrue(SuggestionCompletionEngineCache.isDynamicEnum("'Person.age' : (new com.yourco.DataHelper()).getListOfAges()"));
+        assertTrue(SuggestionCompletionEngineCache.isDynamicEnum("=com.yourco.DataHelper.ENUMS"));
+    }
+
+    @Test
+    public void testEngineAssetFormats() {
+        assertTrue(SuggestionCompletionEngineCache.isEngineAsset(AssetFormats.ENUMERATION));
+        assertTrue(SuggestionCompletionEngineCache.isEngineAsset(AssetFormats.MODEL));
+        assertFalse(SuggestionCompletionEngineCache.isEngineAsset(AssetFormats.DRL));
+    }
+
+}
@@ -25,8 +25,10 @@ import static org.junit.Assert.fail;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.acme.insurance.Driver;
 import org.acme.insurance.Policy;
@@ -168,6 +170,40 @@ public class PackageAssemblerIntegrationTest extends GuvnorIntegrationTest {
         assertNotEmpty( assembler.getErrors().get( 0 ).getErrorReport() );
     }
 
+    @Test
+    public void testFunctionErrorsAreTracedToTheirAssets() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule( "testFunctionErrorsAreTracedToTheirAssets",
+                                                       "" );
+        for ( int i = 0; i < 6; i++ ) {
+            AssetItem func = pkg.addAsset( "func" + i,
+                                           "" );
+            func.updateFormat( AssetFormats.FUNCTION );
+            if ( i == 1 || i == 4 ) {
+                func.updateContent( "function void foo" + i + "() { \n System.err.println(undefined" + i + "); \n}" );
+            } else {
+                func.updateContent( "function void foo" + i + "() { \n System.err.println(" + i + "); \n}" );
+            }
+            func.checkin( "" );
+        }
+        rulesRepository.save();
+
+        PackageAssembler assembler = new PackageAssembler();
+        assembler.init( pkg,
+                        null );
+        assembler.compile();
+        assertTrue( assembler.hasErrors() );
+        assertFalse( assembler.isModuleConfigurationInError() );
+
+        Set<String> names = new HashSet<String>();
+        for ( ContentAssemblyError error : assembler.getErrors() ) {
+            names.add( error.getName() );
+        }
+        assertEquals( 2,
+                      names.size() );
+        assertTrue( names.contains( "func1" ) );
+        assertTrue( names.contains( "func4" ) );
+    }
+
     @Test
     public void testLoadConfProperties() throws Exception {
         RulesRepository repo = rulesRepository;
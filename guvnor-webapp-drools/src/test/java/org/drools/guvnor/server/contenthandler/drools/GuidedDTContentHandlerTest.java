@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.contenthandler.drools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.drools.guvnor.client.rpc.Asset;
+import org.drools.guvnor.client.rpc.DetailedSerializationException;
+import org.drools.ide.common.client.modeldriven.dt52.DTCellValue52;
+import org.drools.ide.common.client.modeldriven.dt52.GuidedDecisionTable52;
+import org.drools.ide.common.client.modeldriven.dt52.MetadataCol52;
+import org.drools.ide.common.server.util.GuidedDTXMLPersistence;
+import org.drools.repository.AssetItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class GuidedDTContentHandlerTest {
+
+    private static final int       ROWS = GuidedDTContentHandler.PAGE_SIZE + 500;
+
+    private GuidedDTContentHandler handler;
+    private AssetItem              item;
+
+    @Before
+    public void setUp() {
+        GuidedDecisionTable52 dt = new GuidedDecisionTable52();
+        for ( int iRow = 0; iRow < ROWS; iRow++ ) {
+            List<DTCellValue52> row = new ArrayList<DTCellValue52>();
+            row.add( new DTCellValue52( iRow + 1 ) );
+            row.add( new DTCellValue52( "row " + iRow ) );
+            dt.getData().add( row );
+        }
+
+        handler = new GuidedDTContentHandler();
+        item = mock( AssetItem.class );
+        when( item.getUUID() ).thenReturn( "uuid" );
+        when( item.getName() ).thenReturn( "dt" );
+        when( item.getLastModified() ).thenReturn( Calendar.getInstance() );
+        when( item.getContent() ).thenReturn( GuidedDTXMLPersistence.getInstance().marshal( dt ) );
+    }
+
+    @Test
+    public void testLargeTableIsPaged() throws Exception {
+        Asset asset = new Asset();
+        handler.retrieveAssetContent( asset,
+                                      item );
+
+        GuidedDecisionTable52 dt = (GuidedDecisionTable52) asset.getContent();
+        assertEquals( GuidedDTContentHandler.PAGE_SIZE,
+                      dt.getData().size() );
+        assertEquals( ROWS,
+                      dt.getTotalRowCount() );
+        assertTrue( dt.isPartiallyLoaded() );
+        assertTrue( handler.isPartialContent( asset ) );
+
+        List<List<DTCellValue52>> rows = handler.loadRows( item,
+                                                           dt.getLoadedRowCount(),
+                                                           GuidedDTContentHandler.PAGE_SIZE );
+        assertEquals( 500,
+                      rows.size() );
+        assertEquals( "row " + GuidedDTContentHandler.PAGE_SIZE,
+                      rows.get( 0 ).get( 1 ).getStringValue() );
+
+        assertTrue( handler.loadRows( item,
+                                      ROWS,
+                                      GuidedDTContentHandler.PAGE_SIZE ).isEmpty() );
+    }
+
+    @Test
+    public void testUnloadedRowsAreMergedOnStore() throws Exception {
+        Asset asset = new Asset();
+        handler.retrieveAssetContent( asset,
+                                      item );
+
+        //Edit the rows loaded
+        GuidedDecisionTable52 dt = (GuidedDecisionTable52) asset.getContent();
+        dt.getData().remove( 0 );
+
+        handler.storeAssetContent( asset,
+                                   item );
+
+        ArgumentCaptor<String> content = ArgumentCaptor.forClass( String.class );
+        verify( item ).updateContent( content.capture() );
+        GuidedDecisionTable52 stored = GuidedDTXMLPersistence.getInstance().unmarshal( content.getValue() );
+        assertFalse( stored.isPartiallyLoaded() );
+        assertEquals( ROWS - 1,
+                      stored.getData().size() );
+        assertEquals( "row 1",
+                      stored.getData().get( 0 ).get( 1 ).getStringValue() );
+        assertEquals( "row " + (ROWS - 1),
+                      stored.getData().get( ROWS - 2 ).get( 1 ).getStringValue() );
+
+        //Row numbers follow the merged rows
+        assertEquals( 1,
+                      stored.getData().get( 0 ).get( 0 ).getNumericValue().intValue() );
+        assertEquals( ROWS - 1,
+                      stored.getData().get( ROWS - 2 ).get( 0 ).getNumericValue().intValue() );
+    }
+
+    @Test(expected = DetailedSerializationException.class)
+    public void testColumnChangesRequireAllRows() throws Exception {
+        Asset asset = new Asset();
+        handler.retrieveAssetContent( asset,
+                                      item );
+
+        GuidedDecisionTable52 dt = (GuidedDecisionTable52) asset.getContent();
+        MetadataCol52 column = new MetadataCol52();
+        column.setMetadata( "author" );
+        dt.getMetadataCols().add( column );
+
+        handler.storeAssetContent( asset,
+                                   item );
+    }
+
+    @Test
+    public void testPagesAreNotParsedAgain() throws Exception {
+        Asset asset = new Asset();
+        handler.retrieveAssetContent( asset,
+                                      item );
+        handler.loadRows( item,
+                          GuidedDTContentHandler.PAGE_SIZE,
+                          100 );
+        List<List<DTCellValue52>> rows = handler.loadRows( item,
+                                                           GuidedDTContentHandler.PAGE_SIZE + 100,
+                                                           100 );
+        assertEquals( "row " + (GuidedDTContentHandler.PAGE_SIZE + 100),
+                      rows.get( 0 ).get( 1 ).getStringValue() );
+
+        verify( item,
+                times( 1 ) ).getContent();
+    }
+
+    @Test
+    public void testNewVersionIsParsedAgain() throws Exception {
+        handler.loadRows( item,
+                          0,
+                          100 );
+        when( item.getVersionNumber() ).thenReturn( 1L );
+        handler.loadRows( item,
+                          0,
+                          100 );
+
+        verify( item,
+                times( 2 ) ).getContent();
+    }
+
+    @Test(expected = DetailedSerializationException.class)
+    public void testChangedTableCannotBeStored() throws Exception {
+        Asset asset = new Asset();
+        handler.retrieveAssetContent( asset,
+                                      item );
+
+        //Someone else checked in a new version since the table was opened
+        when( item.getVersionNumber() ).thenReturn( 1L );
+
+        handler.storeAssetContent( asset,
+                                   item );
+    }
+
+}
@@ -154,6 +154,70 @@ public class FeedServletIntegrationTest extends GuvnorIntegrationTest {
         credentials.clear();
     }
 
+    @Test
+    public void testPackageFeedNotModified() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule( "testPackageFeedNotModified",
+                                              "" );
+        AssetItem asset = pkg.addAsset( "asset1",
+                                        "desc" );
+        asset.updateFormat( "drl" );
+        asset.checkin( "" );
+
+        final Map<String, String> headers = new HashMap<String, String>() {
+            {
+                put( "Authorization",
+                     "BASIC " + new String( Base64.encodeBase64( "admin:admin".getBytes() ) ) );
+            }
+        };
+        Map<String, String> params = new HashMap<String, String>() {
+            {
+                put( "name",
+                     "testPackageFeedNotModified" );
+                put( "viewUrl",
+                     "http://foo.bar" );
+            }
+        };
+        MockHTTPResponse res = new MockHTTPResponse();
+        feedServlet.doGet( new MockHTTPRequest( "/org.foo/feed/package",
+                                                headers,
+                                                params ),
+                           res );
+        assertTrue( res.extractContent().indexOf( "asset1" ) > -1 );
+        String etag = res.headers.get( "ETag" );
+        assertNotNull( etag );
+        assertNotNull( res.headers.get( "Last-Modified" ) );
+
+        //the reader already has it
+        headers.put( "If-None-Match",
+                     etag );
+        res = new MockHTTPResponse();
+        feedServlet.doGet( new MockHTTPRequest( "/org.foo/feed/package",
+                                                headers,
+                                                params ),
+                           res );
+        assertEquals( HttpServletResponse.SC_NOT_MODIFIED,
+                      res.status );
+
+        //a checkin in the package changes the feed
+        AssetItem asset2 = pkg.addAsset( "asset2",
+                                         "desc" );
+        asset2.updateFormat( "drl" );
+        asset2.checkin( "" );
+
+        res = new MockHTTPResponse();
+        feedServlet.doGet( new MockHTTPRequest( "/org.foo/feed/package",
+                                                headers,
+                                                params ),
+                           res );
+        String r = res.extractContent();
+        assertTrue( r.indexOf( "asset2" ) > -1 );
+        assertTrue( r.indexOf( "asset2" ) < r.indexOf( "asset1" ) );
+        assertFalse( etag.equals( res.headers.get( "ETag" ) ) );
+
+        identity.logout();
+        credentials.clear();
+    }
+
     @Test
     public void testCategoryFeed() throws Exception {
 
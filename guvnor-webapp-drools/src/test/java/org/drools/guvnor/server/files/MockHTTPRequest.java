@@ -148,8 +148,9 @@ public class MockHTTPRequest implements HttpServletRequest {
         return null;
     }
 
-    public long getDateHeader(String arg0) {
-        return 0;
+    public long getDateHeader(String n) {
+        String v = headers.get(n);
+        return v == null ? -1 : Long.parseLong(v);
     }
 
     public String getHeader(String n) {
@@ -123,7 +123,8 @@ public class MockHTTPResponse implements HttpServletResponse {
     public void sendRedirect(String arg0) throws IOException {
     }
 
-    public void setDateHeader(String arg0, long arg1) {
+    public void setDateHeader(String k, long v) {
+        this.headers.put(k, String.valueOf(v));
     }
 
     public void setHeader(String k, String v) {
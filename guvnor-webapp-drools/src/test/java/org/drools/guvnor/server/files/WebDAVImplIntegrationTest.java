@@ -177,6 +177,48 @@ public class WebDAVImplIntegrationTest extends GuvnorIntegrationTest {
         assertNull( children );
     }
 
+    @Test
+    public void testChildrenFollowChanges() throws Exception {
+        ModuleItem pkg = rulesRepository.createModule( "testWebDavListingChanges",
+                                                       "" );
+        AssetItem asset = pkg.addAsset( "asset1",
+                                        "something" );
+        asset.updateFormat( "drl" );
+        asset.checkin( "" );
+
+        String[] children = webDAV.getChildrenNames( new TransactionMock(),
+                                                     "/packages/testWebDavListingChanges" );
+        assertEquals( 1,
+                      children.length );
+        assertEquals( 9,
+                      webDAV.getStoredObject( new TransactionMock(),
+                                              "/packages/testWebDavListingChanges/asset1.drl" ).getResourceLength() );
+
+        asset.updateContent( "something else" );
+        asset.checkin( "" );
+        asset = pkg.addAsset( "asset2",
+                              "something" );
+        asset.updateFormat( "dsl" );
+        asset.checkin( "" );
+
+        children = webDAV.getChildrenNames( new TransactionMock(),
+                                            "/packages/testWebDavListingChanges" );
+        assertEquals( 2,
+                      children.length );
+        assertEquals( "asset2.dsl",
+                      children[1] );
+        assertEquals( 14,
+                      webDAV.getStoredObject( new TransactionMock(),
+                                              "/packages/testWebDavListingChanges/asset1.drl" ).getResourceLength() );
+
+        asset.archiveItem( true );
+        asset.checkin( "" );
+        children = webDAV.getChildrenNames( new TransactionMock(),
+                                            "/packages/testWebDavListingChanges" );
+        assertEquals( 1,
+                      children.length );
+    }
+
     @Test
     public void testCreateFolder() throws Exception {
         String[] children = webDAV.getChildrenNames( new TransactionMock(),
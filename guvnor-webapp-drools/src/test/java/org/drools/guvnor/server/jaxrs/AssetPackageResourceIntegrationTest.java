@@ -46,6 +46,7 @@ import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import org.apache.abdera.model.Feed;
@@ -174,6 +175,32 @@ public class AssetPackageResourceIntegrationTest extends GuvnorIntegrationTest {
         assertEquals(totalAssets, document.getRoot().getEntries().size());
     }
 
+    @Test @RunAsClient
+    public void testGetAssetsAsAtomPaged(@ArquillianResource URL baseURL) throws Exception {
+        AbderaClient client = new AbderaClient(abdera);
+        client.addCredentials(baseURL.toExternalForm(), null, null,
+                new org.apache.commons.httpclient.UsernamePasswordCredentials("admin", "admin"));
+
+        RequestOptions options = client.getDefaultRequestOptions();
+        options.setAccept(MediaType.APPLICATION_ATOM_XML);
+
+        ClientResponse resp = client.get(new URL(baseURL, "rest/packages/restPackage1/assets?limit=2").toExternalForm(), options);
+        if (resp.getType() != ResponseType.SUCCESS){
+            fail("Couldn't retrieve assets-> "+resp.getStatus()+": "+resp.getStatusText());
+        }
+        Document<Feed> document = resp.getDocument();
+        assertEquals(2, document.getRoot().getEntries().size());
+        assertNotNull(document.getRoot().getLink("next"));
+
+        //The next link moves the offset on, keeping the other parameters
+        resp = client.get(document.getRoot().getLink("next").getHref().toString(), options);
+        if (resp.getType() != ResponseType.SUCCESS){
+            fail("Couldn't retrieve assets-> "+resp.getStatus()+": "+resp.getStatusText());
+        }
+        document = resp.getDocument();
+        assertEquals(Math.min(2, totalAssets - 2), document.getRoot().getEntries().size());
+    }
+
     @Test @RunAsClient
     public void testGetAssetsAsJaxB(@ArquillianResource URL baseURL) throws Exception {
         URL url = new URL(baseURL, "rest/packages/restPackage1/assets");
@@ -188,6 +215,36 @@ public class AssetPackageResourceIntegrationTest extends GuvnorIntegrationTest {
         //logger.log(LogLevel, getContent(connection));
     }
 
+    @Test @RunAsClient
+    public void testGetAssetsAsJaxBPaged(@ArquillianResource URL baseURL) throws Exception {
+        URL url = new URL(baseURL, "rest/packages/restPackage1/assets?limit=2");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_XML);
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+
+        //The next link moves the offset on, keeping the other parameters
+        String link = connection.getHeaderField("Link");
+        assertNotNull(link);
+        assertTrue(link.endsWith("; rel=\"next\""));
+        assertTrue(link.contains("offset=2"));
+        assertTrue(link.contains("limit=2"));
+
+        //Without a limit every asset fits the first page
+        url = new URL(baseURL, "rest/packages/restPackage1/assets");
+        connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_XML);
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+        assertNull(connection.getHeaderField("Link"));
+    }
+
     @Test @RunAsClient
      public void testGetAssetsAsJson(@ArquillianResource URL baseURL) throws Exception {
         URL url = new URL(baseURL, "rest/packages/restPackage1/assets");
@@ -536,6 +593,104 @@ public class AssetPackageResourceIntegrationTest extends GuvnorIntegrationTest {
         //logger.log(LogLevel, getContent(connection));
     }
 
+    @Test @RunAsClient
+    public void testGetAssetSources(@ArquillianResource URL baseURL) throws Exception {
+        URL url = new URL(baseURL, "rest/packages/restPackage1/batch/source?name=rule1&name=func");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("multipart/mixed"));
+        String result = IOUtils.toString(connection.getInputStream());
+        assertTrue(result.indexOf("filename=\"rule1\"") < result.indexOf("filename=\"func\""));
+        assertTrue(result.indexOf("X-Asset-Format: " + AssetFormats.FUNCTION)>=0);
+        assertTrue(result.indexOf("function void foo()")>=0);
+    }
+
+    @Test @RunAsClient
+    public void testGetAssetSourcesWithBinaryAsset(@ArquillianResource URL baseURL) throws Exception {
+        URL url = new URL(baseURL, "rest/packages/restPackage1/batch/source?name=model1&name=func");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+        String result = IOUtils.toString(connection.getInputStream(), "ISO-8859-1");
+        int model1 = result.indexOf("filename=\"model1\"");
+        int func = result.indexOf("filename=\"func\"");
+        assertTrue(model1 >= 0 && model1 < func);
+        assertTrue(result.lastIndexOf("Content-Type: application/octet-stream", model1) >= 0);
+        int funcType = result.indexOf("Content-Type: text/plain", model1);
+        assertTrue(funcType > model1 && funcType < func);
+    }
+
+    @Test @RunAsClient
+    public void testApplyAssetChanges(@ArquillianResource URL baseURL) throws Exception {
+        URL url = new URL(baseURL, "rest/packages/restPackage1/batch");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", MediaType.APPLICATION_XML);
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_XML);
+        connection.setDoOutput(true);
+        String changes = "<assetChanges>"
+                + "<asset><name>rule4</name><content>rule 'foo 2' when Goo2() then end</content></asset>"
+                + "<asset><name></name></asset>"
+                + "</assetChanges>";
+        connection.getOutputStream().write(changes.getBytes("UTF-8"));
+        assertEquals (200, connection.getResponseCode());
+        String result = IOUtils.toString(connection.getInputStream());
+        assertTrue(result.indexOf("<status>updated</status>") < result.indexOf("<status>failed</status>"));
+
+        url = new URL(baseURL, "rest/packages/restPackage1/assets/rule4/source");
+        connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Accept", MediaType.TEXT_PLAIN);
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+        assertTrue(IOUtils.toString(connection.getInputStream()).indexOf("Goo2()")>=0);
+    }
+
+    @Test @RunAsClient
+    public void testApplyAssetChangesWithBinaryContent(@ArquillianResource URL baseURL) throws Exception {
+        byte[] bytes = new byte[]{0, 1, 2, (byte) 0xfe, (byte) 0xff};
+        URL url = new URL(baseURL, "rest/packages/restPackage1/batch");
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", MediaType.APPLICATION_XML);
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_XML);
+        connection.setDoOutput(true);
+        String changes = "<assetChanges>"
+                + "<asset><name>batchBinary1</name><format>jar</format>"
+                + "<binaryContent>" + new Base64().encodeToString(bytes) + "</binaryContent>"
+                + "<attachmentFileName>batchBinary1.jar</attachmentFileName></asset>"
+                + "<asset><name>batchBinary2</name><content>text</content>"
+                + "<binaryContent>" + new Base64().encodeToString(bytes) + "</binaryContent></asset>"
+                + "</assetChanges>";
+        connection.getOutputStream().write(changes.getBytes("UTF-8"));
+        assertEquals (200, connection.getResponseCode());
+        String result = IOUtils.toString(connection.getInputStream());
+        assertTrue(result.indexOf("<status>created</status>") < result.indexOf("<status>failed</status>"));
+
+        url = new URL(baseURL, "rest/packages/restPackage1/assets/batchBinary1/binary");
+        connection = (HttpURLConnection)url.openConnection();
+        connection.setRequestProperty("Authorization",
+                "Basic " + new Base64().encodeToString(( "admin:admin".getBytes() )));
+        connection.setRequestMethod("GET");
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_OCTET_STREAM);
+        connection.connect();
+        assertEquals (200, connection.getResponseCode());
+        assertTrue(Arrays.equals(bytes, IOUtils.toByteArray(connection.getInputStream())));
+    }
+
     @Test @RunAsClient
     public void testCreateAssetFromAtom(@ArquillianResource URL baseURL) throws Exception {        
         //Check there is no model1-New asset
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.jaxrs;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.drools.guvnor.server.ServiceSecurity;
+import org.drools.guvnor.server.security.RoleBasedPermission;
+import org.drools.guvnor.server.security.RoleBasedPermissionManager;
+import org.drools.guvnor.server.security.RoleBasedPermissionResolver;
+import org.drools.guvnor.server.security.RoleBasedPermissionStore;
+import org.drools.guvnor.server.security.RoleType;
+import org.drools.guvnor.server.test.GuvnorIntegrationTest;
+import org.drools.repository.ChangeJournalEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChangeJournalSecurityIntegrationTest extends GuvnorIntegrationTest {
+
+    private static final String USER_NAME = "changeJournalSecurityUser";
+
+    @Inject
+    private RoleBasedPermissionStore roleBasedPermissionStore;
+
+    @Inject
+    private RoleBasedPermissionManager roleBasedPermissionManager;
+
+    @Inject
+    private RoleBasedPermissionResolver roleBasedPermissionResolver;
+
+    @Inject
+    private ServiceSecurity serviceSecurity;
+
+    public ChangeJournalSecurityIntegrationTest() {
+        autoLoginAsAdmin = false;
+    }
+
+    @Before
+    public void loginAsSpecificUser() {
+        loginAs(USER_NAME);
+    }
+
+    @After
+    public void logoutAsSpecificUser() {
+        logoutAs(USER_NAME);
+    }
+
+    @Test
+    public void testChangesToAnotherPackageAreNotSeen() throws Exception {
+        rulesRepository.createModule("changeJournalSecurityReadable", "desc");
+        rulesRepository.createModule("changeJournalSecurityHidden", "desc");
+
+        roleBasedPermissionResolver.setEnableRoleBasedAuthorization(true);
+        roleBasedPermissionStore.addRoleBasedPermissionForTesting(USER_NAME, new RoleBasedPermission(USER_NAME,
+                RoleType.PACKAGE_READONLY.getName(),
+                "changeJournalSecurityReadable",
+                null));
+        roleBasedPermissionManager.create(); // HACK flushes the permission cache
+
+        try {
+            List<ChangeJournalEntry> changes = new ArrayList<ChangeJournalEntry>();
+            changes.add(createDelete(1, "changeJournalSecurityReadable"));
+            changes.add(createDelete(2, "changeJournalSecurityHidden"));
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new ChangeJournalOutput(changes.iterator(), 0, -1, null, serviceSecurity).write(output);
+            String xml = output.toString("UTF-8");
+
+            assertTrue(xml.contains("packageName=\"changeJournalSecurityReadable\""));
+            assertFalse(xml.contains("packageName=\"changeJournalSecurityHidden\""));
+        } finally {
+            roleBasedPermissionStore.clearAllRoleBasedPermissionsForTesting(USER_NAME);
+            roleBasedPermissionResolver.setEnableRoleBasedAuthorization(false);
+        }
+    }
+
+    private ChangeJournalEntry createDelete(long sequence, String packageName) {
+        ChangeJournalEntry change = new ChangeJournalEntry();
+        change.setSequence(sequence);
+        change.setType(ChangeJournalEntry.Type.DELETE);
+        change.setUuid("uuid" + sequence);
+        change.setName("asset" + sequence);
+        change.setModuleName(packageName);
+        return change;
+    }
+
+}
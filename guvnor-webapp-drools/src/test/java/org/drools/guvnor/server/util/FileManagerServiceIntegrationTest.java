@@ -19,6 +19,7 @@ package org.drools.guvnor.server.util;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -31,6 +32,8 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.inject.Inject;
 
@@ -38,6 +41,7 @@ import org.apache.commons.fileupload.FileItem;
 import org.drools.guvnor.client.common.AssetFormats;
 import org.drools.guvnor.client.common.Snapshot;
 import org.drools.guvnor.server.test.GuvnorIntegrationTest;
+import org.drools.guvnor.server.files.BulkImportResult;
 import org.drools.guvnor.server.files.FileManagerService;
 import org.drools.repository.AssetItem;
 import org.drools.repository.ModuleItem;
@@ -337,6 +341,129 @@ public class FileManagerServiceIntegrationTest extends GuvnorIntegrationTest {
 
     }
 
+    @Test
+    public void testClassicDRLArchiveImport() throws Exception {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zout = new ZipOutputStream( bout );
+        zout.putNextEntry( new ZipEntry( "one.drl" ) );
+        zout.write( "package testClassicDRLArchiveImport\n import blah \n rule 'ola' \n when \n then \n end".getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "readme.txt" ) );
+        zout.write( "not imported".getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "two.drl" ) );
+        zout.write( "package testClassicDRLArchiveImport\n rule 'hola' \n when \n then \n end".getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "again.drl" ) );
+        zout.write( "package testClassicDRLArchiveImport\n rule 'ola' \n when \n then \n end".getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "nopackage.drl" ) );
+        zout.write( "rule 'x' \n when \n then \n end".getBytes() );
+        zout.closeEntry();
+        zout.finish();
+
+        BulkImportResult result = fileManagerService.importClassicDRLArchive( new ByteArrayInputStream( bout.toByteArray() ),
+                                                                              null,
+                                                                              false );
+
+        assertEquals( 4,
+                      result.getFiles().size() );
+        assertEquals( 2,
+                      result.getAssetCount() );
+        assertEquals( 2,
+                      result.getErrorCount() );
+        assertEquals( "one.drl",
+                      result.getFiles().get( 0 ).getFileName() );
+        assertNull( result.getFiles().get( 1 ).getError() );
+        assertEquals( "Asset ola is also in one.drl.",
+                      result.getFiles().get( 2 ).getError() );
+        assertEquals( "Missing package name.",
+                      result.getFiles().get( 3 ).getError() );
+
+        ModuleItem pkg = rulesRepository.loadModule( "testClassicDRLArchiveImport" );
+        assertTrue( pkg.containsAsset( "ola" ) );
+        assertTrue( pkg.containsAsset( "hola" ) );
+        assertFalse( pkg.isBinaryUpToDate() );
+        assertTrue( DroolsHeader.getDroolsHeader( pkg ).indexOf( "import blah" ) > -1 );
+    }
+
+    @Test
+    public void testClassicDRLArchiveImportFailedFile() throws Exception {
+        BulkImportResult result = fileManagerService.importClassicDRLArchive( new ByteArrayInputStream( failingArchive( "testClassicDRLArchiveImportFailedFile" ) ),
+                                                                              null,
+                                                                              false );
+
+        assertEquals( 3,
+                      result.getFiles().size() );
+        assertEquals( 1,
+                      result.getErrorCount() );
+        assertNull( result.getFiles().get( 0 ).getError() );
+        assertNotNull( result.getFiles().get( 1 ).getError() );
+
+        //The asset checked in before the failure is kept, and a later file may update it
+        assertEquals( 1,
+                      result.getFiles().get( 1 ).getCreated() );
+        assertNull( result.getFiles().get( 2 ).getError() );
+        assertEquals( 1,
+                      result.getFiles().get( 2 ).getUpdated() );
+
+        ModuleItem pkg = rulesRepository.loadModule( "testClassicDRLArchiveImportFailedFile" );
+        assertTrue( pkg.containsAsset( "ola" ) );
+        assertTrue( pkg.containsAsset( "hola" ) );
+        assertTrue( pkg.loadAsset( "hola" ).getContent().indexOf( "three" ) > -1 );
+        assertFalse( pkg.isBinaryUpToDate() );
+    }
+
+    @Test
+    public void testClassicDRLArchiveImportFailedFileWithoutVersions() throws Exception {
+        System.setProperty( "drools.createNewVersionOnImport",
+                            "false" );
+        BulkImportResult result;
+        try {
+            result = fileManagerService.importClassicDRLArchive( new ByteArrayInputStream( failingArchive( "testClassicDRLArchiveImportFailedFileWithoutVersions" ) ),
+                                                                 null,
+                                                                 false );
+        } finally {
+            System.clearProperty( "drools.createNewVersionOnImport" );
+        }
+
+        assertEquals( 1,
+                      result.getErrorCount() );
+        assertEquals( 0,
+                      result.getFiles().get( 1 ).getAssetCount() );
+
+        //Nothing of the failed file is left, so the later file creates the asset again
+        assertEquals( 1,
+                      result.getFiles().get( 2 ).getCreated() );
+        assertEquals( 2,
+                      result.getAssetCount() );
+
+        ModuleItem pkg = rulesRepository.loadModule( "testClassicDRLArchiveImportFailedFileWithoutVersions" );
+        assertTrue( pkg.containsAsset( "ola" ) );
+        assertTrue( pkg.loadAsset( "ola" ).getContent().indexOf( "when" ) > -1 );
+        assertTrue( pkg.loadAsset( "hola" ).getContent().indexOf( "three" ) > -1 );
+    }
+
+    /**
+     * The second file fails when its second rule is written, as ".." can not
+     * name a node.
+     */
+    private byte[] failingArchive(String packageName) throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        ZipOutputStream zout = new ZipOutputStream( bout );
+        zout.putNextEntry( new ZipEntry( "one.drl" ) );
+        zout.write( ("package " + packageName + "\n rule 'ola' \n when \n then \n end").getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "two.drl" ) );
+        zout.write( ("package " + packageName + "\n rule 'hola' \n when \n then \n end \n rule '..' \n when \n then \n end").getBytes() );
+        zout.closeEntry();
+        zout.putNextEntry( new ZipEntry( "three.drl" ) );
+        zout.write( ("package " + packageName + "\n rule 'hola' \n when \n then \n //three \n end").getBytes() );
+        zout.closeEntry();
+        zout.finish();
+        return bout.toByteArray();
+    }
+
     @Test
     public void testDRLImportWithoutPackageName() throws Exception {
         String drl = "import blah \n rule 'ola' \n when \n then \n end \n rule 'hola' \n when \n then \n end";
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.drools.guvnor.server.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.drools.decisiontable.parser.xls.ExcelParser;
+import org.drools.template.parser.DataListener;
+import org.junit.Test;
+
+public class StreamingExcelParserTest {
+
+    @Test
+    public void testEventsMatchExcelParser() {
+        assertSameEvents( "/org/drools/guvnor/server/builder/drools/SampleDecisionTable.xls" );
+        assertSameEvents( "/org/drools/guvnor/server/builder/drools/EmptyDecisionTable.xls" );
+        assertSameEvents( "/org/drools/guvnor/server/converters/decisiontable/MultipleRuleTables.xls" );
+        assertSameEvents( "/org/drools/guvnor/server/converters/decisiontable/Attributes.xls" );
+        assertSameEvents( "/org/drools/guvnor/server/converters/decisiontable/Properties.xls" );
+        assertSameEvents( "/org/drools/guvnor/server/converters/decisiontable/SequentialSalience.xls" );
+    }
+
+    private void assertSameEvents(String resource) {
+        final RecordingListener expected = new RecordingListener();
+        final List<DataListener> expectedListeners = new ArrayList<DataListener>();
+        expectedListeners.add( expected );
+        new ExcelParser( expectedListeners ).parseFile( getResource( resource ) );
+
+        final RecordingListener actual = new RecordingListener();
+        new StreamingExcelParser( actual ).parseFile( getResource( resource ) );
+
+        assertFalse( expected.events.isEmpty() );
+        assertEquals( resource,
+                      expected.events,
+                      actual.events );
+    }
+
+    private InputStream getResource(String resource) {
+        return getClass().getResourceAsStream( resource );
+    }
+
+    private static class RecordingListener
+        implements
+        DataListener {
+
+        private final List<String> events = new ArrayList<String>();
+
+        public void startSheet(String name) {
+        }
+
+        public void finishSheet() {
+            events.add( "finishSheet" );
+        }
+
+        public void newRow(int rowNumber,
+                           int columns) {
+            events.add( "newRow " + rowNumber );
+        }
+
+        public void newCell(int row,
+                            int column,
+                            String value,
+                            int mergedColStart) {
+            events.add( "newCell " + row + "," + column + "=" + value + " (" + mergedColStart + ")" );
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2012 JBoss Inc
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.drools.guvnor.server.verification;
+
+import org.drools.guvnor.client.common.AssetFormats;
+import org.drools.guvnor.client.rpc.AnalysisJobStatus;
+import org.drools.guvnor.client.rpc.AnalysisReport;
+import org.drools.repository.AssetItemIterator;
+import org.drools.repository.ModuleItem;
+import org.drools.verifier.Verifier;
+import org.drools.verifier.data.VerifierData;
+import org.drools.verifier.data.VerifierReport;
+import org.drools.verifier.report.components.Severity;
+import org.drools.verifier.report.components.VerifierMessageBase;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class VerificationJobManagerTest {
+
+    @Test
+    public void testJobStatusReportsProgressAndResult() {
+        VerificationJobManager.VerificationJob job = new VerificationJobManager.VerificationJob( "job1",
+                                                                                                 "moduleUUID",
+                                                                                                 "admin" );
+        AnalysisJobStatus status = job.toStatus();
+        assertEquals( AnalysisJobStatus.QUEUED,
+                      status.state );
+        assertFalse( status.isDone() );
+        assertEquals( 0,
+                      status.resourceTypes.length );
+
+        job.setState( AnalysisJobStatus.RUNNING );
+        job.resourcesAdded( AssetFormats.DSL,
+                            2 );
+        job.resourcesAdded( AssetFormats.DRL,
+                            5 );
+
+        status = job.toStatus();
+        assertEquals( AnalysisJobStatus.RUNNING,
+                      status.state );
+        assertArrayEquals( new String[]{AssetFormats.DSL, AssetFormats.DRL},
+                           status.resourceTypes );
+        assertArrayEquals( new int[]{2, 5},
+                           status.resourceCounts );
+        assertNull( status.report );
+
+        AnalysisReport report = new AnalysisReport();
+        job.finish( report );
+
+        status = job.toStatus();
+        assertTrue( status.isDone() );
+        assertSame( report,
+                    status.report );
+        assertFalse( job.isExpired( System.currentTimeMillis() ) );
+        assertTrue( job.isExpired( System.currentTimeMillis() + 60 * 60 * 1000 ) );
+    }
+
+    @Test
+    public void testFailedJob() {
+        VerificationJobManager.VerificationJob job = new VerificationJobManager.VerificationJob( "job1",
+                                                                                                 "moduleUUID",
+                                                                                                 "admin" );
+        job.fail( "Verifier Errors" );
+
+        AnalysisJobStatus status = job.toStatus();
+        assertEquals( AnalysisJobStatus.FAILED,
+                      status.state );
+        assertTrue( status.isDone() );
+        assertEquals( "Verifier Errors",
+                      status.errorMessage );
+    }
+
+    @Test
+    public void testVerifierRunnerReportsEachResourceType() {
+        ModuleItem packageItem = mock( ModuleItem.class );
+        when( packageItem.getName() ).thenReturn( "mockPackage" );
+        AssetItemIterator assetItemIterator = mock( AssetItemIterator.class );
+        when( assetItemIterator.hasNext() ).thenReturn( false );
+        when( packageItem.listAssetsByFormat( Matchers.<String>anyVararg() ) ).thenReturn( assetItemIterator );
+
+        final List<String> reported = new ArrayList<String>();
+        PackageVerifier packageVerifier = new PackageVerifier( createVerifier(),
+                                                               packageItem );
+        packageVerifier.setProgressListener( new VerifierProgressListener() {
+            public void resourcesAdded(String resourceType,
+                                       int count) {
+                assertEquals( 0,
+                              count );
+                reported.add( resourceType );
+            }
+        } );
+
+        assertNotNull( packageVerifier.verify() );
+        assertTrue( reported.contains( AssetFormats.DSL ) );
+        assertTrue( reported.contains( AssetFormats.DECISION_TABLE_GUIDED ) );
+        assertEquals( AssetFormats.BUSINESS_RULE,
+                      reported.get( reported.size() - 1 ) );
+    }
+
+    private Verifier createVerifier() {
+        Verifier verifier = mock( Verifier.class );
+        VerifierReport report = mock( VerifierReport.class );
+        when( report.getBySeverity( Matchers.<Severity>any() ) ).thenReturn( Collections.<VerifierMessageBase>emptyList() );
+        when( report.getVerifierData() ).thenReturn( mock( VerifierData.class ) );
+        when( verifier.getResult() ).thenReturn( report );
+        return verifier;
+    }
+
+}